@@ -0,0 +1,56 @@
+package com.banking.benchmarks;
+
+import com.banking.transaction.cache.AccountMetadataCache;
+import com.banking.transaction.dto.AccountCreateRequest;
+import com.banking.transaction.entity.Account;
+import com.banking.transaction.repository.AccountRepository;
+import com.banking.transaction.service.AccountServiceImpl;
+import com.banking.transaction.timing.StageTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opening an account through {@link AccountServiceImpl#createAccount}, which is mostly drawing the 24 IBAN
+ * digits from the shared {@link java.security.SecureRandom}. Run with {@code -t 4} to see how the shared
+ * generator behaves under concurrent account openings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountCreationBenchmark {
+
+    private AccountServiceImpl accountService;
+    private AccountCreateRequest request;
+
+    @Setup
+    public void setUp() {
+        AccountRepository accountRepository = InMemoryRepositories.accounts(List.of());
+        accountService = new AccountServiceImpl(accountRepository, InMemoryRepositories.ledger(),
+                new AccountMetadataCache(accountRepository, null, new SimpleMeterRegistry(), 1_000,
+                        Duration.ofMinutes(10), "account-metadata-invalidations"),
+                new StageTimer(new SimpleMeterRegistry(), null, false));
+        request = new AccountCreateRequest();
+        request.setCurrency("TRY");
+    }
+
+    @Benchmark
+    public Account createAccount() {
+        return accountService.createAccount(request, 1L);
+    }
+}
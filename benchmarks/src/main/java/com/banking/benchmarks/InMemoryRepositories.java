@@ -0,0 +1,103 @@
+package com.banking.benchmarks;
+
+import com.banking.transaction.entity.Account;
+import com.banking.transaction.entity.Outbox;
+import com.banking.transaction.entity.TransactionLedger;
+import com.banking.transaction.repository.AccountRepository;
+import com.banking.transaction.repository.FxRateRepository;
+import com.banking.transaction.repository.IdempotencyKeyRepository;
+import com.banking.transaction.repository.OutboxRepository;
+import com.banking.transaction.repository.TransactionLedgerRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Stand-ins for the Spring Data repositories the transfer path calls, so that a benchmark measures the service
+ * code and not a database. Only the methods that path uses are implemented; anything else throws.
+ * <p>
+ * Writes get an id and are otherwise dropped, so the heap does not grow with the number of iterations. The
+ * accounts given to {@link #accounts} are updated in place by the services, like managed entities.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    static AccountRepository accounts(Collection<Account> accounts) {
+        AtomicLong ids = new AtomicLong(1_000_000);
+        Map<Long, Account> byId = new ConcurrentHashMap<>();
+        Map<String, Account> byIban = new ConcurrentHashMap<>();
+        for (Account account : accounts) {
+            byId.put(account.getId(), account);
+            byIban.put(account.getIban(), account);
+        }
+        return repository(AccountRepository.class, Map.of(
+                "findById", args -> Optional.ofNullable(byId.get((Long) args[0])),
+                "findByIban", args -> Optional.ofNullable(byIban.get((String) args[0])),
+                "findByIbanForUpdate", args -> Optional.ofNullable(byIban.get((String) args[0])),
+                "save", args -> {
+                    Account account = (Account) args[0];
+                    if (account.getId() == null) {
+                        account.setId(ids.incrementAndGet());
+                    }
+                    return account;
+                }));
+    }
+
+    static TransactionLedgerRepository ledger() {
+        AtomicLong ids = new AtomicLong();
+        return repository(TransactionLedgerRepository.class, Map.of(
+                "save", args -> {
+                    TransactionLedger entry = (TransactionLedger) args[0];
+                    entry.setId(ids.incrementAndGet());
+                    return entry;
+                }));
+    }
+
+    static OutboxRepository outbox() {
+        AtomicLong ids = new AtomicLong();
+        return repository(OutboxRepository.class, Map.of(
+                "save", args -> {
+                    Outbox message = (Outbox) args[0];
+                    message.setId(ids.incrementAndGet());
+                    return message;
+                }));
+    }
+
+    /**
+     * Finds nothing, so a correlation id is only ever replayed from the service's cache of recent outcomes.
+     */
+    static IdempotencyKeyRepository idempotencyKeys() {
+        return repository(IdempotencyKeyRepository.class, Map.of(
+                "findById", args -> Optional.empty(),
+                "saveAll", args -> args[0]));
+    }
+
+    static FxRateRepository fxRates() {
+        return repository(FxRateRepository.class, Map.of(
+                "findAll", args -> List.of()));
+    }
+
+    private static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            Function<Object[], Object> implementation = methods.get(method.getName());
+            if (implementation != null) {
+                return implementation.apply(args);
+            }
+            return switch (method.getName()) {
+                case "equals" -> self == args[0];
+                case "hashCode" -> System.identityHashCode(self);
+                case "toString" -> "InMemory" + type.getSimpleName();
+                default -> throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            };
+        });
+        return type.cast(proxy);
+    }
+}
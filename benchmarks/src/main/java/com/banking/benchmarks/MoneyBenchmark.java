@@ -0,0 +1,88 @@
+package com.banking.benchmarks;
+
+import com.banking.common.money.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The balance arithmetic of one transfer: compare the amount with the sender's balance, debit the sender,
+ * credit the receiver and negate the amount for the debit ledger row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private BigDecimal senderBalance = new BigDecimal("15230.45");
+    private BigDecimal receiverBalance = new BigDecimal("820.10");
+    private BigDecimal amount = new BigDecimal("125.75");
+
+    private Money senderMoney = Money.of(senderBalance, "TRY");
+    private Money receiverMoney = Money.of(receiverBalance, "TRY");
+    private Money amountMoney = Money.of(amount, "TRY");
+
+    @Benchmark
+    public void bigDecimal(Blackhole blackhole) {
+        if (senderBalance.compareTo(amount) < 0) {
+            throw new IllegalStateException();
+        }
+        blackhole.consume(senderBalance.subtract(amount));
+        blackhole.consume(receiverBalance.add(amount));
+        blackhole.consume(amount.negate());
+    }
+
+    @Benchmark
+    public void money(Blackhole blackhole) {
+        if (senderMoney.isLessThan(amountMoney)) {
+            throw new IllegalStateException();
+        }
+        blackhole.consume(senderMoney.minus(amountMoney));
+        blackhole.consume(receiverMoney.plus(amountMoney));
+        blackhole.consume(amountMoney.negate());
+    }
+
+    /**
+     * Balances converted to {@link Money} and back, as they arrive from and go back to the {@code numeric}
+     * columns.
+     */
+    @Benchmark
+    public void moneyFromAndToBigDecimal(Blackhole blackhole) {
+        Money amount = Money.of(this.amount, "TRY");
+        Money sender = Money.of(senderBalance, "TRY");
+        if (sender.isLessThan(amount)) {
+            throw new IllegalStateException();
+        }
+        blackhole.consume(sender.minus(amount).toBigDecimal());
+        blackhole.consume(Money.of(receiverBalance, "TRY").plus(amount).toBigDecimal());
+        blackhole.consume(amount.negate().toBigDecimal());
+    }
+
+    /**
+     * What the transfer path does: the amount is checked against the currency as {@link Money} once, and the
+     * balances stay {@link BigDecimal}.
+     */
+    @Benchmark
+    public void moneyAmountBigDecimalBalances(Blackhole blackhole) {
+        BigDecimal amount = Money.of(this.amount, "TRY").toBigDecimal();
+        if (senderBalance.compareTo(amount) < 0) {
+            throw new IllegalStateException();
+        }
+        blackhole.consume(senderBalance.subtract(amount));
+        blackhole.consume(receiverBalance.add(amount));
+        blackhole.consume(amount.negate());
+    }
+}
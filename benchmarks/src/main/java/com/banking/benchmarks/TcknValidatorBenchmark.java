@@ -0,0 +1,38 @@
+package com.banking.benchmarks;
+
+import com.banking.common.util.TCKNValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validating the national id of a registering user, for a valid id, one failing the checksum and one that is
+ * not all digits.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TcknValidatorBenchmark {
+
+    @Param({"10000000146", "10000000147", "1000000014A"})
+    private String tckn;
+
+    private final TCKNValidator validator = new TCKNValidator();
+
+    @Benchmark
+    public boolean isValid() {
+        return validator.isValid(tckn, null);
+    }
+}
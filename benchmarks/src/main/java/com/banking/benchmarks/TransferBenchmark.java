@@ -0,0 +1,149 @@
+package com.banking.benchmarks;
+
+import com.banking.transaction.cache.AccountMetadataCache;
+import com.banking.transaction.dto.TransactionRequest;
+import com.banking.transaction.dto.TransferResult;
+import com.banking.transaction.entity.Account;
+import com.banking.transaction.entity.AccountStatus;
+import com.banking.transaction.entity.FxRate;
+import com.banking.transaction.fraud.FraudProperties;
+import com.banking.transaction.fraud.FraudScreeningService;
+import com.banking.transaction.fraud.RuleBasedTransferScorer;
+import com.banking.transaction.fraud.TransferFeatureStore;
+import com.banking.transaction.fx.FxRateService;
+import com.banking.transaction.fx.FxRateSnapshot;
+import com.banking.transaction.idempotency.IdempotencyService;
+import com.banking.transaction.limits.TransferLimitProperties;
+import com.banking.transaction.limits.TransferLimitService;
+import com.banking.transaction.repository.AccountRepository;
+import com.banking.transaction.service.LockingStrategy;
+import com.banking.transaction.service.TransactionService;
+import com.banking.transaction.timing.StageTimer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One transfer through {@link TransactionService#executeTransaction} with the repositories replaced by
+ * {@link InMemoryRepositories}: the idempotency lookup, the account metadata cache, currency conversion,
+ * optional fraud screening, the balance arithmetic, building the ledger rows and serializing the outbox event.
+ * What is left out is everything the database and Hibernate add, which the benchmark tests in
+ * transaction-service measure against PostgreSQL.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransferBenchmark {
+
+    private static final String SENDER_IBAN = "TR000000000000000000000001";
+    private static final String RECEIVER_IBAN = "TR000000000000000000000002";
+    private static final long USER_ID = 1L;
+
+    @Param({"TRY", "USD"})
+    private String receiverCurrency;
+
+    @Param({"false", "true"})
+    private boolean fraudScreening;
+
+    // What the transaction.stage timers add to a transfer when transaction.timing.enabled is set
+    @Param({"false", "true"})
+    private boolean stageTiming;
+
+    private FraudScreeningService fraudScreeningService;
+    private TransactionService transactionService;
+    private TransactionRequest request;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        // Enough for every iteration to send without running out of funds
+        AccountRepository accountRepository = InMemoryRepositories.accounts(List.of(
+                account(1L, SENDER_IBAN, USER_ID, "TRY", "1000000000000.00"),
+                account(2L, RECEIVER_IBAN, 2L, receiverCurrency, "0.00")));
+        AccountMetadataCache accountMetadataCache = new AccountMetadataCache(accountRepository, null, meterRegistry,
+                1_000, Duration.ofMinutes(10), "account-metadata-invalidations");
+
+        FxRateService fxRateService = new FxRateService(InMemoryRepositories.fxRates(), meterRegistry);
+        fxRateService.update(FxRateSnapshot.of(List.of(FxRate.builder()
+                .baseCurrency("USD")
+                .quoteCurrency("TRY")
+                .rate(new BigDecimal("32.50000000"))
+                .build()), LocalDateTime.now()));
+
+        FraudProperties fraudProperties = new FraudProperties();
+        fraudProperties.setEnabled(fraudScreening);
+        fraudScreeningService = new FraudScreeningService(new TransferFeatureStore(fraudProperties, meterRegistry),
+                new RuleBasedTransferScorer(fraudProperties), fxRateService, fraudProperties, meterRegistry);
+
+        IdempotencyService idempotencyService = new IdempotencyService(InMemoryRepositories.idempotencyKeys(), null, null,
+                objectMapper, meterRegistry, 10_000_000, 0.01, 100_000, Duration.ofHours(24),
+                Duration.ofDays(30));
+
+        transactionService = new TransactionService(accountRepository, accountMetadataCache, InMemoryRepositories.ledger(),
+                InMemoryRepositories.outbox(), idempotencyService, objectMapper, fxRateService,
+                new TransferLimitService(null, fxRateService, new TransferLimitProperties(), meterRegistry),
+                fraudScreeningService, meterRegistry, new StageTimer(meterRegistry, null, stageTiming),
+                LockingStrategy.OPTIMISTIC);
+
+        request = new TransactionRequest();
+        request.setFromIban(SENDER_IBAN);
+        request.setToIban(RECEIVER_IBAN);
+        request.setAmount(new BigDecimal("12.50"));
+        transactionService.executeTransaction(request, "replayed", USER_ID);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fraudScreeningService.destroy();
+    }
+
+    @Benchmark
+    public TransferResult transfer() {
+        return transactionService.executeTransaction(request, "transfer-" + sequence++, USER_ID);
+    }
+
+    /**
+     * A retried request, answered from the idempotency cache without touching an account.
+     */
+    @Benchmark
+    public TransferResult replayedTransfer() {
+        return transactionService.executeTransaction(request, "replayed", USER_ID);
+    }
+
+    private static Account account(Long id, String iban, Long userId, String currency, String balance) {
+        Account account = new Account();
+        account.setId(id);
+        account.setIban(iban);
+        account.setUserId(userId);
+        account.setCurrency(currency);
+        account.setBalance(new BigDecimal(balance));
+        account.setStatus(AccountStatus.ACTIVE);
+        account.setVersion(0L);
+        return account;
+    }
+}
@@ -0,0 +1,64 @@
+package com.banking.benchmarks;
+
+import com.banking.transaction.dto.TransferResult;
+import com.banking.transaction.dto.TransferSuccessEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The JSON every transfer writes: the {@link TransferSuccessEvent} outbox payload, and the
+ * {@link TransferResult} stored as the idempotency outcome and read back when a request is retried. Uses an
+ * {@link ObjectMapper} configured like the one Spring Boot gives the services.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransferEventSerializationBenchmark {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final TransferSuccessEvent event = new TransferSuccessEvent(42L, new BigDecimal("125.75"), "TR330006100519786457841326");
+    private final TransferResult result = new TransferResult("3f1c2a7e-5b1d-4e8a-9c0f-2d6b7a8e9f10", "TR120006200519786457841326",
+            "TR330006100519786457841326", new BigDecimal("125.75"), LocalDateTime.of(2026, 3, 10, 14, 30, 15), false);
+    private final String resultJson;
+
+    public TransferEventSerializationBenchmark() {
+        try {
+            resultJson = objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public String serializeEvent() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(event);
+    }
+
+    @Benchmark
+    public String serializeResult() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(result);
+    }
+
+    @Benchmark
+    public TransferResult deserializeResult() throws JsonProcessingException {
+        return objectMapper.readValue(resultJson, TransferResult.class);
+    }
+}
@@ -0,0 +1,153 @@
+package com.banking.common.money;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An amount of money held as a {@code long} of minor units (kuruş, cents) plus an ISO 4217 currency code.
+ * Arithmetic is exact and overflow-checked, and unlike {@link BigDecimal} none of it allocates beyond the
+ * result itself.
+ * <p>
+ * Serialized to JSON as {@code {"amount": 12.50, "currency": "TRY"}}.
+ */
+public final class Money implements Comparable<Money> {
+
+    /**
+     * Largest number of fraction digits of any supported currency; amounts with more can never be valid.
+     */
+    public static final int MAX_FRACTION_DIGITS = 3;
+
+    private static final ConcurrentMap<String, Integer> FRACTION_DIGITS = new ConcurrentHashMap<>();
+
+    private final long minorUnits;
+    private final String currency;
+
+    private Money(long minorUnits, String currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    public static Money ofMinor(long minorUnits, String currency) {
+        fractionDigits(currency);
+        return new Money(minorUnits, currency);
+    }
+
+    public static Money zero(String currency) {
+        return ofMinor(0, currency);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the amount has more fraction digits than the currency allows or
+     *                                  does not fit into a {@code long} of minor units
+     */
+    @JsonCreator
+    public static Money of(@JsonProperty("amount") BigDecimal amount, @JsonProperty("currency") String currency) {
+        Objects.requireNonNull(amount, "amount");
+        int digits = fractionDigits(currency);
+        if (amount.scale() > digits && amount.stripTrailingZeros().scale() > digits) {
+            throw new IllegalArgumentException("Amount " + amount.toPlainString() + " has more than " + digits
+                    + " fraction digits allowed for " + currency);
+        }
+        try {
+            return new Money(amount.movePointRight(digits).longValueExact(), currency);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + amount.toPlainString() + " is out of range", e);
+        }
+    }
+
+    /**
+     * Number of minor units in one major unit of the currency, as an exponent of ten.
+     *
+     * @throws IllegalArgumentException if the code is not an ISO 4217 currency with a fixed number of minor units
+     */
+    public static int fractionDigits(String currency) {
+        Objects.requireNonNull(currency, "currency");
+        Integer digits = FRACTION_DIGITS.get(currency);
+        if (digits == null) {
+            digits = Currency.getInstance(currency).getDefaultFractionDigits();
+            if (digits < 0 || digits > MAX_FRACTION_DIGITS) {
+                throw new IllegalArgumentException("Currency " + currency + " has no fixed minor unit");
+            }
+            FRACTION_DIGITS.putIfAbsent(currency, digits);
+        }
+        return digits;
+    }
+
+    public long minorUnits() {
+        return minorUnits;
+    }
+
+    @JsonProperty("currency")
+    public String currency() {
+        return currency;
+    }
+
+    @JsonProperty("amount")
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, fractionDigits(currency));
+    }
+
+    /**
+     * @throws ArithmeticException if the result overflows
+     */
+    public Money plus(Money other) {
+        checkCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    /**
+     * @throws ArithmeticException if the result overflows
+     */
+    public Money minus(Money other) {
+        checkCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    /**
+     * @throws ArithmeticException if the amount is {@link Long#MIN_VALUE} minor units
+     */
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits), currency);
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isLessThan(Money other) {
+        return compareTo(other) < 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        checkCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    private void checkCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " and " + other.currency);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money money && minorUnits == money.minorUnits && currency.equals(money.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minorUnits) + currency.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency;
+    }
+}
@@ -0,0 +1,22 @@
+package com.banking.common.money;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The amount can be represented as a {@link Money} in some currency: it has at most
+ * {@link Money#MAX_FRACTION_DIGITS} fraction digits and fits into a {@code long} of minor units. Whether it
+ * suits the currency of a particular account is checked once that currency is known.
+ */
+@Constraint(validatedBy = MoneyAmountValidator.class)
+@Target({ ElementType.METHOD, ElementType.FIELD })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MoneyAmount {
+    String message() default "Invalid amount";
+    Class<?>[] groups() default {};
+    Class<? extends Payload>[] payload() default {};
+}
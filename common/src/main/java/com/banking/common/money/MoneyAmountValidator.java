@@ -0,0 +1,25 @@
+package com.banking.common.money;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+import java.math.BigDecimal;
+
+public class MoneyAmountValidator implements ConstraintValidator<MoneyAmount, BigDecimal> {
+
+    @Override
+    public boolean isValid(BigDecimal amount, ConstraintValidatorContext context) {
+        if (amount == null) {
+            return true;
+        }
+        if (amount.scale() > Money.MAX_FRACTION_DIGITS && amount.stripTrailingZeros().scale() > Money.MAX_FRACTION_DIGITS) {
+            return false;
+        }
+        try {
+            amount.movePointRight(Money.MAX_FRACTION_DIGITS).longValueExact();
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+}
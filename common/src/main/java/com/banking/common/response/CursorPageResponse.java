@@ -0,0 +1,68 @@
+package com.banking.common.response;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A page of a keyset-paginated listing. Unlike {@link PageResponse} it carries no totals, so producing it
+ * never needs a {@code COUNT(*)}; the client passes {@code nextCursor} back to get the following page.
+ */
+public class CursorPageResponse<T> {
+
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private boolean hasNext;
+
+    public CursorPageResponse(List<T> content, int size, String nextCursor, boolean hasNext) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+        this.hasNext = hasNext;
+    }
+
+    /**
+     * Builds a page from a query that fetched up to {@code size + 1} rows; the extra row only signals that
+     * another page exists and is not returned.
+     */
+    public static <T> CursorPageResponse<T> of(List<T> rows, int size, Function<T, String> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPageResponse<>(rows, size, null, false);
+        }
+        List<T> content = rows.subList(0, size);
+        return new CursorPageResponse<>(content, size, cursorOf.apply(content.get(size - 1)), true);
+    }
+
+    // Getters and Setters
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+}
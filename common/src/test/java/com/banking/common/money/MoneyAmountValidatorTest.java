@@ -0,0 +1,33 @@
+package com.banking.common.money;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoneyAmountValidatorTest {
+
+    private final MoneyAmountValidator validator = new MoneyAmountValidator();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"1", "10.50", "0.125", "7.5000", "9223372036854775.807"})
+    void isValid_WithRepresentableAmount_ShouldReturnTrue(String amount) {
+        assertTrue(validator.isValid(new BigDecimal(amount), null));
+    }
+
+    @ParameterizedTest
+    @NullSource
+    void isValid_WithNull_ShouldReturnTrue(BigDecimal amount) {
+        assertTrue(validator.isValid(amount, null));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0.0001", "9223372036854775.808", "1E+30"})
+    void isValid_WithUnrepresentableAmount_ShouldReturnFalse(String amount) {
+        assertFalse(validator.isValid(new BigDecimal(amount), null));
+    }
+}
@@ -0,0 +1,76 @@
+package com.banking.common.money;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void of_ShouldStoreMinorUnitsOfTheCurrency() {
+        assertEquals(1250, Money.of(new BigDecimal("12.50"), "TRY").minorUnits());
+        assertEquals(1250, Money.of(new BigDecimal("12.5"), "USD").minorUnits());
+        assertEquals(1250, Money.of(new BigDecimal("1250"), "JPY").minorUnits());
+        assertEquals(12500, Money.of(new BigDecimal("12.500"), "KWD").minorUnits());
+    }
+
+    @Test
+    void of_ShouldAcceptTrailingZerosBeyondThePrecision() {
+        assertEquals(Money.ofMinor(100, "JPY"), Money.of(new BigDecimal("100.00"), "JPY"));
+    }
+
+    @Test
+    void of_WhenAmountIsTooPrecise_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("10.005"), "TRY"));
+        assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("1.5"), "JPY"));
+    }
+
+    @Test
+    void of_WhenAmountDoesNotFitIntoLong_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("100000000000000000"), "TRY"));
+    }
+
+    @Test
+    void of_WhenCurrencyIsUnknown_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> Money.of(BigDecimal.ONE, "XYZ"));
+        assertThrows(IllegalArgumentException.class, () -> Money.of(BigDecimal.ONE, "XAU"));
+    }
+
+    @Test
+    void arithmetic_ShouldBeExact() {
+        Money balance = Money.of(new BigDecimal("100.10"), "TRY");
+        Money amount = Money.of(new BigDecimal("0.20"), "TRY");
+
+        assertEquals(new BigDecimal("99.90"), balance.minus(amount).toBigDecimal());
+        assertEquals(new BigDecimal("100.30"), balance.plus(amount).toBigDecimal());
+        assertEquals(new BigDecimal("-0.20"), amount.negate().toBigDecimal());
+        assertTrue(amount.isLessThan(balance));
+    }
+
+    @Test
+    void arithmetic_WhenResultOverflows_ShouldThrow() {
+        Money max = Money.ofMinor(Long.MAX_VALUE, "TRY");
+
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.ofMinor(1, "TRY")));
+        assertThrows(ArithmeticException.class, () -> max.negate().minus(Money.ofMinor(2, "TRY")));
+    }
+
+    @Test
+    void arithmetic_WhenCurrenciesDiffer_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> Money.zero("TRY").plus(Money.zero("USD")));
+    }
+
+    @Test
+    void json_ShouldRoundTripAmountAndCurrency() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Money money = Money.of(new BigDecimal("12.50"), "TRY");
+
+        String json = objectMapper.writeValueAsString(money);
+
+        assertEquals("{\"amount\":12.50,\"currency\":\"TRY\"}", json);
+        assertEquals(money, objectMapper.readValue(json, Money.class));
+    }
+}
@@ -0,0 +1,28 @@
+package com.banking.common.response;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorPageResponseTest {
+
+    @Test
+    void of_WithExtraRow_ShouldTrimItAndPointCursorAtLastReturnedRow() {
+        CursorPageResponse<Integer> page = CursorPageResponse.of(List.of(1, 2, 3), 2, String::valueOf);
+
+        assertEquals(List.of(1, 2), page.getContent());
+        assertTrue(page.isHasNext());
+        assertEquals("2", page.getNextCursor());
+    }
+
+    @Test
+    void of_WithoutExtraRow_ShouldBeLastPage() {
+        CursorPageResponse<Integer> page = CursorPageResponse.of(List.of(1, 2), 2, String::valueOf);
+
+        assertEquals(List.of(1, 2), page.getContent());
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+    }
+}
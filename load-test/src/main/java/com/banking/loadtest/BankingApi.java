@@ -0,0 +1,158 @@
+package com.banking.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The HTTP calls of a run: signing users up and opening and funding their accounts before the run, and the
+ * requests the run sends. In gateway mode users register with identity-service and authenticate with their
+ * access token; in direct mode they are made-up user ids sent as {@code X-User-Id}.
+ */
+final class BankingApi {
+
+    private static final String PASSWORD = "load-test-password";
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LoadTestSettings settings;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    record User(String[] headers, List<String> ibans) {
+    }
+
+    BankingApi(HttpClient client, LoadTestSettings settings) {
+        this.client = client;
+        this.settings = settings;
+    }
+
+    /**
+     * Signs up user {@code index} and opens and funds its accounts.
+     */
+    User createUser(int index) throws IOException, InterruptedException {
+        String name = "load-" + runId + "-" + index;
+        String[] headers = settings.mode() == LoadTestSettings.Mode.GATEWAY
+                ? new String[]{"Authorization", "Bearer " + register(name)}
+                : new String[]{"X-User-Id", Long.toString(settings.firstUserId() + index)};
+        List<String> ibans = new ArrayList<>(settings.accountsPerUser());
+        for (int i = 0; i < settings.accountsPerUser(); i++) {
+            JsonNode account = send(post("/api/v1/accounts", headers, Map.of("currency", "TRY")));
+            String iban = account.path("data").path("iban").asText();
+            send(deposit(iban, settings.initialDeposit(), headers));
+            ibans.add(iban);
+        }
+        return new User(headers, List.copyOf(ibans));
+    }
+
+    HttpRequest transfer(User sender, String fromIban, String toIban, BigDecimal amount) {
+        return post("/api/v1/transactions", withCorrelationId(sender.headers()),
+                Map.of("fromIban", fromIban, "toIban", toIban, "amount", amount));
+    }
+
+    HttpRequest deposit(User user, String iban, BigDecimal amount) {
+        return deposit(iban, amount, user.headers());
+    }
+
+    HttpRequest balance(User user, String iban) {
+        return request("/api/v1/accounts/" + iban + "/balance", user.headers()).GET().build();
+    }
+
+    /**
+     * Registers a user with a fresh national id and returns its access token.
+     */
+    private String register(String username) throws IOException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            HttpRequest registration = post("/auth/register", new String[0], Map.of(
+                    "tckn", randomTckn(),
+                    "firstName", "Load",
+                    "lastName", "Test",
+                    "phoneNumber", "5550000000",
+                    "birthDate", "1990-01-01",
+                    "username", username,
+                    "email", username + "@load.test",
+                    "password", PASSWORD));
+            HttpResponse<String> response = client.send(registration, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 == 2) {
+                break;
+            }
+            // The random national id may already be taken
+            if (attempt == 3) {
+                throw new IllegalStateException("Registering " + username + " failed with " + response.statusCode()
+                        + ": " + response.body());
+            }
+        }
+        JsonNode token = send(post("/auth/token", new String[0], Map.of("username", username, "password", PASSWORD)));
+        return token.path("accessToken").asText();
+    }
+
+    private HttpRequest deposit(String iban, BigDecimal amount, String[] headers) {
+        return post("/api/v1/accounts/" + iban + "/deposits", headers, Map.of("amount", amount));
+    }
+
+    private HttpRequest post(String path, String[] headers, Map<String, Object> body) {
+        try {
+            return request(path, headers)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + body, e);
+        }
+    }
+
+    private HttpRequest.Builder request(String path, String[] headers) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(settings.baseUrl() + path))
+                .timeout(settings.timeout());
+        return headers.length > 0 ? builder.headers(headers) : builder;
+    }
+
+    private JsonNode send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException(request.method() + " " + request.uri() + " failed with "
+                    + response.statusCode() + ": " + response.body());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private static String[] withCorrelationId(String[] headers) {
+        String[] withId = new String[headers.length + 2];
+        System.arraycopy(headers, 0, withId, 0, headers.length);
+        withId[headers.length] = "X-Correlation-ID";
+        withId[headers.length + 1] = UUID.randomUUID().toString();
+        return withId;
+    }
+
+    /**
+     * Eleven digits passing the national id checksum.
+     */
+    static String randomTckn() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[] digits = new int[11];
+        digits[0] = 1 + random.nextInt(9);
+        for (int i = 1; i < 9; i++) {
+            digits[i] = random.nextInt(10);
+        }
+        int odd = digits[0] + digits[2] + digits[4] + digits[6] + digits[8];
+        int even = digits[1] + digits[3] + digits[5] + digits[7];
+        digits[9] = Math.floorMod(odd * 7 - even, 10);
+        digits[10] = (odd + even + digits[9]) % 10;
+        StringBuilder tckn = new StringBuilder(11);
+        for (int digit : digits) {
+            tckn.append(digit);
+        }
+        return tckn.toString();
+    }
+}
@@ -0,0 +1,77 @@
+package com.banking.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of one operation. Every answered request is recorded twice, in nanoseconds:
+ * <ul>
+ *     <li>response time, from when the schedule said to send it, so that time spent queued behind a slow
+ *     request counts against the system rather than disappearing (coordinated omission)</li>
+ *     <li>service time, from when it was actually sent, which is what a closed-loop client would report</li>
+ * </ul>
+ * Only 2xx responses are recorded; other statuses and requests that got no response are counted.
+ */
+final class EndpointStats {
+
+    private final Operation operation;
+    private final Recorder responseTimes = new Recorder(3);
+    private final Recorder serviceTimes = new Recorder(3);
+    private final Histogram totalResponseTimes = new Histogram(3);
+    private final Histogram totalServiceTimes = new Histogram(3);
+    private final Map<Integer, LongAdder> errorStatuses = new ConcurrentHashMap<>();
+    private final LongAdder failures = new LongAdder();
+
+    EndpointStats(Operation operation) {
+        this.operation = operation;
+    }
+
+    void record(long scheduledAt, long sentAt, long answeredAt, HttpResponse<?> response, Throwable failure) {
+        if (failure != null) {
+            failures.increment();
+        } else if (response.statusCode() / 100 != 2) {
+            errorStatuses.computeIfAbsent(response.statusCode(), status -> new LongAdder()).increment();
+        } else {
+            responseTimes.recordValue(answeredAt - scheduledAt);
+            serviceTimes.recordValue(answeredAt - sentAt);
+        }
+    }
+
+    /**
+     * Response times since the previous call, which are also added to the totals.
+     */
+    synchronized Histogram drainInterval() {
+        Histogram interval = responseTimes.getIntervalHistogram();
+        totalResponseTimes.add(interval);
+        totalServiceTimes.add(serviceTimes.getIntervalHistogram());
+        return interval;
+    }
+
+    Operation operation() {
+        return operation;
+    }
+
+    Histogram totalResponseTimes() {
+        return totalResponseTimes;
+    }
+
+    Histogram totalServiceTimes() {
+        return totalServiceTimes;
+    }
+
+    long failures() {
+        return failures.sum();
+    }
+
+    Map<Integer, Long> errorStatuses() {
+        Map<Integer, Long> statuses = new TreeMap<>();
+        errorStatuses.forEach((status, count) -> statuses.put(status, count.sum()));
+        return statuses;
+    }
+}
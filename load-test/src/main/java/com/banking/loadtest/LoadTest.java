@@ -0,0 +1,250 @@
+package com.banking.loadtest;
+
+import com.banking.loadtest.BankingApi.User;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends a mix of transfers, deposits and balance reads through a running stack at a fixed arrival rate and
+ * reports the latency percentiles of each. Requests go out on schedule whether or not earlier ones have been
+ * answered (an open model), so a stalled server shows up as queueing in the response times instead of as a
+ * lower request rate. See {@link LoadTestSettings} for the options, e.g.
+ * {@code mvn -Pbenchmarks -pl load-test compile exec:java -Dload.rate=2000 -Dload.duration=120}
+ */
+public final class LoadTest {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final Duration PROGRESS_INTERVAL = Duration.ofSeconds(5);
+
+    private final LoadTestSettings settings;
+    private final BankingApi api;
+    private final HttpClient client;
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+
+    private LoadTest(LoadTestSettings settings, HttpClient client) {
+        this.settings = settings;
+        this.client = client;
+        this.api = new BankingApi(client, settings);
+        settings.mix().forEach((operation, weight) -> {
+            if (weight > 0) {
+                stats.put(operation, new EndpointStats(operation));
+            }
+        });
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        ExecutorService httpExecutor = Executors.newFixedThreadPool(
+                Math.max(4, 2 * Runtime.getRuntime().availableProcessors()), daemonThreads("load-http"));
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .executor(httpExecutor)
+                    .build();
+            LoadTest loadTest = new LoadTest(settings, client);
+            List<User> users = loadTest.createUsers();
+            loadTest.run(users);
+            loadTest.report(System.out);
+            loadTest.writeDistributions();
+        } finally {
+            httpExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Signs the users up and funds their accounts, a few at a time.
+     */
+    private List<User> createUsers() throws Exception {
+        long start = System.nanoTime();
+        ExecutorService setup = Executors.newFixedThreadPool(16, daemonThreads("load-setup"));
+        try {
+            List<Future<User>> pending = new ArrayList<>(settings.users());
+            for (int i = 0; i < settings.users(); i++) {
+                int index = i;
+                pending.add(setup.submit(() -> api.createUser(index)));
+            }
+            List<User> users = new ArrayList<>(settings.users());
+            for (Future<User> user : pending) {
+                users.add(user.get());
+            }
+            System.out.printf("Created %d users with %d accounts each in %d ms%n", settings.users(),
+                    settings.accountsPerUser(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return users;
+        } finally {
+            setup.shutdownNow();
+        }
+    }
+
+    private void run(List<User> users) throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(settings.seed());
+        Operation[] weighted = weightedOperations();
+        Semaphore inFlight = new Semaphore(settings.maxInFlight());
+        double nanosBetweenRequests = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup().toNanos();
+        long end = measureFrom + settings.duration().toNanos();
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(daemonThreads("load-progress"));
+        progress.scheduleAtFixedRate(() -> printProgress(start, measureFrom), PROGRESS_INTERVAL.toMillis(),
+                PROGRESS_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        System.out.printf("Sending %.0f requests/s for %d s after a %d s warmup%n", settings.rate(),
+                settings.duration().toSeconds(), settings.warmup().toSeconds());
+        try {
+            for (long i = 0; ; i++) {
+                long scheduledAt = start + (long) (i * nanosBetweenRequests);
+                if (scheduledAt >= end) {
+                    break;
+                }
+                for (long wait = scheduledAt - System.nanoTime(); wait > 0; wait = scheduledAt - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+                Operation operation = weighted[random.nextInt(weighted.length)];
+                HttpRequest request = request(operation, users, random);
+                // Past max-in-flight the schedule falls behind, and the wait shows up in the response times
+                inFlight.acquire();
+                long sentAt = System.nanoTime();
+                client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                    long answeredAt = System.nanoTime();
+                    inFlight.release();
+                    if (scheduledAt >= measureFrom) {
+                        stats.get(operation).record(scheduledAt, sentAt, answeredAt, response, failure);
+                    }
+                });
+            }
+            if (!inFlight.tryAcquire(settings.maxInFlight(), settings.timeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                System.out.printf("%d requests still unanswered after %d s%n",
+                        settings.maxInFlight() - inFlight.availablePermits(), settings.timeout().toSeconds());
+            }
+        } finally {
+            progress.shutdownNow();
+        }
+        stats.values().forEach(EndpointStats::drainInterval);
+    }
+
+    private HttpRequest request(Operation operation, List<User> users, SplittableRandom random) {
+        int userIndex = random.nextInt(users.size());
+        User user = users.get(userIndex);
+        String iban = user.ibans().get(random.nextInt(user.ibans().size()));
+        return switch (operation) {
+            case TRANSFER -> {
+                // Someone else, so that transfers contend across users as well as within them
+                User receiver = users.get((userIndex + 1 + random.nextInt(users.size() - 1)) % users.size());
+                String toIban = receiver.ibans().get(random.nextInt(receiver.ibans().size()));
+                yield api.transfer(user, iban, toIban, BigDecimal.valueOf(100 + random.nextInt(900), 2));
+            }
+            case DEPOSIT -> api.deposit(user, iban, BigDecimal.valueOf(1000 + random.nextInt(9000), 2));
+            case BALANCE -> api.balance(user, iban);
+        };
+    }
+
+    /**
+     * Each operation repeated as often as its weight, to pick from uniformly.
+     */
+    private Operation[] weightedOperations() {
+        List<Operation> weighted = new ArrayList<>();
+        settings.mix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+        });
+        return weighted.toArray(Operation[]::new);
+    }
+
+    private void printProgress(long start, long measureFrom) {
+        long now = System.nanoTime();
+        StringBuilder line = new StringBuilder(String.format("%4d s %-7s", TimeUnit.NANOSECONDS.toSeconds(now - start),
+                now < measureFrom ? "warmup" : ""));
+        for (EndpointStats endpoint : stats.values()) {
+            Histogram interval = endpoint.drainInterval();
+            line.append(String.format(" | %s %5.0f/s p50 %7.2f p99 %8.2f max %8.2f ms", endpoint.operation().label(),
+                    interval.getTotalCount() / (double) PROGRESS_INTERVAL.toSeconds(),
+                    interval.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                    interval.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                    interval.getMaxValue() / NANOS_PER_MILLI));
+        }
+        System.out.println(line);
+    }
+
+    private void report(PrintStream out) {
+        out.printf("%nResponse times in ms, measured from when each request was scheduled; service p99 is measured from when it was sent%n");
+        out.printf("%-9s %9s %9s %9s %9s %9s %9s %9s %9s %9s %11s  %s%n", "endpoint", "ok", "req/s",
+                "p50", "p90", "p99", "p99.9", "p99.99", "max", "mean", "service p99", "errors");
+        for (EndpointStats endpoint : stats.values()) {
+            Histogram responses = endpoint.totalResponseTimes();
+            out.printf("%-9s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f %11.2f  %s%n",
+                    endpoint.operation().label(),
+                    responses.getTotalCount(),
+                    responses.getTotalCount() / (double) settings.duration().toSeconds(),
+                    responses.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                    responses.getValueAtPercentile(90) / NANOS_PER_MILLI,
+                    responses.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                    responses.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                    responses.getValueAtPercentile(99.99) / NANOS_PER_MILLI,
+                    responses.getMaxValue() / NANOS_PER_MILLI,
+                    responses.getMean() / NANOS_PER_MILLI,
+                    endpoint.totalServiceTimes().getValueAtPercentile(99) / NANOS_PER_MILLI,
+                    errors(endpoint));
+        }
+    }
+
+    private static String errors(EndpointStats endpoint) {
+        StringBuilder errors = new StringBuilder();
+        endpoint.errorStatuses().forEach((status, count) -> errors.append(status).append(": ").append(count).append(' '));
+        if (endpoint.failures() > 0) {
+            errors.append("no response: ").append(endpoint.failures());
+        }
+        return errors.isEmpty() ? "-" : errors.toString().trim();
+    }
+
+    /**
+     * One percentile distribution per endpoint and kind of latency, in milliseconds, to plot with HdrHistogram's
+     * plotter or compare between runs.
+     */
+    private void writeDistributions() throws IOException {
+        Files.createDirectories(settings.reportDir());
+        for (EndpointStats endpoint : stats.values()) {
+            write(settings.reportDir().resolve(endpoint.operation().label() + ".hgrm"), endpoint.totalResponseTimes());
+            write(settings.reportDir().resolve(endpoint.operation().label() + "-service.hgrm"), endpoint.totalServiceTimes());
+        }
+        System.out.println("Percentile distributions written to " + settings.reportDir().toAbsolutePath());
+    }
+
+    private static void write(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, NANOS_PER_MILLI);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger index = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + index.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
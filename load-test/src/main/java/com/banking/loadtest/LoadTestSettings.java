@@ -0,0 +1,110 @@
+package com.banking.loadtest;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * What to run, read from {@code load.*} system properties:
+ * <ul>
+ *     <li>{@code load.base-url}: the API gateway, or transaction-service itself in direct mode
+ *     (default {@code http://localhost:8080})</li>
+ *     <li>{@code load.mode}: {@code gateway} registers users and sends their tokens; {@code direct} skips
+ *     identity-service and sends {@code X-User-Id} the way the gateway would (default {@code gateway})</li>
+ *     <li>{@code load.users}, {@code load.accounts-per-user}, {@code load.initial-deposit}: the population
+ *     created before the run (default 50 users with 2 accounts of 1000000.00 TRY each)</li>
+ *     <li>{@code load.rate}: requests per second, issued on schedule however slowly they are answered
+ *     (default 500)</li>
+ *     <li>{@code load.warmup}, {@code load.duration}: ISO-8601 or seconds; requests scheduled during the
+ *     warmup are not reported (default 10 and 60 seconds)</li>
+ *     <li>{@code load.mix}: relative weights, e.g. {@code transfer=70,deposit=10,balance=20}</li>
+ *     <li>{@code load.max-in-flight}: requests outstanding before the schedule waits (default 10000)</li>
+ *     <li>{@code load.timeout}: per request (default 30 seconds)</li>
+ *     <li>{@code load.report-dir}: where the {@code .hgrm} percentile distributions go
+ *     (default {@code load-test/target/load-report})</li>
+ *     <li>{@code load.first-user-id}: the user id of the first user in direct mode (default 900000)</li>
+ *     <li>{@code load.seed}: picks the operations, accounts and amounts, so two runs with the same seed
+ *     send the same sequence (default 42)</li>
+ * </ul>
+ */
+record LoadTestSettings(URI baseUrl,
+                        Mode mode,
+                        int users,
+                        int accountsPerUser,
+                        BigDecimal initialDeposit,
+                        double rate,
+                        Duration warmup,
+                        Duration duration,
+                        Map<Operation, Integer> mix,
+                        int maxInFlight,
+                        Duration timeout,
+                        Path reportDir,
+                        long firstUserId,
+                        long seed) {
+
+    // Access tokens issued by identity-service expire after 15 minutes
+    private static final Duration TOKEN_LIFETIME = Duration.ofMinutes(14);
+
+    enum Mode {
+        GATEWAY,
+        DIRECT
+    }
+
+    LoadTestSettings {
+        if (users < 2 || accountsPerUser < 1) {
+            throw new IllegalArgumentException("Transfers need at least 2 users with at least 1 account each");
+        }
+        if (rate <= 0 || maxInFlight < 1) {
+            throw new IllegalArgumentException("Rate and max-in-flight must be positive");
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("The mix needs at least one operation with a positive weight");
+        }
+        if (mode == Mode.GATEWAY && warmup.plus(duration).compareTo(TOKEN_LIFETIME) > 0) {
+            throw new IllegalArgumentException("Warmup and duration must fit in the " + TOKEN_LIFETIME.toMinutes()
+                    + " minutes an access token lasts");
+        }
+    }
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                URI.create(stripTrailingSlash(System.getProperty("load.base-url", "http://localhost:8080"))),
+                Mode.valueOf(System.getProperty("load.mode", "gateway").toUpperCase(Locale.ROOT)),
+                Integer.getInteger("load.users", 50),
+                Integer.getInteger("load.accounts-per-user", 2),
+                new BigDecimal(System.getProperty("load.initial-deposit", "1000000.00")),
+                Double.parseDouble(System.getProperty("load.rate", "500")),
+                duration(System.getProperty("load.warmup", "10")),
+                duration(System.getProperty("load.duration", "60")),
+                mix(System.getProperty("load.mix", "transfer=70,deposit=10,balance=20")),
+                Integer.getInteger("load.max-in-flight", 10_000),
+                duration(System.getProperty("load.timeout", "30")),
+                Path.of(System.getProperty("load.report-dir", "target/load-report")),
+                Long.getLong("load.first-user-id", 900_000),
+                Long.getLong("load.seed", 42));
+    }
+
+    private static Duration duration(String value) {
+        return value.startsWith("P") ? Duration.parse(value) : Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    private static Map<Operation, Integer> mix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight in load.mix but got " + entry);
+            }
+            mix.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
@@ -0,0 +1,22 @@
+package com.banking.loadtest;
+
+import java.util.Locale;
+
+/**
+ * The requests a run mixes, each reported as its own endpoint.
+ */
+enum Operation {
+
+    // POST /api/v1/transactions from one of the user's accounts to an account of another user
+    TRANSFER,
+
+    // POST /api/v1/accounts/{iban}/deposits into one of the user's accounts
+    DEPOSIT,
+
+    // GET /api/v1/accounts/{iban}/balance of one of the user's accounts
+    BALANCE;
+
+    String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,35 @@
+package com.banking.transaction.cache;
+
+import com.banking.transaction.entity.Account;
+import com.banking.transaction.entity.AccountStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * The parts of an account that rarely change. Deliberately leaves out the balance, which is only ever read
+ * from the database.
+ */
+public record AccountMetadata(Long id, String iban, Long userId, String currency, AccountStatus status,
+                              LocalDateTime ledgerStart, String limitProfile) {
+
+    public static AccountMetadata from(Account account) {
+        return new AccountMetadata(account.getId(), account.getIban(), account.getUserId(), account.getCurrency(),
+                account.getStatus(), account.ledgerStart(), account.getLimitProfile());
+    }
+
+    public boolean isOwnedBy(Long userId) {
+        return this.userId.equals(userId);
+    }
+
+    public String currencyCode() {
+        return currency != null ? currency : Account.DEFAULT_CURRENCY;
+    }
+
+    public boolean canSend() {
+        return status == null || status == AccountStatus.ACTIVE;
+    }
+
+    public boolean canReceive() {
+        return status != AccountStatus.CLOSED;
+    }
+}
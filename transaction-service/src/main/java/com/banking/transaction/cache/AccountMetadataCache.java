@@ -0,0 +1,114 @@
+package com.banking.transaction.cache;
+
+import com.banking.transaction.repository.AccountRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Near-cache of {@link AccountMetadata} by IBAN, so that existence, ownership and status checks do not need a
+ * database round trip for the accounts that are looked up over and over.
+ * <p>
+ * An instance that changes an account evicts it locally and, after the commit, publishes the IBAN on the
+ * invalidation topic. Every instance listens on that topic in its own consumer group and evicts the IBAN as
+ * well. Should a message get lost, {@code expire-after-write} bounds how long an entry can stay stale; callers
+ * that act on an account still read its row, so a stale entry can delay a rejection but never cause a wrong
+ * booking. Unknown IBANs are not cached.
+ */
+@Component
+public class AccountMetadataCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountMetadataCache.class);
+
+    private final AccountRepository accountRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final String invalidationTopic;
+    private final Cache<String, AccountMetadata> accounts;
+
+    private final Counter localInvalidations;
+    private final Counter remoteInvalidations;
+
+    public AccountMetadataCache(AccountRepository accountRepository,
+                                KafkaTemplate<String, String> kafkaTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${transaction.account-cache.maximum-size:100000}") long maximumSize,
+                                @Value("${transaction.account-cache.expire-after-write:10m}") Duration expireAfterWrite,
+                                @Value("${transaction.account-cache.invalidation-topic:account-metadata-invalidations}") String invalidationTopic) {
+        this.accountRepository = accountRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.invalidationTopic = invalidationTopic;
+        this.accounts = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size, ... tagged cache=account.metadata
+        CaffeineCacheMetrics.monitor(meterRegistry, accounts, "account.metadata");
+
+        this.localInvalidations = invalidationCounter(meterRegistry, "local");
+        this.remoteInvalidations = invalidationCounter(meterRegistry, "remote");
+    }
+
+    public Optional<AccountMetadata> findByIban(String iban) {
+        return Optional.ofNullable(accounts.get(iban,
+                key -> accountRepository.findByIban(key).map(AccountMetadata::from).orElse(null)));
+    }
+
+    /**
+     * Evicts the account here and, once the current transaction has committed, on every other instance.
+     */
+    public void evict(String iban) {
+        accounts.invalidate(iban);
+        localInvalidations.increment();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    // A lookup between the first eviction and the commit may have cached the old state again
+                    accounts.invalidate(iban);
+                    publish(iban);
+                }
+            });
+        } else {
+            publish(iban);
+        }
+    }
+
+    @KafkaListener(topics = "${transaction.account-cache.invalidation-topic:account-metadata-invalidations}",
+            groupId = "#{'transaction-service-account-cache-' + T(java.util.UUID).randomUUID()}")
+    public void onInvalidation(String iban) {
+        accounts.invalidate(iban);
+        remoteInvalidations.increment();
+    }
+
+    private void publish(String iban) {
+        try {
+            kafkaTemplate.send(invalidationTopic, iban, iban).exceptionally(ex -> {
+                logger.warn("Could not publish cache invalidation for {}, other instances expire it after their TTL", iban, ex);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Could not publish cache invalidation for {}, other instances expire it after their TTL", iban, e);
+        }
+    }
+
+    private static Counter invalidationCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("transaction.account-cache.invalidations")
+                .description("Account metadata evictions by where the change happened")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
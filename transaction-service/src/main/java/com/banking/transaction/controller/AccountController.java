@@ -1,15 +1,29 @@
 package com.banking.transaction.controller;
 
+import com.banking.common.response.CursorPageResponse;
 import com.banking.transaction.dto.AccountCreateRequest;
+import com.banking.transaction.dto.AccountStatusRequest;
 import com.banking.transaction.dto.ApiResponse;
+import com.banking.transaction.dto.BalanceResponse;
 import com.banking.transaction.dto.DepositRequest;
+import com.banking.transaction.dto.LedgerEntryResponse;
 import com.banking.transaction.entity.Account;
+import com.banking.transaction.export.LedgerExportFormat;
+import com.banking.transaction.export.LedgerExportService;
 import com.banking.transaction.service.AccountService;
+import com.banking.transaction.service.BalanceService;
+import com.banking.transaction.service.TransactionHistoryService;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -17,9 +31,17 @@ import java.util.List;
 public class AccountController {
 
     private final AccountService accountService;
+    private final BalanceService balanceService;
+    private final TransactionHistoryService transactionHistoryService;
+    private final LedgerExportService ledgerExportService;
 
-    public AccountController(AccountService accountService) {
+    public AccountController(AccountService accountService, BalanceService balanceService,
+                             TransactionHistoryService transactionHistoryService,
+                             LedgerExportService ledgerExportService) {
         this.accountService = accountService;
+        this.balanceService = balanceService;
+        this.transactionHistoryService = transactionHistoryService;
+        this.ledgerExportService = ledgerExportService;
     }
 
     @PostMapping
@@ -42,4 +64,51 @@ public class AccountController {
         ApiResponse<Account> response = new ApiResponse<>("Deposit successful.", account);
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    @PutMapping("/{iban}/status")
+    public ResponseEntity<ApiResponse<Account>> updateStatus(@PathVariable String iban,
+                                                             @RequestHeader("X-User-Id") Long userId,
+                                                             @Valid @RequestBody AccountStatusRequest request) {
+        Account account = accountService.updateStatus(iban, request.getStatus(), userId);
+        ApiResponse<Account> response = new ApiResponse<>("Account status updated.", account);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/{iban}/balance")
+    public ResponseEntity<ApiResponse<BalanceResponse>> getBalance(@PathVariable String iban,
+                                                                   @RequestHeader("X-User-Id") Long userId,
+                                                                   @RequestParam(required = false)
+                                                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        BalanceResponse balance = balanceService.getBalance(iban, userId, asOf);
+        ApiResponse<BalanceResponse> response = new ApiResponse<>("Balance retrieved successfully.", balance);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/{iban}/transactions")
+    public ResponseEntity<ApiResponse<CursorPageResponse<LedgerEntryResponse>>> getTransactions(@PathVariable String iban,
+                                                                                              @RequestHeader("X-User-Id") Long userId,
+                                                                                              @RequestParam(required = false) String cursor,
+                                                                                              @RequestParam(defaultValue = "50") int size) {
+        CursorPageResponse<LedgerEntryResponse> page = transactionHistoryService.getTransactions(iban, userId, cursor, size);
+        ApiResponse<CursorPageResponse<LedgerEntryResponse>> response = new ApiResponse<>("Transactions retrieved successfully.", page);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/{iban}/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@PathVariable String iban,
+                                                                    @RequestHeader("X-User-Id") Long userId,
+                                                                    @RequestParam(required = false)
+                                                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                    @RequestParam(required = false)
+                                                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                                    @RequestParam(defaultValue = "NDJSON") LedgerExportFormat format,
+                                                                    @RequestParam(defaultValue = "false") boolean gzip) {
+        Long accountId = ledgerExportService.findExportableAccountId(iban, userId);
+        StreamingResponseBody body = out -> ledgerExportService.export(accountId, from, to, format, gzip, out);
+        String fileName = "ledger-" + iban + "." + format.getFileExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,45 @@
+package com.banking.transaction.controller;
+
+import com.banking.transaction.dto.ApiResponse;
+import com.banking.transaction.dto.ScheduledTransferRequest;
+import com.banking.transaction.entity.ScheduledTransfer;
+import com.banking.transaction.scheduledtransfer.ScheduledTransferService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/scheduled-transfers")
+public class ScheduledTransferController {
+
+    private final ScheduledTransferService scheduledTransferService;
+
+    public ScheduledTransferController(ScheduledTransferService scheduledTransferService) {
+        this.scheduledTransferService = scheduledTransferService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<ScheduledTransfer>> createScheduledTransfer(@RequestHeader("X-User-Id") Long userId,
+                                                                                 @Valid @RequestBody ScheduledTransferRequest request) {
+        ScheduledTransfer schedule = scheduledTransferService.create(request, userId);
+        ApiResponse<ScheduledTransfer> response = new ApiResponse<>("Scheduled transfer created successfully.", schedule);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<ScheduledTransfer>>> getScheduledTransfers(@RequestHeader("X-User-Id") Long userId) {
+        List<ScheduledTransfer> schedules = scheduledTransferService.findByUser(userId);
+        ApiResponse<List<ScheduledTransfer>> response = new ApiResponse<>("Scheduled transfers retrieved successfully.", schedules);
+        return ResponseEntity.ok(response);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ApiResponse<Void>> cancelScheduledTransfer(@PathVariable Long id,
+                                                                    @RequestHeader("X-User-Id") Long userId) {
+        scheduledTransferService.cancel(id, userId);
+        return ResponseEntity.ok(new ApiResponse<>("Scheduled transfer cancelled.", null));
+    }
+}
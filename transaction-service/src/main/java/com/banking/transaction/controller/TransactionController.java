@@ -1,31 +1,96 @@
 package com.banking.transaction.controller;
 
 import com.banking.transaction.dto.ApiResponse;
+import com.banking.transaction.dto.BatchItemResult;
+import com.banking.transaction.dto.BatchTransactionRequest;
+import com.banking.transaction.dto.BatchTransactionResponse;
+import com.banking.transaction.dto.PayrollRequest;
+import com.banking.transaction.dto.PayrollResponse;
 import com.banking.transaction.dto.TransactionRequest;
-import com.banking.transaction.service.TransactionService;
+import com.banking.transaction.dto.TransferResult;
+import com.banking.transaction.dto.TransferStatusResponse;
+import com.banking.transaction.entity.TransferIntakeStatus;
+import com.banking.transaction.execution.TransferExecutionService;
+import com.banking.transaction.intake.TransferIntakeService;
+import com.banking.transaction.routing.ReadYourWritesAdvice;
+import com.banking.transaction.service.BatchTransactionService;
+import com.banking.transaction.service.PayrollService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Map;
+import java.net.URI;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/transactions")
 public class TransactionController {
 
-    private final TransactionService transactionService;
+    private final TransferExecutionService transferExecutionService;
+    private final BatchTransactionService batchTransactionService;
+    private final TransferIntakeService transferIntakeService;
+    private final PayrollService payrollService;
 
-    public TransactionController(TransactionService transactionService) {
-        this.transactionService = transactionService;
+    public TransactionController(TransferExecutionService transferExecutionService,
+                                 BatchTransactionService batchTransactionService,
+                                 TransferIntakeService transferIntakeService,
+                                 PayrollService payrollService) {
+        this.transferExecutionService = transferExecutionService;
+        this.batchTransactionService = batchTransactionService;
+        this.transferIntakeService = transferIntakeService;
+        this.payrollService = payrollService;
     }
 
     @PostMapping
-    public ResponseEntity<ApiResponse<Object>> createTransaction(@RequestHeader("X-Correlation-ID") String correlationId,
-                                                                 @RequestHeader("X-User-Id") Long userId,
-                                                                 @Valid @RequestBody TransactionRequest request) {
-        transactionService.executeTransaction(request, correlationId, userId);
-        ApiResponse<Object> response = new ApiResponse<>("Transaction accepted for processing.", Map.of("correlationId", correlationId));
-        return new ResponseEntity<>(response, HttpStatus.ACCEPTED);
+    public ResponseEntity<ApiResponse<TransferStatusResponse>> createTransaction(@RequestHeader("X-Correlation-ID") String correlationId,
+                                                                                 @RequestHeader("X-User-Id") Long userId,
+                                                                                 @Valid @RequestBody TransactionRequest request) {
+        TransferStatusResponse status;
+        if (transferIntakeService.isEnabled()) {
+            status = transferIntakeService.accept(request, correlationId, userId);
+        } else {
+            TransferResult result = transferExecutionService.execute(request, correlationId, userId);
+            status = TransferStatusResponse.completed(result);
+        }
+        if (status.isReplayed()) {
+            String message = status.getStatus() == TransferIntakeStatus.COMPLETED
+                    ? "Transaction already processed."
+                    : "Transaction already accepted.";
+            return ResponseEntity.ok(new ApiResponse<>(message, status));
+        }
+        ApiResponse<TransferStatusResponse> response = new ApiResponse<>("Transaction accepted for processing.", status);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/transactions/" + correlationId))
+                .body(response);
+    }
+
+    @GetMapping("/{correlationId}")
+    public ResponseEntity<ApiResponse<TransferStatusResponse>> getTransaction(@PathVariable String correlationId,
+                                                                              @RequestHeader("X-User-Id") Long userId,
+                                                                              HttpServletRequest httpRequest) {
+        TransferStatusResponse status = transferIntakeService.findStatus(correlationId, userId);
+        if (status.getStatus() == TransferIntakeStatus.COMPLETED) {
+            // The token handed out when the transfer was accepted predates it
+            httpRequest.setAttribute(ReadYourWritesAdvice.ISSUE_SESSION_LSN_ATTRIBUTE, Boolean.TRUE);
+        }
+        return ResponseEntity.ok(new ApiResponse<>("Transaction status retrieved successfully.", status));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<BatchTransactionResponse>> createBatch(@RequestHeader("X-Correlation-ID") String correlationId,
+                                                                             @RequestHeader("X-User-Id") Long userId,
+                                                                             @Valid @RequestBody BatchTransactionRequest request) {
+        List<BatchItemResult> results = batchTransactionService.executeBatch(request.getItems(), correlationId, userId);
+        ApiResponse<BatchTransactionResponse> response = new ApiResponse<>("Batch processed.", BatchTransactionResponse.of(correlationId, results));
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/payroll")
+    public ResponseEntity<ApiResponse<PayrollResponse>> createPayroll(@RequestHeader("X-Correlation-ID") String correlationId,
+                                                                      @RequestHeader("X-User-Id") Long userId,
+                                                                      @Valid @RequestBody PayrollRequest request) {
+        PayrollResponse result = payrollService.execute(request, correlationId, userId);
+        return ResponseEntity.ok(new ApiResponse<>("Payroll processed.", result));
     }
 }
\ No newline at end of file
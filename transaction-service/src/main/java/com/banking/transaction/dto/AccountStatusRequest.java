@@ -0,0 +1,12 @@
+package com.banking.transaction.dto;
+
+import com.banking.transaction.entity.AccountStatus;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class AccountStatusRequest {
+
+    @NotNull
+    private AccountStatus status;
+}
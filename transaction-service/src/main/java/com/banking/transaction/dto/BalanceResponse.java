@@ -0,0 +1,18 @@
+package com.banking.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BalanceResponse {
+    private String iban;
+    private String currency;
+    private BigDecimal balance;
+    private LocalDateTime asOf;
+}
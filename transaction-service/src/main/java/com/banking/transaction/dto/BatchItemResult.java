@@ -0,0 +1,15 @@
+package com.banking.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchItemResult {
+    private int index;
+    private String correlationId;
+    private BatchItemStatus status;
+    private String message;
+}
@@ -0,0 +1,17 @@
+package com.banking.transaction.dto;
+
+public enum BatchItemStatus {
+    SUCCESS,
+    DUPLICATE,
+    CORRELATION_ID_CONFLICT,
+    INSUFFICIENT_FUNDS,
+    ACCOUNT_NOT_FOUND,
+    UNAUTHORIZED,
+    ACCOUNT_NOT_ACTIVE,
+    INVALID_AMOUNT,
+    FX_RATE_NOT_FOUND,
+    LIMIT_EXCEEDED,
+    SUSPECTED_FRAUD,
+    FRAUD_CHECK_UNAVAILABLE,
+    FAILED
+}
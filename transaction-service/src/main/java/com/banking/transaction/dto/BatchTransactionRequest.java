@@ -0,0 +1,16 @@
+package com.banking.transaction.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchTransactionRequest {
+
+    @NotEmpty
+    @Size(max = 10000)
+    private List<@Valid TransactionRequest> items;
+}
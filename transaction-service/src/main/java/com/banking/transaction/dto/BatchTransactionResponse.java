@@ -0,0 +1,33 @@
+package com.banking.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchTransactionResponse {
+    private String batchCorrelationId;
+    private int total;
+    private int succeeded;
+    private int duplicates;
+    private int failed;
+    private List<BatchItemResult> items;
+
+    public static BatchTransactionResponse of(String batchCorrelationId, List<BatchItemResult> items) {
+        int succeeded = 0;
+        int duplicates = 0;
+        for (BatchItemResult item : items) {
+            if (item.getStatus() == BatchItemStatus.SUCCESS) {
+                succeeded++;
+            } else if (item.getStatus() == BatchItemStatus.DUPLICATE) {
+                duplicates++;
+            }
+        }
+        return new BatchTransactionResponse(batchCorrelationId, items.size(), succeeded, duplicates,
+                items.size() - succeeded - duplicates, items);
+    }
+}
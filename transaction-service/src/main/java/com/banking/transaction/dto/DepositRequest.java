@@ -1,5 +1,6 @@
 package com.banking.transaction.dto;
 
+import com.banking.common.money.MoneyAmount;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.Data;
@@ -11,5 +12,6 @@ public class DepositRequest {
 
     @NotNull
     @Positive
+    @MoneyAmount
     private BigDecimal amount;
 }
@@ -0,0 +1,21 @@
+package com.banking.transaction.dto;
+
+import com.banking.transaction.entity.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LedgerEntryResponse {
+    private Long id;
+    private String correlationId;
+    private TransactionType transactionType;
+    private BigDecimal amount;
+    private BigDecimal balanceAfter;
+    private LocalDateTime transactionDate;
+}
@@ -0,0 +1,20 @@
+package com.banking.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PayrollCompletedEvent {
+    private Long userId;
+    private String payrollCorrelationId;
+    private String fromIban;
+    private BigDecimal totalDebited;
+    private String currency;
+    private int succeeded;
+    private int failed;
+}
@@ -0,0 +1,27 @@
+package com.banking.transaction.dto;
+
+import com.banking.common.money.MoneyAmount;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PayrollLine {
+
+    @NotBlank
+    @Pattern(regexp = "TR\\d{24}")
+    private String toIban;
+
+    @NotNull
+    @Positive
+    @MoneyAmount
+    private BigDecimal amount;
+}
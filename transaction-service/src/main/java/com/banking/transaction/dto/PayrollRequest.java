@@ -0,0 +1,22 @@
+package com.banking.transaction.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class PayrollRequest {
+
+    @NotBlank
+    @Pattern(regexp = "TR\\d{24}")
+    private String fromIban;
+
+    @NotEmpty
+    @Size(max = 100000)
+    private List<@Valid PayrollLine> lines;
+}
@@ -0,0 +1,25 @@
+package com.banking.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Outcome of a payroll. Only the lines that were not paid by this request are listed; the others succeeded.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PayrollResponse {
+    private String payrollCorrelationId;
+    private int total;
+    private int succeeded;
+    private int duplicates;
+    private int failed;
+    // Debited from the source account by this request, in its currency
+    private BigDecimal totalDebited;
+    private List<BatchItemResult> unpaidLines;
+}
@@ -0,0 +1,46 @@
+package com.banking.transaction.dto;
+
+import com.banking.common.money.MoneyAmount;
+import com.banking.transaction.entity.TransferRecurrence;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class ScheduledTransferRequest {
+
+    @NotBlank
+    @Pattern(regexp = "TR\\d{24}")
+    private String fromIban;
+
+    @NotBlank
+    @Pattern(regexp = "TR\\d{24}")
+    private String toIban;
+
+    @NotNull
+    @Positive
+    @MoneyAmount
+    private BigDecimal amount;
+
+    @NotNull
+    private TransferRecurrence recurrence;
+
+    @NotNull
+    @Future
+    private LocalDateTime firstRunAt;
+
+    // Optional; no run is scheduled after it
+    private LocalDateTime endsAt;
+
+    @AssertTrue(message = "must not be before firstRunAt")
+    public boolean isEndsAtAfterFirstRun() {
+        return endsAt == null || firstRunAt == null || !endsAt.isBefore(firstRunAt);
+    }
+}
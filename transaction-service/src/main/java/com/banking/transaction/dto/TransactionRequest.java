@@ -1,5 +1,6 @@
 package com.banking.transaction.dto;
 
+import com.banking.common.money.MoneyAmount;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
@@ -21,5 +22,6 @@ public class TransactionRequest {
 
     @NotNull
     @Positive
+    @MoneyAmount
     private BigDecimal amount;
 }
\ No newline at end of file
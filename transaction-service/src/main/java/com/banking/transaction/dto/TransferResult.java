@@ -0,0 +1,31 @@
+package com.banking.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransferResult {
+    private String correlationId;
+    private String fromIban;
+    private String toIban;
+    private BigDecimal amount;
+    private LocalDateTime completedAt;
+    private boolean replayed;
+
+    public static TransferResult completed(String correlationId, TransactionRequest request) {
+        return new TransferResult(correlationId, request.getFromIban(), request.getToIban(), request.getAmount(),
+                LocalDateTime.now(), false);
+    }
+
+    public boolean matches(TransactionRequest request) {
+        return fromIban.equals(request.getFromIban())
+                && toIban.equals(request.getToIban())
+                && amount.compareTo(request.getAmount()) == 0;
+    }
+}
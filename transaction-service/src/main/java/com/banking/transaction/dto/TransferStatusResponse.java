@@ -0,0 +1,37 @@
+package com.banking.transaction.dto;
+
+import com.banking.transaction.entity.TransferIntake;
+import com.banking.transaction.entity.TransferIntakeStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransferStatusResponse {
+    private String correlationId;
+    private TransferIntakeStatus status;
+    private String fromIban;
+    private String toIban;
+    private BigDecimal amount;
+    private LocalDateTime acceptedAt;
+    private LocalDateTime completedAt;
+    private String failureReason;
+    // True when this correlation id had been submitted before
+    private boolean replayed;
+
+    public static TransferStatusResponse of(TransferIntake intake, boolean replayed) {
+        return new TransferStatusResponse(intake.getCorrelationId(), intake.getStatus(), intake.getFromIban(),
+                intake.getToIban(), intake.getAmount(), intake.getAcceptedAt(), intake.getCompletedAt(),
+                intake.getFailureReason(), replayed);
+    }
+
+    public static TransferStatusResponse completed(TransferResult result) {
+        return new TransferStatusResponse(result.getCorrelationId(), TransferIntakeStatus.COMPLETED, result.getFromIban(),
+                result.getToIban(), result.getAmount(), null, result.getCompletedAt(), null, result.isReplayed());
+    }
+}
@@ -1,11 +1,14 @@
 package com.banking.transaction.entity;
 
+import com.banking.common.money.Money;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Entity
 @Data
@@ -14,18 +17,64 @@ import java.math.BigDecimal;
 public class Account {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_seq")
+    @SequenceGenerator(name = "account_seq", sequenceName = "account_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, length = 26)
     private String iban;
 
+    // Three decimals hold the minor units of every currency Money accepts, e.g. KWD 1.235
+    @Column(precision = 38, scale = 3)
     private BigDecimal balance;
 
     private String currency;
 
     private Long userId;
 
+    // Transfer limit profile, see TransferLimitProperties; null for the default profile
+    @Column(length = 32)
+    private String limitProfile;
+
+    // Null on accounts created before statuses were recorded, which are active
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private AccountStatus status;
+
+    // No ledger entry predates it, so it bounds ledger queries from below; null on accounts created before it was recorded
+    private LocalDateTime createdAt;
+
+    // Last business day interest was accrued for; each day is accrued at most once
+    private LocalDate lastInterestDate;
+
     @Version
     private Long version;
+
+    // Accounts opened without a currency hold Turkish lira
+    public static final String DEFAULT_CURRENCY = "TRY";
+
+    private static final LocalDateTime LEDGER_EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    /**
+     * Earliest time a ledger entry of this account can carry, used as the lower date bound of ledger queries.
+     */
+    public LocalDateTime ledgerStart() {
+        return createdAt != null ? createdAt : LEDGER_EPOCH;
+    }
+
+    public String currencyCode() {
+        return currency != null ? currency : DEFAULT_CURRENCY;
+    }
+
+    public Money balanceAmount() {
+        return Money.of(balance, currencyCode());
+    }
+
+    public boolean canSend() {
+        return status == null || status == AccountStatus.ACTIVE;
+    }
+
+    public boolean canReceive() {
+        return status != AccountStatus.CLOSED;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.banking.transaction.entity;
+
+public enum AccountStatus {
+    ACTIVE,
+    // Can still receive money but not send it
+    FROZEN,
+    // Neither sends nor receives; cannot be reopened
+    CLOSED
+}
@@ -0,0 +1,39 @@
+package com.banking.transaction.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The balance of an account at a point in time. Written in bulk by
+ * {@link com.banking.transaction.scheduler.BalanceCheckpointScheduler}, so point-in-time balance queries only
+ * have to look at ledger rows after the nearest checkpoint.
+ */
+@Entity
+@Table(indexes = @Index(name = "ux_balance_checkpoint_account_as_of", columnList = "account_id, as_of", unique = true))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BalanceCheckpoint {
+
+    // Rows are inserted with plain nextval() in SQL, so ids are not allocated in blocks
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "balance_checkpoint_seq")
+    @SequenceGenerator(name = "balance_checkpoint_seq", sequenceName = "balance_checkpoint_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "as_of", nullable = false)
+    private LocalDateTime asOf;
+
+    @Column(precision = 38, scale = 3)
+    private BigDecimal balance;
+}
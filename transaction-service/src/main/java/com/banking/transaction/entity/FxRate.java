@@ -0,0 +1,39 @@
+package com.banking.transaction.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One unit of {@code baseCurrency} buys {@code rate} units of {@code quoteCurrency}. Transfers never read this
+ * table; they use the snapshot {@link com.banking.transaction.fx.FxRateService} loads from it.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_fx_rate_pair", columnNames = {"base_currency", "quote_currency"}))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class FxRate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fx_rate_seq")
+    @SequenceGenerator(name = "fx_rate_seq", sequenceName = "fx_rate_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(length = 3, nullable = false)
+    private String baseCurrency;
+
+    @Column(length = 3, nullable = false)
+    private String quoteCurrency;
+
+    @Column(precision = 19, scale = 8, nullable = false)
+    private BigDecimal rate;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,50 @@
+package com.banking.transaction.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A processed X-Correlation-ID. The id is the first 128 bits of the SHA-256 of the correlation id,
+ * stored as a PostgreSQL {@code uuid}, and the outcome is the JSON of the original result.
+ */
+@Entity
+@Table(indexes = @Index(name = "ix_idempotency_key_created_at", columnList = "created_at"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class IdempotencyKey implements Persistable<UUID> {
+
+    @Id
+    private UUID id;
+
+    private Long userId;
+
+    @Column(columnDefinition = "TEXT")
+    private String outcome;
+
+    private LocalDateTime createdAt;
+
+    // Ids are assigned by us, so tell Spring Data to persist instead of merging (which would SELECT first)
+    @Transient
+    @Builder.Default
+    private boolean fresh = true;
+
+    @Override
+    public boolean isNew() {
+        return fresh;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.fresh = false;
+    }
+}
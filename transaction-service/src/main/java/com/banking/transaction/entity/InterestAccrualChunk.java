@@ -0,0 +1,47 @@
+package com.banking.transaction.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Checkpoint of an account id range whose interest for a business day has been posted, written in the same
+ * transaction as the postings. Rows are only written by
+ * {@link com.banking.transaction.repository.InterestAccrualRepository}; the mapping exists so the table is
+ * created with the schema.
+ */
+@Entity
+@IdClass(InterestAccrualChunk.Key.class)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InterestAccrualChunk {
+
+    @Id
+    private LocalDate businessDate;
+
+    // First account id of the range
+    @Id
+    private long chunkStart;
+
+    // First account id after the range
+    private long chunkEnd;
+
+    // Accounts that were credited interest
+    private int accounts;
+
+    private LocalDateTime completedAt;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate businessDate;
+        private long chunkStart;
+    }
+}
@@ -0,0 +1,30 @@
+package com.banking.transaction.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Interest accrual of one business day. A run without {@code completedAt} was interrupted, or left chunks
+ * that failed, and is resumed from its {@link InterestAccrualChunk} checkpoints.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InterestAccrualRun {
+
+    @Id
+    private LocalDate businessDate;
+
+    // Width of the account id ranges; a resumed run keeps it so that its checkpoints still line up
+    private int chunkSize;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,84 @@
+package com.banking.transaction.entity;
+
+import com.banking.transaction.dto.TransactionRequest;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A future-dated or recurring transfer. Each run is executed with a correlation id derived from the schedule
+ * and the run time, so running it again after a crash returns the original result instead of paying twice.
+ */
+@Entity
+@Table(indexes = @Index(name = "ix_scheduled_transfer_status_next_run_at", columnList = "status, next_run_at"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ScheduledTransfer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "scheduled_transfer_seq")
+    @SequenceGenerator(name = "scheduled_transfer_seq", sequenceName = "scheduled_transfer_seq", allocationSize = 50)
+    private Long id;
+
+    private Long userId;
+
+    @Column(length = 26)
+    private String fromIban;
+
+    @Column(length = 26)
+    private String toIban;
+
+    @Column(precision = 38, scale = 3)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private TransferRecurrence recurrence;
+
+    private LocalDateTime firstRunAt;
+
+    // No run is scheduled after this; null for no end
+    private LocalDateTime endsAt;
+
+    // Null once the schedule is no longer active
+    private LocalDateTime nextRunAt;
+
+    // Runs done so far, which is also the index of the next run
+    private long runCount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private ScheduledTransferStatus status;
+
+    private LocalDateTime lastRunAt;
+
+    // Outcome of the last run: COMPLETED, REJECTED or FAILED
+    @Column(length = 16)
+    private String lastOutcome;
+
+    private String lastFailureReason;
+
+    private LocalDateTime createdAt;
+
+    /**
+     * Correlation id of the run at {@code runAt}; the same for every attempt at that run.
+     */
+    public String correlationId(LocalDateTime runAt) {
+        return "scheduled-" + id + "-" + runAt;
+    }
+
+    public TransactionRequest toRequest() {
+        TransactionRequest request = new TransactionRequest();
+        request.setFromIban(fromIban);
+        request.setToIban(toIban);
+        request.setAmount(amount);
+        return request;
+    }
+}
@@ -0,0 +1,9 @@
+package com.banking.transaction.entity;
+
+public enum ScheduledTransferStatus {
+    // Runs at nextRunAt
+    ACTIVE,
+    // Ran for the last time: a one-off transfer that has run, or a recurring one past its end
+    COMPLETED,
+    CANCELLED
+}
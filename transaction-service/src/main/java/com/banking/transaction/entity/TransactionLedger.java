@@ -9,6 +9,15 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+/**
+ * One side of a transfer or a deposit. On PostgreSQL the table is range-partitioned by month on
+ * {@code transaction_date}, see {@link com.banking.transaction.schema.LedgerPartitionManager}; queries should
+ * bound {@code transactionDate} so the planner only visits the partitions that can hold matching rows.
+ * <p>
+ * Hibernate cannot see the indexes and foreign keys of a partitioned table and would try to add them again on
+ * every start, so the {@code (account_id, transaction_date, id)} index and the foreign key to {@code account}
+ * are created by the partition manager and {@code db/ledger-partitioning.sql} instead of being mapped here.
+ */
 @Entity
 @Data
 @AllArgsConstructor
@@ -17,20 +26,45 @@ import java.time.LocalDateTime;
 public class TransactionLedger {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_ledger_seq")
+    @SequenceGenerator(name = "transaction_ledger_seq", sequenceName = "transaction_ledger_seq", allocationSize = 50)
     private Long id;
 
+    @Column(precision = 38, scale = 3)
     private BigDecimal amount;
 
+    // Balance of the account right after this entry; null on entries written before it was recorded
+    @Column(precision = 38, scale = 3)
+    private BigDecimal balanceAfter;
+
+    // Both sides of a transfer between currencies, recorded on the debit and the credit row: what was debited
+    // in the sender's currency, what was credited in the receiver's and the rate used. Unsigned, the direction
+    // is given by amount. Null on same-currency transfers and deposits.
+    @Column(precision = 38, scale = 3)
+    private BigDecimal originalAmount;
+
+    @Column(length = 3)
+    private String originalCurrency;
+
+    @Column(precision = 38, scale = 3)
+    private BigDecimal convertedAmount;
+
+    @Column(length = 3)
+    private String convertedCurrency;
+
+    @Column(precision = 19, scale = 8)
+    private BigDecimal exchangeRate;
+
     @Enumerated(EnumType.STRING)
     private TransactionType transactionType;
 
     private LocalDateTime transactionDate;
 
-    @Column(unique = true)
+    // Not unique: a unique index on a partitioned table has to include transaction_date. Duplicate requests
+    // are rejected by the idempotency_key table instead.
     private String correlationId;
 
     @ManyToOne
-    @JoinColumn(name = "account_id")
+    @JoinColumn(name = "account_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Account account;
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.banking.transaction.entity;
+
+import com.banking.transaction.dto.TransactionRequest;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A transfer request that was accepted but not necessarily executed yet. Workers claim rows whose
+ * {@code availableAt} has passed with {@code FOR UPDATE SKIP LOCKED}; for a claimed row {@code availableAt}
+ * is the end of the worker's lease, for a row waiting to be retried it is the end of its backoff.
+ */
+@Entity
+@Table(indexes = @Index(name = "ix_transfer_intake_status_available_at", columnList = "status, available_at"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TransferIntake implements Persistable<String> {
+
+    @Id
+    private String correlationId;
+
+    private Long userId;
+
+    private String fromIban;
+
+    private String toIban;
+
+    @Column(precision = 38, scale = 3)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private TransferIntakeStatus status;
+
+    private int attempts;
+
+    private LocalDateTime acceptedAt;
+
+    private LocalDateTime availableAt;
+
+    private LocalDateTime completedAt;
+
+    private String failureReason;
+
+    // Ids are assigned by us, so tell Spring Data to persist instead of merging (which would SELECT first)
+    @Transient
+    @Builder.Default
+    private boolean fresh = true;
+
+    @Override
+    public String getId() {
+        return correlationId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return fresh;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.fresh = false;
+    }
+
+    public TransactionRequest toRequest() {
+        TransactionRequest request = new TransactionRequest();
+        request.setFromIban(fromIban);
+        request.setToIban(toIban);
+        request.setAmount(amount);
+        return request;
+    }
+}
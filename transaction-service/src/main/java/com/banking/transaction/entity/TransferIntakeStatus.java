@@ -0,0 +1,13 @@
+package com.banking.transaction.entity;
+
+public enum TransferIntakeStatus {
+    // Accepted and waiting for a worker
+    PENDING,
+    // Claimed by a worker; claimable again once its lease runs out
+    PROCESSING,
+    COMPLETED,
+    // Refused for a business reason, e.g. insufficient funds; retrying would not help
+    REJECTED,
+    // Still failing after the last attempt
+    FAILED
+}
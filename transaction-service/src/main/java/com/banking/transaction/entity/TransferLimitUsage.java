@@ -0,0 +1,49 @@
+package com.banking.transaction.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Amount and number of transfers of one user or account within one time bucket, in minor units of the limit
+ * currency. Rows are only written by {@link com.banking.transaction.repository.TransferLimitRepository}; the
+ * mapping exists so the table is created with the schema.
+ */
+@Entity
+// Hibernate orders the primary key columns by name, which puts the subject last; the window sums need it first
+@Table(indexes = @Index(name = "ix_transfer_limit_usage_subject_bucket", columnList = "subject, bucket_seconds, bucket_start"))
+@IdClass(TransferLimitUsage.Key.class)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransferLimitUsage {
+
+    // "user:<id>" or "account:<iban>"
+    @Id
+    @Column(length = 40)
+    private String subject;
+
+    // 60 for the buckets of the hourly window, 3600 for those of the daily window
+    @Id
+    private int bucketSeconds;
+
+    @Id
+    private LocalDateTime bucketStart;
+
+    private long amountMinor;
+
+    private int transferCount;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private String subject;
+        private int bucketSeconds;
+        private LocalDateTime bucketStart;
+    }
+}
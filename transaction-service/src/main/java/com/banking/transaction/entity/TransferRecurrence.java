@@ -0,0 +1,26 @@
+package com.banking.transaction.entity;
+
+import java.time.LocalDateTime;
+
+public enum TransferRecurrence {
+    ONCE,
+    DAILY,
+    WEEKLY,
+    // On the day of month of the first run, or the last day of shorter months
+    MONTHLY;
+
+    /**
+     * Time of the run with the given zero-based index. Counting from the first run rather than the previous
+     * one keeps a schedule that starts on the 31st on the last day of every month.
+     *
+     * @return the time, or null if a one-off transfer has no such run
+     */
+    public LocalDateTime occurrence(LocalDateTime firstRunAt, long index) {
+        return switch (this) {
+            case ONCE -> index == 0 ? firstRunAt : null;
+            case DAILY -> firstRunAt.plusDays(index);
+            case WEEKLY -> firstRunAt.plusWeeks(index);
+            case MONTHLY -> firstRunAt.plusMonths(index);
+        };
+    }
+}
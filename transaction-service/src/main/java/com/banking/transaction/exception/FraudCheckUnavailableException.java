@@ -0,0 +1,11 @@
+package com.banking.transaction.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class FraudCheckUnavailableException extends RuntimeException {
+    public FraudCheckUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,11 @@
+package com.banking.transaction.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class FxRateNotFoundException extends RuntimeException {
+    public FxRateNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.banking.transaction.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ScheduledTransferNotFoundException extends RuntimeException {
+    public ScheduledTransferNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.banking.transaction.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.FORBIDDEN)
+public class SuspectedFraudException extends RuntimeException {
+    public SuspectedFraudException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.banking.transaction.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class TransferConflictException extends RuntimeException {
+    public TransferConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,15 @@
+package com.banking.transaction.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The transfer was still running when its caller stopped waiting for it, so it may yet commit. Query it by its
+ * correlation id, or retry with the same correlation id, which answers with its result once it has committed.
+ */
+@ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+public class TransferOutcomeUnknownException extends RuntimeException {
+    public TransferOutcomeUnknownException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,332 @@
+package com.banking.transaction.execution;
+
+import com.banking.transaction.dto.TransactionRequest;
+import com.banking.transaction.dto.TransferResult;
+import com.banking.transaction.exception.TransferOutcomeUnknownException;
+import com.banking.transaction.exception.TransferQueueFullException;
+import com.banking.transaction.service.TransactionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaDialect;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Savepoint;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Commits concurrent transfers together so that many requests share one database commit, and one fsync.
+ * <p>
+ * A single committer thread collects transfers until {@code max-size} are queued or the oldest one has waited
+ * {@code max-wait}, then applies them in one transaction with a savepoint per transfer. A rejected transfer
+ * (insufficient funds, unknown account, ...) is rolled back to its savepoint and the others carry on. A
+ * database error leaves the persistence context unusable, so the whole group is rolled back, the failing
+ * transfer gets its error and the rest are applied again in a new group. Callers get their result only after
+ * the commit.
+ * <p>
+ * A caller waits at most {@code timeout}. A transfer whose group has not started by then is dropped and
+ * rejected; one already in a group may still commit, so its caller is told the outcome is unknown instead.
+ */
+@Component
+@ConditionalOnProperty(name = "transaction.execution.mode", havingValue = "group-commit")
+public class GroupCommitExecutor implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitExecutor.class);
+
+    private final TransactionService transactionService;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    // The flush goes to the shared EntityManager directly, past Spring's exception translation
+    private final JpaDialect jpaDialect = new HibernateJpaDialect();
+    private final BlockingQueue<PendingTransfer> queue;
+    private final int maxSize;
+    private final long maxWaitNanos;
+    private final Duration timeout;
+    private final Thread committer;
+    private volatile boolean running = true;
+
+    private final DistributionSummary groupSize;
+    private final Timer queueWait;
+    private final Timer commitTimer;
+    private final Counter regrouped;
+    private final Counter rejected;
+    private final Counter timedOut;
+
+    public GroupCommitExecutor(TransactionService transactionService,
+                               EntityManager entityManager,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${transaction.execution.group-commit.max-size:32}") int maxSize,
+                               @Value("${transaction.execution.group-commit.max-wait:2ms}") Duration maxWait,
+                               @Value("${transaction.execution.group-commit.queue-capacity:10000}") int queueCapacity,
+                               @Value("${transaction.execution.group-commit.timeout:30s}") Duration timeout) {
+        if (maxSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Group size and queue capacity must be positive");
+        }
+        this.transactionService = transactionService;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxSize = maxSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.timeout = timeout;
+
+        Gauge.builder("transaction.group-commit.queue.depth", queue, BlockingQueue::size)
+                .description("Transfers waiting for the next group commit")
+                .register(meterRegistry);
+        this.groupSize = DistributionSummary.builder("transaction.group-commit.size")
+                .description("Transfers applied per group commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("transaction.group-commit.wait")
+                .description("Time a transfer waited for its group to start")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.commitTimer = Timer.builder("transaction.group-commit.execution")
+                .description("Time to apply and commit one group")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.regrouped = Counter.builder("transaction.group-commit.regrouped")
+                .description("Groups rolled back after a database error and applied again without the failing transfer")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("transaction.group-commit.rejected")
+                .description("Transfers rejected because the group commit queue was full or did not respond in time")
+                .register(meterRegistry);
+        this.timedOut = Counter.builder("transaction.group-commit.timed-out")
+                .description("Transfers already in a group when their caller stopped waiting, whose outcome is unknown to it")
+                .register(meterRegistry);
+
+        this.committer = new Thread(this::run, "transfer-group-commit");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    public TransferResult execute(TransactionRequest request, String correlationId, Long userId) {
+        PendingTransfer transfer = new PendingTransfer(request, correlationId, userId, System.nanoTime());
+        if (!running || !queue.offer(transfer)) {
+            rejected.increment();
+            throw new TransferQueueFullException("Group commit queue is full, please retry later.");
+        }
+        return await(transfer);
+    }
+
+    private TransferResult await(PendingTransfer transfer) {
+        try {
+            return transfer.result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Group commit failed", cause);
+        } catch (TimeoutException e) {
+            if (transfer.claimed.compareAndSet(false, true)) {
+                transfer.result.cancel(false);
+                rejected.increment();
+                throw new TransferQueueFullException("Group commit did not respond in time, please retry later.");
+            }
+            timedOut.increment();
+            throw new TransferOutcomeUnknownException("Transfer did not complete in time and may still commit; "
+                    + "query it or retry with the same correlation id.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for group commit", e);
+        }
+    }
+
+    private void run() {
+        List<PendingTransfer> group = new ArrayList<>(maxSize);
+        while (running) {
+            try {
+                if (collect(group)) {
+                    commit(group);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                group.forEach(transfer -> transfer.result.completeExceptionally(shuttingDown()));
+                break;
+            } catch (RuntimeException | Error e) {
+                logger.error("Group commit of {} transfers failed", group.size(), e);
+                group.forEach(transfer -> transfer.result.completeExceptionally(e));
+            } finally {
+                group.clear();
+            }
+        }
+        PendingTransfer transfer;
+        while ((transfer = queue.poll()) != null) {
+            transfer.result.completeExceptionally(shuttingDown());
+        }
+    }
+
+    private static TransferQueueFullException shuttingDown() {
+        return new TransferQueueFullException("Service is shutting down, please retry later.");
+    }
+
+    /**
+     * Waits for the first transfer, then takes more until the group is full or the first one has waited
+     * {@code max-wait}.
+     */
+    private boolean collect(List<PendingTransfer> group) throws InterruptedException {
+        PendingTransfer first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return false;
+        }
+        group.add(first);
+        long deadline = first.enqueuedAt + maxWaitNanos;
+        while (group.size() < maxSize) {
+            queue.drainTo(group, maxSize - group.size());
+            long remaining = deadline - System.nanoTime();
+            if (group.size() >= maxSize || remaining <= 0) {
+                break;
+            }
+            PendingTransfer next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            group.add(next);
+        }
+        return true;
+    }
+
+    void commit(List<PendingTransfer> group) {
+        long startedAt = System.nanoTime();
+        List<PendingTransfer> remaining = new ArrayList<>(group.size());
+        for (PendingTransfer transfer : group) {
+            // Unless claimed by a caller that gave up waiting
+            if (transfer.claimed.compareAndSet(false, true)) {
+                queueWait.record(startedAt - transfer.enqueuedAt, TimeUnit.NANOSECONDS);
+                remaining.add(transfer);
+            }
+        }
+        while (!remaining.isEmpty()) {
+            Map<PendingTransfer, TransferResult> applied = new LinkedHashMap<>();
+            List<PendingTransfer> pending = remaining;
+            List<PendingTransfer> retry = commitTimer.record(() ->
+                    transactionTemplate.execute(status -> applyGroup(pending, applied, status)));
+            if (retry == null) {
+                groupSize.record(applied.size());
+                applied.forEach((transfer, result) -> transfer.result.complete(result));
+                return;
+            }
+            regrouped.increment();
+            remaining = retry;
+        }
+    }
+
+    /**
+     * Applies each transfer behind its own savepoint. Returns {@code null} when the group can be committed,
+     * or the transfers to apply again in a new transaction after a database error.
+     */
+    private List<PendingTransfer> applyGroup(List<PendingTransfer> group, Map<PendingTransfer, TransferResult> applied,
+                                             TransactionStatus status) {
+        for (int i = 0; i < group.size(); i++) {
+            PendingTransfer transfer = group.get(i);
+            Savepoint savepoint = setSavepoint();
+            try {
+                TransferResult result = transactionService.applyTransfer(transfer.request, transfer.correlationId, transfer.userId);
+                // Flush per transfer so a failing statement is attributed to the transfer that caused it, then
+                // detach what was written so later flushes in the group do not dirty-check it again
+                entityManager.flush();
+                entityManager.clear();
+                applied.put(transfer, result);
+            } catch (RuntimeException e) {
+                RuntimeException failure = translate(e);
+                // A conflict reaches the caller as ConcurrencyFailureException to retry, a duplicate correlation
+                // id as DataIntegrityViolationException to look up the stored result
+                transfer.result.completeExceptionally(failure);
+                if (failure instanceof DataAccessException || status.isRollbackOnly()) {
+                    logger.debug("Transfer {} failed with a database error, applying the rest of its group again",
+                            transfer.correlationId, failure);
+                    status.setRollbackOnly();
+                    List<PendingTransfer> retry = new ArrayList<>(group.size() - 1);
+                    retry.addAll(applied.keySet());
+                    retry.addAll(group.subList(i + 1, group.size()));
+                    return retry;
+                }
+                rollbackToSavepoint(savepoint);
+            }
+        }
+        return null;
+    }
+
+    private RuntimeException translate(RuntimeException e) {
+        if (e instanceof DataAccessException) {
+            return e;
+        }
+        DataAccessException translated = jpaDialect.translateExceptionIfPossible(e);
+        return translated != null ? translated : e;
+    }
+
+    // Hibernate's JpaDialect does not expose savepoints, so they are set on the transaction's JDBC connection
+    private Savepoint setSavepoint() {
+        return jdbcTemplate.execute((ConnectionCallback<Savepoint>) connection -> connection.setSavepoint());
+    }
+
+    private void rollbackToSavepoint(Savepoint savepoint) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            connection.rollback(savepoint);
+            return null;
+        });
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        committer.interrupt();
+        committer.join(timeout.toMillis());
+    }
+
+    static final class PendingTransfer {
+
+        private final TransactionRequest request;
+        private final String correlationId;
+        private final Long userId;
+        private final long enqueuedAt;
+        private final CompletableFuture<TransferResult> result = new CompletableFuture<>();
+        // Claimed by whichever comes first: the committer putting it in a group or the caller giving up on it
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        PendingTransfer(TransactionRequest request, String correlationId, Long userId, long enqueuedAt) {
+            this.request = request;
+            this.correlationId = correlationId;
+            this.userId = userId;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        CompletableFuture<TransferResult> result() {
+            return result;
+        }
+    }
+}
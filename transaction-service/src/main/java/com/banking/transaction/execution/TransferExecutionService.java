@@ -0,0 +1,127 @@
+package com.banking.transaction.execution;
+
+import com.banking.transaction.dto.TransactionRequest;
+import com.banking.transaction.dto.TransferResult;
+import com.banking.transaction.exception.TransferConflictException;
+import com.banking.transaction.service.TransactionService;
+import com.banking.transaction.timing.StageTimings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Entry point for executing a transfer. Runs {@link TransactionService#executeTransaction} directly on the
+ * calling thread unless an execution mode such as {@code striped} or {@code group-commit} is configured.
+ * <p>
+ * Transfers that lose against a concurrent update of the same account (a stale {@code @Version}, a deadlock
+ * victim or a lock timeout) are retried with jittered exponential backoff before giving up with a 409. In
+ * {@code striped} mode every attempt takes its lanes anew, so a transfer backing off does not hold up the other
+ * transfers of its lanes.
+ */
+@Service
+public class TransferExecutionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransferExecutionService.class);
+
+    private final TransactionService transactionService;
+    private final TransferLaneExecutor laneExecutor;
+    private final GroupCommitExecutor groupCommitExecutor;
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+
+    private final Counter retries;
+    private final Counter exhausted;
+    private final DistributionSummary attempts;
+
+    public TransferExecutionService(TransactionService transactionService,
+                                    ObjectProvider<TransferLaneExecutor> laneExecutor,
+                                    ObjectProvider<GroupCommitExecutor> groupCommitExecutor,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${transaction.locking.retry.max-attempts:5}") int maxAttempts,
+                                    @Value("${transaction.locking.retry.initial-backoff:10ms}") Duration initialBackoff,
+                                    @Value("${transaction.locking.retry.max-backoff:200ms}") Duration maxBackoff) {
+        this.transactionService = transactionService;
+        this.laneExecutor = laneExecutor.getIfAvailable();
+        this.groupCommitExecutor = groupCommitExecutor.getIfAvailable();
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+
+        this.retries = Counter.builder("transaction.locking.retries")
+                .description("Transfers retried after a concurrent update of the same account")
+                .register(meterRegistry);
+        this.exhausted = Counter.builder("transaction.locking.retries.exhausted")
+                .description("Transfers that still conflicted after the last attempt")
+                .register(meterRegistry);
+        this.attempts = DistributionSummary.builder("transaction.locking.attempts")
+                .description("Attempts needed per transfer")
+                .register(meterRegistry);
+    }
+
+    public TransferResult execute(TransactionRequest request, String correlationId, Long userId) {
+        Supplier<TransferResult> once = () -> executeOnce(request, correlationId, userId);
+        if (laneExecutor == null) {
+            return executeWithRetry(once, correlationId);
+        }
+        Supplier<TransferResult> onLanes = StageTimings.propagate(once);
+        return executeWithRetry(() -> laneExecutor.execute(request.getFromIban(), request.getToIban(), onLanes), correlationId);
+    }
+
+    private TransferResult executeWithRetry(Supplier<TransferResult> once, String correlationId) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                TransferResult result = once.get();
+                attempts.record(attempt);
+                return result;
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    attempts.record(attempt);
+                    throw new TransferConflictException("Transfer conflicted with concurrent updates, please retry.", e);
+                }
+                retries.increment();
+                logger.debug("Transfer {} conflicted on attempt {}, retrying", correlationId, attempt, e);
+                backOff(attempt, e);
+            }
+        }
+    }
+
+    private TransferResult executeOnce(TransactionRequest request, String correlationId, Long userId) {
+        try {
+            if (groupCommitExecutor != null) {
+                return groupCommitExecutor.execute(request, correlationId, userId);
+            }
+            return transactionService.executeTransaction(request, correlationId, userId);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request with the same correlation id committed first; answer with its result
+            return transactionService.findProcessed(request, correlationId, userId).orElseThrow(() -> e);
+        }
+    }
+
+    // Full jitter: sleep a random time up to the exponential bound so retrying transfers spread out
+    private void backOff(int attempt, ConcurrencyFailureException cause) {
+        long bound = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 20));
+        if (bound <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+}
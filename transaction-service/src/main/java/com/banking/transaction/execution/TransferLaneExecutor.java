@@ -0,0 +1,188 @@
+package com.banking.transaction.execution;
+
+import com.banking.transaction.exception.TransferOutcomeUnknownException;
+import com.banking.transaction.exception.TransferQueueFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes transfers that touch the same accounts by routing them to a fixed set of single-threaded lanes.
+ * <p>
+ * Each IBAN hashes to a lane. A transfer runs on the lower of its two lanes and, when the accounts live in
+ * different lanes, additionally takes the higher lane's lock, so locks are always acquired in ascending order.
+ * Conflicting transfers therefore wait in memory instead of colliding on {@code Account.@Version}.
+ * <p>
+ * A caller waits at most {@code timeout}. A transfer its lane has not picked up by then is dropped and
+ * rejected like one finding the queue full; one that is already running may still commit, so its caller is
+ * told the outcome is unknown instead.
+ */
+@Component
+@ConditionalOnProperty(name = "transaction.execution.mode", havingValue = "striped")
+public class TransferLaneExecutor implements DisposableBean {
+
+    private final Lane[] lanes;
+    private final Duration timeout;
+
+    public TransferLaneExecutor(MeterRegistry meterRegistry,
+                                @Value("${transaction.execution.lanes.count:16}") int laneCount,
+                                @Value("${transaction.execution.lanes.queue-capacity:1000}") int queueCapacity,
+                                @Value("${transaction.execution.lanes.timeout:30s}") Duration timeout) {
+        if (laneCount < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Lane count and queue capacity must be positive");
+        }
+        this.timeout = timeout;
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(i, queueCapacity, meterRegistry);
+        }
+    }
+
+    public <T> T execute(String fromIban, String toIban, Supplier<T> work) {
+        int fromLane = laneOf(fromIban);
+        int toLane = laneOf(toIban);
+        Lane home = lanes[Math.min(fromLane, toLane)];
+        Lane other = lanes[Math.max(fromLane, toLane)];
+
+        long enqueuedAt = System.nanoTime();
+        // Claimed by whichever comes first: the lane starting the work or the caller giving up on it
+        AtomicBoolean claimed = new AtomicBoolean();
+        Future<T> future;
+        try {
+            future = home.executor.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return null;
+                }
+                home.waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                return home.executionTimer.record(() -> runLocked(home, other, work));
+            });
+        } catch (RejectedExecutionException e) {
+            home.rejected.increment();
+            throw new TransferQueueFullException("Transfer lane " + home.index + " is full, please retry later.");
+        }
+        return await(future, claimed, home);
+    }
+
+    int laneOf(String iban) {
+        int hash = iban.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+    }
+
+    private static <T> T runLocked(Lane home, Lane other, Supplier<T> work) {
+        home.lock.lock();
+        try {
+            if (other == home) {
+                return work.get();
+            }
+            other.lock.lock();
+            try {
+                return work.get();
+            } finally {
+                other.lock.unlock();
+            }
+        } finally {
+            home.lock.unlock();
+        }
+    }
+
+    private <T> T await(Future<T> future, AtomicBoolean claimed, Lane home) {
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Transfer failed in lane " + home.index, cause);
+        } catch (TimeoutException e) {
+            if (claimed.compareAndSet(false, true)) {
+                future.cancel(false);
+                home.rejected.increment();
+                throw new TransferQueueFullException("Transfer lane " + home.index + " did not respond in time, please retry later.");
+            }
+            home.timedOut.increment();
+            throw new TransferOutcomeUnknownException("Transfer did not complete in time and may still commit; "
+                    + "query it or retry with the same correlation id.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for transfer lane " + home.index, e);
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        for (Lane lane : lanes) {
+            lane.executor.shutdown();
+        }
+        for (Lane lane : lanes) {
+            lane.executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static final class Lane {
+
+        private final int index;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ThreadPoolExecutor executor;
+        private final Timer waitTimer;
+        private final Timer executionTimer;
+        private final Counter rejected;
+        private final Counter timedOut;
+
+        private Lane(int index, int queueCapacity, MeterRegistry meterRegistry) {
+            this.index = index;
+            this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "transfer-lane-" + index);
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+
+            String lane = String.valueOf(index);
+            Gauge.builder("transaction.lanes.queue.depth", executor, e -> e.getQueue().size())
+                    .description("Transfers waiting in the lane queue")
+                    .tag("lane", lane)
+                    .register(meterRegistry);
+            this.waitTimer = Timer.builder("transaction.lanes.wait")
+                    .description("Time a transfer spent queued before its lane picked it up")
+                    .tag("lane", lane)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.executionTimer = Timer.builder("transaction.lanes.execution")
+                    .description("Time a lane spent executing a transfer")
+                    .tag("lane", lane)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("transaction.lanes.rejected")
+                    .description("Transfers rejected because the lane queue was full or did not reach them in time")
+                    .tag("lane", lane)
+                    .register(meterRegistry);
+            this.timedOut = Counter.builder("transaction.lanes.timed-out")
+                    .description("Transfers still running when their caller stopped waiting, whose outcome is unknown to it")
+                    .tag("lane", lane)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.banking.transaction.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Output formats of the ledger export. Each row is written straight from the current {@link ResultSet}
+ * position, nothing is collected in memory.
+ */
+public enum LedgerExportFormat {
+
+    NDJSON("application/x-ndjson", "ndjson") {
+        @Override
+        RowWriter open(Writer writer, JsonFactory jsonFactory) throws IOException {
+            JsonGenerator generator = jsonFactory.createGenerator(writer);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            return new RowWriter() {
+                @Override
+                public void write(ResultSet rs) throws SQLException, IOException {
+                    generator.writeStartObject();
+                    generator.writeNumberField("id", rs.getLong("id"));
+                    generator.writeStringField("transactionDate", rs.getTimestamp("transaction_date").toLocalDateTime().toString());
+                    generator.writeStringField("transactionType", rs.getString("transaction_type"));
+                    generator.writeNumberField("amount", rs.getBigDecimal("amount"));
+                    BigDecimal balanceAfter = rs.getBigDecimal("balance_after");
+                    if (balanceAfter == null) {
+                        generator.writeNullField("balanceAfter");
+                    } else {
+                        generator.writeNumberField("balanceAfter", balanceAfter);
+                    }
+                    generator.writeStringField("correlationId", rs.getString("correlation_id"));
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                }
+
+                @Override
+                public void close() throws IOException {
+                    generator.close();
+                }
+            };
+        }
+    },
+
+    CSV("text/csv", "csv") {
+        @Override
+        RowWriter open(Writer writer, JsonFactory jsonFactory) throws IOException {
+            writer.write("id,transaction_date,transaction_type,amount,balance_after,correlation_id\n");
+            return new RowWriter() {
+                @Override
+                public void write(ResultSet rs) throws SQLException, IOException {
+                    writer.write(Long.toString(rs.getLong("id")));
+                    writer.write(',');
+                    writer.write(rs.getTimestamp("transaction_date").toLocalDateTime().toString());
+                    writer.write(',');
+                    writer.write(rs.getString("transaction_type"));
+                    writer.write(',');
+                    writer.write(rs.getBigDecimal("amount").toPlainString());
+                    writer.write(',');
+                    BigDecimal balanceAfter = rs.getBigDecimal("balance_after");
+                    if (balanceAfter != null) {
+                        writer.write(balanceAfter.toPlainString());
+                    }
+                    writer.write(',');
+                    writeField(writer, rs.getString("correlation_id"));
+                    writer.write('\n');
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+    };
+
+    private final String contentType;
+    private final String fileExtension;
+
+    LedgerExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    abstract RowWriter open(Writer writer, JsonFactory jsonFactory) throws IOException;
+
+    // RFC 4180: quote fields containing separators or quotes, doubling embedded quotes
+    private static void writeField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void close() throws IOException;
+    }
+}
@@ -0,0 +1,131 @@
+package com.banking.transaction.export;
+
+import com.banking.transaction.cache.AccountMetadata;
+import com.banking.transaction.cache.AccountMetadataCache;
+import com.banking.transaction.exception.AccountNotFoundException;
+import com.banking.transaction.exception.UnauthorizedTransactionException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams an account's ledger to an {@link OutputStream} from a forward-only cursor.
+ * <p>
+ * The query runs in a read-only transaction so the PostgreSQL driver honours the fetch size and pulls rows
+ * in batches of {@code fetch-size} instead of materialising the whole result. Each row is written to the
+ * output as soon as it is read, so memory use does not depend on the number of rows exported.
+ */
+@Service
+public class LedgerExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerExportService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final AccountMetadataCache accountMetadataCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public LedgerExportService(AccountMetadataCache accountMetadataCache,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper,
+                               @Value("${transaction.export.fetch-size:1000}") int fetchSize) {
+        this.accountMetadataCache = accountMetadataCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Resolves the account to export and checks that it belongs to the user. Runs before the response is
+     * committed so that errors still become proper status codes.
+     */
+    public Long findExportableAccountId(String iban, Long userId) {
+        AccountMetadata account = accountMetadataCache.findByIban(iban)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found with IBAN: " + iban));
+        if (!account.isOwnedBy(userId)) {
+            throw new UnauthorizedTransactionException("User is not the owner of the account.");
+        }
+        return account.id();
+    }
+
+    /**
+     * Writes the account's ledger entries in {@code [from, to)}, oldest first. Either bound may be null.
+     *
+     * @return the number of rows written
+     */
+    public long export(Long accountId, LocalDateTime from, LocalDateTime to, LedgerExportFormat format,
+                       boolean gzip, OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder("SELECT id, transaction_date, transaction_type, amount, balance_after, correlation_id "
+                + "FROM transaction_ledger WHERE account_id = ?");
+        List<Object> parameters = new ArrayList<>(3);
+        parameters.add(accountId);
+        if (from != null) {
+            sql.append(" AND transaction_date >= ?");
+            parameters.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND transaction_date < ?");
+            parameters.add(Timestamp.valueOf(to));
+        }
+        sql.append(" ORDER BY transaction_date, id");
+
+        OutputStream target = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+        LedgerExportFormat.RowWriter rowWriter = format.open(writer, objectMapper.getFactory());
+        long[] rows = {0};
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                for (int i = 0; i < parameters.size(); i++) {
+                    statement.setObject(i + 1, parameters.get(i));
+                }
+                return statement;
+            }, rs -> {
+                try {
+                    rowWriter.write(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            }));
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the read transaction has been rolled back
+            logger.warn("Ledger export of account {} aborted after {} rows", accountId, rows[0]);
+            throw e.getCause();
+        }
+        rowWriter.close();
+        writer.flush();
+        if (target instanceof GZIPOutputStream gzipStream) {
+            gzipStream.finish();
+        }
+        return rows[0];
+    }
+}
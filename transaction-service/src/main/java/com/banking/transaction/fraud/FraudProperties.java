@@ -0,0 +1,67 @@
+package com.banking.transaction.fraud;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * Fraud screening settings under {@code transaction.fraud}; the {@code rules} only apply to
+ * {@link RuleBasedTransferScorer}.
+ */
+@Component
+@ConfigurationProperties("transaction.fraud")
+@Data
+public class FraudProperties {
+
+    private boolean enabled;
+
+    // Amounts are compared in this currency; transfers in other currencies are converted at the current rate
+    private String currency = "TRY";
+
+    // Transfers scoring this or more are refused
+    private int blockThreshold = 80;
+
+    // Longest a transfer waits for its score before the failure policy applies
+    private Duration timeout = Duration.ofMillis(50);
+
+    private FailurePolicy failurePolicy = FailurePolicy.OPEN;
+
+    // Scoring threads, and how many transfers may wait for one before scoring counts as failed
+    private int threads = 2;
+    private int queueCapacity = 256;
+
+    // Users and beneficiaries per user whose history is kept in memory
+    private long maximumUsers = 100_000;
+    private int beneficiariesPerUser = 256;
+
+    private Rules rules = new Rules();
+
+    public enum FailurePolicy {
+        // Let the transfer through unscored
+        OPEN,
+        // Refuse the transfer as temporarily unavailable
+        CLOSED
+    }
+
+    @Data
+    public static class Rules {
+        // Points when the user made more transfers than this within the last hour
+        private int velocityTransfersPerHour = 20;
+        private int velocityPoints = 40;
+
+        // Points when the amount is this many standard deviations above the user's mean
+        private double amountDeviation = 3.0;
+        private int amountDeviationPoints = 35;
+
+        // Points for the first transfer to a receiver, once the user has this many transfers on record
+        private int newBeneficiaryMinimumHistory = 5;
+        private int newBeneficiaryPoints = 25;
+
+        // Points for an amount of this or more from a user without this history yet
+        private BigDecimal unknownUserAmount = new BigDecimal("10000");
+        private int unknownUserPoints = 30;
+    }
+}
@@ -0,0 +1,11 @@
+package com.banking.transaction.fraud;
+
+import java.util.List;
+
+/**
+ * Risk of a transfer from 0 to 100, with the reasons that contributed to it.
+ */
+public record FraudScore(int value, List<String> reasons) {
+
+    public static final FraudScore NONE = new FraudScore(0, List.of());
+}
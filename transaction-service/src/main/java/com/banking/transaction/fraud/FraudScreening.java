@@ -0,0 +1,10 @@
+package com.banking.transaction.fraud;
+
+/**
+ * A transfer that passed screening, to be added to the sender's history once it is committed.
+ */
+public record FraudScreening(Long userId, String receiverIban, long amountMinor) {
+
+    // Screening was disabled, so there is nothing to record
+    static final FraudScreening SKIPPED = new FraudScreening(null, null, 0);
+}
@@ -0,0 +1,208 @@
+package com.banking.transaction.fraud;
+
+import com.banking.common.money.Money;
+import com.banking.transaction.exception.FraudCheckUnavailableException;
+import com.banking.transaction.exception.FxRateNotFoundException;
+import com.banking.transaction.exception.SuspectedFraudException;
+import com.banking.transaction.fx.FxRateService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scores every transfer before it is booked and refuses those scoring {@code block-threshold} or more. The
+ * features come from {@link TransferFeatureStore}, and the {@link TransferScorer} runs on its own threads so
+ * that a transfer never waits longer than {@code timeout} for it. A transfer whose score does not arrive in time,
+ * whose scorer fails, or whose amount cannot be converted into {@code currency}, is let through unscored or
+ * refused depending on {@code failure-policy}.
+ * <p>
+ * Screening runs before the accounts are read or locked, so a slow scorer does not hold locks. Transfers are
+ * added to the sender's history only once they are committed.
+ */
+@Service
+public class FraudScreeningService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(FraudScreeningService.class);
+
+    private final TransferFeatureStore featureStore;
+    private final TransferScorer scorer;
+    private final FxRateService fxRateService;
+    private final boolean enabled;
+    private final String currency;
+    private final int blockThreshold;
+    private final long timeoutNanos;
+    private final FraudProperties.FailurePolicy failurePolicy;
+    private final ThreadPoolExecutor executor;
+
+    private final Timer latency;
+    private final DistributionSummary scores;
+    private final Counter allowed;
+    private final Counter blocked;
+    private final Counter timedOut;
+    private final Counter failed;
+
+    public FraudScreeningService(TransferFeatureStore featureStore,
+                                 TransferScorer scorer,
+                                 FxRateService fxRateService,
+                                 FraudProperties properties,
+                                 MeterRegistry meterRegistry) {
+        if (properties.getThreads() < 1 || properties.getQueueCapacity() < 1) {
+            throw new IllegalArgumentException("Scoring threads and queue capacity must be positive");
+        }
+        this.featureStore = featureStore;
+        this.scorer = scorer;
+        this.fxRateService = fxRateService;
+        this.enabled = properties.isEnabled();
+        this.currency = properties.getCurrency();
+        this.blockThreshold = properties.getBlockThreshold();
+        this.timeoutNanos = properties.getTimeout().toNanos();
+        this.failurePolicy = properties.getFailurePolicy();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "fraud-scoring-" + threadIndex.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.latency = Timer.builder("transaction.fraud.latency")
+                .description("Time a transfer spent in fraud screening, waiting for its score included")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.scores = DistributionSummary.builder("transaction.fraud.score")
+                .description("Fraud scores of screened transfers")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(100.0)
+                .register(meterRegistry);
+        this.allowed = outcomeCounter(meterRegistry, "allowed");
+        this.blocked = outcomeCounter(meterRegistry, "blocked");
+        this.timedOut = outcomeCounter(meterRegistry, "timeout");
+        this.failed = outcomeCounter(meterRegistry, "error");
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("transaction.fraud.outcomes")
+                .description("Screened transfers by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Scores the transfer. Pass the result to {@link #recordAfterCommit} once the transfer has been booked.
+     *
+     * @throws SuspectedFraudException        if the score reaches the block threshold
+     * @throws FraudCheckUnavailableException if the transfer could not be scored in time and the failure policy is closed
+     */
+    public FraudScreening screen(Long userId, String receiverIban, Money amount) {
+        if (!enabled) {
+            return FraudScreening.SKIPPED;
+        }
+        long start = System.nanoTime();
+        try {
+            long amountMinor;
+            try {
+                amountMinor = fxRateService.current().convert(amount, currency).converted().minorUnits();
+            } catch (FxRateNotFoundException e) {
+                failed.increment();
+                // Without an amount in the screening currency there is nothing to add to the sender's history
+                return unscored(userId, FraudScreening.SKIPPED, "No exchange rate to score the transfer with", e);
+            }
+            TransferFeatures features = featureStore.features(userId, receiverIban, amountMinor, System.currentTimeMillis());
+            FraudScore score;
+            try {
+                score = scoreInTime(features);
+            } catch (TimeoutException e) {
+                timedOut.increment();
+                return unscored(features, receiverIban, "Fraud score did not arrive within the timeout", e);
+            } catch (ExecutionException | RejectedExecutionException e) {
+                failed.increment();
+                return unscored(features, receiverIban, "Fraud scoring failed", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.increment();
+                return unscored(features, receiverIban, "Interrupted while waiting for the fraud score", e);
+            }
+
+            scores.record(score.value());
+            if (score.value() >= blockThreshold) {
+                blocked.increment();
+                logger.info("Refused transfer of user {} to {} with fraud score {} {}", userId, receiverIban, score.value(), score.reasons());
+                throw new SuspectedFraudException("Transfer was refused by fraud screening.");
+            }
+            allowed.increment();
+            return new FraudScreening(userId, receiverIban, amountMinor);
+        } finally {
+            latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private FraudScore scoreInTime(TransferFeatures features) throws TimeoutException, ExecutionException, InterruptedException {
+        Future<FraudScore> future = executor.submit(() -> scorer.score(features));
+        try {
+            return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } finally {
+            // Interrupts a scorer that is still running; does nothing once it is done
+            future.cancel(true);
+        }
+    }
+
+    private FraudScreening unscored(TransferFeatures features, String receiverIban, String reason, Exception cause) {
+        return unscored(features.userId(), new FraudScreening(features.userId(), receiverIban, features.amountMinor()),
+                reason, cause);
+    }
+
+    private FraudScreening unscored(Long userId, FraudScreening screening, String reason, Exception cause) {
+        if (failurePolicy == FraudProperties.FailurePolicy.CLOSED) {
+            throw new FraudCheckUnavailableException(reason + ", please retry.", cause);
+        }
+        logger.debug("{}, letting transfer of user {} through unscored", reason, userId, cause);
+        return screening;
+    }
+
+    /**
+     * Adds a screened transfer to its sender's history once the current transaction has committed, or right away
+     * outside of one.
+     */
+    public void recordAfterCommit(FraudScreening screening) {
+        if (screening == FraudScreening.SKIPPED) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(screening);
+                }
+            });
+        } else {
+            record(screening);
+        }
+    }
+
+    private void record(FraudScreening screening) {
+        featureStore.record(screening.userId(), screening.receiverIban(), screening.amountMinor(), System.currentTimeMillis());
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,45 @@
+package com.banking.transaction.fraud;
+
+import com.banking.common.money.Money;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adds up fixed points for each rule under {@code transaction.fraud.rules} that the transfer breaks, capped at 100.
+ */
+@Component
+public class RuleBasedTransferScorer implements TransferScorer {
+
+    private final FraudProperties.Rules rules;
+    private final long unknownUserAmountMinor;
+
+    public RuleBasedTransferScorer(FraudProperties properties) {
+        this.rules = properties.getRules();
+        this.unknownUserAmountMinor = Money.of(rules.getUnknownUserAmount(), properties.getCurrency()).minorUnits();
+    }
+
+    @Override
+    public FraudScore score(TransferFeatures features) {
+        int points = 0;
+        List<String> reasons = new ArrayList<>(4);
+        if (features.transfersLastHour() >= rules.getVelocityTransfersPerHour()) {
+            points += rules.getVelocityPoints();
+            reasons.add("velocity");
+        }
+        if (features.amountDeviation() >= rules.getAmountDeviation()) {
+            points += rules.getAmountDeviationPoints();
+            reasons.add("amount-deviation");
+        }
+        if (features.newBeneficiary() && features.historySize() >= rules.getNewBeneficiaryMinimumHistory()) {
+            points += rules.getNewBeneficiaryPoints();
+            reasons.add("new-beneficiary");
+        }
+        if (features.historySize() < TransferFeatureStore.MINIMUM_AMOUNT_HISTORY && features.amountMinor() >= unknownUserAmountMinor) {
+            points += rules.getUnknownUserPoints();
+            reasons.add("large-amount-without-history");
+        }
+        return points == 0 ? FraudScore.NONE : new FraudScore(Math.min(points, 100), reasons);
+    }
+}
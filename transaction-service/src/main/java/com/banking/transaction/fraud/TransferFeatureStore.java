@@ -0,0 +1,114 @@
+package com.banking.transaction.fraud;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-user aggregates of committed transfers that features are computed from without reading the ledger:
+ * transfers and amounts per minute of the last hour, a running mean and variance of the amounts, and the most
+ * recent receivers. Each transfer updates them in constant time.
+ * <p>
+ * The aggregates only cover transfers committed on this instance since it started, and users that have not
+ * transferred for a while are dropped once {@code maximum-users} is reached.
+ */
+@Component
+public class TransferFeatureStore {
+
+    // Fewer earlier amounts than this say too little about what is usual for the user
+    static final int MINIMUM_AMOUNT_HISTORY = 5;
+
+    private static final int MINUTES_PER_HOUR = 60;
+
+    private final Cache<Long, UserHistory> users;
+    private final int beneficiariesPerUser;
+
+    public TransferFeatureStore(FraudProperties properties, MeterRegistry meterRegistry) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumUsers())
+                .recordStats()
+                .build();
+        this.beneficiariesPerUser = properties.getBeneficiariesPerUser();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "fraud.user.history");
+    }
+
+    public TransferFeatures features(Long userId, String receiverIban, long amountMinor, long nowMillis) {
+        UserHistory history = users.getIfPresent(userId);
+        if (history == null) {
+            return new TransferFeatures(userId, amountMinor, 0, 0, true, 0, 0);
+        }
+        return history.features(userId, receiverIban, amountMinor, nowMillis / 60_000);
+    }
+
+    public void record(Long userId, String receiverIban, long amountMinor, long nowMillis) {
+        users.get(userId, id -> new UserHistory(beneficiariesPerUser)).record(receiverIban, amountMinor, nowMillis / 60_000);
+    }
+
+    private static final class UserHistory {
+
+        // Indexed by epoch minute modulo 60; a slot belongs to the minute stored in minutes
+        private final long[] minutes = new long[MINUTES_PER_HOUR];
+        private final int[] transfers = new int[MINUTES_PER_HOUR];
+        private final long[] amounts = new long[MINUTES_PER_HOUR];
+
+        // Welford's online mean and sum of squared deviations of all amounts
+        private long count;
+        private double mean;
+        private double squaredDeviations;
+
+        private final Set<String> beneficiaries;
+
+        UserHistory(int maximumBeneficiaries) {
+            this.beneficiaries = Collections.newSetFromMap(new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > maximumBeneficiaries;
+                }
+            });
+        }
+
+        synchronized TransferFeatures features(Long userId, String receiverIban, long amountMinor, long minute) {
+            int transfersLastHour = 0;
+            long amountLastHour = 0;
+            for (int slot = 0; slot < MINUTES_PER_HOUR; slot++) {
+                if (minutes[slot] > minute - MINUTES_PER_HOUR) {
+                    transfersLastHour += transfers[slot];
+                    amountLastHour += amounts[slot];
+                }
+            }
+            double deviation = 0;
+            if (count >= MINIMUM_AMOUNT_HISTORY) {
+                // A user who always sends the same amount would make every other amount infinitely unusual
+                double standardDeviation = Math.max(Math.sqrt(squaredDeviations / (count - 1)), mean / 10);
+                deviation = standardDeviation > 0 ? Math.max(0, (amountMinor - mean) / standardDeviation) : 0;
+            }
+            return new TransferFeatures(userId, amountMinor, transfersLastHour, amountLastHour,
+                    !beneficiaries.contains(receiverIban), deviation, count);
+        }
+
+        synchronized void record(String receiverIban, long amountMinor, long minute) {
+            int slot = (int) Math.floorMod(minute, (long) MINUTES_PER_HOUR);
+            if (minutes[slot] != minute) {
+                minutes[slot] = minute;
+                transfers[slot] = 0;
+                amounts[slot] = 0;
+            }
+            transfers[slot]++;
+            amounts[slot] += amountMinor;
+
+            count++;
+            double delta = amountMinor - mean;
+            mean += delta / count;
+            squaredDeviations += delta * (amountMinor - mean);
+
+            beneficiaries.add(receiverIban);
+        }
+    }
+}
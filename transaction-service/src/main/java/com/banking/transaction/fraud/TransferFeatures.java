@@ -0,0 +1,17 @@
+package com.banking.transaction.fraud;
+
+/**
+ * What a scorer knows about a transfer and its sender, with amounts in minor units of the fraud currency. The
+ * history covers the sender's earlier transfers committed on this instance.
+ *
+ * @param amountDeviation how many standard deviations the amount lies above the mean of the history, or 0 while
+ *                        the history is too short to tell
+ */
+public record TransferFeatures(Long userId,
+                               long amountMinor,
+                               int transfersLastHour,
+                               long amountLastHour,
+                               boolean newBeneficiary,
+                               double amountDeviation,
+                               long historySize) {
+}
@@ -0,0 +1,11 @@
+package com.banking.transaction.fraud;
+
+/**
+ * Scores a transfer before it is booked. {@link RuleBasedTransferScorer} is used unless another implementation
+ * is declared as the {@code @Primary} bean. Implementations may call out to other systems: the caller enforces
+ * the timeout and interrupts a scorer that exceeds it.
+ */
+public interface TransferScorer {
+
+    FraudScore score(TransferFeatures features);
+}
@@ -0,0 +1,35 @@
+package com.banking.transaction.fx;
+
+import com.banking.common.money.Money;
+import com.banking.transaction.entity.TransactionLedger;
+
+import java.math.BigDecimal;
+
+/**
+ * The amount a transfer debits from the sender and the amount it credits to the receiver. Both are the same
+ * when the accounts share a currency, in which case {@code rate} is null.
+ */
+public record FxConversion(Money original, Money converted, BigDecimal rate) {
+
+    public static FxConversion none(Money amount) {
+        return new FxConversion(amount, amount, null);
+    }
+
+    public boolean isCrossCurrency() {
+        return rate != null;
+    }
+
+    /**
+     * Records both amounts and the rate on a ledger row of a transfer between currencies.
+     */
+    public TransactionLedger.TransactionLedgerBuilder describe(TransactionLedger.TransactionLedgerBuilder ledger) {
+        if (!isCrossCurrency()) {
+            return ledger;
+        }
+        return ledger.originalAmount(original.toBigDecimal())
+                .originalCurrency(original.currency())
+                .convertedAmount(converted.toBigDecimal())
+                .convertedCurrency(converted.currency())
+                .exchangeRate(rate);
+    }
+}
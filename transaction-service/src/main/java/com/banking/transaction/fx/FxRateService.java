@@ -0,0 +1,59 @@
+package com.banking.transaction.fx;
+
+import com.banking.transaction.repository.FxRateRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Holds the current {@link FxRateSnapshot}. A refresh reads the {@code fx_rate} table into a new snapshot and
+ * then swaps the reference, so transfers never wait for it and never see a half-loaded table. A transfer
+ * takes the snapshot once and converts with it, even if a refresh swaps it in the meantime.
+ * <p>
+ * Until the first refresh has run, only transfers between accounts of the same currency succeed.
+ */
+@Service
+public class FxRateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FxRateService.class);
+
+    private final FxRateRepository fxRateRepository;
+    private volatile FxRateSnapshot snapshot = FxRateSnapshot.EMPTY;
+
+    public FxRateService(FxRateRepository fxRateRepository, MeterRegistry meterRegistry) {
+        this.fxRateRepository = fxRateRepository;
+        Gauge.builder("transaction.fx.snapshot.age", this, FxRateService::snapshotAgeSeconds)
+                .description("Seconds since the exchange rates in use were loaded")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    public FxRateSnapshot current() {
+        return snapshot;
+    }
+
+    @Scheduled(fixedDelayString = "${transaction.fx.refresh-interval:60000}")
+    public void refresh() {
+        try {
+            update(FxRateSnapshot.of(fxRateRepository.findAll(), LocalDateTime.now()));
+        } catch (DataAccessException e) {
+            logger.warn("Loading exchange rates failed, keeping the rates loaded at {}", snapshot.loadedAt(), e);
+        }
+    }
+
+    public void update(FxRateSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    private double snapshotAgeSeconds() {
+        LocalDateTime loadedAt = snapshot.loadedAt();
+        return loadedAt != null ? Duration.between(loadedAt, LocalDateTime.now()).toMillis() / 1000.0 : Double.NaN;
+    }
+}
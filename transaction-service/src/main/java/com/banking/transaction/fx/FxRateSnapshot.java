@@ -0,0 +1,81 @@
+package com.banking.transaction.fx;
+
+import com.banking.common.money.Money;
+import com.banking.transaction.entity.FxRate;
+import com.banking.transaction.exception.FxRateNotFoundException;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable table of exchange rates. It is never changed after construction, so any number of transfers
+ * can read it without locking while a newer snapshot is being built.
+ * <p>
+ * A pair that is only stored in one direction is also quoted in the other, at the inverse rate.
+ */
+public final class FxRateSnapshot {
+
+    public static final FxRateSnapshot EMPTY = new FxRateSnapshot(Map.of(), null);
+
+    private static final MathContext INVERSE_PRECISION = new MathContext(16, RoundingMode.HALF_EVEN);
+
+    // base currency -> quote currency -> rate; looking up a pair allocates nothing
+    private final Map<String, Map<String, BigDecimal>> rates;
+    private final LocalDateTime loadedAt;
+
+    private FxRateSnapshot(Map<String, Map<String, BigDecimal>> rates, LocalDateTime loadedAt) {
+        this.rates = rates;
+        this.loadedAt = loadedAt;
+    }
+
+    public static FxRateSnapshot of(List<FxRate> stored, LocalDateTime loadedAt) {
+        Map<String, Map<String, BigDecimal>> rates = new HashMap<>();
+        for (FxRate rate : stored) {
+            rates.computeIfAbsent(rate.getBaseCurrency(), base -> new HashMap<>()).put(rate.getQuoteCurrency(), rate.getRate());
+        }
+        for (FxRate rate : stored) {
+            rates.computeIfAbsent(rate.getQuoteCurrency(), quote -> new HashMap<>())
+                    .putIfAbsent(rate.getBaseCurrency(), BigDecimal.ONE.divide(rate.getRate(), INVERSE_PRECISION));
+        }
+        Map<String, Map<String, BigDecimal>> frozen = new HashMap<>();
+        rates.forEach((base, quotes) -> frozen.put(base, Map.copyOf(quotes)));
+        return new FxRateSnapshot(Map.copyOf(frozen), loadedAt);
+    }
+
+    /**
+     * Units of {@code to} bought by one unit of {@code from}, or null if the pair is not quoted.
+     */
+    public BigDecimal rate(String from, String to) {
+        Map<String, BigDecimal> quotes = rates.get(from);
+        return quotes != null ? quotes.get(to) : null;
+    }
+
+    /**
+     * Converts the amount into the target currency, rounding half-even to the minor unit of that currency.
+     *
+     * @throws FxRateNotFoundException if the pair is not quoted
+     */
+    public FxConversion convert(Money amount, String to) {
+        if (amount.currency().equals(to)) {
+            return FxConversion.none(amount);
+        }
+        BigDecimal rate = rate(amount.currency(), to);
+        if (rate == null) {
+            throw new FxRateNotFoundException("No exchange rate from " + amount.currency() + " to " + to);
+        }
+        BigDecimal converted = amount.toBigDecimal().multiply(rate).setScale(Money.fractionDigits(to), RoundingMode.HALF_EVEN);
+        return new FxConversion(amount, Money.of(converted, to), rate);
+    }
+
+    /**
+     * When the rates were read from the database, or null for {@link #EMPTY}.
+     */
+    public LocalDateTime loadedAt() {
+        return loadedAt;
+    }
+}
@@ -0,0 +1,337 @@
+package com.banking.transaction.idempotency;
+
+import com.banking.transaction.dto.TransactionRequest;
+import com.banking.transaction.dto.TransferResult;
+import com.banking.transaction.entity.IdempotencyKey;
+import com.banking.transaction.exception.IdempotencyException;
+import com.banking.transaction.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Remembers which X-Correlation-IDs were processed and what their outcome was.
+ * <p>
+ * Keys live in the {@code idempotency_key} table and are written in the same transaction as the transfer.
+ * Lookups go through a Bloom filter of all stored keys and a bounded cache of recent outcomes, so checking a
+ * key that was never used, which is the common case, does not touch the database. Keys written by another
+ * instance may be missing from the local filter; the primary key still rejects them at commit time.
+ * <p>
+ * Keys are deleted {@code retention} after they were stored, and only keys inside that window are loaded
+ * into the filter, so its size follows the keys stored per retention period rather than all keys ever stored.
+ * A correlation id sent again after its key was deleted is processed as a new request.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final int DELETE_BATCH_SIZE = 10_000;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final BloomFilter bloomFilter;
+    private final Cache<UUID, StoredOutcome> recentOutcomes;
+    private final Duration retention;
+    private volatile boolean bloomFilterLoaded;
+
+    private final Counter bloomNegative;
+    private final Counter cacheHit;
+    private final Counter storeHit;
+    private final Counter storeMiss;
+
+    public IdempotencyService(IdempotencyKeyRepository idempotencyKeyRepository,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${transaction.idempotency.bloom.expected-keys:10000000}") long expectedKeys,
+                              @Value("${transaction.idempotency.bloom.false-positive-rate:0.01}") double falsePositiveRate,
+                              @Value("${transaction.idempotency.cache.maximum-size:100000}") long cacheSize,
+                              @Value("${transaction.idempotency.cache.expire-after-write:24h}") Duration cacheTtl,
+                              @Value("${transaction.idempotency.retention:30d}") Duration retention) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.bloomFilter = new BloomFilter(expectedKeys, falsePositiveRate);
+        this.recentOutcomes = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+        this.retention = retention;
+
+        this.bloomNegative = lookupCounter(meterRegistry, "bloom_negative");
+        this.cacheHit = lookupCounter(meterRegistry, "cache_hit");
+        this.storeHit = lookupCounter(meterRegistry, "store_hit");
+        this.storeMiss = lookupCounter(meterRegistry, "store_miss");
+    }
+
+    /**
+     * Returns the original result if this correlation id was already processed, without a database read when
+     * the Bloom filter rules the key out.
+     *
+     * @throws IdempotencyException if the correlation id was used by another user
+     */
+    public Optional<TransferResult> findCompleted(String correlationId, Long userId) {
+        UUID key = keyOf(correlationId);
+        StoredOutcome cached = recentOutcomes.getIfPresent(key);
+        if (cached != null) {
+            cacheHit.increment();
+            return Optional.of(replay(cached, correlationId, userId));
+        }
+        if (bloomFilterLoaded && !bloomFilter.mightContain(key)) {
+            bloomNegative.increment();
+            return Optional.empty();
+        }
+        return loadCompleted(key, correlationId, userId);
+    }
+
+    /**
+     * Same as {@link #findCompleted} but always asks the database, e.g. after a concurrent duplicate lost the
+     * race on the primary key.
+     */
+    public Optional<TransferResult> loadCompleted(String correlationId, Long userId) {
+        return loadCompleted(keyOf(correlationId), correlationId, userId);
+    }
+
+    /**
+     * Returns the subset of the given correlation ids that were already processed.
+     */
+    public Set<String> findCompletedCorrelationIds(Collection<String> correlationIds) {
+        Map<UUID, String> candidates = candidates(correlationIds);
+        Set<String> completed = new HashSet<>();
+        if (!candidates.isEmpty()) {
+            for (IdempotencyKey found : idempotencyKeyRepository.findAllById(candidates.keySet())) {
+                completed.add(candidates.get(found.getId()));
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * Returns the stored outcomes of the given correlation ids that were already processed, so that the caller
+     * can tell a replay from a correlation id reused for a different request.
+     */
+    public Map<String, StoredOutcome> findCompletedOutcomes(Collection<String> correlationIds) {
+        Map<UUID, String> candidates = candidates(correlationIds);
+        Map<String, StoredOutcome> completed = new HashMap<>();
+        candidates.entrySet().removeIf(candidate -> {
+            StoredOutcome cached = recentOutcomes.getIfPresent(candidate.getKey());
+            if (cached == null) {
+                return false;
+            }
+            cacheHit.increment();
+            completed.put(candidate.getValue(), cached);
+            return true;
+        });
+        if (!candidates.isEmpty()) {
+            for (IdempotencyKey found : idempotencyKeyRepository.findAllById(candidates.keySet())) {
+                StoredOutcome outcome = new StoredOutcome(found.getUserId(), deserialize(found.getOutcome()));
+                recentOutcomes.put(found.getId(), outcome);
+                completed.put(candidates.get(found.getId()), outcome);
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * Stores the outcome in the current transaction. The key becomes visible to other requests when the
+     * transaction commits.
+     */
+    public void record(String correlationId, Long userId, TransferResult result) {
+        recordAll(Map.of(correlationId, result), userId);
+    }
+
+    public void recordAll(Map<String, TransferResult> results, Long userId) {
+        if (results.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<IdempotencyKey> keys = new ArrayList<>(results.size());
+        Map<UUID, StoredOutcome> outcomes = new HashMap<>();
+        results.forEach((correlationId, result) -> {
+            UUID key = keyOf(correlationId);
+            keys.add(IdempotencyKey.builder()
+                    .id(key)
+                    .userId(userId)
+                    .outcome(serialize(result))
+                    .createdAt(now)
+                    .build());
+            outcomes.put(key, new StoredOutcome(userId, result));
+        });
+        idempotencyKeyRepository.saveAll(keys);
+
+        // A false positive in the filter only costs a lookup, so the keys can go in before the commit
+        outcomes.keySet().forEach(bloomFilter::put);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentOutcomes.putAll(outcomes);
+                }
+            });
+        } else {
+            recentOutcomes.putAll(outcomes);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadBloomFilterInBackground() {
+        Thread loader = new Thread(this::loadBloomFilter, "idempotency-bloom-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    void loadBloomFilter() {
+        try {
+            long[] loaded = {0};
+            LocalDateTime since = LocalDateTime.now().minus(retention);
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                var statement = connection.prepareStatement("SELECT id FROM idempotency_key WHERE created_at >= ?");
+                statement.setObject(1, since);
+                statement.setFetchSize(10_000);
+                return statement;
+            }, rs -> {
+                bloomFilter.put(rs.getObject(1, UUID.class));
+                loaded[0]++;
+            }));
+            bloomFilterLoaded = true;
+            logger.info("Loaded {} idempotency keys into the Bloom filter", loaded[0]);
+        } catch (RuntimeException e) {
+            logger.warn("Could not load idempotency keys, every lookup will go to the database", e);
+        }
+    }
+
+    private Map<UUID, String> candidates(Collection<String> correlationIds) {
+        Map<UUID, String> candidates = new HashMap<>();
+        for (String correlationId : correlationIds) {
+            UUID key = keyOf(correlationId);
+            if (!bloomFilterLoaded || bloomFilter.mightContain(key)) {
+                candidates.put(key, correlationId);
+            } else {
+                bloomNegative.increment();
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Deletes keys stored more than {@code retention} ago. They stay in the Bloom filter until the next start,
+     * which only costs a lookup for ids sent again after that long.
+     */
+    @Scheduled(cron = "${transaction.idempotency.cleanup-cron:0 45 * * * *}")
+    public void deleteExpired() {
+        LocalDateTime before = LocalDateTime.now().minus(retention);
+        int deleted = 0;
+        int batch;
+        do {
+            batch = idempotencyKeyRepository.deleteCreatedBefore(before, DELETE_BATCH_SIZE);
+            deleted += batch;
+        } while (batch == DELETE_BATCH_SIZE);
+        logger.debug("Deleted {} idempotency keys stored before {}", deleted, before);
+    }
+
+    static UUID keyOf(String correlationId) {
+        byte[] digest = SHA_256.get().digest(correlationId.getBytes(StandardCharsets.UTF_8));
+        ByteBuffer buffer = ByteBuffer.wrap(digest);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private Optional<TransferResult> loadCompleted(UUID key, String correlationId, Long userId) {
+        Optional<IdempotencyKey> stored = idempotencyKeyRepository.findById(key);
+        if (stored.isEmpty()) {
+            storeMiss.increment();
+            return Optional.empty();
+        }
+        storeHit.increment();
+        StoredOutcome outcome = new StoredOutcome(stored.get().getUserId(), deserialize(stored.get().getOutcome()));
+        recentOutcomes.put(key, outcome);
+        return Optional.of(replay(outcome, correlationId, userId));
+    }
+
+    private static TransferResult replay(StoredOutcome outcome, String correlationId, Long userId) {
+        if (!outcome.userId().equals(userId)) {
+            throw new IdempotencyException("Correlation-ID " + correlationId + " has already been used by another request.");
+        }
+        TransferResult result = outcome.result();
+        return new TransferResult(result.getCorrelationId(), result.getFromIban(), result.getToIban(),
+                result.getAmount(), result.getCompletedAt(), true);
+    }
+
+    private String serialize(TransferResult result) {
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize transfer outcome", e);
+        }
+    }
+
+    private TransferResult deserialize(String outcome) {
+        try {
+            return objectMapper.readValue(outcome, TransferResult.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read stored transfer outcome", e);
+        }
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("transaction.idempotency.lookups")
+                .description("Idempotency key lookups by how they were answered")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public record StoredOutcome(Long userId, TransferResult result) {
+
+        /**
+         * Whether the outcome was stored for this very request of this user, as opposed to another request
+         * sent with the same correlation id.
+         */
+        public boolean isReplayOf(TransactionRequest request, Long userId) {
+            return this.userId.equals(userId) && result.matches(request);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.banking.transaction.intake;
+
+import com.banking.transaction.dto.TransactionRequest;
+import com.banking.transaction.dto.TransferResult;
+import com.banking.transaction.dto.TransferStatusResponse;
+import com.banking.transaction.entity.TransferIntake;
+import com.banking.transaction.entity.TransferIntakeStatus;
+import com.banking.transaction.exception.IdempotencyException;
+import com.banking.transaction.exception.TransferNotFoundException;
+import com.banking.transaction.idempotency.IdempotencyService;
+import com.banking.transaction.repository.TransferIntakeRepository;
+import com.banking.transaction.service.TransactionService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Accepts transfers into the {@code transfer_intake} table and answers status queries. Accepting a transfer
+ * only checks cached account metadata and inserts one row, so its latency does not depend on contention on
+ * the accounts; {@link TransferIntakeWorker} executes it afterwards.
+ */
+@Service
+public class TransferIntakeService {
+
+    private final TransferIntakeRepository transferIntakeRepository;
+    private final TransactionService transactionService;
+    private final IdempotencyService idempotencyService;
+    private final ObjectProvider<TransferIntakeWorker> worker;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+
+    public TransferIntakeService(TransferIntakeRepository transferIntakeRepository,
+                                 TransactionService transactionService,
+                                 IdempotencyService idempotencyService,
+                                 ObjectProvider<TransferIntakeWorker> worker,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${transaction.intake.enabled:false}") boolean enabled) {
+        this.transferIntakeRepository = transferIntakeRepository;
+        this.transactionService = transactionService;
+        this.idempotencyService = idempotencyService;
+        this.worker = worker;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    /**
+     * Whether POST /api/v1/transactions should accept transfers here instead of executing them before answering.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Stores the transfer for execution and returns its status. Submitting the same correlation id again
+     * returns the current status of the first submission.
+     *
+     * @throws IdempotencyException if the correlation id was already used for a different transfer
+     */
+    public TransferStatusResponse accept(TransactionRequest request, String correlationId, Long userId) {
+        Optional<TransferResult> processed = idempotencyService.findCompleted(correlationId, userId);
+        if (processed.isPresent()) {
+            return TransferStatusResponse.completed(replay(processed.get(), request, correlationId));
+        }
+        transactionService.precheck(request, userId);
+
+        LocalDateTime now = LocalDateTime.now();
+        TransferIntake intake = TransferIntake.builder()
+                .correlationId(correlationId)
+                .userId(userId)
+                .fromIban(request.getFromIban())
+                .toIban(request.getToIban())
+                .amount(request.getAmount())
+                .status(TransferIntakeStatus.PENDING)
+                .acceptedAt(now)
+                .availableAt(now)
+                .build();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                transferIntakeRepository.save(intake);
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            worker.ifAvailable(TransferIntakeWorker::wakeUp);
+                        }
+                    });
+                } else {
+                    worker.ifAvailable(TransferIntakeWorker::wakeUp);
+                }
+            });
+            return TransferStatusResponse.of(intake, false);
+        } catch (DataIntegrityViolationException e) {
+            // Submitted before, possibly concurrently
+            TransferIntake existing = transferIntakeRepository.findById(correlationId).orElseThrow(() -> e);
+            if (!existing.getUserId().equals(userId)) {
+                throw new IdempotencyException("Correlation-ID " + correlationId + " has already been used by another request.");
+            }
+            if (!matches(existing, request)) {
+                throw new IdempotencyException("Correlation-ID " + correlationId + " has already been used for a different transaction.");
+            }
+            return TransferStatusResponse.of(existing, true);
+        }
+    }
+
+    /**
+     * Returns the status of a transfer submitted by this user, whether it was accepted here or executed
+     * synchronously.
+     */
+    public TransferStatusResponse findStatus(String correlationId, Long userId) {
+        return readOnlyTransaction.execute(status -> {
+            Optional<TransferIntake> intake = transferIntakeRepository.findById(correlationId);
+            if (intake.isPresent()) {
+                // Somebody else's transfer is reported as unknown rather than forbidden, so ids cannot be probed
+                if (!intake.get().getUserId().equals(userId)) {
+                    throw new TransferNotFoundException("Transfer not found");
+                }
+                return TransferStatusResponse.of(intake.get(), false);
+            }
+            // Executed synchronously, possibly by another instance whose keys are not in the local Bloom filter
+            return idempotencyService.loadCompleted(correlationId, userId)
+                    .map(TransferStatusResponse::completed)
+                    .orElseThrow(() -> new TransferNotFoundException("Transfer not found"));
+        });
+    }
+
+    private static boolean matches(TransferIntake intake, TransactionRequest request) {
+        return intake.getFromIban().equals(request.getFromIban())
+                && intake.getToIban().equals(request.getToIban())
+                && intake.getAmount().compareTo(request.getAmount()) == 0;
+    }
+
+    private static TransferResult replay(TransferResult previous, TransactionRequest request, String correlationId) {
+        if (!previous.matches(request)) {
+            throw new IdempotencyException("Correlation-ID " + correlationId + " has already been used for a different transaction.");
+        }
+        return previous;
+    }
+}
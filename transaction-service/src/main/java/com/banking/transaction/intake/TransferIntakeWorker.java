@@ -0,0 +1,247 @@
+package com.banking.transaction.intake;
+
+import com.banking.transaction.dto.TransferResult;
+import com.banking.transaction.entity.TransferIntake;
+import com.banking.transaction.entity.TransferIntakeStatus;
+import com.banking.transaction.exception.TransferConflictException;
+import com.banking.transaction.exception.TransferQueueFullException;
+import com.banking.transaction.execution.TransferExecutionService;
+import com.banking.transaction.repository.TransferIntakeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes accepted transfers. Each worker thread claims a few {@code transfer_intake} rows with
+ * {@code FOR UPDATE SKIP LOCKED}, so workers on all instances share the queue without blocking each other,
+ * and runs them through {@link TransferExecutionService}.
+ * <p>
+ * A claim is a lease: if the instance dies, the rows become claimable again when it runs out. Running a
+ * transfer twice is harmless because the correlation id makes the second run a replay, and a worker whose
+ * lease ran out cannot record an outcome over the claim of the worker that took the row over. Transfers refused
+ * for a business reason are rejected right away; conflicts and infrastructure errors are retried with a growing
+ * backoff until {@code max-attempts}. Finished rows are deleted after {@code retention}.
+ */
+@Component
+@ConditionalOnProperty(name = "transaction.intake.enabled", havingValue = "true")
+public class TransferIntakeWorker implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransferIntakeWorker.class);
+
+    private static final int DELETE_BATCH_SIZE = 10_000;
+
+    private final TransferIntakeRepository transferIntakeRepository;
+    private final TransferExecutionService transferExecutionService;
+    private final TransactionTemplate transactionTemplate;
+    private final int workerCount;
+    private final int claimSize;
+    private final Duration pollInterval;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration retention;
+    // Released when a transfer is accepted on this instance, so an idle worker does not wait for the next poll
+    private final Semaphore wakeUps = new Semaphore(0);
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    private final Timer completionLatency;
+    private final Map<TransferIntakeStatus, Counter> outcomes = new EnumMap<>(TransferIntakeStatus.class);
+    private final Counter retries;
+
+    public TransferIntakeWorker(TransferIntakeRepository transferIntakeRepository,
+                                TransferExecutionService transferExecutionService,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${transaction.intake.workers:4}") int workerCount,
+                                @Value("${transaction.intake.claim-size:10}") int claimSize,
+                                @Value("${transaction.intake.poll-interval:200ms}") Duration pollInterval,
+                                @Value("${transaction.intake.lease:60s}") Duration lease,
+                                @Value("${transaction.intake.max-attempts:5}") int maxAttempts,
+                                @Value("${transaction.intake.retry-backoff:1s}") Duration retryBackoff,
+                                @Value("${transaction.intake.retention:7d}") Duration retention) {
+        if (workerCount < 1 || claimSize < 1) {
+            throw new IllegalArgumentException("Worker count and claim size must be positive");
+        }
+        this.transferIntakeRepository = transferIntakeRepository;
+        this.transferExecutionService = transferExecutionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.workerCount = workerCount;
+        this.claimSize = claimSize;
+        this.pollInterval = pollInterval;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.retention = retention;
+
+        this.completionLatency = Timer.builder("transaction.intake.completion")
+                .description("Time from accepting a transfer to its final outcome")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        for (TransferIntakeStatus status : List.of(TransferIntakeStatus.COMPLETED, TransferIntakeStatus.REJECTED, TransferIntakeStatus.FAILED)) {
+            outcomes.put(status, Counter.builder("transaction.intake.outcomes")
+                    .description("Accepted transfers by final outcome")
+                    .tag("status", status.name())
+                    .register(meterRegistry));
+        }
+        this.retries = Counter.builder("transaction.intake.retries")
+                .description("Accepted transfers put back for another attempt")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread thread = new Thread(this::run, "transfer-intake-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            workers.add(thread);
+        }
+    }
+
+    public void wakeUp() {
+        wakeUps.release();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                // Wake-ups from before this claim are served by it; later ones end the wait below early
+                wakeUps.drainPermits();
+                List<TransferIntake> claimed = claim();
+                for (TransferIntake intake : claimed) {
+                    process(intake);
+                }
+                if (claimed.size() < claimSize) {
+                    wakeUps.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Processing accepted transfers failed, retrying in {}", pollInterval, e);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(pollInterval.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    List<TransferIntake> claim() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<TransferIntake> claimable = transferIntakeRepository.findClaimable(now, claimSize);
+            for (TransferIntake intake : claimable) {
+                intake.setStatus(TransferIntakeStatus.PROCESSING);
+                intake.setAttempts(intake.getAttempts() + 1);
+                intake.setAvailableAt(now.plus(lease));
+            }
+            return claimable;
+        });
+    }
+
+    void process(TransferIntake intake) {
+        String correlationId = intake.getCorrelationId();
+        try {
+            TransferResult result = transferExecutionService.execute(intake.toRequest(), correlationId, intake.getUserId());
+            finish(intake, TransferIntakeStatus.COMPLETED, result.getCompletedAt(), null);
+        } catch (RuntimeException e) {
+            if (!isRetryable(e)) {
+                finish(intake, TransferIntakeStatus.REJECTED, LocalDateTime.now(), e.getMessage());
+            } else if (intake.getAttempts() >= maxAttempts) {
+                logger.warn("Transfer {} failed after {} attempts", correlationId, intake.getAttempts(), e);
+                finish(intake, TransferIntakeStatus.FAILED, LocalDateTime.now(), e.getMessage());
+            } else {
+                logger.debug("Transfer {} failed on attempt {}, retrying later", correlationId, intake.getAttempts(), e);
+                int updated = transferIntakeRepository.retryAt(correlationId, intake.getAttempts(),
+                        LocalDateTime.now().plus(retryBackoff.multipliedBy(intake.getAttempts())), e.getMessage());
+                if (updated > 0) {
+                    retries.increment();
+                } else {
+                    logger.debug("Lease on transfer {} ran out before attempt {} failed", correlationId, intake.getAttempts());
+                }
+            }
+        }
+    }
+
+    private void finish(TransferIntake intake, TransferIntakeStatus status, LocalDateTime completedAt, String failureReason) {
+        int updated = transferIntakeRepository.finish(intake.getCorrelationId(), intake.getAttempts(), status, completedAt,
+                failureReason);
+        if (updated == 0) {
+            // Claimed again by another worker, which records the outcome; a completed transfer replays there
+            logger.warn("Lease on transfer {} ran out before attempt {} finished as {}", intake.getCorrelationId(),
+                    intake.getAttempts(), status);
+            return;
+        }
+        outcomes.get(status).increment();
+        completionLatency.record(Duration.between(intake.getAcceptedAt(), LocalDateTime.now()));
+    }
+
+    /**
+     * Deletes transfers that reached their outcome more than {@code retention} ago. Their status is no longer
+     * reported afterwards, except that completed transfers are still found through their idempotency key.
+     */
+    @Scheduled(cron = "${transaction.intake.cleanup-cron:0 15 * * * *}")
+    public void deleteFinished() {
+        LocalDateTime before = LocalDateTime.now().minus(retention);
+        int deleted = 0;
+        int batch;
+        do {
+            batch = transferIntakeRepository.deleteFinishedBefore(before, DELETE_BATCH_SIZE);
+            deleted += batch;
+        } while (batch == DELETE_BATCH_SIZE);
+        logger.debug("Deleted {} finished transfers accepted through the intake", deleted);
+    }
+
+    /**
+     * Errors mapped to a 4xx response (other than conflicts and back-pressure) are final; everything else may
+     * succeed on another attempt.
+     */
+    static boolean isRetryable(RuntimeException e) {
+        if (e instanceof TransferConflictException || e instanceof TransferQueueFullException) {
+            return true;
+        }
+        ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(e.getClass(), ResponseStatus.class);
+        return responseStatus == null || responseStatus.code().is5xxServerError();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            worker.join(lease.toMillis());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.banking.transaction.interest;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Where an interest accrual run stands.
+ *
+ * @param resumedChunks chunks a previous attempt had already posted, counted in {@code completedChunks}
+ * @param failedChunks  chunks that could not be posted; the run is resumed with them on its next attempt
+ */
+public record AccrualProgress(LocalDate businessDate,
+                              Status status,
+                              Instant startedAt,
+                              long elapsedMillis,
+                              long totalChunks,
+                              long completedChunks,
+                              long resumedChunks,
+                              long failedChunks,
+                              long accountsCredited,
+                              double accountsPerSecond) {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        // Finished with failed chunks, or stopped by an error
+        INCOMPLETE
+    }
+}
@@ -0,0 +1,38 @@
+package com.banking.transaction.interest;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/interest} returns the progress of the current or last interest accrual run, and
+ * {@code POST /actuator/interest} with an optional ISO {@code businessDate} (yesterday by default) starts one.
+ */
+@Component
+@Endpoint(id = "interest")
+public class InterestAccrualEndpoint {
+
+    private final InterestAccrualService interestAccrualService;
+
+    public InterestAccrualEndpoint(InterestAccrualService interestAccrualService) {
+        this.interestAccrualService = interestAccrualService;
+    }
+
+    // Answers 404 until the first run has started
+    @ReadOperation
+    public AccrualProgress progress() {
+        return interestAccrualService.progress();
+    }
+
+    @WriteOperation
+    public Map<String, String> start(@Nullable String businessDate) {
+        LocalDate date = businessDate != null ? LocalDate.parse(businessDate) : LocalDate.now().minusDays(1);
+        boolean started = interestAccrualService.startAccrual(date);
+        return Map.of("status", started ? "started" : "already running", "businessDate", date.toString());
+    }
+}
@@ -0,0 +1,385 @@
+package com.banking.transaction.interest;
+
+import com.banking.common.money.Money;
+import com.banking.transaction.entity.Account;
+import com.banking.transaction.entity.TransactionLedger;
+import com.banking.transaction.entity.TransactionType;
+import com.banking.transaction.repository.AccountRepository;
+import com.banking.transaction.repository.InterestAccrualRepository;
+import com.banking.transaction.repository.InterestAccrualRepository.AccruableAccount;
+import com.banking.transaction.repository.InterestAccrualRepository.CreditedAccount;
+import com.banking.transaction.repository.LedgerBatchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Credits one business day of interest to every account with a positive balance in a currency that has an
+ * annual rate, as a CREDIT ledger entry with correlation id {@code interest-<date>-<account id>}.
+ * <p>
+ * Accounts are split into id ranges of {@code chunk-size} that {@code threads} workers post in parallel. A
+ * range is posted in one transaction: its accounts are locked in IBAN order, their balances and
+ * {@code last_interest_date} updated in one JDBC batch, the ledger entries inserted in another, and a
+ * checkpoint row written for the range. Transfers, batches and payrolls lock in IBAN order too, so a range
+ * cannot deadlock against them. A run that is interrupted therefore resumes with the ranges that have
+ * no checkpoint yet, and an account whose {@code last_interest_date} already is the business day is never
+ * credited twice, even by two instances running the same day at once.
+ * <p>
+ * Interest is computed from the balance at the time the range is posted, so runs are meant to start shortly
+ * after the business day ends. Days must be accrued in order: an account accrued for a later day is skipped
+ * for an earlier one, which is why interrupted runs are finished before a new day is started.
+ */
+@Service
+public class InterestAccrualService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(InterestAccrualService.class);
+
+    // Progress is logged each time another tenth of the chunks is done
+    private static final int PROGRESS_STEPS = 10;
+
+    private final InterestAccrualRepository interestAccrualRepository;
+    private final LedgerBatchRepository ledgerBatchRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Map<String, BigDecimal> annualRates;
+    private final int dayCount;
+    private final int chunkSize;
+    private final int threads;
+    private final int maxAttempts;
+    private final ThreadPoolExecutor executor;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile RunTracker currentRun;
+
+    private final Counter accountsCredited;
+    private final Counter chunksCompleted;
+    private final Counter chunksFailed;
+    private final Timer chunkDuration;
+
+    public InterestAccrualService(InterestAccrualRepository interestAccrualRepository,
+                                  LedgerBatchRepository ledgerBatchRepository,
+                                  AccountRepository accountRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  InterestProperties properties,
+                                  MeterRegistry meterRegistry) {
+        if (properties.getThreads() < 1 || properties.getChunkSize() < 1 || properties.getMaxAttempts() < 1) {
+            throw new IllegalArgumentException("Interest accrual threads, chunk size and attempts must be positive");
+        }
+        this.interestAccrualRepository = interestAccrualRepository;
+        this.ledgerBatchRepository = ledgerBatchRepository;
+        this.accountRepository = accountRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = properties.isEnabled();
+        this.annualRates = Map.copyOf(properties.getAnnualRates());
+        this.dayCount = properties.getDayCount();
+        this.chunkSize = properties.getChunkSize();
+        this.threads = properties.getThreads();
+        this.maxAttempts = properties.getMaxAttempts();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "interest-accrual-" + threadIndex.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.accountsCredited = Counter.builder("transaction.interest.accounts")
+                .description("Accounts credited interest")
+                .register(meterRegistry);
+        this.chunksCompleted = chunkCounter(meterRegistry, "completed");
+        this.chunksFailed = chunkCounter(meterRegistry, "failed");
+        this.chunkDuration = Timer.builder("transaction.interest.chunk.duration")
+                .description("Time taken to post the interest of one account id range")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("transaction.interest.progress", this, service -> {
+                    RunTracker run = service.currentRun;
+                    return run == null || run.totalChunks == 0 ? 0 : (double) run.completedChunks.get() / run.totalChunks;
+                })
+                .description("Share of the chunks of the current or last accrual run that are posted")
+                .register(meterRegistry);
+    }
+
+    private static Counter chunkCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("transaction.interest.chunks")
+                .description("Account id ranges processed by interest accrual, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${transaction.interest.cron:0 30 0 * * *}")
+    public void accrueOnSchedule() {
+        if (enabled && !tryRun(() -> accrueInOrder(LocalDate.now().minusDays(1)))) {
+            logger.info("Skipping scheduled interest accrual, another run is in progress");
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedRuns() {
+        if (!enabled || interestAccrualRepository.findIncompleteRuns().isEmpty()) {
+            return;
+        }
+        startInBackground(() -> interestAccrualRepository.findIncompleteRuns().forEach(this::run));
+    }
+
+    /**
+     * Accrues the business day on the calling thread, after finishing interrupted runs of earlier days.
+     *
+     * @return the progress at the end of the run, or empty if another run is in progress
+     */
+    public Optional<AccrualProgress> accrue(LocalDate businessDate) {
+        return tryRun(() -> accrueInOrder(businessDate)) ? Optional.ofNullable(progress()) : Optional.empty();
+    }
+
+    /**
+     * Starts accruing the business day in the background, after finishing interrupted runs of earlier days.
+     *
+     * @return whether the run was started
+     */
+    public boolean startAccrual(LocalDate businessDate) {
+        return startInBackground(() -> accrueInOrder(businessDate));
+    }
+
+    /**
+     * The progress of the current run, or of the last one when none is running; null before the first run.
+     */
+    public AccrualProgress progress() {
+        RunTracker run = currentRun;
+        return run == null ? null : run.snapshot();
+    }
+
+    private boolean tryRun(Runnable work) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            work.run();
+        } finally {
+            running.set(false);
+        }
+        return true;
+    }
+
+    private boolean startInBackground(Runnable work) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                work.run();
+            } finally {
+                running.set(false);
+            }
+        }, "interest-accrual");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    private void accrueInOrder(LocalDate businessDate) {
+        for (LocalDate interrupted : interestAccrualRepository.findIncompleteRuns()) {
+            if (interrupted.isBefore(businessDate)) {
+                run(interrupted);
+            }
+        }
+        run(businessDate);
+    }
+
+    private void run(LocalDate businessDate) {
+        int runChunkSize = interestAccrualRepository.startRun(businessDate, chunkSize, LocalDateTime.now());
+        Set<Long> completed = interestAccrualRepository.findCompletedChunkStarts(businessDate);
+        long totalChunks = accountRepository.findMaxId() / runChunkSize + 1;
+        RunTracker run = new RunTracker(businessDate, totalChunks, completed.size());
+        currentRun = run;
+        logger.info("Accruing interest for {}: {} chunks of {} accounts, {} already posted",
+                businessDate, totalChunks, runChunkSize, completed.size());
+
+        AtomicLong nextChunk = new AtomicLong();
+        List<Future<?>> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            workers.add(executor.submit(() -> {
+                for (long chunk = nextChunk.getAndIncrement(); chunk < totalChunks; chunk = nextChunk.getAndIncrement()) {
+                    long chunkStart = chunk * runChunkSize;
+                    if (!completed.contains(chunkStart)) {
+                        postChunk(run, chunkStart, chunkStart + runChunkSize);
+                    }
+                }
+            }));
+        }
+        try {
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.forEach(worker -> worker.cancel(true));
+            run.finish(false);
+            return;
+        } catch (ExecutionException e) {
+            logger.error("Interest accrual for {} stopped", businessDate, e.getCause());
+            run.finish(false);
+            return;
+        }
+
+        boolean complete = run.failedChunks.get() == 0;
+        if (complete) {
+            interestAccrualRepository.completeRun(businessDate, LocalDateTime.now());
+        }
+        run.finish(complete);
+        AccrualProgress progress = run.snapshot();
+        logger.info("Interest accrual for {} {}: {} accounts credited in {} ms, {} chunks failed",
+                businessDate, complete ? "completed" : "is incomplete", progress.accountsCredited(),
+                progress.elapsedMillis(), progress.failedChunks());
+    }
+
+    private void postChunk(RunTracker run, long fromId, long toId) {
+        long start = System.nanoTime();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Integer credited = transactionTemplate.execute(status -> creditInterest(run.businessDate, fromId, toId));
+                chunkDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                chunksCompleted.increment();
+                accountsCredited.increment(credited);
+                run.chunkCompleted(credited);
+                return;
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    logger.warn("Giving up on interest for accounts {} to {} after {} attempts", fromId, toId, attempt, e);
+                    break;
+                }
+                logger.debug("Retrying interest for accounts {} to {} after a lock conflict", fromId, toId);
+            } catch (RuntimeException e) {
+                logger.error("Could not post interest for accounts {} to {}", fromId, toId, e);
+                break;
+            }
+        }
+        chunksFailed.increment();
+        run.failedChunks.incrementAndGet();
+    }
+
+    private int creditInterest(LocalDate businessDate, long fromId, long toId) {
+        List<AccruableAccount> accounts = interestAccrualRepository.lockAccruableAccounts(fromId, toId, businessDate);
+        List<CreditedAccount> credited = new ArrayList<>(accounts.size());
+        List<TransactionLedger> entries = new ArrayList<>(accounts.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (AccruableAccount account : accounts) {
+            BigDecimal annualRate = annualRates.get(account.currency());
+            if (annualRate == null) {
+                continue;
+            }
+            Money interest = dailyInterest(account.balance(), account.currency(), annualRate, dayCount);
+            if (interest.signum() <= 0) {
+                continue;
+            }
+            BigDecimal balanceAfter = Money.of(account.balance(), account.currency()).plus(interest).toBigDecimal();
+            Account reference = new Account();
+            reference.setId(account.id());
+            credited.add(new CreditedAccount(account.id(), balanceAfter));
+            entries.add(TransactionLedger.builder()
+                    .account(reference)
+                    .amount(interest.toBigDecimal())
+                    .balanceAfter(balanceAfter)
+                    .transactionType(TransactionType.CREDIT)
+                    .transactionDate(now)
+                    .correlationId("interest-" + businessDate + "-" + account.id())
+                    .build());
+        }
+        if (!credited.isEmpty()) {
+            interestAccrualRepository.credit(credited, businessDate);
+            ledgerBatchRepository.insertLedgerEntries(entries);
+        }
+        interestAccrualRepository.completeChunk(businessDate, fromId, toId, credited.size(), now);
+        return credited.size();
+    }
+
+    /**
+     * One day of interest on the balance, rounded half-even to the currency's minor unit.
+     */
+    static Money dailyInterest(BigDecimal balance, String currency, BigDecimal annualRate, int dayCount) {
+        BigDecimal interest = balance.multiply(annualRate)
+                .divide(BigDecimal.valueOf(dayCount), Money.fractionDigits(currency), RoundingMode.HALF_EVEN);
+        return Money.of(interest, currency);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static final class RunTracker {
+
+        private final LocalDate businessDate;
+        private final long totalChunks;
+        private final long resumedChunks;
+        private final Instant startedAt = Instant.now();
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong completedChunks;
+        private final AtomicLong failedChunks = new AtomicLong();
+        private final AtomicLong accounts = new AtomicLong();
+        private volatile AccrualProgress.Status status = AccrualProgress.Status.RUNNING;
+        private volatile long elapsedNanos = -1;
+
+        RunTracker(LocalDate businessDate, long totalChunks, long resumedChunks) {
+            this.businessDate = businessDate;
+            this.totalChunks = totalChunks;
+            this.resumedChunks = resumedChunks;
+            this.completedChunks = new AtomicLong(resumedChunks);
+        }
+
+        void chunkCompleted(int credited) {
+            long credits = accounts.addAndGet(credited);
+            long done = completedChunks.incrementAndGet();
+            long step = Math.max(1, totalChunks / PROGRESS_STEPS);
+            if (done % step == 0) {
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                logger.info("Interest accrual for {}: {}/{} chunks, {} accounts credited in {} ms",
+                        businessDate, done, totalChunks, credits, elapsedMillis);
+            }
+        }
+
+        void finish(boolean complete) {
+            elapsedNanos = System.nanoTime() - startNanos;
+            status = complete ? AccrualProgress.Status.COMPLETED : AccrualProgress.Status.INCOMPLETE;
+        }
+
+        AccrualProgress snapshot() {
+            long elapsed = elapsedNanos >= 0 ? elapsedNanos : System.nanoTime() - startNanos;
+            long credited = accounts.get();
+            double perSecond = elapsed > 0 ? credited * 1e9 / elapsed : 0;
+            return new AccrualProgress(businessDate, status, startedAt, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                    totalChunks, completedChunks.get(), resumedChunks, failedChunks.get(), credited, perSecond);
+        }
+    }
+}
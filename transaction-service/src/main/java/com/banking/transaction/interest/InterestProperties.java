@@ -0,0 +1,39 @@
+package com.banking.transaction.interest;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * End-of-day interest accrual settings under {@code transaction.interest}.
+ */
+@Component
+@ConfigurationProperties("transaction.interest")
+@Data
+public class InterestProperties {
+
+    // Whether the cron runs accruals and interrupted runs are resumed on startup; the actuator endpoint always works
+    private boolean enabled;
+
+    // Accrues the previous business day
+    private String cron = "0 30 0 * * *";
+
+    // Annual rate by currency, e.g. 0.30 for 30%; accounts in other currencies accrue nothing
+    private Map<String, BigDecimal> annualRates = new HashMap<>();
+
+    // Days the annual rate is spread over
+    private int dayCount = 365;
+
+    // Width of the account id ranges; each is posted in one transaction and checkpointed with it
+    private int chunkSize = 1000;
+
+    // Ranges posted at once, each on its own connection; keep it below the connection pool size
+    private int threads = 4;
+
+    // Attempts per range when it deadlocks or times out on locks held by transfers
+    private int maxAttempts = 3;
+}
@@ -0,0 +1,50 @@
+package com.banking.transaction.limits;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Transfer limit profiles under {@code transaction.limits}. An account uses the profile named in its
+ * {@code limitProfile}, or {@code default-profile}. The profile of the sending account sets both the limits
+ * of that account and the limits of its owner across all of their accounts.
+ */
+@Component
+@ConfigurationProperties("transaction.limits")
+@Data
+public class TransferLimitProperties {
+
+    private boolean enabled;
+
+    // Limit amounts are in this currency; transfers in other currencies are converted at the current rate
+    private String currency = "TRY";
+
+    private String defaultProfile = "standard";
+
+    private Map<String, Profile> profiles = new LinkedHashMap<>();
+
+    @Data
+    public static class Profile {
+        private Limits user = new Limits();
+        private Limits account = new Limits();
+    }
+
+    /**
+     * Limits over the sliding hour and day; a missing limit does not apply.
+     */
+    @Data
+    public static class Limits {
+        private BigDecimal hourlyAmount;
+        private Integer hourlyCount;
+        private BigDecimal dailyAmount;
+        private Integer dailyCount;
+
+        public boolean isEmpty() {
+            return hourlyAmount == null && hourlyCount == null && dailyAmount == null && dailyCount == null;
+        }
+    }
+}
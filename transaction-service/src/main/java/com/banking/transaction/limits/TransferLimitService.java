@@ -0,0 +1,216 @@
+package com.banking.transaction.limits;
+
+import com.banking.common.money.Money;
+import com.banking.transaction.cache.AccountMetadata;
+import com.banking.transaction.exception.TransferLimitExceededException;
+import com.banking.transaction.fx.FxRateService;
+import com.banking.transaction.repository.TransferLimitRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enforces hourly and daily amount and count limits per user and per account. Instead of summing the ledger,
+ * every transfer adds itself to the current minute and hour buckets of its user and account in
+ * {@code transfer_limit_usage} with one statement that returns their new totals. The earlier buckets of the
+ * sliding hour and day are no longer written to, so their totals are loaded once per subject and minute and
+ * kept in memory.
+ * <p>
+ * The buckets are written in the transfer's own transaction, so a transfer that is rolled back for any reason
+ * takes its usage with it, and the row locks on the current buckets make concurrent transfers of the same user
+ * on any instance see each other. A transfer that would exceed a limit takes its own addition back before
+ * failing, so callers that keep the surrounding transaction, like the batch path, need not roll back.
+ */
+@Service
+public class TransferLimitService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransferLimitService.class);
+
+    private final TransferLimitRepository transferLimitRepository;
+    private final FxRateService fxRateService;
+    private final boolean enabled;
+    private final String currency;
+    private final CompiledProfile defaultProfile;
+    private final Map<String, CompiledProfile> profiles = new HashMap<>();
+    // Replaced when the minute changes, which also drops the subjects that have gone quiet
+    private volatile EarlierUsage earlierUsage = new EarlierUsage(LocalDateTime.MIN, Map.of());
+
+    private final Timer evaluation;
+    private final Counter rejections;
+
+    public TransferLimitService(TransferLimitRepository transferLimitRepository,
+                                FxRateService fxRateService,
+                                TransferLimitProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.transferLimitRepository = transferLimitRepository;
+        this.fxRateService = fxRateService;
+        this.enabled = properties.isEnabled();
+        this.currency = properties.getCurrency();
+        properties.getProfiles().forEach((name, profile) -> profiles.put(name,
+                new CompiledProfile(Bounds.of(profile.getUser(), currency), Bounds.of(profile.getAccount(), currency))));
+        this.defaultProfile = profiles.getOrDefault(properties.getDefaultProfile(), CompiledProfile.UNLIMITED);
+        if (enabled && !profiles.containsKey(properties.getDefaultProfile())) {
+            throw new IllegalStateException("Unknown default transfer limit profile " + properties.getDefaultProfile());
+        }
+
+        this.evaluation = Timer.builder("transaction.limits.evaluation")
+                .description("Time spent checking and updating transfer limits")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejections = Counter.builder("transaction.limits.rejections")
+                .description("Transfers rejected for exceeding a limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts the transfer against the limits of the sender's profile. Must be called inside the transfer's
+     * transaction.
+     *
+     * @throws TransferLimitExceededException if the transfer would exceed a limit; it is then not counted
+     */
+    public void record(AccountMetadata sender, Long userId, Money amount) {
+        if (!enabled) {
+            return;
+        }
+        CompiledProfile profile = sender.limitProfile() != null
+                ? profiles.getOrDefault(sender.limitProfile(), defaultProfile)
+                : defaultProfile;
+        if (profile.user() == null && profile.account() == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            long amountMinor = fxRateService.current().convert(amount, currency).converted().minorUnits();
+            LocalDateTime now = LocalDateTime.now();
+            // Always user before account, so transfers of one user lock their shared buckets in the same order
+            List<String> subjects = new ArrayList<>(2);
+            String userSubject = "user:" + userId;
+            String accountSubject = "account:" + sender.iban();
+            if (profile.user() != null) {
+                subjects.add(userSubject);
+            }
+            if (profile.account() != null) {
+                subjects.add(accountSubject);
+            }
+            Map<String, WindowUsage> current = transferLimitRepository.add(subjects, now, amountMinor, 1);
+            Map<String, WindowUsage> earlier = earlierUsage(subjects, now);
+
+            String exceeded = exceeded(profile.user(), userSubject, current, earlier, "user");
+            if (exceeded == null) {
+                exceeded = exceeded(profile.account(), accountSubject, current, earlier, "account");
+            }
+            if (exceeded != null) {
+                transferLimitRepository.add(subjects, now, -amountMinor, -1);
+                rejections.increment();
+                throw new TransferLimitExceededException(exceeded);
+            }
+        } finally {
+            evaluation.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Map<String, WindowUsage> earlierUsage(List<String> subjects, LocalDateTime now) {
+        LocalDateTime minute = now.truncatedTo(ChronoUnit.MINUTES);
+        EarlierUsage current = earlierUsage;
+        if (minute.isBefore(current.minute())) {
+            // Started just before another thread moved on to the next minute
+            return transferLimitRepository.sumEarlier(subjects, now);
+        }
+        if (minute.isAfter(current.minute())) {
+            current = new EarlierUsage(minute, new ConcurrentHashMap<>());
+            earlierUsage = current;
+        }
+        Map<String, WindowUsage> cached = current.usage();
+        List<String> missing = subjects.stream().filter(subject -> !cached.containsKey(subject)).toList();
+        if (!missing.isEmpty()) {
+            Map<String, WindowUsage> loaded = transferLimitRepository.sumEarlier(missing, now);
+            for (String subject : missing) {
+                cached.put(subject, loaded.getOrDefault(subject, WindowUsage.NONE));
+            }
+        }
+        return cached;
+    }
+
+    private static String exceeded(Bounds bounds, String subject, Map<String, WindowUsage> current,
+                                   Map<String, WindowUsage> earlier, String scope) {
+        if (bounds == null) {
+            return null;
+        }
+        String limit = bounds.exceededBy(current.get(subject).plus(earlier.getOrDefault(subject, WindowUsage.NONE)));
+        return limit != null ? limit + " limit of the " + scope + " exceeded." : null;
+    }
+
+    /**
+     * Drops buckets that no window reaches anymore.
+     */
+    @Scheduled(cron = "${transaction.limits.cleanup-cron:0 5 * * * *}")
+    public void deleteExpiredBuckets() {
+        if (!enabled) {
+            return;
+        }
+        int deleted = transferLimitRepository.deleteBefore(LocalDateTime.now().minusHours(25));
+        logger.debug("Deleted {} expired transfer limit buckets", deleted);
+    }
+
+    /**
+     * Totals of the closed buckets in the windows ending at {@code minute}, per subject.
+     */
+    private record EarlierUsage(LocalDateTime minute, Map<String, WindowUsage> usage) {
+    }
+
+    private record CompiledProfile(Bounds user, Bounds account) {
+        static final CompiledProfile UNLIMITED = new CompiledProfile(null, null);
+    }
+
+    /**
+     * Limits in minor units of the limit currency; {@link Long#MAX_VALUE} where none applies.
+     */
+    private record Bounds(long hourlyAmount, long hourlyCount, long dailyAmount, long dailyCount) {
+
+        static Bounds of(TransferLimitProperties.Limits limits, String currency) {
+            if (limits == null || limits.isEmpty()) {
+                return null;
+            }
+            return new Bounds(minorUnits(limits.getHourlyAmount(), currency), count(limits.getHourlyCount()),
+                    minorUnits(limits.getDailyAmount(), currency), count(limits.getDailyCount()));
+        }
+
+        private static long minorUnits(BigDecimal amount, String currency) {
+            return amount != null ? Money.of(amount, currency).minorUnits() : Long.MAX_VALUE;
+        }
+
+        private static long count(Integer count) {
+            return count != null ? count : Long.MAX_VALUE;
+        }
+
+        String exceededBy(WindowUsage usage) {
+            if (usage.hourlyAmount() > hourlyAmount) {
+                return "Hourly transfer amount";
+            }
+            if (usage.hourlyCount() > hourlyCount) {
+                return "Hourly transfer count";
+            }
+            if (usage.dailyAmount() > dailyAmount) {
+                return "Daily transfer amount";
+            }
+            if (usage.dailyCount() > dailyCount) {
+                return "Daily transfer count";
+            }
+            return null;
+        }
+    }
+}
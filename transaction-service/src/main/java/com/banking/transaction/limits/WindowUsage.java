@@ -0,0 +1,14 @@
+package com.banking.transaction.limits;
+
+/**
+ * Totals of one user or account over the sliding hour and day, in minor units of the limit currency.
+ */
+public record WindowUsage(long hourlyAmount, long hourlyCount, long dailyAmount, long dailyCount) {
+
+    public static final WindowUsage NONE = new WindowUsage(0, 0, 0, 0);
+
+    public WindowUsage plus(WindowUsage other) {
+        return new WindowUsage(hourlyAmount + other.hourlyAmount, hourlyCount + other.hourlyCount,
+                dailyAmount + other.dailyAmount, dailyCount + other.dailyCount);
+    }
+}
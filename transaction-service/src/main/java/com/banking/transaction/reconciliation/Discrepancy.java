@@ -0,0 +1,25 @@
+package com.banking.transaction.reconciliation;
+
+import java.math.BigDecimal;
+
+/**
+ * One finding of a reconciliation run. Fields that do not apply to the type are null.
+ *
+ * @param expected for a balance, the sum of the account's ledger; for a pair, what the other leg implies; for a
+ *                 fan-out, the sum of its debits
+ * @param actual   for a balance, {@code Account.balance}; for a pair or an unpaired entry, the entry's amount;
+ *                 for a fan-out, the sum of its credits
+ */
+public record Discrepancy(Type type, Long accountId, Long ledgerId, String correlationId,
+                          BigDecimal expected, BigDecimal actual) {
+
+    public enum Type {
+        // Account.balance differs from the sum of the account's ledger entries
+        BALANCE_MISMATCH,
+        // A "-D" debit without its "-C" credit, or the other way round
+        UNPAIRED_ENTRY,
+        // The debit and credit of a transfer disagree on the amounts moved, or the "-FD" debits of a fan-out
+        // differ from the sum of its "-FC" credits
+        PAIR_MISMATCH
+    }
+}
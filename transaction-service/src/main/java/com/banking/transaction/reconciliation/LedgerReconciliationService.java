@@ -0,0 +1,319 @@
+package com.banking.transaction.reconciliation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToLongFunction;
+
+/**
+ * Checks that every account's balance equals the sum of its ledger entries, that the "-D" and "-C" legs of
+ * every transfer are both present and agree on the amounts, and that the debits of every fan-out such as a
+ * payroll add up to its credits.
+ * <p>
+ * The ledger is split into id ranges of {@code partition-size} that are scanned on a fork-join pool of
+ * {@code parallelism} threads, each range through its own forward-only cursor. A range is added up in a
+ * {@link LedgerScan} and the scans are merged pairwise as ranges finish, so memory depends on the number of
+ * accounts, not the number of entries. On PostgreSQL all cursors and the balance query read the snapshot
+ * exported by one transaction, so transfers committed during the run neither show up in the ledger without
+ * their balance nor the other way round.
+ * <p>
+ * The ledger is expected to hold every entry since the accounts were opened: with
+ * {@code transaction.ledger.partitioning.retention-months} set, accounts with entries in detached partitions
+ * are reported as balance mismatches.
+ */
+@Service
+public class LedgerReconciliationService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerReconciliationService.class);
+
+    private static final String LEDGER_BOUNDS = "SELECT min(id), max(id) FROM transaction_ledger";
+
+    // Amounts are read as thousandths so that adding them up needs neither BigDecimal nor floating point
+    private static final String LEDGER_RANGE = """
+            SELECT id, account_id, CAST(amount * 1000 AS bigint), correlation_id,
+                   CAST(original_amount * 1000 AS bigint), CAST(converted_amount * 1000 AS bigint)
+            FROM transaction_ledger
+            WHERE id >= ? AND id < ?
+            ORDER BY id
+            """;
+
+    private static final String BALANCES = "SELECT id, CAST(COALESCE(balance, 0) * 1000 AS bigint) FROM account";
+
+    private static final int EXPECTED_ACCOUNTS_PER_RANGE = 1024;
+
+    private final DataSource dataSource;
+    private final long partitionSize;
+    private final int fetchSize;
+    private final int maxReportedDiscrepancies;
+    private final ForkJoinPool pool;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile ReconciliationReport lastReport;
+    private volatile ReconciliationReport lastCompletedReport;
+
+    private final Timer duration;
+    private final Counter rowsScanned;
+    private final MeterRegistry meterRegistry;
+
+    public LedgerReconciliationService(DataSource dataSource,
+                                       ReconciliationProperties properties,
+                                       MeterRegistry meterRegistry) {
+        if (properties.getParallelism() < 1 || properties.getPartitionSize() < 1) {
+            throw new IllegalArgumentException("Reconciliation parallelism and partition size must be positive");
+        }
+        this.dataSource = dataSource;
+        this.partitionSize = properties.getPartitionSize();
+        this.fetchSize = properties.getFetchSize();
+        this.maxReportedDiscrepancies = properties.getMaxReportedDiscrepancies();
+        this.pool = new ForkJoinPool(properties.getParallelism(), forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("ledger-reconciliation-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+
+        this.meterRegistry = meterRegistry;
+        this.duration = Timer.builder("transaction.reconciliation.duration")
+                .description("Time taken by ledger reconciliation runs")
+                .register(meterRegistry);
+        this.rowsScanned = Counter.builder("transaction.reconciliation.rows")
+                .description("Ledger entries read by reconciliation runs")
+                .register(meterRegistry);
+        discrepancyGauge("balance", ReconciliationReport::balanceMismatches);
+        discrepancyGauge("unpaired", ReconciliationReport::unpairedEntries);
+        discrepancyGauge("pair", ReconciliationReport::pairMismatches);
+    }
+
+    private void discrepancyGauge(String type, ToLongFunction<ReconciliationReport> count) {
+        Gauge.builder("transaction.reconciliation.discrepancies", this, service -> {
+                    ReconciliationReport report = service.lastCompletedReport;
+                    return report == null ? 0 : count.applyAsLong(report);
+                })
+                .description("Discrepancies found by the last completed reconciliation run")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${transaction.reconciliation.cron:-}")
+    public void reconcileOnSchedule() {
+        if (reconcile().isEmpty()) {
+            logger.info("Skipping scheduled ledger reconciliation, another run is in progress");
+        }
+    }
+
+    /**
+     * Reconciles the ledger on the calling thread.
+     *
+     * @return the report, or empty if another run is in progress
+     */
+    public Optional<ReconciliationReport> reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(run());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Starts a run in the background unless one is already in progress; its report becomes
+     * {@link #lastReport()} when it is done.
+     *
+     * @return whether a run was started
+     */
+    public boolean startReconciliation() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                run();
+            } finally {
+                running.set(false);
+            }
+        }, "ledger-reconciliation");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * The report of the last run, or null before the first run has finished.
+     */
+    public ReconciliationReport lastReport() {
+        return lastReport;
+    }
+
+    private ReconciliationReport run() {
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+        ReconciliationReport report;
+        try {
+            report = scanAndCompare(startedAt, start);
+            lastCompletedReport = report;
+            if (report.status() == ReconciliationReport.Status.BALANCED) {
+                logger.info("Ledger reconciled: {} entries of {} accounts balance in {} ms",
+                        report.ledgerRows(), report.accounts(), report.durationMillis());
+            } else {
+                logger.warn("Ledger reconciliation found {} balance mismatches, {} unpaired entries and {} mismatched pairs in {} entries",
+                        report.balanceMismatches(), report.unpairedEntries(), report.pairMismatches(), report.ledgerRows());
+            }
+        } catch (SQLException | RuntimeException e) {
+            logger.error("Ledger reconciliation failed", e);
+            report = ReconciliationReport.failed(startedAt, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), e.toString());
+        }
+        duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        Counter.builder("transaction.reconciliation.runs")
+                .description("Reconciliation runs by outcome")
+                .tag("status", report.status().name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+        lastReport = report;
+        return report;
+    }
+
+    private ReconciliationReport scanAndCompare(Instant startedAt, long start) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                String snapshot = exportSnapshot(connection);
+                LedgerScan scan;
+                try (Statement statement = connection.createStatement();
+                     ResultSet bounds = statement.executeQuery(LEDGER_BOUNDS)) {
+                    bounds.next();
+                    long minId = bounds.getLong(1);
+                    scan = bounds.wasNull()
+                            ? new LedgerScan(maxReportedDiscrepancies, EXPECTED_ACCOUNTS_PER_RANGE)
+                            : pool.invoke(new RangeScan(minId, bounds.getLong(2) + 1, snapshot));
+                }
+                try (PreparedStatement statement = connection.prepareStatement(BALANCES,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    statement.setFetchSize(fetchSize);
+                    try (ResultSet balances = statement.executeQuery()) {
+                        while (balances.next()) {
+                            scan.checkBalance(balances.getLong(1), balances.getLong(2));
+                        }
+                    }
+                }
+                return scan.report(startedAt, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), snapshot != null);
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Starts a repeatable-read transaction on PostgreSQL and exports its snapshot for the range scans to share.
+     *
+     * @return the snapshot id, or null on other databases
+     */
+    private static String exportSnapshot(Connection connection) throws SQLException {
+        if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+            return null;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET TRANSACTION ISOLATION LEVEL REPEATABLE READ, READ ONLY");
+            try (ResultSet snapshot = statement.executeQuery("SELECT pg_export_snapshot()")) {
+                snapshot.next();
+                return snapshot.getString(1);
+            }
+        }
+    }
+
+    private LedgerScan scanRange(long fromId, long toId, String snapshot) throws SQLException {
+        LedgerScan scan = new LedgerScan(maxReportedDiscrepancies, EXPECTED_ACCOUNTS_PER_RANGE);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                if (snapshot != null) {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("SET TRANSACTION ISOLATION LEVEL REPEATABLE READ, READ ONLY");
+                        // The id comes from pg_export_snapshot(), and SET does not take parameters
+                        statement.execute("SET TRANSACTION SNAPSHOT '" + snapshot + "'");
+                    }
+                }
+                try (PreparedStatement statement = connection.prepareStatement(LEDGER_RANGE,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    statement.setFetchSize(fetchSize);
+                    statement.setLong(1, fromId);
+                    statement.setLong(2, toId);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            long originalMilli = rs.getLong(5);
+                            boolean crossCurrency = !rs.wasNull();
+                            scan.add(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getString(4),
+                                    crossCurrency, originalMilli, rs.getLong(6));
+                        }
+                    }
+                }
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        }
+        rowsScanned.increment(scan.rows());
+        return scan;
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    // Halves its id range until it is at most partitionSize wide, then scans it
+    private final class RangeScan extends RecursiveTask<LedgerScan> {
+
+        private final long fromId;
+        private final long toId;
+        private final String snapshot;
+
+        RangeScan(long fromId, long toId, String snapshot) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        protected LedgerScan compute() {
+            if (toId - fromId <= partitionSize) {
+                try {
+                    return scanRange(fromId, toId, snapshot);
+                } catch (SQLException e) {
+                    throw new DataRetrievalFailureException("Could not scan ledger ids " + fromId + " to " + toId, e);
+                }
+            }
+            long middle = fromId + (toId - fromId) / 2;
+            RangeScan lower = new RangeScan(fromId, middle, snapshot);
+            lower.fork();
+            LedgerScan scan = new RangeScan(middle, toId, snapshot).compute();
+            scan.merge(lower.join());
+            return scan;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.banking.transaction.reconciliation;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What one range of the ledger adds up to: the sum of entries per account, and the transfer legs whose other
+ * leg has not been seen yet. Scans of neighbouring ranges are merged into one covering the whole ledger.
+ * <p>
+ * Amounts are in thousandths of the currency unit. The two legs of a transfer are written next to each other,
+ * so a leg usually waits only a few rows for its counterpart and the open legs stay few; only those whose
+ * counterpart is in another range, or missing, are carried into the merge.
+ * <p>
+ * A fan-out such as a payroll debits its source in a few {@code <id>-<line>-FD} entries and credits each
+ * beneficiary in a {@code <id>-<line>-FC} entry. Its entries are only added up per fan-out, which stays open until the
+ * whole ledger has been merged, since there is no telling when the last of them has been seen.
+ */
+final class LedgerScan {
+
+    private static final String DEBIT_SUFFIX = "-D";
+    private static final String CREDIT_SUFFIX = "-C";
+    private static final String FAN_OUT_DEBIT_SUFFIX = "-FD";
+    private static final String FAN_OUT_CREDIT_SUFFIX = "-FC";
+
+    private final int maxReported;
+    private LongLongHashMap balances;
+    private Map<String, Leg> openLegs = new HashMap<>();
+    private Map<String, FanOut> fanOuts = new HashMap<>();
+    private final List<Discrepancy> discrepancies = new ArrayList<>();
+    private final List<Leg> duplicateLegs = new ArrayList<>();
+    private long rows;
+    private long pairMismatches;
+    private long balanceMismatches;
+    private long accounts;
+
+    LedgerScan(int maxReported, int expectedAccounts) {
+        this.maxReported = maxReported;
+        this.balances = new LongLongHashMap(expectedAccounts);
+    }
+
+    /**
+     * Adds one ledger entry. {@code originalMilli} and {@code convertedMilli} are only read for cross-currency
+     * entries, whose legs both carry the amount sent and the amount received.
+     */
+    void add(long ledgerId, long accountId, long amountMilli, String correlationId,
+             boolean crossCurrency, long originalMilli, long convertedMilli) {
+        rows++;
+        balances.addTo(accountId, amountMilli);
+        if (correlationId == null) {
+            return;
+        }
+        if (correlationId.endsWith(FAN_OUT_DEBIT_SUFFIX)) {
+            addFanOut(new FanOut(fanOutId(correlationId, FAN_OUT_DEBIT_SUFFIX), ledgerId, accountId, amountMilli, 0));
+            return;
+        }
+        if (correlationId.endsWith(FAN_OUT_CREDIT_SUFFIX)) {
+            // What the source paid for this credit, in the source's currency
+            addFanOut(new FanOut(fanOutId(correlationId, FAN_OUT_CREDIT_SUFFIX), ledgerId, null, 0,
+                    crossCurrency ? originalMilli : amountMilli));
+            return;
+        }
+        boolean debit = correlationId.endsWith(DEBIT_SUFFIX);
+        if (!debit && !correlationId.endsWith(CREDIT_SUFFIX)) {
+            // Deposits and other single-sided entries
+            return;
+        }
+        // Each leg states the debit and credit of the whole transfer, which the other leg must agree with
+        long debitMilli = debit ? amountMilli : crossCurrency ? -originalMilli : -amountMilli;
+        long creditMilli = !debit ? amountMilli : crossCurrency ? convertedMilli : -amountMilli;
+        String transfer = correlationId.substring(0, correlationId.length() - DEBIT_SUFFIX.length());
+        pair(new Leg(transfer, ledgerId, accountId, debit, amountMilli, debitMilli, creditMilli));
+    }
+
+    // <id>-<line><suffix> belongs to the fan-out <id>
+    private static String fanOutId(String correlationId, String suffix) {
+        String line = correlationId.substring(0, correlationId.length() - suffix.length());
+        return line.substring(0, Math.max(line.lastIndexOf('-'), 0));
+    }
+
+    private void pair(Leg leg) {
+        Leg other = openLegs.remove(leg.transfer());
+        if (other == null) {
+            openLegs.put(leg.transfer(), leg);
+        } else if (other.debit() == leg.debit()) {
+            // Two debits or two credits of one transfer: keep waiting with the first, the second has no counterpart
+            openLegs.put(other.transfer(), other);
+            duplicateLegs.add(leg);
+        } else if (other.debitMilli() != leg.debitMilli() || other.creditMilli() != leg.creditMilli()) {
+            pairMismatches++;
+            Leg credit = leg.debit() ? other : leg;
+            Leg debit = leg.debit() ? leg : other;
+            report(new Discrepancy(Discrepancy.Type.PAIR_MISMATCH, credit.accountId(), credit.ledgerId(), credit.transfer(),
+                    milli(debit.creditMilli()), milli(credit.amountMilli())));
+        }
+    }
+
+    private void addFanOut(FanOut entries) {
+        fanOuts.merge(entries.id(), entries, FanOut::plus);
+    }
+
+    /**
+     * Adds the scan of another range, which may be bigger or smaller than this one, to this one.
+     */
+    void merge(LedgerScan other) {
+        if (other.balances.size() > balances.size()) {
+            LongLongHashMap smaller = balances;
+            balances = other.balances;
+            balances.addAll(smaller);
+        } else {
+            balances.addAll(other.balances);
+        }
+        if (other.openLegs.size() > openLegs.size()) {
+            Map<String, Leg> smaller = openLegs;
+            openLegs = other.openLegs;
+            smaller.values().forEach(this::pair);
+        } else {
+            other.openLegs.values().forEach(this::pair);
+        }
+        if (other.fanOuts.size() > fanOuts.size()) {
+            Map<String, FanOut> smaller = fanOuts;
+            fanOuts = other.fanOuts;
+            smaller.values().forEach(this::addFanOut);
+        } else {
+            other.fanOuts.values().forEach(this::addFanOut);
+        }
+        duplicateLegs.addAll(other.duplicateLegs);
+        other.discrepancies.forEach(this::report);
+        rows += other.rows;
+        pairMismatches += other.pairMismatches;
+    }
+
+    /**
+     * Compares an account's balance with the sum of its entries. Call once per account after the whole
+     * ledger has been merged in.
+     */
+    void checkBalance(long accountId, long balanceMilli) {
+        accounts++;
+        long ledgerMilli = balances.get(accountId, 0);
+        if (ledgerMilli != balanceMilli) {
+            balanceMismatches++;
+            report(new Discrepancy(Discrepancy.Type.BALANCE_MISMATCH, accountId, null, null,
+                    milli(ledgerMilli), milli(balanceMilli)));
+        }
+    }
+
+    /**
+     * The report of a ledger that has been completely merged and whose balances have been checked; legs
+     * still open at this point have no counterpart.
+     */
+    ReconciliationReport report(Instant startedAt, long durationMillis, boolean consistentSnapshot) {
+        List<Leg> unpaired = new ArrayList<>(openLegs.values());
+        unpaired.addAll(duplicateLegs);
+        unpaired.sort(Comparator.comparingLong(Leg::ledgerId));
+        for (Leg leg : unpaired) {
+            report(new Discrepancy(Discrepancy.Type.UNPAIRED_ENTRY, leg.accountId(), leg.ledgerId(), leg.transfer(),
+                    null, milli(leg.amountMilli())));
+        }
+        List<FanOut> unbalancedFanOuts = new ArrayList<>();
+        for (FanOut fanOut : fanOuts.values()) {
+            if (fanOut.debitMilli() + fanOut.creditMilli() != 0) {
+                unbalancedFanOuts.add(fanOut);
+            }
+        }
+        unbalancedFanOuts.sort(Comparator.comparingLong(FanOut::ledgerId));
+        for (FanOut fanOut : unbalancedFanOuts) {
+            pairMismatches++;
+            report(new Discrepancy(Discrepancy.Type.PAIR_MISMATCH, fanOut.accountId(), fanOut.ledgerId(), fanOut.id(),
+                    milli(-fanOut.debitMilli()), milli(fanOut.creditMilli())));
+        }
+        boolean balanced = balanceMismatches == 0 && unpaired.isEmpty() && pairMismatches == 0;
+        return new ReconciliationReport(
+                balanced ? ReconciliationReport.Status.BALANCED : ReconciliationReport.Status.DISCREPANCIES_FOUND,
+                startedAt, durationMillis, consistentSnapshot, rows, accounts,
+                balanceMismatches, unpaired.size(), pairMismatches, List.copyOf(discrepancies), null);
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    private void report(Discrepancy discrepancy) {
+        if (discrepancies.size() < maxReported) {
+            discrepancies.add(discrepancy);
+        }
+    }
+
+    private static BigDecimal milli(long amountMilli) {
+        return BigDecimal.valueOf(amountMilli, 3);
+    }
+
+    /**
+     * Sums of some of the entries of a fan-out; {@code accountId} is the source's once a debit has been seen.
+     */
+    private record FanOut(String id, long ledgerId, Long accountId, long debitMilli, long creditMilli) {
+
+        FanOut plus(FanOut other) {
+            return new FanOut(id, Math.min(ledgerId, other.ledgerId), accountId != null ? accountId : other.accountId,
+                    debitMilli + other.debitMilli, creditMilli + other.creditMilli);
+        }
+    }
+
+    private record Leg(String transfer, long ledgerId, long accountId, boolean debit,
+                       long amountMilli, long debitMilli, long creditMilli) {
+    }
+}
@@ -0,0 +1,134 @@
+package com.banking.transaction.reconciliation;
+
+/**
+ * Open-addressing map from {@code long} to {@code long} with linear probing, so per-account totals over
+ * hundreds of millions of ledger rows neither box keys and values nor allocate an entry per account.
+ * Entries can only be added to, never removed. Not thread-safe.
+ */
+final class LongLongHashMap {
+
+    private static final int MINIMUM_CAPACITY = 16;
+
+    // Key 0 marks a free slot, so an entry for key 0 is kept outside the table
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    LongLongHashMap() {
+        this(MINIMUM_CAPACITY);
+    }
+
+    LongLongHashMap(int expectedSize) {
+        // At most half full, which keeps probe sequences short
+        int capacity = Integer.highestOneBit(Math.max(MINIMUM_CAPACITY, expectedSize * 2 - 1)) << 1;
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+    }
+
+    /**
+     * Adds {@code delta} to the value of {@code key}, which starts at 0.
+     */
+    void addTo(long key, long delta) {
+        if (key == 0) {
+            zeroValue += delta;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            return;
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                values[slot] += delta;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size > keys.length / 2) {
+            grow();
+        }
+    }
+
+    long get(long key, long defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return defaultValue;
+    }
+
+    boolean containsKey(long key) {
+        if (key == 0) {
+            return hasZeroKey;
+        }
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(EntryConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(0, zeroValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Adds every value of {@code other} to this map.
+     */
+    void addAll(LongLongHashMap other) {
+        other.forEach(this::addTo);
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldValues.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(oldKeys[i], mask);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    // Account ids are consecutive, so they are spread with a multiplicative hash before taking the low bits
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    @FunctionalInterface
+    interface EntryConsumer {
+        void accept(long key, long value);
+    }
+}
@@ -0,0 +1,35 @@
+package com.banking.transaction.reconciliation;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/reconciliation} returns the report of the last ledger reconciliation run, and
+ * {@code POST /actuator/reconciliation} starts a new one in the background.
+ */
+@Component
+@Endpoint(id = "reconciliation")
+public class ReconciliationEndpoint {
+
+    private final LedgerReconciliationService reconciliationService;
+
+    public ReconciliationEndpoint(LedgerReconciliationService reconciliationService) {
+        this.reconciliationService = reconciliationService;
+    }
+
+    // Answers 404 until the first run has finished
+    @ReadOperation
+    public ReconciliationReport lastReport() {
+        return reconciliationService.lastReport();
+    }
+
+    @WriteOperation
+    public Map<String, String> start() {
+        boolean started = reconciliationService.startReconciliation();
+        return Map.of("status", started ? "started" : "already running");
+    }
+}
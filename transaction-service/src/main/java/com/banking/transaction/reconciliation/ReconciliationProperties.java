@@ -0,0 +1,28 @@
+package com.banking.transaction.reconciliation;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ledger reconciliation settings under {@code transaction.reconciliation}.
+ */
+@Component
+@ConfigurationProperties("transaction.reconciliation")
+@Data
+public class ReconciliationProperties {
+
+    // When to reconcile on its own; "-" only runs it through the actuator endpoint
+    private String cron = "-";
+
+    // Ranges scanned at once, each on its own connection; keep it below the connection pool size
+    private int parallelism = 4;
+
+    // Width of the ledger id ranges the scan is split into
+    private long partitionSize = 1_000_000;
+
+    // Rows pulled from each cursor per round trip
+    private int fetchSize = 10_000;
+
+    private int maxReportedDiscrepancies = 100;
+}
@@ -0,0 +1,35 @@
+package com.banking.transaction.reconciliation;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Outcome of one reconciliation run. The counts cover every discrepancy found; {@code discrepancies} lists
+ * at most {@code max-reported-discrepancies} of them.
+ *
+ * @param consistentSnapshot whether ledger and balances were read from one snapshot; without it, transfers
+ *                           committed while the run was reading show up as discrepancies
+ * @param error              why the run failed, or null
+ */
+public record ReconciliationReport(Status status,
+                                   Instant startedAt,
+                                   long durationMillis,
+                                   boolean consistentSnapshot,
+                                   long ledgerRows,
+                                   long accounts,
+                                   long balanceMismatches,
+                                   long unpairedEntries,
+                                   long pairMismatches,
+                                   List<Discrepancy> discrepancies,
+                                   String error) {
+
+    public enum Status {
+        BALANCED,
+        DISCREPANCIES_FOUND,
+        FAILED
+    }
+
+    static ReconciliationReport failed(Instant startedAt, long durationMillis, String error) {
+        return new ReconciliationReport(Status.FAILED, startedAt, durationMillis, false, 0, 0, 0, 0, 0, List.of(), error);
+    }
+}
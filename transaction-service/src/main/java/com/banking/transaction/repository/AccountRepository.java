@@ -1,12 +1,30 @@
 package com.banking.transaction.repository;
 
 import com.banking.transaction.entity.Account;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface AccountRepository extends JpaRepository<Account, Long> {
     Optional<Account> findByIban(String iban);
     List<Account> findAllByUserId(Long userId);
+    List<Account> findAllByIbanIn(Collection<String> ibans);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.iban = :iban")
+    Optional<Account> findByIbanForUpdate(@Param("iban") String iban);
+
+    // Rows are locked in the order they are returned, so every caller takes them in IBAN order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.iban in :ibans order by a.iban")
+    List<Account> findAllByIbanInForUpdate(@Param("ibans") Collection<String> ibans);
+
+    @Query("select coalesce(max(a.id), 0) from Account a")
+    long findMaxId();
 }
@@ -0,0 +1,43 @@
+package com.banking.transaction.repository;
+
+import com.banking.transaction.entity.BalanceCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, Long> {
+
+    Optional<BalanceCheckpoint> findFirstByAccountIdAndAsOfLessThanEqualOrderByAsOfDesc(Long accountId, LocalDateTime asOf);
+
+    Optional<BalanceCheckpoint> findFirstByAccountIdAndAsOfGreaterThanOrderByAsOfAsc(Long accountId, LocalDateTime asOf);
+
+    /**
+     * Writes a checkpoint at {@code cutoff} for every account with an id in {@code (afterId, upToId]} that has
+     * ledger activity since its latest checkpoint, or no checkpoint yet. The balance at the cutoff is the
+     * current balance minus everything booked after it, read in one statement so both come from the same
+     * snapshot.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO balance_checkpoint (id, account_id, as_of, balance)
+            SELECT nextval('balance_checkpoint_seq'), a.id, :cutoff,
+                   a.balance - COALESCE((SELECT SUM(l.amount) FROM transaction_ledger l
+                                         WHERE l.account_id = a.id AND l.transaction_date > :cutoff), 0)
+            FROM account a
+            WHERE a.id > :afterId AND a.id <= :upToId
+              AND NOT EXISTS (SELECT 1 FROM balance_checkpoint c
+                              WHERE c.account_id = a.id
+                                AND c.as_of = (SELECT MAX(c2.as_of) FROM balance_checkpoint c2 WHERE c2.account_id = a.id)
+                                AND NOT EXISTS (SELECT 1 FROM transaction_ledger l
+                                                WHERE l.account_id = a.id
+                                                  AND l.transaction_date > c.as_of AND l.transaction_date <= :cutoff))
+            ON CONFLICT (account_id, as_of) DO NOTHING
+            """, nativeQuery = true)
+    int insertCheckpoints(@Param("cutoff") LocalDateTime cutoff, @Param("afterId") long afterId, @Param("upToId") long upToId);
+}
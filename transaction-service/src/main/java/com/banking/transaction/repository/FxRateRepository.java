@@ -0,0 +1,7 @@
+package com.banking.transaction.repository;
+
+import com.banking.transaction.entity.FxRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface FxRateRepository extends JpaRepository<FxRate, Long> {
+}
@@ -0,0 +1,25 @@
+package com.banking.transaction.repository;
+
+import com.banking.transaction.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, UUID> {
+
+    /**
+     * Deletes up to {@code limit} keys stored before {@code before}, so that a large backlog is removed in
+     * short transactions.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM idempotency_key WHERE id IN (SELECT id FROM idempotency_key "
+            + "WHERE created_at < :before LIMIT :limit)",
+            nativeQuery = true)
+    int deleteCreatedBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
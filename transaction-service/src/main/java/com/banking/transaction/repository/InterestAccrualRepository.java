@@ -0,0 +1,101 @@
+package com.banking.transaction.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Interest accrual runs, their chunk checkpoints and the account updates they make, through JDBC on the
+ * connection of the surrounding transaction.
+ */
+@Repository
+public class InterestAccrualRepository {
+
+    private static final String LOCK_ACCRUABLE = """
+            SELECT id, balance, COALESCE(currency, 'TRY')
+            FROM account
+            WHERE id >= ? AND id < ?
+              AND balance > 0
+              AND (status IS NULL OR status <> 'CLOSED')
+              AND (last_interest_date IS NULL OR last_interest_date < ?)
+            ORDER BY iban
+            FOR UPDATE
+            """;
+
+    // The version is bumped so that transfers which read the balance before this update fail and retry
+    private static final String CREDIT = """
+            UPDATE account SET balance = ?, last_interest_date = ?, version = version + 1
+            WHERE id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InterestAccrualRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records the run of the business day unless it already exists.
+     *
+     * @return the chunk size of the run, which is that of the earlier attempt when it is resumed
+     */
+    public int startRun(LocalDate businessDate, int chunkSize, LocalDateTime now) {
+        jdbcTemplate.update("INSERT INTO interest_accrual_run (business_date, chunk_size, started_at) VALUES (?, ?, ?) "
+                + "ON CONFLICT (business_date) DO NOTHING", Date.valueOf(businessDate), chunkSize, Timestamp.valueOf(now));
+        return jdbcTemplate.queryForObject("SELECT chunk_size FROM interest_accrual_run WHERE business_date = ?",
+                Integer.class, Date.valueOf(businessDate));
+    }
+
+    public void completeRun(LocalDate businessDate, LocalDateTime now) {
+        jdbcTemplate.update("UPDATE interest_accrual_run SET completed_at = ? WHERE business_date = ?",
+                Timestamp.valueOf(now), Date.valueOf(businessDate));
+    }
+
+    public List<LocalDate> findIncompleteRuns() {
+        return jdbcTemplate.query("SELECT business_date FROM interest_accrual_run WHERE completed_at IS NULL ORDER BY business_date",
+                (rs, rowNum) -> rs.getDate(1).toLocalDate());
+    }
+
+    public Set<Long> findCompletedChunkStarts(LocalDate businessDate) {
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT chunk_start FROM interest_accrual_chunk WHERE business_date = ?",
+                Long.class, Date.valueOf(businessDate)));
+    }
+
+    /**
+     * Locks the accounts in {@code [fromId, toId)} that hold a positive balance and have not been accrued
+     * interest for the business day yet, in IBAN order: the order transfers, batches and payrolls lock accounts in.
+     */
+    public List<AccruableAccount> lockAccruableAccounts(long fromId, long toId, LocalDate businessDate) {
+        return jdbcTemplate.query(LOCK_ACCRUABLE, (rs, rowNum) -> new AccruableAccount(rs.getLong(1), rs.getBigDecimal(2), rs.getString(3)),
+                fromId, toId, Date.valueOf(businessDate));
+    }
+
+    public void credit(List<CreditedAccount> accounts, LocalDate businessDate) {
+        Date date = Date.valueOf(businessDate);
+        jdbcTemplate.batchUpdate(CREDIT, accounts, accounts.size(), (ps, account) -> {
+            ps.setBigDecimal(1, account.balanceAfter());
+            ps.setDate(2, date);
+            ps.setLong(3, account.id());
+        });
+    }
+
+    public void completeChunk(LocalDate businessDate, long chunkStart, long chunkEnd, int accounts, LocalDateTime now) {
+        jdbcTemplate.update("INSERT INTO interest_accrual_chunk (business_date, chunk_start, chunk_end, accounts, completed_at) "
+                        + "VALUES (?, ?, ?, ?, ?) ON CONFLICT (business_date, chunk_start) DO NOTHING",
+                Date.valueOf(businessDate), chunkStart, chunkEnd, accounts, Timestamp.valueOf(now));
+    }
+
+    public record AccruableAccount(long id, BigDecimal balance, String currency) {
+    }
+
+    public record CreditedAccount(long id, BigDecimal balanceAfter) {
+    }
+}
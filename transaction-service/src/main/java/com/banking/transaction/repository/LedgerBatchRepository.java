@@ -0,0 +1,86 @@
+package com.banking.transaction.repository;
+
+import com.banking.transaction.entity.Outbox;
+import com.banking.transaction.entity.TransactionLedger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Writes ledger and outbox rows with JDBC batching. Callers must already be inside a transaction;
+ * the statements run on the same connection as the surrounding JPA work.
+ * <p>
+ * Ids are taken from the entity sequences the same way Hibernate's pooled-lo optimizer does: every
+ * {@code nextval} reserves a block of {@value #ID_BLOCK_SIZE} ids starting at the returned value.
+ */
+@Repository
+public class LedgerBatchRepository {
+
+    // Must match allocationSize of the entity @SequenceGenerators
+    static final int ID_BLOCK_SIZE = 50;
+
+    private static final String INSERT_LEDGER =
+            "INSERT INTO transaction_ledger (id, amount, balance_after, transaction_type, transaction_date, correlation_id, account_id, "
+                    + "original_amount, original_currency, converted_amount, converted_currency, exchange_rate) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_OUTBOX =
+            "INSERT INTO outbox (id, topic, payload, created_at, sent) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public LedgerBatchRepository(JdbcTemplate jdbcTemplate,
+                                 @Value("${transaction.batch.jdbc-batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public void insertLedgerEntries(List<TransactionLedger> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        assignIds(entries, "transaction_ledger_seq", TransactionLedger::setId);
+        jdbcTemplate.batchUpdate(INSERT_LEDGER, entries, batchSize, (ps, entry) -> {
+            ps.setLong(1, entry.getId());
+            ps.setBigDecimal(2, entry.getAmount());
+            ps.setBigDecimal(3, entry.getBalanceAfter());
+            ps.setString(4, entry.getTransactionType().name());
+            ps.setTimestamp(5, Timestamp.valueOf(entry.getTransactionDate()));
+            ps.setString(6, entry.getCorrelationId());
+            ps.setLong(7, entry.getAccount().getId());
+            ps.setBigDecimal(8, entry.getOriginalAmount());
+            ps.setString(9, entry.getOriginalCurrency());
+            ps.setBigDecimal(10, entry.getConvertedAmount());
+            ps.setString(11, entry.getConvertedCurrency());
+            ps.setBigDecimal(12, entry.getExchangeRate());
+        });
+    }
+
+    public void insertOutboxMessages(List<Outbox> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        assignIds(messages, "outbox_seq", Outbox::setId);
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX, messages, batchSize, (ps, message) -> {
+            ps.setLong(1, message.getId());
+            ps.setString(2, message.getTopic());
+            ps.setString(3, message.getPayload());
+            ps.setTimestamp(4, Timestamp.valueOf(message.getCreatedAt()));
+            ps.setBoolean(5, message.isSent());
+        });
+    }
+
+    private <T> void assignIds(List<T> rows, String sequence, BiConsumer<T, Long> idSetter) {
+        int blocks = (rows.size() + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+        List<Long> blockStarts = jdbcTemplate.queryForList(
+                "SELECT nextval(?::regclass) FROM generate_series(1, ?)", Long.class, sequence, blocks);
+        for (int i = 0; i < rows.size(); i++) {
+            idSetter.accept(rows.get(i), blockStarts.get(i / ID_BLOCK_SIZE) + i % ID_BLOCK_SIZE);
+        }
+    }
+}
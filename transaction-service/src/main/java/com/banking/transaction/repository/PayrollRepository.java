@@ -0,0 +1,63 @@
+package com.banking.transaction.repository;
+
+import com.banking.transaction.entity.Account;
+import com.banking.transaction.entity.AccountStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reads and writes the accounts of a payroll chunk through JDBC on the connection of the surrounding
+ * transaction. Thousands of beneficiaries per chunk would otherwise be loaded into the persistence context and
+ * dirty-checked and flushed one versioned update at a time.
+ */
+@Repository
+public class PayrollRepository {
+
+    // In IBAN order, the order every other transfer locks accounts in
+    private static final String LOCK_ACCOUNTS = """
+            SELECT id, iban, balance, currency, user_id, status
+            FROM account
+            WHERE iban = ANY (?)
+            ORDER BY iban
+            FOR UPDATE
+            """;
+
+    // The version is bumped so that transfers which read the balance before this update fail and retry
+    private static final String UPDATE_BALANCE = "UPDATE account SET balance = ?, version = version + 1 WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PayrollRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Locks the accounts with the given IBANs and returns them detached, holding only the fields a transfer
+     * needs; save them with {@link #updateBalances}.
+     */
+    public List<Account> lockAccounts(Collection<String> ibans) {
+        return jdbcTemplate.query(LOCK_ACCOUNTS,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", ibans.toArray())),
+                (rs, rowNum) -> {
+                    Account account = new Account();
+                    account.setId(rs.getLong(1));
+                    account.setIban(rs.getString(2));
+                    account.setBalance(rs.getBigDecimal(3));
+                    account.setCurrency(rs.getString(4));
+                    account.setUserId(rs.getLong(5));
+                    String status = rs.getString(6);
+                    account.setStatus(status != null ? AccountStatus.valueOf(status) : null);
+                    return account;
+                });
+    }
+
+    public void updateBalances(List<Account> accounts) {
+        jdbcTemplate.batchUpdate(UPDATE_BALANCE, accounts, accounts.size(), (ps, account) -> {
+            ps.setBigDecimal(1, account.getBalance());
+            ps.setLong(2, account.getId());
+        });
+    }
+}
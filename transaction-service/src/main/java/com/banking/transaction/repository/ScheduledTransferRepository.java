@@ -0,0 +1,51 @@
+package com.banking.transaction.repository;
+
+import com.banking.transaction.entity.ScheduledTransfer;
+import com.banking.transaction.entity.ScheduledTransferStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ScheduledTransferRepository extends JpaRepository<ScheduledTransfer, Long> {
+
+    List<ScheduledTransfer> findByUserIdOrderByIdDesc(Long userId);
+
+    /**
+     * Active schedules due before {@code upTo}, in run order, continuing after the run at {@code afterRunAt}
+     * of schedule {@code afterId}.
+     */
+    @Query("SELECT s FROM ScheduledTransfer s WHERE s.status = com.banking.transaction.entity.ScheduledTransferStatus.ACTIVE "
+            + "AND s.nextRunAt < :upTo AND (s.nextRunAt > :afterRunAt OR s.nextRunAt = :afterRunAt AND s.id > :afterId) "
+            + "ORDER BY s.nextRunAt, s.id")
+    List<ScheduledTransfer> findDue(@Param("upTo") LocalDateTime upTo, @Param("afterRunAt") LocalDateTime afterRunAt,
+                                    @Param("afterId") long afterId, Pageable page);
+
+    /**
+     * Records the run at {@code runAt} and moves the schedule on, unless that run was already recorded or the
+     * schedule is no longer active.
+     *
+     * @return 1 if the run was recorded, 0 otherwise
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ScheduledTransfer s SET s.nextRunAt = :nextRunAt, s.status = :status, s.runCount = s.runCount + 1, "
+            + "s.lastRunAt = :runAt, s.lastOutcome = :outcome, s.lastFailureReason = :failureReason "
+            + "WHERE s.id = :id AND s.nextRunAt = :runAt "
+            + "AND s.status = com.banking.transaction.entity.ScheduledTransferStatus.ACTIVE")
+    int recordRun(@Param("id") Long id, @Param("runAt") LocalDateTime runAt, @Param("nextRunAt") LocalDateTime nextRunAt,
+                  @Param("status") ScheduledTransferStatus status, @Param("outcome") String outcome,
+                  @Param("failureReason") String failureReason);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ScheduledTransfer s SET s.status = com.banking.transaction.entity.ScheduledTransferStatus.CANCELLED, "
+            + "s.nextRunAt = null WHERE s.id = :id AND s.userId = :userId "
+            + "AND s.status = com.banking.transaction.entity.ScheduledTransferStatus.ACTIVE")
+    int cancel(@Param("id") Long id, @Param("userId") Long userId);
+}
@@ -1,11 +1,56 @@
 package com.banking.transaction.repository;
 
+import com.banking.transaction.dto.LedgerEntryResponse;
 import com.banking.transaction.entity.TransactionLedger;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
+/**
+ * Every query bounds {@code transactionDate} at least from below, so on the partitioned table the planner
+ * skips the months that cannot contain matching rows.
+ */
 public interface TransactionLedgerRepository extends JpaRepository<TransactionLedger, Long> {
-    Optional<TransactionLedger> findByCorrelationId(String correlationId);
-    boolean existsByCorrelationIdStartingWith(String correlationId);
+
+    Optional<TransactionLedger> findFirstByAccountIdAndTransactionDateGreaterThanAndTransactionDateLessThanEqualOrderByTransactionDateDescIdDesc(
+            Long accountId, LocalDateTime after, LocalDateTime asOf);
+
+    @Query("select coalesce(sum(l.amount), 0) from TransactionLedger l "
+            + "where l.account.id = :accountId and l.transactionDate > :after and l.transactionDate <= :upTo")
+    BigDecimal sumAmountBetween(@Param("accountId") Long accountId,
+                                @Param("after") LocalDateTime after,
+                                @Param("upTo") LocalDateTime upTo);
+
+    @Query("select coalesce(sum(l.amount), 0) from TransactionLedger l "
+            + "where l.account.id = :accountId and l.transactionDate > :after")
+    BigDecimal sumAmountAfter(@Param("accountId") Long accountId, @Param("after") LocalDateTime after);
+
+    // Newest first, not older than :from. Both queries walk idx_transaction_ledger_account_date backwards and
+    // stop after the limit, so any page costs the same no matter how deep into the history it is. The plain
+    // transactionDate <= :transactionDate repeats part of the row comparison because partition pruning
+    // cannot use row comparisons.
+    @Query("select new com.banking.transaction.dto.LedgerEntryResponse(l.id, l.correlationId, l.transactionType, "
+            + "l.amount, l.balanceAfter, l.transactionDate) from TransactionLedger l "
+            + "where l.account.id = :accountId and l.transactionDate >= :from "
+            + "order by l.transactionDate desc, l.id desc")
+    List<LedgerEntryResponse> findLatestEntries(@Param("accountId") Long accountId,
+                                                @Param("from") LocalDateTime from,
+                                                Limit limit);
+
+    @Query("select new com.banking.transaction.dto.LedgerEntryResponse(l.id, l.correlationId, l.transactionType, "
+            + "l.amount, l.balanceAfter, l.transactionDate) from TransactionLedger l "
+            + "where l.account.id = :accountId and l.transactionDate >= :from "
+            + "and l.transactionDate <= :transactionDate and (l.transactionDate, l.id) < (:transactionDate, :id) "
+            + "order by l.transactionDate desc, l.id desc")
+    List<LedgerEntryResponse> findEntriesBefore(@Param("accountId") Long accountId,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("transactionDate") LocalDateTime transactionDate,
+                                                @Param("id") Long id,
+                                                Limit limit);
 }
@@ -0,0 +1,61 @@
+package com.banking.transaction.repository;
+
+import com.banking.transaction.entity.TransferIntake;
+import com.banking.transaction.entity.TransferIntakeStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TransferIntakeRepository extends JpaRepository<TransferIntake, String> {
+
+    /**
+     * Locks up to {@code limit} claimable rows, oldest first, skipping rows another worker has locked.
+     * Must run inside the transaction that marks them as claimed.
+     */
+    @Query(value = "SELECT * FROM transfer_intake WHERE status IN ('PENDING', 'PROCESSING') AND available_at <= :now "
+            + "ORDER BY available_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<TransferIntake> findClaimable(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Records the outcome of a claimed transfer, unless its lease ran out and another worker claimed it since;
+     * {@code attempt} is the attempt the caller claimed it for.
+     *
+     * @return 0 if the caller no longer holds the claim
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE TransferIntake t SET t.status = :status, t.completedAt = :completedAt, t.failureReason = :failureReason "
+            + "WHERE t.correlationId = :correlationId "
+            + "AND t.status = com.banking.transaction.entity.TransferIntakeStatus.PROCESSING AND t.attempts = :attempt")
+    int finish(@Param("correlationId") String correlationId, @Param("attempt") int attempt,
+               @Param("status") TransferIntakeStatus status, @Param("completedAt") LocalDateTime completedAt,
+               @Param("failureReason") String failureReason);
+
+    /**
+     * Puts a claimed transfer back for another attempt, under the same condition as {@link #finish}.
+     *
+     * @return 0 if the caller no longer holds the claim
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE TransferIntake t SET t.status = com.banking.transaction.entity.TransferIntakeStatus.PENDING, "
+            + "t.availableAt = :availableAt, t.failureReason = :failureReason WHERE t.correlationId = :correlationId "
+            + "AND t.status = com.banking.transaction.entity.TransferIntakeStatus.PROCESSING AND t.attempts = :attempt")
+    int retryAt(@Param("correlationId") String correlationId, @Param("attempt") int attempt,
+                @Param("availableAt") LocalDateTime availableAt, @Param("failureReason") String failureReason);
+
+    /**
+     * Deletes up to {@code limit} transfers that reached a final outcome before {@code before}.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM transfer_intake WHERE correlation_id IN (SELECT correlation_id FROM transfer_intake "
+            + "WHERE status IN ('COMPLETED', 'REJECTED', 'FAILED') AND completed_at < :before LIMIT :limit)",
+            nativeQuery = true)
+    int deleteFinishedBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
@@ -0,0 +1,97 @@
+package com.banking.transaction.repository;
+
+import com.banking.transaction.limits.WindowUsage;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Time-bucketed transfer counters in {@code transfer_limit_usage}. Runs on the connection of the surrounding
+ * transaction through JDBC, so adding to a counter does not flush the persistence context first.
+ */
+@Repository
+public class TransferLimitRepository {
+
+    private static final String ADD = """
+            INSERT INTO transfer_limit_usage (subject, bucket_seconds, bucket_start, amount_minor, transfer_count)
+            VALUES %s
+            ON CONFLICT (subject, bucket_seconds, bucket_start) DO UPDATE
+                SET amount_minor = transfer_limit_usage.amount_minor + EXCLUDED.amount_minor,
+                    transfer_count = transfer_limit_usage.transfer_count + EXCLUDED.transfer_count
+            RETURNING subject, bucket_seconds, amount_minor, transfer_count
+            """;
+
+    private static final String SUM_EARLIER = """
+            SELECT subject, bucket_seconds, CAST(SUM(amount_minor) AS bigint), CAST(SUM(transfer_count) AS bigint)
+            FROM transfer_limit_usage
+            WHERE subject IN (%s)
+              AND (bucket_seconds = 60 AND bucket_start > ? AND bucket_start < ?
+                   OR bucket_seconds = 3600 AND bucket_start > ? AND bucket_start < ?)
+            GROUP BY subject, bucket_seconds
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransferLimitRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds the amount and count to the current minute and hour buckets of all subjects in one statement; pass
+     * negative values to take back an earlier addition. The buckets stay locked until commit, in the order of
+     * {@code subjects}, which callers must keep the same to avoid deadlocks.
+     *
+     * @return the totals of each subject's current minute bucket as hourly and current hour bucket as daily usage
+     */
+    public Map<String, WindowUsage> add(List<String> subjects, LocalDateTime now, long amountMinor, int count) {
+        Timestamp minute = Timestamp.valueOf(now.truncatedTo(ChronoUnit.MINUTES));
+        Timestamp hour = Timestamp.valueOf(now.truncatedTo(ChronoUnit.HOURS));
+        List<Object> args = new ArrayList<>(8 * subjects.size());
+        StringBuilder values = new StringBuilder();
+        for (String subject : subjects) {
+            values.append(values.isEmpty() ? "" : ", ").append("(?, 60, ?, ?, ?), (?, 3600, ?, ?, ?)");
+            args.addAll(List.of(subject, minute, amountMinor, count, subject, hour, amountMinor, count));
+        }
+        return query(ADD.formatted(values), subjects, args);
+    }
+
+    /**
+     * Sums the buckets of the sliding hour and day before the current ones. Those are no longer written to, so
+     * the result stays valid until the minute is over.
+     *
+     * @return the earlier usage of each subject; subjects without any are missing
+     */
+    public Map<String, WindowUsage> sumEarlier(List<String> subjects, LocalDateTime now) {
+        LocalDateTime minute = now.truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime hour = now.truncatedTo(ChronoUnit.HOURS);
+        List<Object> args = new ArrayList<>(subjects);
+        args.addAll(List.of(Timestamp.valueOf(minute.minusHours(1)), Timestamp.valueOf(minute),
+                Timestamp.valueOf(hour.minusDays(1)), Timestamp.valueOf(hour)));
+        return query(SUM_EARLIER.formatted(String.join(", ", subjects.stream().map(subject -> "?").toList())), subjects, args);
+    }
+
+    // Rows are (subject, bucket_seconds, amount, count); minute buckets make up the hourly usage, hour buckets the daily
+    private Map<String, WindowUsage> query(String sql, List<String> subjects, List<Object> args) {
+        Map<String, long[]> totals = new HashMap<>(2 * subjects.size());
+        jdbcTemplate.query(sql, rs -> {
+            long[] total = totals.computeIfAbsent(rs.getString(1), subject -> new long[4]);
+            int offset = rs.getInt(2) == 60 ? 0 : 2;
+            total[offset] = rs.getLong(3);
+            total[offset + 1] = rs.getLong(4);
+        }, args.toArray());
+        Map<String, WindowUsage> usage = new HashMap<>(2 * totals.size());
+        totals.forEach((subject, total) -> usage.put(subject, new WindowUsage(total[0], total[1], total[2], total[3])));
+        return usage;
+    }
+
+    public int deleteBefore(LocalDateTime before) {
+        return jdbcTemplate.update("DELETE FROM transfer_limit_usage WHERE bucket_start < ?", Timestamp.valueOf(before));
+    }
+}
@@ -0,0 +1,50 @@
+package com.banking.transaction.routing;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Hands out a session LSN with every successful write, which the client sends back on its next reads in the
+ * {@value ReadYourWritesFilter#SESSION_LSN_HEADER} header. A read that reports a write made in the background,
+ * e.g. an accepted transfer that has completed since, sets {@link #ISSUE_SESSION_LSN_ATTRIBUTE} to hand one out
+ * as well.
+ */
+@ControllerAdvice
+public class ReadYourWritesAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String ISSUE_SESSION_LSN_ATTRIBUTE = ReadYourWritesAdvice.class.getName() + ".issueSessionLsn";
+
+    private final ReplicaRouter replicaRouter;
+
+    public ReadYourWritesAdvice(ReplicaRouter replicaRouter) {
+        this.replicaRouter = replicaRouter;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return replicaRouter.isEnabled();
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        boolean successful = !(response instanceof ServletServerHttpResponse servletResponse)
+                || servletResponse.getServletResponse().getStatus() < 300;
+        boolean write = !HttpMethod.GET.equals(request.getMethod())
+                || request instanceof ServletServerHttpRequest servletRequest
+                && servletRequest.getServletRequest().getAttribute(ISSUE_SESSION_LSN_ATTRIBUTE) != null;
+        if (write && successful) {
+            replicaRouter.sessionToken().ifPresent(token -> response.getHeaders().set(ReadYourWritesFilter.SESSION_LSN_HEADER, token));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,54 @@
+package com.banking.transaction.routing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Picks up the session LSN a client got back from its last write, so that read-only work of the same request
+ * is only routed to replicas that have caught up with it. Requests without the header may read from any
+ * healthy replica. Streamed exports run on another thread and do not see the token.
+ */
+@Component
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String SESSION_LSN_HEADER = "X-Session-LSN";
+
+    private static final ThreadLocal<Long> REQUIRED_LSN = new ThreadLocal<>();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String token = request.getHeader(SESSION_LSN_HEADER);
+        if (token != null && !token.isBlank()) {
+            try {
+                REQUIRED_LSN.set(ReplicaRouter.parseLsn(token.trim()));
+            } catch (IllegalArgumentException e) {
+                // An unusable token only costs freshness guarantees, not the request
+                logger.debug("Ignoring malformed " + SESSION_LSN_HEADER + " header: " + token);
+            }
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            REQUIRED_LSN.remove();
+        }
+    }
+
+    static Long requiredLsn() {
+        return REQUIRED_LSN.get();
+    }
+
+    static void requireLsn(Long lsn) {
+        if (lsn == null) {
+            REQUIRED_LSN.remove();
+        } else {
+            REQUIRED_LSN.set(lsn);
+        }
+    }
+}
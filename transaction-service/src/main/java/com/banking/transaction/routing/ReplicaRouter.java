@@ -0,0 +1,254 @@
+package com.banking.transaction.routing;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Chooses the database that serves read-only transactions.
+ * <p>
+ * Replicas are polled every {@code replica-health-interval} for the WAL position they have replayed. A replica
+ * is used when it answered the last poll and is at most {@code replica-max-lag} behind the primary; healthy
+ * replicas take turns. A request that carries a session LSN (see {@link ReadYourWritesFilter}) is only sent
+ * to a replica that has replayed at least that far, so a client reading right after its own transfer does not
+ * see the balance from before it. Everything else, and every read-only transaction when no replica qualifies,
+ * goes to the primary. Without configured replicas the router is disabled and hands out no session tokens.
+ */
+@Component
+public class ReplicaRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRouter.class);
+
+    private static final String REPLICA_STATE_SQL = """
+            SELECT CASE WHEN pg_is_in_recovery() THEN pg_last_wal_replay_lsn() ELSE pg_current_wal_lsn() END::text,
+                   COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+            """;
+
+    private final Supplier<JdbcTemplate> primary;
+    private final List<Replica> replicas;
+    private final double maxLagSeconds;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final Counter noHealthyReplica;
+    private final Counter replicaBehindSession;
+
+    @Autowired
+    public ReplicaRouter(ObjectProvider<JdbcTemplate> jdbcTemplate,
+                         MeterRegistry meterRegistry,
+                         @Value("${transaction.datasource.replica-urls:}") List<String> replicaUrls,
+                         @Value("${spring.datasource.username:}") String username,
+                         @Value("${spring.datasource.password:}") String password,
+                         @Value("${transaction.datasource.replica-pool-size:10}") int poolSize,
+                         @Value("${transaction.datasource.replica-max-lag:5s}") Duration maxLag) {
+        this(jdbcTemplate::getObject, meterRegistry, createPools(replicaUrls, username, password, poolSize), maxLag);
+    }
+
+    ReplicaRouter(Supplier<JdbcTemplate> primary, MeterRegistry meterRegistry, Map<String, JdbcTemplate> replicas, Duration maxLag) {
+        this.primary = primary;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.replicas = new ArrayList<>(replicas.size());
+        replicas.forEach((name, replica) -> this.replicas.add(new Replica(name, replica, meterRegistry)));
+
+        this.noHealthyReplica = routingCounter(meterRegistry, "primary", "no_healthy_replica");
+        this.replicaBehindSession = routingCounter(meterRegistry, "primary", "replica_behind_session");
+    }
+
+    public boolean isEnabled() {
+        return !replicas.isEmpty();
+    }
+
+    /**
+     * Returns the primary's current WAL position, to be sent back by the client on its next reads. Empty when
+     * no replicas are configured.
+     */
+    public Optional<String> sessionToken() {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(primary.get().queryForObject("SELECT pg_current_wal_lsn()::text", String.class));
+    }
+
+    /**
+     * A DataSource for read-only connections that picks a replica per connection and falls back to the given
+     * primary.
+     */
+    public DataSource readOnlyDataSource(DataSource primaryDataSource) {
+        return new AbstractDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return select(primaryDataSource).getConnection();
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return select(primaryDataSource).getConnection(username, password);
+            }
+        };
+    }
+
+    DataSource select(DataSource primaryDataSource) {
+        Long requiredLsn = ReadYourWritesFilter.requiredLsn();
+        boolean anyHealthy = false;
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(1, replicas.size()));
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.isHealthy(maxLagSeconds)) {
+                continue;
+            }
+            anyHealthy = true;
+            if (requiredLsn == null || replica.replayedLsn >= requiredLsn) {
+                replica.routed.increment();
+                return replica.jdbcTemplate.getDataSource();
+            }
+        }
+        (anyHealthy ? replicaBehindSession : noHealthyReplica).increment();
+        return primaryDataSource;
+    }
+
+    @Scheduled(fixedDelayString = "${transaction.datasource.replica-health-interval:1000}")
+    public void checkReplicas() {
+        if (!isEnabled()) {
+            return;
+        }
+        long primaryLsn;
+        try {
+            primaryLsn = parseLsn(primary.get().queryForObject("SELECT pg_current_wal_lsn()::text", String.class));
+        } catch (RuntimeException e) {
+            logger.warn("Could not read the primary WAL position, keeping the last replica state", e);
+            return;
+        }
+        for (Replica replica : replicas) {
+            try {
+                replica.jdbcTemplate.query(REPLICA_STATE_SQL, rs -> {
+                    long replayedLsn = parseLsn(rs.getString(1));
+                    // Replay timestamps stand still while the primary is idle, so they only count while behind
+                    double lagSeconds = replayedLsn >= primaryLsn ? 0 : rs.getDouble(2);
+                    replica.update(replayedLsn, Math.max(0, primaryLsn - replayedLsn), lagSeconds);
+                });
+            } catch (RuntimeException e) {
+                if (replica.reachable) {
+                    logger.warn("Replica {} is unreachable, routing its reads elsewhere", replica.name, e);
+                }
+                replica.markUnreachable();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.jdbcTemplate.getDataSource() instanceof HikariDataSource pool) {
+                pool.close();
+            }
+        }
+    }
+
+    /**
+     * Parses a PostgreSQL LSN such as {@code 16/B374D848} into a comparable number.
+     */
+    static long parseLsn(String lsn) {
+        int slash = lsn == null ? -1 : lsn.indexOf('/');
+        if (slash < 1 || slash == lsn.length() - 1) {
+            throw new IllegalArgumentException("Not an LSN: " + lsn);
+        }
+        return (Long.parseLong(lsn.substring(0, slash), 16) << 32) | Long.parseLong(lsn.substring(slash + 1), 16);
+    }
+
+    private static Map<String, JdbcTemplate> createPools(List<String> urls, String username, String password, int poolSize) {
+        Map<String, JdbcTemplate> pools = new LinkedHashMap<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            String name = "replica-" + pools.size();
+            HikariConfig config = new HikariConfig();
+            config.setPoolName(name);
+            config.setJdbcUrl(url.trim());
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setMaximumPoolSize(poolSize);
+            config.setReadOnly(true);
+            // Start without a connection so an unreachable replica does not stop the service from starting
+            config.setInitializationFailTimeout(-1);
+            pools.put(name, new JdbcTemplate(new HikariDataSource(config)));
+        }
+        return pools;
+    }
+
+    private static Counter routingCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("transaction.datasource.routing")
+                .description("Read-only connections by the database they were routed to")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final JdbcTemplate jdbcTemplate;
+        private final Counter routed;
+        private volatile boolean reachable;
+        private volatile long replayedLsn;
+        private volatile long lagBytes;
+        private volatile double lagSeconds;
+
+        Replica(String name, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.jdbcTemplate = jdbcTemplate;
+            this.routed = routingCounter(meterRegistry, name, "replica");
+            Gauge.builder("transaction.datasource.replica.lag", this, replica -> replica.lagSeconds)
+                    .description("Seconds the replica is behind the primary, as of the last health check")
+                    .baseUnit("seconds")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+            Gauge.builder("transaction.datasource.replica.lag.bytes", this, replica -> replica.lagBytes)
+                    .description("WAL bytes the replica has yet to replay, as of the last health check")
+                    .baseUnit("bytes")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+            Gauge.builder("transaction.datasource.replica.reachable", this, replica -> replica.reachable ? 1 : 0)
+                    .description("Whether the replica answered the last health check")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        }
+
+        void update(long replayedLsn, long lagBytes, double lagSeconds) {
+            this.replayedLsn = replayedLsn;
+            this.lagBytes = lagBytes;
+            this.lagSeconds = lagSeconds;
+            this.reachable = true;
+        }
+
+        void markUnreachable() {
+            this.reachable = false;
+        }
+
+        boolean isHealthy(double maxLagSeconds) {
+            return reachable && lagSeconds <= maxLagSeconds;
+        }
+    }
+}
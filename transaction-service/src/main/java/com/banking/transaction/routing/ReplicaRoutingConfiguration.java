@@ -0,0 +1,36 @@
+package com.banking.transaction.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Replaces the auto-configured DataSource when replicas are configured. Connections are only fetched once the
+ * first statement runs, by which time the transaction manager has marked them read-only or not; read-only
+ * ones come from {@link ReplicaRouter}, everything else from the primary pool.
+ */
+@Configuration
+@ConditionalOnExpression("!'${transaction.datasource.replica-urls:}'.isBlank()")
+public class ReplicaRoutingConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRouter replicaRouter) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaRouter.readOnlyDataSource(primaryDataSource));
+        return dataSource;
+    }
+}
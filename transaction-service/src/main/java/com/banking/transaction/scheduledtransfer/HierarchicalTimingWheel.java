@@ -0,0 +1,130 @@
+package com.banking.transaction.scheduledtransfer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: level 0 has {@code wheelSize} buckets of one tick each, and every level above
+ * has buckets as wide as the whole level below. An item goes into the lowest level whose span reaches its
+ * deadline. When time enters a bucket of a higher level, its items are moved down a level, so each item is
+ * moved at most {@code levels - 1} times and adding or firing one costs the same however many are waiting.
+ * <p>
+ * Items fire on the first tick at or after their deadline. Not thread-safe; one thread adds and advances.
+ */
+final class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    // Ticks per bucket on each level: 1, wheelSize, wheelSize^2, ...
+    private final long[] bucketTicks;
+    private final List<List<Entry<T>>> buckets;
+    private final long horizonTicks;
+    private long currentTick;
+    private int size;
+
+    HierarchicalTimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis < 1 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("Tick, wheel size and levels must be positive, with at least two buckets");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.bucketTicks = new long[levels];
+        this.buckets = new ArrayList<>(levels * wheelSize);
+        long ticks = 1;
+        for (int level = 0; level < levels; level++) {
+            bucketTicks[level] = ticks;
+            ticks = Math.multiplyExact(ticks, wheelSize);
+            for (int bucket = 0; bucket < wheelSize; bucket++) {
+                buckets.add(new ArrayList<>());
+            }
+        }
+        this.horizonTicks = ticks;
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * How far ahead of the current time items can be added.
+     */
+    long horizonMillis() {
+        return (horizonTicks - 1) * tickMillis;
+    }
+
+    /**
+     * Adds an item that fires once the wheel has been advanced to {@code deadlineMillis}.
+     *
+     * @return false, without adding it, if the deadline has already been reached
+     * @throws IllegalArgumentException if the deadline is beyond the horizon
+     */
+    boolean add(T item, long deadlineMillis) {
+        // Rounded up so that an item never fires before its deadline
+        long deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        if (deadlineTick <= currentTick) {
+            return false;
+        }
+        place(new Entry<>(item, deadlineTick));
+        size++;
+        return true;
+    }
+
+    /**
+     * Moves the current time up to {@code nowMillis}, handing every item whose deadline has been reached to
+     * {@code due} in deadline order.
+     */
+    void advanceTo(long nowMillis, Consumer<T> due) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Higher levels first, so that items they move down into the current tick fire on this tick
+            for (int level = bucketTicks.length - 1; level > 0; level--) {
+                if (currentTick % bucketTicks[level] == 0) {
+                    for (Entry<T> entry : takeBucket(level, currentTick)) {
+                        if (entry.deadlineTick() <= currentTick) {
+                            size--;
+                            due.accept(entry.item());
+                        } else {
+                            place(entry);
+                        }
+                    }
+                }
+            }
+            for (Entry<T> entry : takeBucket(0, currentTick)) {
+                size--;
+                due.accept(entry.item());
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void place(Entry<T> entry) {
+        long ticksAhead = entry.deadlineTick() - currentTick;
+        for (int level = 0; level < bucketTicks.length; level++) {
+            if (ticksAhead < bucketTicks[level] * wheelSize) {
+                buckets.get(bucketIndex(level, entry.deadlineTick())).add(entry);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Deadline is " + ticksAhead * tickMillis + " ms ahead, beyond the horizon of "
+                + horizonMillis() + " ms");
+    }
+
+    private List<Entry<T>> takeBucket(int level, long tick) {
+        int index = bucketIndex(level, tick);
+        List<Entry<T>> bucket = buckets.get(index);
+        if (bucket.isEmpty()) {
+            return bucket;
+        }
+        buckets.set(index, new ArrayList<>());
+        return bucket;
+    }
+
+    private int bucketIndex(int level, long tick) {
+        return level * wheelSize + (int) ((tick / bucketTicks[level]) % wheelSize);
+    }
+
+    private record Entry<T>(T item, long deadlineTick) {
+    }
+}
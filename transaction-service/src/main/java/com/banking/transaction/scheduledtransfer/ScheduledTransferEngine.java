@@ -0,0 +1,375 @@
+package com.banking.transaction.scheduledtransfer;
+
+import com.banking.transaction.entity.ScheduledTransfer;
+import com.banking.transaction.entity.ScheduledTransferStatus;
+import com.banking.transaction.exception.FraudCheckUnavailableException;
+import com.banking.transaction.exception.TransferConflictException;
+import com.banking.transaction.exception.TransferOutcomeUnknownException;
+import com.banking.transaction.exception.TransferQueueFullException;
+import com.banking.transaction.execution.TransferExecutionService;
+import com.banking.transaction.repository.ScheduledTransferRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs scheduled transfers when they are due.
+ * <p>
+ * Every {@code load-interval} the schedules due within {@code load-ahead} are read from the database and put
+ * into a {@link HierarchicalTimingWheel}, which a timer thread advances every tick. Due runs are queued for a
+ * dispatcher that starts at most {@code max-per-second} of them on {@code threads} threads, so that millions
+ * of schedules falling on the first of the month drain at a rate the database can take instead of all at once.
+ * <p>
+ * A run re-reads its schedule, executes the transfer through {@link TransferExecutionService} with the
+ * schedule's correlation id for that run, then records the outcome and moves the schedule to its next run
+ * unless another instance already has. A run that is executed again, because this instance died before
+ * recording it or because several instances loaded it, is answered from the idempotency record instead of
+ * paying twice.
+ */
+@Service
+public class ScheduledTransferEngine implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledTransferEngine.class);
+
+    private static final int MAX_FAILURE_REASON_LENGTH = 255;
+    // Before every run; LocalDateTime.MIN is out of range for PostgreSQL
+    private static final LocalDateTime BEFORE_ANY_RUN = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ScheduledTransferRepository scheduledTransferRepository;
+    private final TransferExecutionService transferExecutionService;
+    private final boolean enabled;
+    private final Duration loadAhead;
+    private final int loadBatchSize;
+    private final long loadIntervalMillis;
+    private final long tickMillis;
+    private final long intervalNanos;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private final HierarchicalTimingWheel<DueRun> wheel;
+    // Runs handed to the timer thread, which alone touches the wheel
+    private final ConcurrentLinkedQueue<DueRun> arrivals = new ConcurrentLinkedQueue<>();
+    private final BlockingQueue<DueRun> due = new LinkedBlockingQueue<>();
+    // Schedules with a run in the wheel, queued or executing, so that loading them again is a no-op
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor executor;
+    private final Semaphore freeThreads;
+    private volatile boolean running;
+    private Thread loader;
+    private Thread timer;
+    private Thread dispatcher;
+
+    private final MeterRegistry meterRegistry;
+    private final Timer lagAtTopOfHour;
+    private final Timer lag;
+
+    public ScheduledTransferEngine(ScheduledTransferRepository scheduledTransferRepository,
+                                   TransferExecutionService transferExecutionService,
+                                   ScheduledTransferProperties properties,
+                                   MeterRegistry meterRegistry) {
+        if (properties.getThreads() < 1 || properties.getMaxPerSecond() < 1 || properties.getMaxAttempts() < 1) {
+            throw new IllegalArgumentException("Scheduled transfer threads, rate and attempts must be positive");
+        }
+        this.scheduledTransferRepository = scheduledTransferRepository;
+        this.transferExecutionService = transferExecutionService;
+        this.enabled = properties.isEnabled();
+        this.loadAhead = properties.getLoadAhead();
+        this.loadBatchSize = properties.getLoadBatchSize();
+        this.loadIntervalMillis = properties.getLoadInterval();
+        this.tickMillis = properties.getTick().toMillis();
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / properties.getMaxPerSecond();
+        this.maxAttempts = properties.getMaxAttempts();
+        this.retryDelay = properties.getRetryDelay();
+        this.wheel = new HierarchicalTimingWheel<>(tickMillis, properties.getWheelSize(), properties.getLevels(),
+                System.currentTimeMillis());
+        if (loadAhead.plus(retryDelay.multipliedBy(maxAttempts)).toMillis() >= wheel.horizonMillis()) {
+            throw new IllegalArgumentException("load-ahead and retries must fit into the timing wheel horizon of "
+                    + wheel.horizonMillis() + " ms");
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getThreads()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "scheduled-transfer-" + threadIndex.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.freeThreads = new Semaphore(properties.getThreads());
+
+        this.meterRegistry = meterRegistry;
+        this.lagAtTopOfHour = lagTimer(meterRegistry, "hour");
+        this.lag = lagTimer(meterRegistry, "other");
+        Gauge.builder("transaction.scheduled.pending", pending, Set::size)
+                .description("Scheduled transfer runs loaded and not finished yet")
+                .register(meterRegistry);
+        Gauge.builder("transaction.scheduled.due", due, BlockingQueue::size)
+                .description("Due scheduled transfer runs waiting for the dispatcher")
+                .register(meterRegistry);
+    }
+
+    // Runs due at the top of an hour are told apart, since that is when most of them fall
+    private static Timer lagTimer(MeterRegistry meterRegistry, String boundary) {
+        return Timer.builder("transaction.scheduled.lag")
+                .description("Time from when a scheduled transfer run was due until it started")
+                .tag("boundary", boundary)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        loader = daemon(this::runLoader, "scheduled-transfer-loader");
+        timer = daemon(this::runTimer, "scheduled-transfer-timer");
+        dispatcher = daemon(this::runDispatcher, "scheduled-transfer-dispatcher");
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    // On its own thread rather than @Scheduled, so that a slow job on the shared scheduler thread cannot hold
+    // up loading runs until after they are due
+    private void runLoader() {
+        while (running) {
+            try {
+                loadDue();
+            } catch (RuntimeException e) {
+                logger.error("Could not load due scheduled transfers", e);
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(loadIntervalMillis));
+        }
+    }
+
+    /**
+     * Loads the runs due within {@code load-ahead} that are not loaded yet.
+     */
+    void loadDue() {
+        LocalDateTime upTo = LocalDateTime.now().plus(loadAhead);
+        LocalDateTime afterRunAt = BEFORE_ANY_RUN;
+        long afterId = 0;
+        int loaded = 0;
+        List<ScheduledTransfer> page;
+        do {
+            page = scheduledTransferRepository.findDue(upTo, afterRunAt, afterId, PageRequest.of(0, loadBatchSize));
+            for (ScheduledTransfer schedule : page) {
+                if (pending.add(schedule.getId())) {
+                    arrivals.add(new DueRun(schedule.getId(), schedule.getNextRunAt(), 1));
+                    loaded++;
+                }
+            }
+            if (!page.isEmpty()) {
+                ScheduledTransfer last = page.get(page.size() - 1);
+                afterRunAt = last.getNextRunAt();
+                afterId = last.getId();
+            }
+        } while (page.size() == loadBatchSize);
+        if (loaded > 0) {
+            logger.debug("Loaded {} scheduled transfer runs due before {}", loaded, upTo);
+        }
+    }
+
+    /**
+     * Loads a run right away if it falls within the loaded window, e.g. that of a schedule just created;
+     * later runs are picked up by {@link #loadDue()}.
+     */
+    public void offer(Long scheduleId, LocalDateTime runAt) {
+        if (running && runAt.isBefore(LocalDateTime.now().plus(loadAhead)) && pending.add(scheduleId)) {
+            arrivals.add(new DueRun(scheduleId, runAt, 1));
+        }
+    }
+
+    private void runTimer() {
+        while (running) {
+            try {
+                for (DueRun run = arrivals.poll(); run != null; run = arrivals.poll()) {
+                    if (!wheel.add(run, toMillis(run.notBefore()))) {
+                        due.add(run);
+                    }
+                }
+                wheel.advanceTo(System.currentTimeMillis(), due::add);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(tickMillis - System.currentTimeMillis() % tickMillis));
+            } catch (RuntimeException e) {
+                logger.error("Scheduled transfer timer failed", e);
+            }
+        }
+    }
+
+    private void runDispatcher() {
+        long nextStart = System.nanoTime();
+        while (running) {
+            try {
+                DueRun run = due.take();
+                // Paces starts evenly; time spent idle is not saved up into a burst
+                long now = System.nanoTime();
+                nextStart = Math.max(nextStart + intervalNanos, now);
+                if (nextStart > now) {
+                    LockSupport.parkNanos(nextStart - now);
+                }
+                freeThreads.acquire();
+                executor.execute(() -> {
+                    try {
+                        execute(run);
+                    } finally {
+                        freeThreads.release();
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Executes one run and moves its schedule on. Package-private for tests; runs on the dispatch threads.
+     */
+    void execute(DueRun run) {
+        boolean keepPending = false;
+        try {
+            ScheduledTransfer schedule = scheduledTransferRepository.findById(run.scheduleId()).orElse(null);
+            if (schedule == null || schedule.getStatus() != ScheduledTransferStatus.ACTIVE
+                    || !run.runAt().equals(schedule.getNextRunAt())) {
+                // Cancelled, or this run has been recorded by another instance
+                return;
+            }
+            if (run.attempt() == 1) {
+                Duration late = Duration.between(run.runAt(), LocalDateTime.now());
+                boolean topOfHour = run.runAt().truncatedTo(ChronoUnit.HOURS).equals(run.runAt());
+                (topOfHour ? lagAtTopOfHour : lag).record(late.isNegative() ? Duration.ZERO : late);
+            }
+
+            String outcome;
+            String failureReason = null;
+            try {
+                transferExecutionService.execute(schedule.toRequest(), schedule.correlationId(run.runAt()), schedule.getUserId());
+                outcome = "COMPLETED";
+            } catch (RuntimeException e) {
+                boolean transientFailure = isTransient(e);
+                if (transientFailure && run.attempt() < maxAttempts) {
+                    logger.debug("Scheduled transfer {} run at {} failed on attempt {}, retrying",
+                            run.scheduleId(), run.runAt(), run.attempt(), e);
+                    arrivals.add(run.retry(LocalDateTime.now().plus(retryDelay.multipliedBy(run.attempt()))));
+                    keepPending = true;
+                    count("retried");
+                    return;
+                }
+                if (!transientFailure && !isBusinessRejection(e)) {
+                    logger.warn("Scheduled transfer {} run at {} failed", run.scheduleId(), run.runAt(), e);
+                }
+                outcome = transientFailure || !isBusinessRejection(e) ? "FAILED" : "REJECTED";
+                failureReason = truncate(e.getMessage());
+            }
+
+            LocalDateTime nextRunAt = schedule.getRecurrence().occurrence(schedule.getFirstRunAt(), schedule.getRunCount() + 1);
+            boolean finished = nextRunAt == null || schedule.getEndsAt() != null && nextRunAt.isAfter(schedule.getEndsAt());
+            int recorded = scheduledTransferRepository.recordRun(schedule.getId(), run.runAt(), finished ? null : nextRunAt,
+                    finished ? ScheduledTransferStatus.COMPLETED : ScheduledTransferStatus.ACTIVE, outcome, failureReason);
+            count(outcome.toLowerCase());
+            if (recorded == 1 && !finished && nextRunAt.isBefore(LocalDateTime.now().plus(loadAhead))) {
+                // Daily runs that were missed while no instance was running fire one after the other
+                arrivals.add(new DueRun(schedule.getId(), nextRunAt, 1));
+                keepPending = true;
+            }
+        } catch (RuntimeException e) {
+            // Not recorded; the run is loaded again on a later pass and answered from its idempotency record
+            logger.error("Could not run scheduled transfer {} due at {}", run.scheduleId(), run.runAt(), e);
+        } finally {
+            if (!keepPending) {
+                pending.remove(run.scheduleId());
+            }
+        }
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransferConflictException || e instanceof TransferQueueFullException
+                || e instanceof TransferOutcomeUnknownException
+                || e instanceof FraudCheckUnavailableException || e instanceof TransientDataAccessException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    // Refusals such as insufficient funds or a frozen account, which trying again would not change
+    private static boolean isBusinessRejection(RuntimeException e) {
+        return e.getClass().getPackageName().equals(TransferConflictException.class.getPackageName());
+    }
+
+    private void count(String outcome) {
+        Counter.builder("transaction.scheduled.runs")
+                .description("Scheduled transfer runs by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String truncate(String message) {
+        return message == null || message.length() <= MAX_FAILURE_REASON_LENGTH ? message : message.substring(0, MAX_FAILURE_REASON_LENGTH);
+    }
+
+    private long toMillis(LocalDateTime time) {
+        return time.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        if (loader != null) {
+            loader.interrupt();
+        }
+        if (timer != null) {
+            timer.interrupt();
+        }
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * A run of a schedule, due at {@code runAt} and not to be started before {@code notBefore}.
+     */
+    record DueRun(long scheduleId, LocalDateTime runAt, int attempt, LocalDateTime notBefore) {
+
+        DueRun(long scheduleId, LocalDateTime runAt, int attempt) {
+            this(scheduleId, runAt, attempt, runAt);
+        }
+
+        DueRun retry(LocalDateTime at) {
+            return new DueRun(scheduleId, runAt, attempt + 1, at);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.banking.transaction.scheduledtransfer;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Scheduled transfer settings under {@code transaction.scheduled-transfers}.
+ */
+@Component
+@ConfigurationProperties("transaction.scheduled-transfers")
+@Data
+public class ScheduledTransferProperties {
+
+    // Whether this instance runs due schedules; they can be managed either way
+    private boolean enabled = true;
+
+    // Schedules due within this window are loaded into the timing wheel
+    private Duration loadAhead = Duration.ofMinutes(5);
+
+    // Milliseconds between loads; well below load-ahead so that every run is loaded before it is due
+    private long loadInterval = 30_000;
+
+    private int loadBatchSize = 1000;
+
+    // The wheel has levels of wheel-size buckets; level 0 buckets are one tick wide
+    private Duration tick = Duration.ofMillis(100);
+    private int wheelSize = 64;
+    private int levels = 3;
+
+    // Due runs are started at most this often, on threads threads
+    private int maxPerSecond = 200;
+    private int threads = 8;
+
+    // Attempts per run when the transfer fails for a reason that may go away, e.g. a conflict
+    private int maxAttempts = 3;
+    private Duration retryDelay = Duration.ofSeconds(5);
+}
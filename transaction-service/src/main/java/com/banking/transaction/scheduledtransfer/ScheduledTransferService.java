@@ -0,0 +1,70 @@
+package com.banking.transaction.scheduledtransfer;
+
+import com.banking.transaction.dto.ScheduledTransferRequest;
+import com.banking.transaction.dto.TransactionRequest;
+import com.banking.transaction.entity.ScheduledTransfer;
+import com.banking.transaction.entity.ScheduledTransferStatus;
+import com.banking.transaction.exception.ScheduledTransferNotFoundException;
+import com.banking.transaction.repository.ScheduledTransferRepository;
+import com.banking.transaction.service.TransactionService;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+public class ScheduledTransferService {
+
+    private final ScheduledTransferRepository scheduledTransferRepository;
+    private final TransactionService transactionService;
+    private final ScheduledTransferEngine engine;
+
+    public ScheduledTransferService(ScheduledTransferRepository scheduledTransferRepository,
+                                    TransactionService transactionService,
+                                    ScheduledTransferEngine engine) {
+        this.scheduledTransferRepository = scheduledTransferRepository;
+        this.transactionService = transactionService;
+        this.engine = engine;
+    }
+
+    /**
+     * Stores a schedule after checking the transfer against the accounts as they are now; each run is
+     * checked again when it is executed.
+     */
+    public ScheduledTransfer create(ScheduledTransferRequest request, Long userId) {
+        TransactionRequest transfer = new TransactionRequest();
+        transfer.setFromIban(request.getFromIban());
+        transfer.setToIban(request.getToIban());
+        transfer.setAmount(request.getAmount());
+        transactionService.precheck(transfer, userId);
+
+        ScheduledTransfer schedule = scheduledTransferRepository.save(ScheduledTransfer.builder()
+                .userId(userId)
+                .fromIban(request.getFromIban())
+                .toIban(request.getToIban())
+                .amount(request.getAmount())
+                .recurrence(request.getRecurrence())
+                .firstRunAt(request.getFirstRunAt())
+                .endsAt(request.getEndsAt())
+                .nextRunAt(request.getFirstRunAt())
+                .status(ScheduledTransferStatus.ACTIVE)
+                .createdAt(LocalDateTime.now())
+                .build());
+        // A first run within the loaded window would otherwise be missed until the next load
+        engine.offer(schedule.getId(), schedule.getNextRunAt());
+        return schedule;
+    }
+
+    public List<ScheduledTransfer> findByUser(Long userId) {
+        return scheduledTransferRepository.findByUserIdOrderByIdDesc(userId);
+    }
+
+    /**
+     * Cancels an active schedule of this user. A run that has already started still completes.
+     */
+    public void cancel(Long id, Long userId) {
+        if (scheduledTransferRepository.cancel(id, userId) == 0) {
+            throw new ScheduledTransferNotFoundException("Active scheduled transfer not found");
+        }
+    }
+}
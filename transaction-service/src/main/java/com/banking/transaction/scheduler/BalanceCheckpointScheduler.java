@@ -0,0 +1,52 @@
+package com.banking.transaction.scheduler;
+
+import com.banking.transaction.repository.AccountRepository;
+import com.banking.transaction.repository.BalanceCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Periodically records the balance of every account that had ledger activity since its last checkpoint.
+ * <p>
+ * The checkpoint time lags behind the clock by {@code settle-delay} so transfers that were still in flight at
+ * the cutoff have committed by the time it is taken. Accounts are processed in id ranges, one short
+ * transaction each. Several instances may run this at once; duplicates are dropped by the unique index.
+ */
+@Component
+public class BalanceCheckpointScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceCheckpointScheduler.class);
+
+    private final AccountRepository accountRepository;
+    private final BalanceCheckpointRepository balanceCheckpointRepository;
+    private final Duration settleDelay;
+    private final int accountsPerChunk;
+
+    public BalanceCheckpointScheduler(AccountRepository accountRepository,
+                                      BalanceCheckpointRepository balanceCheckpointRepository,
+                                      @Value("${transaction.balance.checkpoint.settle-delay:5m}") Duration settleDelay,
+                                      @Value("${transaction.balance.checkpoint.accounts-per-chunk:10000}") int accountsPerChunk) {
+        this.accountRepository = accountRepository;
+        this.balanceCheckpointRepository = balanceCheckpointRepository;
+        this.settleDelay = settleDelay;
+        this.accountsPerChunk = accountsPerChunk;
+    }
+
+    @Scheduled(cron = "${transaction.balance.checkpoint.cron:0 0 * * * *}")
+    public void writeCheckpoints() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(settleDelay).truncatedTo(ChronoUnit.MINUTES);
+        long maxId = accountRepository.findMaxId();
+        int written = 0;
+        for (long afterId = 0; afterId < maxId; afterId += accountsPerChunk) {
+            written += balanceCheckpointRepository.insertCheckpoints(cutoff, afterId, afterId + accountsPerChunk);
+        }
+        logger.info("Wrote {} balance checkpoints as of {}", written, cutoff);
+    }
+}
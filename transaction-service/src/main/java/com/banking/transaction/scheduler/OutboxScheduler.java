@@ -2,34 +2,49 @@ package com.banking.transaction.scheduler;
 
 import com.banking.transaction.entity.Outbox;
 import com.banking.transaction.repository.OutboxRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Component
 public class OutboxScheduler {
 
     private final OutboxRepository outboxRepository;
     private final KafkaTemplate<String, String> kafkaTemplate;
+    private final Executor callbackExecutor;
+    // Not synchronized: a virtual thread blocking on JDBC inside a monitor would pin its carrier thread
+    private final ReentrantLock processing = new ReentrantLock();
 
-    public OutboxScheduler(OutboxRepository outboxRepository, KafkaTemplate<String, String> kafkaTemplate) {
+    public OutboxScheduler(OutboxRepository outboxRepository, KafkaTemplate<String, String> kafkaTemplate,
+                           @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor callbackExecutor) {
         this.outboxRepository = outboxRepository;
         this.kafkaTemplate = kafkaTemplate;
+        this.callbackExecutor = callbackExecutor;
     }
 
     @Scheduled(fixedDelay = 10000) // 10 seconds
     @Transactional
-    public synchronized void processOutbox() {
-        List<Outbox> unsentMessages = outboxRepository.findBySentFalse();
-        for (Outbox message : unsentMessages) {
-            kafkaTemplate.send(message.getTopic(), message.getPayload())
-                .thenRun(() -> {
-                    message.setSent(true);
-                    outboxRepository.save(message);
-                })
-                .exceptionally(ex -> null);
+    public void processOutbox() {
+        processing.lock();
+        try {
+            List<Outbox> unsentMessages = outboxRepository.findBySentFalse();
+            for (Outbox message : unsentMessages) {
+                // Marking the message as sent is a database write, which must not run on the producer's I/O thread
+                kafkaTemplate.send(message.getTopic(), message.getPayload())
+                    .thenRunAsync(() -> {
+                        message.setSent(true);
+                        outboxRepository.save(message);
+                    }, callbackExecutor)
+                    .exceptionally(ex -> null);
+            }
+        } finally {
+            processing.unlock();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,62 @@
+package com.banking.transaction.schema;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves the id sequences past the ids that were handed out while the tables still used IDENTITY columns.
+ * <p>
+ * Hibernate creates {@code *_seq} starting at 1 when upgrading an existing schema, which would collide with
+ * existing rows. This runs once the schema is in place and before the web server accepts requests, and only
+ * ever moves a sequence forward, so it is safe to run on every start and from several instances at once.
+ */
+@Component
+@ConditionalOnProperty(name = "transaction.schema.align-id-sequences", havingValue = "true", matchIfMissing = true)
+public class IdSequenceAligner {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdSequenceAligner.class);
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "account", "account_seq",
+            "transaction_ledger", "transaction_ledger_seq",
+            "outbox", "outbox_seq");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // The EntityManagerFactory dependency makes sure Hibernate has created the sequences before this runs.
+    public IdSequenceAligner(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequences() {
+        SEQUENCES.forEach(this::align);
+    }
+
+    private void align(String table, String sequence) {
+        List<Map<String, Object>> state = jdbcTemplate.queryForList(
+                "SELECT start_value, last_value, increment_by FROM pg_sequences WHERE sequencename = ?", sequence);
+        if (state.isEmpty()) {
+            logger.warn("Sequence {} does not exist, skipping alignment of {}", sequence, table);
+            return;
+        }
+        Number lastValue = (Number) state.get(0).get("last_value");
+        long nextValue = lastValue == null
+                ? ((Number) state.get(0).get("start_value")).longValue()
+                : lastValue.longValue() + ((Number) state.get(0).get("increment_by")).longValue();
+
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        if (maxId != null && maxId >= nextValue) {
+            jdbcTemplate.queryForObject("SELECT setval(?::regclass, ?, false)", Long.class, sequence, maxId + 1);
+            logger.info("Moved sequence {} to {} to clear existing ids in {}", sequence, maxId + 1, table);
+        }
+    }
+}
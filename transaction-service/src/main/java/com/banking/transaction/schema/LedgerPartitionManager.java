@@ -0,0 +1,187 @@
+package com.banking.transaction.schema;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps {@code transaction_ledger} range-partitioned by month on {@code transaction_date}.
+ * <p>
+ * On startup the {@code (account_id, transaction_date, id)} index that every ledger query walks is created if
+ * missing, and an empty ledger is converted with {@code db/ledger-partitioning.sql}; a ledger that already
+ * holds rows is left alone until that script has been run by hand. Once partitioned, the partitions for the
+ * current month and the next {@code months-ahead} months are created up front, so inserts never hit a missing
+ * range, and monthly partitions older than {@code retention-months} are detached. Detached partitions stay
+ * in the database as plain tables to be archived or dropped. Columns mapped after partitioning was introduced
+ * are added here too, because Hibernate's schema update does not see partitioned tables. Every step is idempotent, so several instances
+ * may run it at once.
+ */
+@Component
+@ConditionalOnProperty(name = "transaction.ledger.partitioning.enabled", havingValue = "true", matchIfMissing = true)
+public class LedgerPartitionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerPartitionManager.class);
+
+    private static final String TABLE = "transaction_ledger";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile(TABLE + "_p\\d{6}");
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('([^']+)'\\)");
+    // Columns mapped on TransactionLedger after partitioning was introduced. Hibernate does not see partitioned
+    // tables, so ddl-auto=update cannot add them and they are added here instead.
+    private static final List<String> LATER_COLUMNS = List.of(
+            "original_amount numeric(38,3)",
+            "original_currency varchar(3)",
+            "converted_amount numeric(38,3)",
+            "converted_currency varchar(3)",
+            "exchange_rate numeric(19,8)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Resource conversionScript;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    // The EntityManagerFactory dependency makes sure Hibernate has created the table before this runs.
+    public LedgerPartitionManager(JdbcTemplate jdbcTemplate,
+                                  EntityManagerFactory entityManagerFactory,
+                                  @Value("classpath:db/ledger-partitioning.sql") Resource conversionScript,
+                                  @Value("${transaction.ledger.partitioning.months-ahead:3}") int monthsAhead,
+                                  @Value("${transaction.ledger.partitioning.retention-months:0}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.conversionScript = conversionScript;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_transaction_ledger_account_date ON "
+                + TABLE + " (account_id, transaction_date, id)");
+        if (!isPartitioned()) {
+            Boolean empty = jdbcTemplate.queryForObject("SELECT NOT EXISTS (SELECT 1 FROM " + TABLE + ")", Boolean.class);
+            if (!Boolean.TRUE.equals(empty)) {
+                logger.warn("{} holds rows and is not partitioned yet; run db/ledger-partitioning.sql in a maintenance window", TABLE);
+                return;
+            }
+            jdbcTemplate.execute(readConversionScript());
+            logger.info("Converted {} to a partitioned table", TABLE);
+        }
+        addLaterColumns();
+        maintainPartitions();
+    }
+
+    @Scheduled(cron = "${transaction.ledger.partitioning.cron:0 0 2 * * *}")
+    public void maintainPartitions() {
+        if (!isPartitioned()) {
+            return;
+        }
+        List<Partition> partitions = findPartitions();
+        LocalDateTime coveredUntil = partitions.stream()
+                .map(Partition::upperBound)
+                .filter(Objects::nonNull)
+                .max(LocalDateTime::compareTo)
+                .orElse(LocalDateTime.MIN);
+
+        YearMonth current = YearMonth.now();
+        for (YearMonth month = current; !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            if (!startOf(month.plusMonths(1)).isAfter(coveredUntil)) {
+                continue;
+            }
+            createPartition(month);
+        }
+
+        if (retentionMonths > 0) {
+            LocalDateTime cutoff = startOf(current.minusMonths(retentionMonths));
+            for (Partition partition : partitions) {
+                if (MONTHLY_PARTITION.matcher(partition.name()).matches()
+                        && partition.upperBound() != null && !partition.upperBound().isAfter(cutoff)) {
+                    detachPartition(partition.name());
+                }
+            }
+        }
+    }
+
+    private void addLaterColumns() {
+        StringBuilder sql = new StringBuilder("ALTER TABLE ").append(TABLE);
+        for (int i = 0; i < LATER_COLUMNS.size(); i++) {
+            sql.append(i == 0 ? " " : ", ").append("ADD COLUMN IF NOT EXISTS ").append(LATER_COLUMNS.get(i));
+        }
+        jdbcTemplate.execute(sql.toString());
+    }
+
+    private void createPartition(YearMonth month) {
+        String name = TABLE + "_p" + month.format(PARTITION_SUFFIX);
+        try {
+            jdbcTemplate.execute(String.format("CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                    name, TABLE, startOf(month), startOf(month.plusMonths(1))));
+            logger.info("Ensured ledger partition {}", name);
+        } catch (DataAccessException e) {
+            // Another instance may have created an overlapping range first
+            logger.warn("Could not create ledger partition {}", name, e);
+        }
+    }
+
+    private void detachPartition(String name) {
+        try {
+            // CONCURRENTLY only waits for running queries instead of blocking new ones; needs autocommit
+            jdbcTemplate.execute(String.format("ALTER TABLE %s DETACH PARTITION %s CONCURRENTLY", TABLE, name));
+            logger.info("Detached ledger partition {}", name);
+        } catch (DataAccessException e) {
+            logger.warn("Could not detach ledger partition {}", name, e);
+        }
+    }
+
+    private boolean isPartitioned() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(?))", Boolean.class, TABLE));
+    }
+
+    private List<Partition> findPartitions() {
+        return jdbcTemplate.query("""
+                SELECT c.relname, pg_get_expr(c.relpartbound, c.oid)
+                FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = to_regclass(?)
+                """, (rs, rowNum) -> new Partition(rs.getString(1), upperBoundOf(rs.getString(2))), TABLE);
+    }
+
+    // Bounds read like FOR VALUES FROM ('2024-01-01 00:00:00') TO ('2024-02-01 00:00:00'); MAXVALUE has no date
+    private static LocalDateTime upperBoundOf(String boundExpression) {
+        Matcher matcher = UPPER_BOUND.matcher(boundExpression);
+        return matcher.find() ? Timestamp.valueOf(matcher.group(1)).toLocalDateTime() : null;
+    }
+
+    private String readConversionScript() {
+        try {
+            return StreamUtils.copyToString(conversionScript.getInputStream(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + conversionScript, e);
+        }
+    }
+
+    private static LocalDateTime startOf(YearMonth month) {
+        return month.atDay(1).atStartOfDay();
+    }
+
+    private record Partition(String name, LocalDateTime upperBound) {
+    }
+}
@@ -0,0 +1,71 @@
+package com.banking.transaction.schema;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Widens the money columns created as {@code numeric(38,2)} to {@code numeric(38,3)}, so amounts in currencies
+ * with three minor digits are no longer rounded on write.
+ * <p>
+ * Hibernate's schema update does not see the partitioned ledger, and is not relied on to retype the other
+ * tables either. Changing the scale rewrites the table under an exclusive lock, so on a large ledger run
+ * {@code db/money-scale.sql} in a maintenance window first; this then finds nothing left to widen. Altering a
+ * column to the type it already has is a no-op, so it is safe to run on every start and from several
+ * instances at once.
+ */
+@Component
+@ConditionalOnProperty(name = "transaction.schema.widen-money-columns", havingValue = "true", matchIfMissing = true)
+public class MoneyScaleMigrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(MoneyScaleMigrator.class);
+
+    private static final int SCALE = 3;
+
+    private static final Map<String, List<String>> COLUMNS = Map.of(
+            "account", List.of("balance"),
+            "transaction_ledger", List.of("amount", "balance_after", "original_amount", "converted_amount"),
+            "transfer_intake", List.of("amount"),
+            "scheduled_transfer", List.of("amount"),
+            "balance_checkpoint", List.of("balance"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // The EntityManagerFactory dependency makes sure Hibernate has created the tables before this runs.
+    public MoneyScaleMigrator(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void widenColumns() {
+        Map<String, List<String>> narrow = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT table_name, column_name FROM information_schema.columns "
+                        + "WHERE table_schema = current_schema() AND data_type = 'numeric' AND numeric_scale < ? "
+                        + "ORDER BY table_name, column_name",
+                row -> {
+                    String table = row.getString("table_name");
+                    String column = row.getString("column_name");
+                    if (COLUMNS.getOrDefault(table, List.of()).contains(column)) {
+                        narrow.computeIfAbsent(table, ignored -> new ArrayList<>()).add(column);
+                    }
+                },
+                SCALE);
+        // A partitioned ledger passes the change on to its partitions
+        narrow.forEach((table, columns) -> {
+            jdbcTemplate.execute("ALTER TABLE " + table + columns.stream()
+                    .map(column -> " ALTER COLUMN " + column + " TYPE numeric(38," + SCALE + ")")
+                    .collect(Collectors.joining(",")));
+            logger.info("Widened {} {} to numeric(38,{})", table, columns, SCALE);
+        });
+    }
+}
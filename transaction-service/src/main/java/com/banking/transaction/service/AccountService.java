@@ -3,6 +3,7 @@ package com.banking.transaction.service;
 import com.banking.transaction.dto.AccountCreateRequest;
 import com.banking.transaction.dto.DepositRequest;
 import com.banking.transaction.entity.Account;
+import com.banking.transaction.entity.AccountStatus;
 
 import java.util.List;
 
@@ -10,4 +11,5 @@ public interface AccountService {
     Account createAccount(AccountCreateRequest request, Long userId);
     List<Account> getAccountsByUserId(Long userId);
     Account depositToAccount(String iban, DepositRequest request);
+    Account updateStatus(String iban, AccountStatus status, Long userId);
 }
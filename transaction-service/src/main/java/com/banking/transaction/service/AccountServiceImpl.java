@@ -1,27 +1,46 @@
 package com.banking.transaction.service;
 
+import com.banking.common.money.Money;
+import com.banking.transaction.cache.AccountMetadataCache;
 import com.banking.transaction.dto.AccountCreateRequest;
 import com.banking.transaction.dto.DepositRequest;
 import com.banking.transaction.entity.Account;
+import com.banking.transaction.entity.AccountStatus;
+import com.banking.transaction.entity.TransactionLedger;
+import com.banking.transaction.entity.TransactionType;
 import com.banking.transaction.repository.AccountRepository;
+import com.banking.transaction.repository.TransactionLedgerRepository;
+import com.banking.transaction.exception.AccountNotActiveException;
 import com.banking.transaction.exception.AccountNotFoundException;
+import com.banking.transaction.exception.UnauthorizedTransactionException;
+import com.banking.transaction.timing.Stage;
+import com.banking.transaction.timing.StageTimer;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.security.SecureRandom;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Random;
+import java.util.UUID;
 
 @Service
 public class AccountServiceImpl implements AccountService {
 
     private final AccountRepository accountRepository;
+    private final TransactionLedgerRepository transactionLedgerRepository;
+    private final AccountMetadataCache accountMetadataCache;
+    private final StageTimer stageTimer;
 
     private static final Random random = new SecureRandom();
 
-    public AccountServiceImpl(AccountRepository accountRepository) {
+    public AccountServiceImpl(AccountRepository accountRepository, TransactionLedgerRepository transactionLedgerRepository,
+                              AccountMetadataCache accountMetadataCache, StageTimer stageTimer) {
         this.accountRepository = accountRepository;
+        this.transactionLedgerRepository = transactionLedgerRepository;
+        this.accountMetadataCache = accountMetadataCache;
+        this.stageTimer = stageTimer;
     }
 
     @Override
@@ -31,10 +50,13 @@ public class AccountServiceImpl implements AccountService {
         account.setCurrency(request.getCurrency());
         account.setBalance(BigDecimal.ZERO);
         account.setIban(generateIban());
+        account.setStatus(AccountStatus.ACTIVE);
+        account.setCreatedAt(LocalDateTime.now());
         return accountRepository.save(account);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Account> getAccountsByUserId(Long userId) {
         return accountRepository.findAllByUserId(userId);
     }
@@ -42,10 +64,51 @@ public class AccountServiceImpl implements AccountService {
     @Transactional
     @Override
     public Account depositToAccount(String iban, DepositRequest request) {
+        stageTimer.timeCommit(Stage.DEPOSIT_COMMIT);
+        long started = stageTimer.start();
         Account account = accountRepository.findByIban(iban)
                 .orElseThrow(() -> new AccountNotFoundException("Account not found with IBAN: " + iban));
-        account.setBalance(account.getBalance().add(request.getAmount()));
-        return accountRepository.save(account);
+        stageTimer.stop(Stage.DEPOSIT_ACCOUNT_LOOKUP, started);
+        if (!account.canReceive()) {
+            throw new AccountNotActiveException("Account is closed.");
+        }
+        Money amount = Amounts.of(request.getAmount(), account.currencyCode());
+        started = stageTimer.start();
+        BigDecimal credit = amount.toBigDecimal();
+        account.setBalance(account.getBalance().add(credit));
+        Account saved = accountRepository.save(account);
+        stageTimer.stop(Stage.DEPOSIT_BALANCE_UPDATE, started);
+
+        // Deposits go into the ledger as well, otherwise balances could not be reconstructed from it
+        started = stageTimer.start();
+        transactionLedgerRepository.save(TransactionLedger.builder()
+                .account(saved)
+                .amount(credit)
+                .balanceAfter(saved.getBalance())
+                .transactionType(TransactionType.CREDIT)
+                .transactionDate(LocalDateTime.now())
+                .correlationId("deposit-" + UUID.randomUUID())
+                .build());
+        stageTimer.stop(Stage.DEPOSIT_LEDGER_INSERT, started);
+        return saved;
+    }
+
+    @Transactional
+    @Override
+    public Account updateStatus(String iban, AccountStatus status, Long userId) {
+        Account account = accountRepository.findByIban(iban)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found with IBAN: " + iban));
+        if (!account.getUserId().equals(userId)) {
+            throw new UnauthorizedTransactionException("User is not the owner of the account.");
+        }
+        if (account.getStatus() == AccountStatus.CLOSED && status != AccountStatus.CLOSED) {
+            throw new AccountNotActiveException("Closed accounts cannot be reopened.");
+        }
+        account.setStatus(status);
+        Account saved = accountRepository.save(account);
+        // Transfers on every instance check the status from their metadata cache
+        accountMetadataCache.evict(iban);
+        return saved;
     }
 
     private String generateIban() {
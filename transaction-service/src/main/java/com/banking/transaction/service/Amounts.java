@@ -0,0 +1,25 @@
+package com.banking.transaction.service;
+
+import com.banking.common.money.Money;
+import com.banking.transaction.exception.InvalidAmountException;
+
+import java.math.BigDecimal;
+
+final class Amounts {
+
+    private Amounts() {
+    }
+
+    /**
+     * Converts a requested amount into the currency of the account it is booked on.
+     *
+     * @throws InvalidAmountException if the amount has more fraction digits than the currency allows
+     */
+    static Money of(BigDecimal amount, String currency) {
+        try {
+            return Money.of(amount, currency);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidAmountException(e.getMessage());
+        }
+    }
+}
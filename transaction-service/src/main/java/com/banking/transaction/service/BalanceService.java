@@ -0,0 +1,86 @@
+package com.banking.transaction.service;
+
+import com.banking.transaction.dto.BalanceResponse;
+import com.banking.transaction.entity.Account;
+import com.banking.transaction.entity.BalanceCheckpoint;
+import com.banking.transaction.entity.TransactionLedger;
+import com.banking.transaction.exception.AccountNotFoundException;
+import com.banking.transaction.exception.UnauthorizedTransactionException;
+import com.banking.transaction.repository.AccountRepository;
+import com.banking.transaction.repository.BalanceCheckpointRepository;
+import com.banking.transaction.repository.TransactionLedgerRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Answers "what was the balance of this account at time T" without summing the whole ledger.
+ * <p>
+ * The last ledger entry at or before T carries the balance right after it, which is the answer. It is only
+ * looked for after the nearest {@link BalanceCheckpoint} before T; without an entry in between, the checkpoint
+ * itself is the answer. Entries written before {@code balanceAfter} existed fall back to the checkpoint plus
+ * the ledger entries between the checkpoint and T, so the work stays proportional to one checkpoint interval.
+ */
+@Service
+public class BalanceService {
+
+    private final AccountRepository accountRepository;
+    private final TransactionLedgerRepository transactionLedgerRepository;
+    private final BalanceCheckpointRepository balanceCheckpointRepository;
+
+    public BalanceService(AccountRepository accountRepository,
+                          TransactionLedgerRepository transactionLedgerRepository,
+                          BalanceCheckpointRepository balanceCheckpointRepository) {
+        this.accountRepository = accountRepository;
+        this.transactionLedgerRepository = transactionLedgerRepository;
+        this.balanceCheckpointRepository = balanceCheckpointRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public BalanceResponse getBalance(String iban, Long userId, LocalDateTime asOf) {
+        Account account = accountRepository.findByIban(iban)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found with IBAN: " + iban));
+        if (!account.getUserId().equals(userId)) {
+            throw new UnauthorizedTransactionException("User is not the owner of the account.");
+        }
+        if (asOf == null || !asOf.isBefore(LocalDateTime.now())) {
+            return new BalanceResponse(iban, account.getCurrency(), account.getBalance(), asOf);
+        }
+        return new BalanceResponse(iban, account.getCurrency(), balanceAt(account, asOf), asOf);
+    }
+
+    private BigDecimal balanceAt(Account account, LocalDateTime asOf) {
+        Long accountId = account.getId();
+        Optional<BalanceCheckpoint> before = balanceCheckpointRepository
+                .findFirstByAccountIdAndAsOfLessThanEqualOrderByAsOfDesc(accountId, asOf);
+
+        // Only the entries since the nearest checkpoint can be newer than it, which keeps the lookup in the
+        // ledger partitions of one checkpoint interval
+        LocalDateTime after = before.map(BalanceCheckpoint::getAsOf).orElse(account.ledgerStart());
+        Optional<TransactionLedger> lastEntry = transactionLedgerRepository
+                .findFirstByAccountIdAndTransactionDateGreaterThanAndTransactionDateLessThanEqualOrderByTransactionDateDescIdDesc(
+                        accountId, after, asOf);
+        if (lastEntry.isPresent() && lastEntry.get().getBalanceAfter() != null) {
+            return lastEntry.get().getBalanceAfter();
+        }
+
+        if (before.isPresent()) {
+            return lastEntry.isEmpty()
+                    ? before.get().getBalance()
+                    : before.get().getBalance().add(transactionLedgerRepository.sumAmountBetween(accountId, after, asOf));
+        }
+
+        Optional<BalanceCheckpoint> next = balanceCheckpointRepository
+                .findFirstByAccountIdAndAsOfGreaterThanOrderByAsOfAsc(accountId, asOf);
+        if (next.isPresent()) {
+            return next.get().getBalance()
+                    .subtract(transactionLedgerRepository.sumAmountBetween(accountId, asOf, next.get().getAsOf()));
+        }
+
+        // No checkpoint yet, walk back from the current balance
+        return account.getBalance().subtract(transactionLedgerRepository.sumAmountAfter(accountId, asOf));
+    }
+}
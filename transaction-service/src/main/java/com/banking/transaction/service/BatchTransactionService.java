@@ -0,0 +1,280 @@
+package com.banking.transaction.service;
+
+import com.banking.common.money.Money;
+import com.banking.transaction.cache.AccountMetadata;
+import com.banking.transaction.cache.AccountMetadataCache;
+import com.banking.transaction.dto.BatchItemResult;
+import com.banking.transaction.dto.BatchItemStatus;
+import com.banking.transaction.dto.TransactionRequest;
+import com.banking.transaction.dto.TransferResult;
+import com.banking.transaction.dto.TransferSuccessEvent;
+import com.banking.transaction.entity.Account;
+import com.banking.transaction.entity.Outbox;
+import com.banking.transaction.entity.TransactionLedger;
+import com.banking.transaction.entity.TransactionType;
+import com.banking.transaction.exception.FxRateNotFoundException;
+import com.banking.transaction.exception.InvalidAmountException;
+import com.banking.transaction.exception.TransferLimitExceededException;
+import com.banking.transaction.fraud.FraudScreeningService;
+import com.banking.transaction.fx.FxConversion;
+import com.banking.transaction.fx.FxRateService;
+import com.banking.transaction.fx.FxRateSnapshot;
+import com.banking.transaction.idempotency.IdempotencyService;
+import com.banking.transaction.idempotency.IdempotencyService.StoredOutcome;
+import com.banking.transaction.limits.TransferLimitService;
+import com.banking.transaction.repository.AccountRepository;
+import com.banking.transaction.repository.LedgerBatchRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Executes many transfers under one batch correlation id. Items are applied in chunks, one database
+ * transaction per chunk, and every item gets its own result instead of failing the whole batch.
+ * Item {@code i} uses the correlation id {@code <batchCorrelationId>-<i>}, so a retried batch skips
+ * the items that were already applied. An item whose id was applied for a different transfer or user is
+ * reported as a conflict instead. Items are fraud screened before their chunk's transaction starts, so
+ * that a slow scorer does not hold the chunk's accounts.
+ */
+@Service
+public class BatchTransactionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchTransactionService.class);
+
+    private final AccountRepository accountRepository;
+    private final AccountMetadataCache accountMetadataCache;
+    private final LedgerBatchRepository ledgerBatchRepository;
+    private final IdempotencyService idempotencyService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final FxRateService fxRateService;
+    private final TransferLimitService transferLimitService;
+    private final FraudScreeningService fraudScreeningService;
+    private final LockingStrategy lockingStrategy;
+    private final int chunkSize;
+
+    public BatchTransactionService(AccountRepository accountRepository,
+                                   AccountMetadataCache accountMetadataCache,
+                                   LedgerBatchRepository ledgerBatchRepository,
+                                   IdempotencyService idempotencyService,
+                                   PlatformTransactionManager transactionManager,
+                                   ObjectMapper objectMapper,
+                                   FxRateService fxRateService,
+                                   TransferLimitService transferLimitService,
+                                   FraudScreeningService fraudScreeningService,
+                                   @Value("${transaction.locking.strategy:optimistic}") LockingStrategy lockingStrategy,
+                                   @Value("${transaction.batch.chunk-size:500}") int chunkSize) {
+        this.accountRepository = accountRepository;
+        this.accountMetadataCache = accountMetadataCache;
+        this.ledgerBatchRepository = ledgerBatchRepository;
+        this.idempotencyService = idempotencyService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.fxRateService = fxRateService;
+        this.transferLimitService = transferLimitService;
+        this.fraudScreeningService = fraudScreeningService;
+        this.lockingStrategy = lockingStrategy;
+        this.chunkSize = chunkSize;
+    }
+
+    public List<BatchItemResult> executeBatch(List<TransactionRequest> items, String batchCorrelationId, Long userId) {
+        List<BatchItemResult> results = new ArrayList<>(items.size());
+        for (int start = 0; start < items.size(); start += chunkSize) {
+            int end = Math.min(start + chunkSize, items.size());
+            results.addAll(executeChunk(items, start, end, batchCorrelationId, userId));
+        }
+        return results;
+    }
+
+    private List<BatchItemResult> executeChunk(List<TransactionRequest> items, int start, int end,
+                                               String batchCorrelationId, Long userId) {
+        List<String> correlationIds = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            correlationIds.add(itemCorrelationId(batchCorrelationId, i));
+        }
+        // Looked up ahead of the transaction so that processed items are not screened again; a concurrent retry
+        // of the same items fails the chunk on the idempotency keys instead of booking them twice
+        Map<String, StoredOutcome> alreadyProcessed = idempotencyService.findCompletedOutcomes(correlationIds);
+        ChunkScreening screening = screen(items, start, end, correlationIds, alreadyProcessed, userId);
+        try {
+            return transactionTemplate.execute(status ->
+                    applyChunk(items, start, end, correlationIds, alreadyProcessed, screening, userId));
+        } catch (DataAccessException e) {
+            // Usually an optimistic lock conflict with a concurrent transfer; the whole chunk was rolled back.
+            logger.warn("Batch {} chunk [{}, {}) failed and was rolled back", batchCorrelationId, start, end, e);
+            List<BatchItemResult> failed = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                failed.add(new BatchItemResult(i, itemCorrelationId(batchCorrelationId, i), BatchItemStatus.FAILED,
+                        "Chunk was rolled back, retry the batch with the same correlation id"));
+            }
+            return failed;
+        }
+    }
+
+    /**
+     * Screens the items that are not already processed, before the chunk's transaction reads or locks their
+     * accounts. Only the sender's currency is needed, which the metadata cache knows.
+     */
+    private ChunkScreening screen(List<TransactionRequest> items, int start, int end, List<String> correlationIds,
+                                  Map<String, StoredOutcome> alreadyProcessed, Long userId) {
+        ChunkScreening screening = new ChunkScreening(fraudScreeningService, userId);
+        for (int i = start; i < end; i++) {
+            TransactionRequest item = items.get(i);
+            String correlationId = correlationIds.get(i - start);
+            if (alreadyProcessed.containsKey(correlationId)) {
+                continue;
+            }
+            Optional<AccountMetadata> sender = accountMetadataCache.findByIban(item.getFromIban());
+            // Items the chunk is going to reject anyway are not scored
+            if (sender.isEmpty() || !sender.get().isOwnedBy(userId)) {
+                continue;
+            }
+            Money amount;
+            try {
+                amount = Amounts.of(item.getAmount(), sender.get().currencyCode());
+            } catch (InvalidAmountException e) {
+                continue;
+            }
+            screening.screen(i, correlationId, item.getToIban(), amount);
+        }
+        return screening;
+    }
+
+    private List<BatchItemResult> applyChunk(List<TransactionRequest> items, int start, int end,
+                                             List<String> correlationIds, Map<String, StoredOutcome> alreadyProcessed,
+                                             ChunkScreening screening, Long userId) {
+        Set<String> ibans = new HashSet<>();
+        for (int i = start; i < end; i++) {
+            ibans.add(items.get(i).getFromIban());
+            ibans.add(items.get(i).getToIban());
+        }
+        Map<String, Account> accounts = new HashMap<>();
+        List<Account> chunkAccounts = lockingStrategy == LockingStrategy.PESSIMISTIC
+                ? accountRepository.findAllByIbanInForUpdate(ibans)
+                : accountRepository.findAllByIbanIn(ibans);
+        for (Account account : chunkAccounts) {
+            accounts.put(account.getIban(), account);
+        }
+
+        List<BatchItemResult> results = new ArrayList<>(end - start);
+        List<TransactionLedger> ledgerEntries = new ArrayList<>(2 * (end - start));
+        List<Outbox> outboxMessages = new ArrayList<>(end - start);
+        Map<String, TransferResult> completed = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        FxRateSnapshot rates = fxRateService.current();
+
+        for (int i = start; i < end; i++) {
+            TransactionRequest item = items.get(i);
+            String correlationId = correlationIds.get(i - start);
+            Account fromAccount = accounts.get(item.getFromIban());
+            Account toAccount = accounts.get(item.getToIban());
+
+            StoredOutcome previous = alreadyProcessed.get(correlationId);
+            if (previous != null) {
+                results.add(previous.isReplayOf(item, userId)
+                        ? new BatchItemResult(i, correlationId, BatchItemStatus.DUPLICATE, "Already processed")
+                        : new BatchItemResult(i, correlationId, BatchItemStatus.CORRELATION_ID_CONFLICT,
+                                "Correlation-ID " + correlationId + " has already been used for a different transaction."));
+            } else if (fromAccount == null) {
+                results.add(new BatchItemResult(i, correlationId, BatchItemStatus.ACCOUNT_NOT_FOUND, "Sender account not found"));
+            } else if (!fromAccount.getUserId().equals(userId)) {
+                results.add(new BatchItemResult(i, correlationId, BatchItemStatus.UNAUTHORIZED, "User is not the owner of the source account."));
+            } else if (toAccount == null) {
+                results.add(new BatchItemResult(i, correlationId, BatchItemStatus.ACCOUNT_NOT_FOUND, "Receiver account not found"));
+            } else if (!fromAccount.canSend()) {
+                results.add(new BatchItemResult(i, correlationId, BatchItemStatus.ACCOUNT_NOT_ACTIVE, "Source account is not active."));
+            } else if (!toAccount.canReceive()) {
+                results.add(new BatchItemResult(i, correlationId, BatchItemStatus.ACCOUNT_NOT_ACTIVE, "Receiver account is closed."));
+            } else {
+                FxConversion conversion;
+                try {
+                    conversion = rates.convert(Amounts.of(item.getAmount(), fromAccount.currencyCode()), toAccount.currencyCode());
+                } catch (InvalidAmountException e) {
+                    results.add(new BatchItemResult(i, correlationId, BatchItemStatus.INVALID_AMOUNT, e.getMessage()));
+                    continue;
+                } catch (FxRateNotFoundException e) {
+                    results.add(new BatchItemResult(i, correlationId, BatchItemStatus.FX_RATE_NOT_FOUND, e.getMessage()));
+                    continue;
+                }
+                BatchItemResult refusal = screening.refusal(i, correlationId, item.getToIban(), conversion.original());
+                if (refusal != null) {
+                    results.add(refusal);
+                    continue;
+                }
+                Money fromBalance = fromAccount.balanceAmount();
+                if (fromBalance.isLessThan(conversion.original())) {
+                    results.add(new BatchItemResult(i, correlationId, BatchItemStatus.INSUFFICIENT_FUNDS, "Insufficient funds"));
+                    continue;
+                }
+                try {
+                    transferLimitService.record(AccountMetadata.from(fromAccount), userId, conversion.original());
+                } catch (TransferLimitExceededException e) {
+                    results.add(new BatchItemResult(i, correlationId, BatchItemStatus.LIMIT_EXCEEDED, e.getMessage()));
+                    continue;
+                }
+                fromAccount.setBalance(fromBalance.minus(conversion.original()).toBigDecimal());
+                toAccount.setBalance(toAccount.balanceAmount().plus(conversion.converted()).toBigDecimal());
+                ledgerEntries.add(conversion.describe(TransactionLedger.builder())
+                        .account(fromAccount)
+                        .amount(conversion.original().negate().toBigDecimal())
+                        .balanceAfter(fromAccount.getBalance())
+                        .transactionType(TransactionType.DEBIT)
+                        .transactionDate(now)
+                        .correlationId(correlationId + "-D")
+                        .build());
+                ledgerEntries.add(conversion.describe(TransactionLedger.builder())
+                        .account(toAccount)
+                        .amount(conversion.converted().toBigDecimal())
+                        .balanceAfter(toAccount.getBalance())
+                        .transactionType(TransactionType.CREDIT)
+                        .transactionDate(now)
+                        .correlationId(correlationId + "-C")
+                        .build());
+                outboxMessages.add(Outbox.builder()
+                        .topic("transaction-events")
+                        .payload(serialize(new TransferSuccessEvent(fromAccount.getUserId(), item.getAmount(), item.getToIban())))
+                        .createdAt(now)
+                        .sent(false)
+                        .build());
+                completed.put(correlationId, new TransferResult(correlationId, item.getFromIban(), item.getToIban(),
+                        item.getAmount(), now, false));
+                fraudScreeningService.recordAfterCommit(screening.screening(i));
+                results.add(new BatchItemResult(i, correlationId, BatchItemStatus.SUCCESS, null));
+            }
+        }
+
+        // Balance updates go out through Hibernate (with @Version checks), ledger and outbox rows as JDBC batches.
+        accountRepository.flush();
+        ledgerBatchRepository.insertLedgerEntries(ledgerEntries);
+        ledgerBatchRepository.insertOutboxMessages(outboxMessages);
+        idempotencyService.recordAll(completed, userId);
+        return results;
+    }
+
+    private String serialize(TransferSuccessEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize event payload", e);
+        }
+    }
+
+    private static String itemCorrelationId(String batchCorrelationId, int index) {
+        return batchCorrelationId + "-" + index;
+    }
+}
@@ -0,0 +1,60 @@
+package com.banking.transaction.service;
+
+import com.banking.common.money.Money;
+import com.banking.transaction.dto.BatchItemResult;
+import com.banking.transaction.dto.BatchItemStatus;
+import com.banking.transaction.exception.FraudCheckUnavailableException;
+import com.banking.transaction.exception.SuspectedFraudException;
+import com.banking.transaction.fraud.FraudScreening;
+import com.banking.transaction.fraud.FraudScreeningService;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fraud screening of the items of a chunk, done before the chunk's transaction reads or locks any account so
+ * that waiting for the scorer does not hold row locks. Items are screened in the sender's currency, which
+ * comes from cached metadata.
+ */
+final class ChunkScreening {
+
+    private final FraudScreeningService fraudScreeningService;
+    private final Long userId;
+    private final Map<Integer, FraudScreening> screenings = new HashMap<>();
+    private final Map<Integer, BatchItemResult> refusals = new HashMap<>();
+
+    ChunkScreening(FraudScreeningService fraudScreeningService, Long userId) {
+        this.fraudScreeningService = fraudScreeningService;
+        this.userId = userId;
+    }
+
+    void screen(int index, String correlationId, String receiverIban, Money amount) {
+        try {
+            screenings.put(index, fraudScreeningService.screen(userId, receiverIban, amount));
+        } catch (SuspectedFraudException e) {
+            refusals.put(index, new BatchItemResult(index, correlationId, BatchItemStatus.SUSPECTED_FRAUD, e.getMessage()));
+        } catch (FraudCheckUnavailableException e) {
+            refusals.put(index, new BatchItemResult(index, correlationId, BatchItemStatus.FRAUD_CHECK_UNAVAILABLE, e.getMessage()));
+        }
+    }
+
+    /**
+     * Screens the item now if it was not screened up front, which only happens when the cached metadata of its
+     * sender disagreed with the database.
+     *
+     * @return why the item was refused, or {@code null} if it passed
+     */
+    BatchItemResult refusal(int index, String correlationId, String receiverIban, Money amount) {
+        if (!screenings.containsKey(index) && !refusals.containsKey(index)) {
+            screen(index, correlationId, receiverIban, amount);
+        }
+        return refusals.get(index);
+    }
+
+    /**
+     * @return the screening of an item that passed, to record once it is booked
+     */
+    FraudScreening screening(int index) {
+        return screenings.get(index);
+    }
+}
@@ -0,0 +1,19 @@
+package com.banking.transaction.service;
+
+/**
+ * How a transfer protects the two account balances it changes.
+ */
+public enum LockingStrategy {
+
+    /**
+     * Read both accounts without locks and let {@code Account.@Version} reject concurrent updates;
+     * conflicting transfers are retried.
+     */
+    OPTIMISTIC,
+
+    /**
+     * {@code SELECT ... FOR UPDATE} both accounts in IBAN order before changing them, so opposing transfers
+     * wait for each other instead of deadlocking.
+     */
+    PESSIMISTIC
+}
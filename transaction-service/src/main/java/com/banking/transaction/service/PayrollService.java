@@ -0,0 +1,355 @@
+package com.banking.transaction.service;
+
+import com.banking.common.money.Money;
+import com.banking.transaction.cache.AccountMetadata;
+import com.banking.transaction.cache.AccountMetadataCache;
+import com.banking.transaction.dto.BatchItemResult;
+import com.banking.transaction.dto.BatchItemStatus;
+import com.banking.transaction.dto.PayrollCompletedEvent;
+import com.banking.transaction.dto.PayrollLine;
+import com.banking.transaction.dto.PayrollRequest;
+import com.banking.transaction.dto.PayrollResponse;
+import com.banking.transaction.dto.TransferResult;
+import com.banking.transaction.dto.TransferSuccessEvent;
+import com.banking.transaction.entity.Account;
+import com.banking.transaction.entity.Outbox;
+import com.banking.transaction.entity.TransactionLedger;
+import com.banking.transaction.entity.TransactionType;
+import com.banking.transaction.exception.AccountNotActiveException;
+import com.banking.transaction.exception.AccountNotFoundException;
+import com.banking.transaction.exception.FxRateNotFoundException;
+import com.banking.transaction.exception.InvalidAmountException;
+import com.banking.transaction.exception.TransferLimitExceededException;
+import com.banking.transaction.exception.UnauthorizedTransactionException;
+import com.banking.transaction.fraud.FraudScreening;
+import com.banking.transaction.fraud.FraudScreeningService;
+import com.banking.transaction.fx.FxConversion;
+import com.banking.transaction.fx.FxRateService;
+import com.banking.transaction.fx.FxRateSnapshot;
+import com.banking.transaction.idempotency.IdempotencyService;
+import com.banking.transaction.limits.TransferLimitService;
+import com.banking.transaction.repository.LedgerBatchRepository;
+import com.banking.transaction.repository.PayrollRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pays many beneficiaries from one source account. Lines are applied in chunks of {@code chunk-size}, one
+ * database transaction each, which locks the source account together with the chunk's beneficiaries once and
+ * books a single debit for everything the chunk pays out, instead of re-reading and re-locking the source for
+ * every line. Lines are fraud screened before their chunk locks anything. Beneficiary credits and outbox events
+ * are written as JDBC batches.
+ * <p>
+ * Line {@code i} uses the correlation id {@code <payrollCorrelationId>-<i>}, so a retried payroll skips the
+ * lines that were already paid. In the ledger a chunk's debit is {@code <payrollCorrelationId>-<i>-FD}, after
+ * the first line {@code i} it pays, and the credits are {@code <payrollCorrelationId>-<i>-FC}; reconciliation
+ * checks that the debits of a payroll add up to its credits.
+ */
+@Service
+public class PayrollService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayrollService.class);
+
+    private static final String FAN_OUT_DEBIT_SUFFIX = "-FD";
+    private static final String FAN_OUT_CREDIT_SUFFIX = "-FC";
+
+    private final PayrollRepository payrollRepository;
+    private final AccountMetadataCache accountMetadataCache;
+    private final LedgerBatchRepository ledgerBatchRepository;
+    private final IdempotencyService idempotencyService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final FxRateService fxRateService;
+    private final TransferLimitService transferLimitService;
+    private final FraudScreeningService fraudScreeningService;
+    private final int chunkSize;
+
+    public PayrollService(PayrollRepository payrollRepository,
+                          AccountMetadataCache accountMetadataCache,
+                          LedgerBatchRepository ledgerBatchRepository,
+                          IdempotencyService idempotencyService,
+                          PlatformTransactionManager transactionManager,
+                          ObjectMapper objectMapper,
+                          FxRateService fxRateService,
+                          TransferLimitService transferLimitService,
+                          FraudScreeningService fraudScreeningService,
+                          @Value("${transaction.payroll.chunk-size:5000}") int chunkSize) {
+        this.payrollRepository = payrollRepository;
+        this.accountMetadataCache = accountMetadataCache;
+        this.ledgerBatchRepository = ledgerBatchRepository;
+        this.idempotencyService = idempotencyService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.fxRateService = fxRateService;
+        this.transferLimitService = transferLimitService;
+        this.fraudScreeningService = fraudScreeningService;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Pays every line that can be paid and reports the others.
+     *
+     * @throws AccountNotFoundException         if the source account does not exist
+     * @throws UnauthorizedTransactionException if the user does not own the source account
+     * @throws AccountNotActiveException        if the source account cannot send
+     */
+    public PayrollResponse execute(PayrollRequest request, String payrollCorrelationId, Long userId) {
+        AccountMetadata source = accountMetadataCache.findByIban(request.getFromIban())
+                .orElseThrow(() -> new AccountNotFoundException("Sender account not found"));
+        if (!source.isOwnedBy(userId)) {
+            throw new UnauthorizedTransactionException("User is not the owner of the source account.");
+        }
+        if (!source.canSend()) {
+            throw new AccountNotActiveException("Source account is not active.");
+        }
+
+        List<PayrollLine> lines = request.getLines();
+        List<BatchItemResult> unpaid = new ArrayList<>();
+        Money totalDebited = Money.zero(source.currencyCode());
+        int succeeded = 0;
+        int duplicates = 0;
+        for (int start = 0; start < lines.size(); start += chunkSize) {
+            int end = Math.min(start + chunkSize, lines.size());
+            ChunkResult chunk = executeChunk(request, source, start, end, payrollCorrelationId, userId);
+            totalDebited = totalDebited.plus(chunk.debited());
+            succeeded += end - start - chunk.unpaid().size();
+            for (BatchItemResult line : chunk.unpaid()) {
+                if (line.getStatus() == BatchItemStatus.DUPLICATE) {
+                    duplicates++;
+                }
+            }
+            unpaid.addAll(chunk.unpaid());
+        }
+        int failed = unpaid.size() - duplicates;
+        if (succeeded > 0) {
+            publishCompleted(new PayrollCompletedEvent(userId, payrollCorrelationId, request.getFromIban(),
+                    totalDebited.toBigDecimal(), totalDebited.currency(), succeeded, failed));
+        }
+        return new PayrollResponse(payrollCorrelationId, lines.size(), succeeded, duplicates, failed,
+                totalDebited.toBigDecimal(), unpaid);
+    }
+
+    private ChunkResult executeChunk(PayrollRequest request, AccountMetadata sourceMetadata, int start, int end,
+                                     String payrollCorrelationId, Long userId) {
+        List<String> correlationIds = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            correlationIds.add(lineCorrelationId(payrollCorrelationId, i));
+        }
+        // Looked up ahead of the transaction so that paid lines are not screened again; a concurrent retry of the
+        // same payroll fails the chunk on the idempotency keys instead of paying twice
+        Set<String> alreadyPaid = idempotencyService.findCompletedCorrelationIds(correlationIds);
+        ChunkScreening screening = screen(request, sourceMetadata, start, end, correlationIds, alreadyPaid, userId);
+        try {
+            return transactionTemplate.execute(status -> applyChunk(request, sourceMetadata, start, end,
+                    payrollCorrelationId, correlationIds, alreadyPaid, screening, userId));
+        } catch (DataAccessException e) {
+            // E.g. a lock timeout; the whole chunk was rolled back
+            logger.warn("Payroll {} chunk [{}, {}) failed and was rolled back", payrollCorrelationId, start, end, e);
+            List<BatchItemResult> failed = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                failed.add(new BatchItemResult(i, lineCorrelationId(payrollCorrelationId, i), BatchItemStatus.FAILED,
+                        "Chunk was rolled back, retry the payroll with the same correlation id"));
+            }
+            return new ChunkResult(Money.zero(sourceMetadata.currencyCode()), failed);
+        }
+    }
+
+    /**
+     * Screens the lines that are not paid yet before the chunk's transaction locks the source and the
+     * beneficiaries. Lines are debited in the source's currency, which the cached metadata already knows.
+     */
+    private ChunkScreening screen(PayrollRequest request, AccountMetadata sourceMetadata, int start, int end,
+                                  List<String> correlationIds, Set<String> alreadyPaid, Long userId) {
+        ChunkScreening screening = new ChunkScreening(fraudScreeningService, userId);
+        for (int i = start; i < end; i++) {
+            PayrollLine line = request.getLines().get(i);
+            String correlationId = correlationIds.get(i - start);
+            if (alreadyPaid.contains(correlationId)) {
+                continue;
+            }
+            Money amount;
+            try {
+                amount = Amounts.of(line.getAmount(), sourceMetadata.currencyCode());
+            } catch (InvalidAmountException e) {
+                // Reported by the chunk
+                continue;
+            }
+            screening.screen(i, correlationId, line.getToIban(), amount);
+        }
+        return screening;
+    }
+
+    private ChunkResult applyChunk(PayrollRequest request, AccountMetadata sourceMetadata, int start, int end,
+                                   String payrollCorrelationId, List<String> correlationIds, Set<String> alreadyPaid,
+                                   ChunkScreening screening, Long userId) {
+        List<PayrollLine> lines = request.getLines();
+        Set<String> ibans = new HashSet<>();
+        ibans.add(request.getFromIban());
+        for (int i = start; i < end; i++) {
+            if (!alreadyPaid.contains(correlationIds.get(i - start))) {
+                ibans.add(lines.get(i).getToIban());
+            }
+        }
+        // The source and the beneficiaries in one statement, in the IBAN order every other transfer locks in
+        Map<String, Account> accounts = new HashMap<>();
+        for (Account account : payrollRepository.lockAccounts(ibans)) {
+            accounts.put(account.getIban(), account);
+        }
+        Account source = accounts.get(request.getFromIban());
+        if (source == null || !source.getUserId().equals(userId)) {
+            throw new AccountNotFoundException("Sender account not found");
+        }
+
+        // Checks every line against what the chunk has paid out so far, then counts the total against the limits
+        List<BatchItemResult> unpaid = new ArrayList<>();
+        List<PaidLine> paid = new ArrayList<>(end - start);
+        FxRateSnapshot rates = fxRateService.current();
+        Money sourceBalance = source.balanceAmount();
+        Money debited = Money.zero(source.currencyCode());
+        for (int i = start; i < end; i++) {
+            PayrollLine line = lines.get(i);
+            String correlationId = correlationIds.get(i - start);
+            Account beneficiary = accounts.get(line.getToIban());
+            if (alreadyPaid.contains(correlationId)) {
+                unpaid.add(new BatchItemResult(i, correlationId, BatchItemStatus.DUPLICATE, "Already processed"));
+            } else if (!source.canSend()) {
+                unpaid.add(new BatchItemResult(i, correlationId, BatchItemStatus.ACCOUNT_NOT_ACTIVE, "Source account is not active."));
+            } else if (beneficiary == null) {
+                unpaid.add(new BatchItemResult(i, correlationId, BatchItemStatus.ACCOUNT_NOT_FOUND, "Receiver account not found"));
+            } else if (!beneficiary.canReceive()) {
+                unpaid.add(new BatchItemResult(i, correlationId, BatchItemStatus.ACCOUNT_NOT_ACTIVE, "Receiver account is closed."));
+            } else {
+                FxConversion conversion;
+                try {
+                    conversion = rates.convert(Amounts.of(line.getAmount(), source.currencyCode()), beneficiary.currencyCode());
+                } catch (InvalidAmountException e) {
+                    unpaid.add(new BatchItemResult(i, correlationId, BatchItemStatus.INVALID_AMOUNT, e.getMessage()));
+                    continue;
+                } catch (FxRateNotFoundException e) {
+                    unpaid.add(new BatchItemResult(i, correlationId, BatchItemStatus.FX_RATE_NOT_FOUND, e.getMessage()));
+                    continue;
+                }
+                BatchItemResult refusal = screening.refusal(i, correlationId, line.getToIban(), conversion.original());
+                if (refusal != null) {
+                    unpaid.add(refusal);
+                    continue;
+                }
+                if (sourceBalance.isLessThan(conversion.original())) {
+                    unpaid.add(new BatchItemResult(i, correlationId, BatchItemStatus.INSUFFICIENT_FUNDS, "Insufficient funds"));
+                    continue;
+                }
+                sourceBalance = sourceBalance.minus(conversion.original());
+                debited = debited.plus(conversion.original());
+                paid.add(new PaidLine(i, correlationId, line, beneficiary, conversion, screening.screening(i)));
+            }
+        }
+        if (!paid.isEmpty()) {
+            try {
+                // The chunk counts as one transfer of its total
+                transferLimitService.record(sourceMetadata, userId, debited);
+            } catch (TransferLimitExceededException e) {
+                for (PaidLine line : paid) {
+                    unpaid.add(new BatchItemResult(line.index(), line.correlationId(), BatchItemStatus.LIMIT_EXCEEDED, e.getMessage()));
+                }
+                unpaid.sort(Comparator.comparingInt(BatchItemResult::getIndex));
+                return new ChunkResult(Money.zero(source.currencyCode()), unpaid);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<TransactionLedger> ledgerEntries = new ArrayList<>(paid.size() + 1);
+        List<Outbox> outboxMessages = new ArrayList<>(paid.size());
+        Map<String, TransferResult> completed = new HashMap<>();
+        Map<Long, Account> updated = new LinkedHashMap<>();
+        if (!paid.isEmpty()) {
+            // Debited before the credits, so a source that also pays itself records its balances in the order
+            // of its ledger entries. Named after the first line it pays, which no other chunk or retry pays again.
+            source.setBalance(source.balanceAmount().minus(debited).toBigDecimal());
+            updated.put(source.getId(), source);
+            ledgerEntries.add(TransactionLedger.builder()
+                    .account(source)
+                    .amount(debited.negate().toBigDecimal())
+                    .balanceAfter(source.getBalance())
+                    .transactionType(TransactionType.DEBIT)
+                    .transactionDate(now)
+                    .correlationId(lineCorrelationId(payrollCorrelationId, paid.get(0).index()) + FAN_OUT_DEBIT_SUFFIX)
+                    .build());
+        }
+        for (PaidLine line : paid) {
+            Account beneficiary = line.beneficiary();
+            updated.put(beneficiary.getId(), beneficiary);
+            beneficiary.setBalance(beneficiary.balanceAmount().plus(line.conversion().converted()).toBigDecimal());
+            ledgerEntries.add(line.conversion().describe(TransactionLedger.builder())
+                    .account(beneficiary)
+                    .amount(line.conversion().converted().toBigDecimal())
+                    .balanceAfter(beneficiary.getBalance())
+                    .transactionType(TransactionType.CREDIT)
+                    .transactionDate(now)
+                    .correlationId(line.correlationId() + FAN_OUT_CREDIT_SUFFIX)
+                    .build());
+            outboxMessages.add(Outbox.builder()
+                    .topic("transaction-events")
+                    .payload(serialize(new TransferSuccessEvent(userId, line.line().getAmount(), line.line().getToIban())))
+                    .createdAt(now)
+                    .sent(false)
+                    .build());
+            completed.put(line.correlationId(), new TransferResult(line.correlationId(), request.getFromIban(),
+                    line.line().getToIban(), line.line().getAmount(), now, false));
+            fraudScreeningService.recordAfterCommit(line.screening());
+        }
+
+        // The accounts are locked, so balances, ledger and outbox rows all go out as plain JDBC batches
+        payrollRepository.updateBalances(new ArrayList<>(updated.values()));
+        ledgerBatchRepository.insertLedgerEntries(ledgerEntries);
+        ledgerBatchRepository.insertOutboxMessages(outboxMessages);
+        idempotencyService.recordAll(completed, userId);
+        unpaid.sort(Comparator.comparingInt(BatchItemResult::getIndex));
+        return new ChunkResult(debited, unpaid);
+    }
+
+    private void publishCompleted(PayrollCompletedEvent event) {
+        Outbox message = Outbox.builder()
+                .topic("payroll-events")
+                .payload(serialize(event))
+                .createdAt(LocalDateTime.now())
+                .sent(false)
+                .build();
+        transactionTemplate.executeWithoutResult(status -> ledgerBatchRepository.insertOutboxMessages(List.of(message)));
+    }
+
+    private String serialize(Object event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize event payload", e);
+        }
+    }
+
+    private static String lineCorrelationId(String payrollCorrelationId, int index) {
+        return payrollCorrelationId + "-" + index;
+    }
+
+    private record PaidLine(int index, String correlationId, PayrollLine line, Account beneficiary,
+                            FxConversion conversion, FraudScreening screening) {
+    }
+
+    private record ChunkResult(Money debited, List<BatchItemResult> unpaid) {
+    }
+}
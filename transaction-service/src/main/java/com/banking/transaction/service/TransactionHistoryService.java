@@ -0,0 +1,103 @@
+package com.banking.transaction.service;
+
+import com.banking.common.response.CursorPageResponse;
+import com.banking.transaction.cache.AccountMetadata;
+import com.banking.transaction.cache.AccountMetadataCache;
+import com.banking.transaction.dto.LedgerEntryResponse;
+import com.banking.transaction.exception.AccountNotFoundException;
+import com.banking.transaction.exception.InvalidCursorException;
+import com.banking.transaction.exception.UnauthorizedTransactionException;
+import com.banking.transaction.repository.TransactionLedgerRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Reads an account's ledger newest first, one keyset page at a time. The cursor is an opaque encoding of
+ * the {@code (transactionDate, id)} of the last entry on the previous page.
+ * <p>
+ * A page is filled from a date window that starts at {@code initial-window} and doubles until the page is
+ * full or the account's creation is reached, so a busy account is usually served from the newest monthly
+ * ledger partition alone.
+ */
+@Service
+public class TransactionHistoryService {
+
+    private final AccountMetadataCache accountMetadataCache;
+    private final TransactionLedgerRepository transactionLedgerRepository;
+    private final int maxPageSize;
+    private final Duration initialWindow;
+
+    public TransactionHistoryService(AccountMetadataCache accountMetadataCache,
+                                     TransactionLedgerRepository transactionLedgerRepository,
+                                     @Value("${transaction.history.max-page-size:500}") int maxPageSize,
+                                     @Value("${transaction.history.initial-window:31d}") Duration initialWindow) {
+        this.accountMetadataCache = accountMetadataCache;
+        this.transactionLedgerRepository = transactionLedgerRepository;
+        this.maxPageSize = maxPageSize;
+        this.initialWindow = initialWindow;
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<LedgerEntryResponse> getTransactions(String iban, Long userId, String cursor, int size) {
+        AccountMetadata account = accountMetadataCache.findByIban(iban)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found with IBAN: " + iban));
+        if (!account.isOwnedBy(userId)) {
+            throw new UnauthorizedTransactionException("User is not the owner of the account.");
+        }
+
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        Position position = cursor == null || cursor.isBlank() ? null : decode(cursor);
+        LocalDateTime upTo = position == null ? LocalDateTime.now() : position.transactionDate();
+        LocalDateTime floor = account.ledgerStart();
+        List<LedgerEntryResponse> rows = new ArrayList<>();
+        Duration window = initialWindow;
+        while (true) {
+            LocalDateTime from = upTo.minus(window);
+            boolean lastWindow = !from.isAfter(floor);
+            if (lastWindow) {
+                from = floor;
+            }
+            Limit limit = Limit.of(pageSize + 1 - rows.size());
+            rows.addAll(position == null
+                    ? transactionLedgerRepository.findLatestEntries(account.id(), from, limit)
+                    : transactionLedgerRepository.findEntriesBefore(account.id(), from, position.transactionDate(), position.id(), limit));
+            if (rows.size() > pageSize || lastWindow) {
+                break;
+            }
+            // Continue strictly before this window
+            position = new Position(from, Long.MIN_VALUE);
+            upTo = from;
+            window = window.multipliedBy(2);
+        }
+        return CursorPageResponse.of(rows, pageSize, TransactionHistoryService::encode);
+    }
+
+    static String encode(LedgerEntryResponse entry) {
+        String position = entry.getTransactionDate() + "|" + entry.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Position decode(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf('|');
+            return new Position(LocalDateTime.parse(position.substring(0, separator)),
+                    Long.parseLong(position.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+
+    record Position(LocalDateTime transactionDate, Long id) {
+    }
+}
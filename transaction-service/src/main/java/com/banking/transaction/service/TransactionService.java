@@ -1,80 +1,176 @@
 package com.banking.transaction.service;
 
+import com.banking.common.money.Money;
+import com.banking.transaction.cache.AccountMetadata;
+import com.banking.transaction.cache.AccountMetadataCache;
 import com.banking.transaction.dto.TransactionRequest;
+import com.banking.transaction.dto.TransferResult;
 import com.banking.transaction.dto.TransferSuccessEvent;
 import com.banking.transaction.entity.Account;
 import com.banking.transaction.entity.Outbox;
 import com.banking.transaction.entity.TransactionLedger;
 import com.banking.transaction.entity.TransactionType;
+import com.banking.transaction.exception.AccountNotActiveException;
 import com.banking.transaction.exception.AccountNotFoundException;
 import com.banking.transaction.exception.IdempotencyException;
 import com.banking.transaction.exception.InsufficientFundsException;
 import com.banking.transaction.exception.UnauthorizedTransactionException;
+import com.banking.transaction.fraud.FraudScreening;
+import com.banking.transaction.fraud.FraudScreeningService;
+import com.banking.transaction.fx.FxConversion;
+import com.banking.transaction.fx.FxRateService;
+import com.banking.transaction.idempotency.IdempotencyService;
+import com.banking.transaction.limits.TransferLimitService;
 import com.banking.transaction.repository.AccountRepository;
 import com.banking.transaction.repository.OutboxRepository;
 import com.banking.transaction.repository.TransactionLedgerRepository;
+import com.banking.transaction.timing.Stage;
+import com.banking.transaction.timing.StageTimer;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class TransactionService {
 
     private final AccountRepository accountRepository;
+    private final AccountMetadataCache accountMetadataCache;
     private final TransactionLedgerRepository transactionLedgerRepository;
     private final OutboxRepository outboxRepository;
+    private final IdempotencyService idempotencyService;
     private final ObjectMapper objectMapper;
+    private final FxRateService fxRateService;
+    private final TransferLimitService transferLimitService;
+    private final FraudScreeningService fraudScreeningService;
+    private final StageTimer stageTimer;
+    private final LockingStrategy lockingStrategy;
+    private final Timer lockWait;
 
     public TransactionService(AccountRepository accountRepository,
+                              AccountMetadataCache accountMetadataCache,
                               TransactionLedgerRepository transactionLedgerRepository,
                               OutboxRepository outboxRepository,
-                              ObjectMapper objectMapper) {
+                              IdempotencyService idempotencyService,
+                              ObjectMapper objectMapper,
+                              FxRateService fxRateService,
+                              TransferLimitService transferLimitService,
+                              FraudScreeningService fraudScreeningService,
+                              MeterRegistry meterRegistry,
+                              StageTimer stageTimer,
+                              @Value("${transaction.locking.strategy:optimistic}") LockingStrategy lockingStrategy) {
         this.accountRepository = accountRepository;
+        this.accountMetadataCache = accountMetadataCache;
         this.transactionLedgerRepository = transactionLedgerRepository;
         this.outboxRepository = outboxRepository;
+        this.idempotencyService = idempotencyService;
         this.objectMapper = objectMapper;
+        this.fxRateService = fxRateService;
+        this.transferLimitService = transferLimitService;
+        this.fraudScreeningService = fraudScreeningService;
+        this.stageTimer = stageTimer;
+        this.lockingStrategy = lockingStrategy;
+        this.lockWait = Timer.builder("transaction.locking.wait")
+                .description("Time spent acquiring row locks on both accounts of a transfer")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
+    /**
+     * Executes the transfer, or returns the original result if this correlation id was already processed
+     * for the same request.
+     */
     @Transactional
-    public void executeTransaction(TransactionRequest request, String correlationId, Long userId) {
-        if (transactionLedgerRepository.existsByCorrelationIdStartingWith(correlationId)) {
-            throw new IdempotencyException("Transaction with Correlation-ID " + correlationId + " has already been processed.");
+    public TransferResult executeTransaction(TransactionRequest request, String correlationId, Long userId) {
+        stageTimer.timeCommit(Stage.TRANSFER_COMMIT);
+        return applyTransfer(request, correlationId, userId);
+    }
+
+    /**
+     * Same as {@link #executeTransaction} but joins the caller's transaction without being transactional
+     * itself, so a rejected transfer does not mark that transaction rollback-only. Callers that apply several
+     * transfers in one transaction use this together with a savepoint per transfer.
+     */
+    public TransferResult applyTransfer(TransactionRequest request, String correlationId, Long userId) {
+        long started = stageTimer.start();
+        Optional<TransferResult> previous = idempotencyService.findCompleted(correlationId, userId);
+        stageTimer.stop(Stage.TRANSFER_IDEMPOTENCY_CHECK, started);
+        if (previous.isPresent()) {
+            return replay(previous.get(), request, correlationId);
         }
 
-        Account fromAccount = accountRepository.findByIban(request.getFromIban())
-                .orElseThrow(() -> new AccountNotFoundException("Sender account not found"));
+        // Requests that are going to be rejected are answered from cached metadata, before any row is read or locked
+        started = stageTimer.start();
+        AccountMetadata sender = checkedSender(request, userId);
+        AccountMetadata receiver = checkedReceiver(request, sender);
+        FxConversion conversion = convert(request, sender, receiver);
+        Money amount = conversion.original();
+        Money credited = conversion.converted();
+        stageTimer.stop(Stage.TRANSFER_PRECHECK, started);
+        // Before any row is locked, so that waiting for the score does not hold up other transfers
+        started = stageTimer.start();
+        FraudScreening screening = fraudScreeningService.screen(userId, request.getToIban(), amount);
+        stageTimer.stop(Stage.TRANSFER_FRAUD_SCREENING, started);
 
-        if (!fromAccount.getUserId().equals(userId)) {
-            throw new UnauthorizedTransactionException("User is not the owner of the source account.");
-        }
+        started = stageTimer.start();
+        Map<String, Account> lockedAccounts = lockingStrategy == LockingStrategy.PESSIMISTIC
+                ? lockInIbanOrder(request.getFromIban(), request.getToIban())
+                : null;
 
-        Account toAccount = accountRepository.findByIban(request.getToIban())
+        Account fromAccount = findAccount(sender, lockedAccounts)
+                .orElseThrow(() -> new AccountNotFoundException("Sender account not found"));
+        Account toAccount = findAccount(receiver, lockedAccounts)
                 .orElseThrow(() -> new AccountNotFoundException("Receiver account not found"));
+        stageTimer.stop(Stage.TRANSFER_ACCOUNT_LOOKUP, started);
+
+        // The cached status may not have caught up with a change made on another instance yet
+        checkActive(fromAccount.canSend(), toAccount.canReceive());
 
-        if (fromAccount.getBalance().compareTo(request.getAmount()) < 0) {
+        // Balances stay BigDecimal: the amounts were checked against their currencies as Money already, and
+        // converting each balance to Money and back costs more than the arithmetic it would replace
+        BigDecimal debit = amount.toBigDecimal();
+        BigDecimal credit = credited.toBigDecimal();
+        if (fromAccount.getBalance().compareTo(debit) < 0) {
             throw new InsufficientFundsException("Insufficient funds");
         }
+        started = stageTimer.start();
+        transferLimitService.record(sender, userId, amount);
+        stageTimer.stop(Stage.TRANSFER_LIMITS, started);
 
-        fromAccount.setBalance(fromAccount.getBalance().subtract(request.getAmount()));
-        toAccount.setBalance(toAccount.getBalance().add(request.getAmount()));
+        started = stageTimer.start();
+        // One after the other, so that a transfer to the same account credits the debited balance
+        BigDecimal debitedBalance = fromAccount.getBalance().subtract(debit);
+        fromAccount.setBalance(debitedBalance);
+        BigDecimal creditedBalance = toAccount.getBalance().add(credit);
+        toAccount.setBalance(creditedBalance);
 
         accountRepository.save(fromAccount);
         accountRepository.save(toAccount);
+        stageTimer.stop(Stage.TRANSFER_BALANCE_UPDATE, started);
 
-        TransactionLedger debitLedger = TransactionLedger.builder()
+        started = stageTimer.start();
+        TransactionLedger debitLedger = conversion.describe(TransactionLedger.builder())
                 .account(fromAccount)
-                .amount(request.getAmount().negate())
+                .amount(debit.negate())
+                .balanceAfter(debitedBalance)
                 .transactionType(TransactionType.DEBIT)
                 .transactionDate(LocalDateTime.now())
                 .correlationId(correlationId + "-D")
                 .build();
 
-        TransactionLedger creditLedger = TransactionLedger.builder()
+        TransactionLedger creditLedger = conversion.describe(TransactionLedger.builder())
                 .account(toAccount)
-                .amount(request.getAmount())
+                .amount(credit)
+                .balanceAfter(creditedBalance)
                 .transactionType(TransactionType.CREDIT)
                 .transactionDate(LocalDateTime.now())
                 .correlationId(correlationId + "-C")
@@ -82,7 +178,9 @@ public class TransactionService {
 
         transactionLedgerRepository.save(debitLedger);
         transactionLedgerRepository.save(creditLedger);
+        stageTimer.stop(Stage.TRANSFER_LEDGER_INSERT, started);
 
+        started = stageTimer.start();
         TransferSuccessEvent event = new TransferSuccessEvent(fromAccount.getUserId(), request.getAmount(), request.getToIban());
         try {
             Outbox outbox = Outbox.builder()
@@ -95,5 +193,97 @@ public class TransactionService {
         } catch (JsonProcessingException e) {
             throw new IllegalStateException("Failed to serialize event payload", e);
         }
+        stageTimer.stop(Stage.TRANSFER_OUTBOX_INSERT, started);
+
+        started = stageTimer.start();
+        TransferResult result = TransferResult.completed(correlationId, request);
+        idempotencyService.record(correlationId, userId, result);
+        stageTimer.stop(Stage.TRANSFER_IDEMPOTENCY_RECORD, started);
+        fraudScreeningService.recordAfterCommit(screening);
+        return result;
+    }
+
+    /**
+     * Rejects a transfer that would fail on unknown accounts, ownership, account status, an amount with more
+     * fraction digits than the sender's currency allows or a missing exchange rate, using only cached account
+     * metadata. Passing this check does not guarantee the transfer succeeds.
+     */
+    public void precheck(TransactionRequest request, Long userId) {
+        AccountMetadata sender = checkedSender(request, userId);
+        convert(request, sender, checkedReceiver(request, sender));
+    }
+
+    /**
+     * Looks up the stored result of a correlation id in the database, e.g. after a concurrent request with
+     * the same correlation id committed first.
+     */
+    @Transactional(readOnly = true)
+    public Optional<TransferResult> findProcessed(TransactionRequest request, String correlationId, Long userId) {
+        return idempotencyService.loadCompleted(correlationId, userId)
+                .map(previous -> replay(previous, request, correlationId));
+    }
+
+    /**
+     * Locks both accounts with SELECT ... FOR UPDATE, always in the same order, so that A to B and B to A
+     * transfers queue behind each other instead of deadlocking.
+     */
+    private Map<String, Account> lockInIbanOrder(String fromIban, String toIban) {
+        String first = fromIban.compareTo(toIban) <= 0 ? fromIban : toIban;
+        String second = first.equals(fromIban) ? toIban : fromIban;
+        Map<String, Account> locked = new HashMap<>(4);
+        lockWait.record(() -> {
+            accountRepository.findByIbanForUpdate(first).ifPresent(account -> locked.put(first, account));
+            if (!second.equals(first)) {
+                accountRepository.findByIbanForUpdate(second).ifPresent(account -> locked.put(second, account));
+            }
+        });
+        return locked;
+    }
+
+    private AccountMetadata checkedSender(TransactionRequest request, Long userId) {
+        AccountMetadata sender = accountMetadataCache.findByIban(request.getFromIban())
+                .orElseThrow(() -> new AccountNotFoundException("Sender account not found"));
+        if (!sender.isOwnedBy(userId)) {
+            throw new UnauthorizedTransactionException("User is not the owner of the source account.");
+        }
+        return sender;
+    }
+
+    private AccountMetadata checkedReceiver(TransactionRequest request, AccountMetadata sender) {
+        AccountMetadata receiver = accountMetadataCache.findByIban(request.getToIban())
+                .orElseThrow(() -> new AccountNotFoundException("Receiver account not found"));
+        checkActive(sender.canSend(), receiver.canReceive());
+        return receiver;
+    }
+
+    /**
+     * The amount in the sender's currency and what it buys in the receiver's. Account currencies never change,
+     * so the cached ones are used.
+     */
+    private FxConversion convert(TransactionRequest request, AccountMetadata sender, AccountMetadata receiver) {
+        Money amount = Amounts.of(request.getAmount(), sender.currencyCode());
+        return fxRateService.current().convert(amount, receiver.currencyCode());
+    }
+
+    private Optional<Account> findAccount(AccountMetadata account, Map<String, Account> lockedAccounts) {
+        return lockedAccounts == null
+                ? accountRepository.findById(account.id())
+                : Optional.ofNullable(lockedAccounts.get(account.iban()));
+    }
+
+    private static void checkActive(boolean senderCanSend, boolean receiverCanReceive) {
+        if (!senderCanSend) {
+            throw new AccountNotActiveException("Source account is not active.");
+        }
+        if (!receiverCanReceive) {
+            throw new AccountNotActiveException("Receiver account is closed.");
+        }
+    }
+
+    private static TransferResult replay(TransferResult previous, TransactionRequest request, String correlationId) {
+        if (!previous.matches(request)) {
+            throw new IdempotencyException("Correlation-ID " + correlationId + " has already been used for a different transaction.");
+        }
+        return previous;
     }
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.banking.transaction.threading;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lets at most {@code max-concurrent-connections} callers hold a connection at a time and queues the rest in
+ * arrival order.
+ * <p>
+ * With virtual threads there is no request thread pool limiting how many callers reach the connection pool,
+ * so thousands of them can end up waiting inside Hikari, each with its own {@code connectionTimeout}, and
+ * time out together under a burst. Queueing them here instead keeps the waiting cheap, makes the queue
+ * visible as a metric and fails a caller with a transient error once it has waited {@code admission-timeout}.
+ * <p>
+ * A caller holding a permit gets its connection from Hikari right away, so this queue is the only place it
+ * waits. On platform threads the same callers wait in Tomcat's accept backlog, which has no timeout, and only
+ * the few that got a request thread wait inside Hikari. {@code admission-timeout} therefore defaults to well
+ * above Hikari's {@code connection-timeout}: a burst that platform threads would have queued is not shed here.
+ */
+public class ConnectionAdmissionDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final Duration timeout;
+    private final Counter rejected;
+
+    public ConnectionAdmissionDataSource(DataSource target, int maxConnections, Duration timeout, MeterRegistry meterRegistry) {
+        super(target);
+        this.permits = new Semaphore(maxConnections, true);
+        this.timeout = timeout;
+        this.rejected = Counter.builder("transaction.datasource.admission.rejected")
+                .description("Connection requests that gave up waiting for a permit")
+                .register(meterRegistry);
+        Gauge.builder("transaction.datasource.admission.waiting", permits, Semaphore::getQueueLength)
+                .description("Callers queued for a database connection permit")
+                .register(meterRegistry);
+        Gauge.builder("transaction.datasource.admission.in-use", permits, semaphore -> maxConnections - semaphore.availablePermits())
+                .description("Connection permits currently held")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return admitted(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return admitted(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                rejected.increment();
+                throw new SQLTransientConnectionException("No database connection became available within " + timeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        }
+    }
+
+    /**
+     * Wraps the connection so that closing it, however often, gives the permit back exactly once.
+     */
+    private Connection admitted(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    } finally {
+                        if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                });
+    }
+}
@@ -0,0 +1,82 @@
+package com.banking.transaction.threading;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier, typically by blocking inside a
+ * {@code synchronized} block or a native frame, for longer than {@code pinned-threshold}. Every occurrence
+ * is counted; each distinct call site is logged once with its stack, which is where a {@code synchronized}
+ * needs to become a {@link java.util.concurrent.locks.ReentrantLock}.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class PinnedThreadMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final Duration threshold;
+    private final Counter pinned;
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+    private RecordingStream recording;
+
+    public PinnedThreadMonitor(MeterRegistry meterRegistry,
+                               @Value("${transaction.threads.pinned-threshold:20ms}") Duration threshold) {
+        this.threshold = threshold;
+        this.pinned = Counter.builder("transaction.threads.pinned")
+                .description("Virtual threads pinned to their carrier for longer than the threshold")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::onPinned);
+        recording.startAsync();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+        if (event.getStackTrace() == null) {
+            return;
+        }
+        String stack = event.getStackTrace().getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .map(PinnedThreadMonitor::describe)
+                .collect(Collectors.joining("\n\tat "));
+        if (reportedSites.add(stack)) {
+            logger.warn("Virtual thread pinned for {} ms\n\tat {}", event.getDuration().toMillis(), stack);
+        }
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
@@ -0,0 +1,38 @@
+package com.banking.transaction.threading;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Extra wiring for {@code spring.threads.virtual.enabled=true}. Spring Boot itself moves Tomcat, the
+ * {@code @Scheduled} jobs, the application task executor and the Kafka listener containers onto virtual
+ * threads; this puts {@link ConnectionAdmissionDataSource} in front of the application DataSource.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfiguration {
+
+    @Bean
+    static BeanPostProcessor connectionAdmission(ObjectProvider<MeterRegistry> meterRegistry,
+                                                 @Value("${transaction.datasource.max-concurrent-connections:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConnections,
+                                                 @Value("${transaction.datasource.admission-timeout:2m}") Duration timeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource) {
+                    return new ConnectionAdmissionDataSource(dataSource, maxConnections, timeout, meterRegistry.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package com.banking.transaction.timing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds a {@value #SERVER_TIMING_HEADER} header with the stage durations of the request, just before the body
+ * is written and after the transaction has committed. The gateway passes it on to the client.
+ */
+@ControllerAdvice
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private final boolean enabled;
+
+    public ServerTimingAdvice(@Value("${transaction.timing.enabled:false}") boolean timingEnabled,
+                              @Value("${transaction.timing.server-timing:false}") boolean serverTiming) {
+        this.enabled = timingEnabled && serverTiming;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return enabled;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        StageTimings timings = StageTimings.current();
+        if (timings != null) {
+            response.getHeaders().set(SERVER_TIMING_HEADER, timings.toHeaderValue());
+        }
+        return body;
+    }
+}
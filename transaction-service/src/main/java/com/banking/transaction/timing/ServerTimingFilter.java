@@ -0,0 +1,41 @@
+package com.banking.transaction.timing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Collects the stage durations of each request so that {@link ServerTimingAdvice} can return them. Transfers
+ * accepted into the intake run later on a worker and only report the time it took to accept them.
+ */
+@Component
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+
+    public ServerTimingFilter(@Value("${transaction.timing.enabled:false}") boolean timingEnabled,
+                              @Value("${transaction.timing.server-timing:false}") boolean serverTiming) {
+        this.enabled = timingEnabled && serverTiming;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        StageTimings.bind();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            StageTimings.unbind();
+        }
+    }
+}
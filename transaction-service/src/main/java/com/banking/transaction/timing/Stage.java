@@ -0,0 +1,43 @@
+package com.banking.transaction.timing;
+
+/**
+ * The stages of a transfer and of a deposit that {@link StageTimer} times. Balance updates, ledger and outbox
+ * rows are only handed to Hibernate in their stages; the SQL for them runs when the transaction is flushed,
+ * which {@code commit} covers.
+ */
+public enum Stage {
+
+    TRANSFER_IDEMPOTENCY_CHECK("transfer", "idempotency-check"),
+    // Account metadata from the cache and the currency conversion
+    TRANSFER_PRECHECK("transfer", "precheck"),
+    TRANSFER_FRAUD_SCREENING("transfer", "fraud-screening"),
+    // Loading, or with pessimistic locking locking, both accounts
+    TRANSFER_ACCOUNT_LOOKUP("transfer", "account-lookup"),
+    TRANSFER_LIMITS("transfer", "limits"),
+    TRANSFER_BALANCE_UPDATE("transfer", "balance-update"),
+    TRANSFER_LEDGER_INSERT("transfer", "ledger-insert"),
+    TRANSFER_OUTBOX_INSERT("transfer", "outbox-insert"),
+    TRANSFER_IDEMPOTENCY_RECORD("transfer", "idempotency-record"),
+    TRANSFER_COMMIT("transfer", "commit"),
+
+    DEPOSIT_ACCOUNT_LOOKUP("deposit", "account-lookup"),
+    DEPOSIT_BALANCE_UPDATE("deposit", "balance-update"),
+    DEPOSIT_LEDGER_INSERT("deposit", "ledger-insert"),
+    DEPOSIT_COMMIT("deposit", "commit");
+
+    private final String operation;
+    private final String stageName;
+
+    Stage(String operation, String stageName) {
+        this.operation = operation;
+        this.stageName = stageName;
+    }
+
+    public String operation() {
+        return operation;
+    }
+
+    public String stageName() {
+        return stageName;
+    }
+}
@@ -0,0 +1,106 @@
+package com.banking.transaction.timing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the {@link Stage}s of transfers and deposits into {@code transaction.stage} timers tagged with the
+ * operation and stage. The timers publish histograms, which Prometheus scrapes with the trace id of a recent
+ * sample as exemplar; each duration is also tagged on the current span as {@code stage.<name>.us}, so a slow
+ * request found in the trace shows where its time went. With the header enabled the durations also go into
+ * the request's {@link StageTimings}.
+ * <p>
+ * Disabled, {@link #start} and {@link #stop} only check a flag:
+ * <pre>{@code
+ * long started = stageTimer.start();
+ * ...
+ * stageTimer.stop(Stage.TRANSFER_LIMITS, started);
+ * }</pre>
+ */
+@Component
+public class StageTimer {
+
+    private final boolean enabled;
+    private final Tracer tracer;
+    private final Map<Stage, Timer> timers = new EnumMap<>(Stage.class);
+
+    public StageTimer(MeterRegistry meterRegistry,
+                      @Nullable Tracer tracer,
+                      @Value("${transaction.timing.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+        this.tracer = tracer;
+        if (enabled) {
+            for (Stage stage : Stage.values()) {
+                timers.put(stage, Timer.builder("transaction.stage")
+                        .description("Time spent in one stage of a transfer or deposit")
+                        .tag("operation", stage.operation())
+                        .tag("stage", stage.stageName())
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the start of a stage, to pass to {@link #stop}
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    public void stop(Stage stage, long started) {
+        if (enabled) {
+            record(stage, System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * Times the flush and commit of the current transaction as {@code stage}, from just before Spring commits
+     * it until it has committed. Transactions that roll back are not recorded.
+     */
+    public void timeCommit(Stage stage) {
+        if (!enabled || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long started;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                started = System.nanoTime();
+            }
+
+            @Override
+            public void afterCommit() {
+                record(stage, System.nanoTime() - started);
+            }
+        });
+    }
+
+    private void record(Stage stage, long durationNanos) {
+        timers.get(stage).record(durationNanos, TimeUnit.NANOSECONDS);
+        StageTimings timings = StageTimings.current();
+        if (timings != null) {
+            timings.add(stage, durationNanos);
+        }
+        Span span = tracer != null ? tracer.currentSpan() : null;
+        if (span != null) {
+            span.tag("stage." + stage.stageName() + ".us", TimeUnit.NANOSECONDS.toMicros(durationNanos));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.banking.transaction.timing;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * The stage durations of the current request, collected for the {@code Server-Timing} header. Bound to the
+ * request thread by {@link ServerTimingFilter} only when the header is enabled; otherwise there is nothing to
+ * collect into and {@link StageTimer} only updates its timers.
+ */
+public final class StageTimings {
+
+    private static final ThreadLocal<StageTimings> CURRENT = new ThreadLocal<>();
+
+    private final long startedAt = System.nanoTime();
+    // Summed, so that a retried transfer reports the time all its attempts spent in a stage
+    private final long[] nanos = new long[Stage.values().length];
+    private final boolean[] recorded = new boolean[Stage.values().length];
+
+    static StageTimings current() {
+        return CURRENT.get();
+    }
+
+    static StageTimings bind() {
+        StageTimings timings = new StageTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Lets work handed to another thread, e.g. a transfer lane, record into the timings of the request waiting
+     * for it.
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> work) {
+        StageTimings timings = CURRENT.get();
+        if (timings == null) {
+            return work;
+        }
+        return () -> {
+            StageTimings previous = CURRENT.get();
+            CURRENT.set(timings);
+            try {
+                return work.get();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    void add(Stage stage, long durationNanos) {
+        nanos[stage.ordinal()] += durationNanos;
+        recorded[stage.ordinal()] = true;
+    }
+
+    /**
+     * E.g. {@code idempotency-check;dur=0.041, precheck;dur=0.012, commit;dur=2.310, total;dur=3.052}, in
+     * milliseconds.
+     */
+    String toHeaderValue() {
+        StringBuilder value = new StringBuilder();
+        for (Stage stage : Stage.values()) {
+            if (recorded[stage.ordinal()]) {
+                appendMetric(value, stage.stageName(), nanos[stage.ordinal()]);
+            }
+        }
+        appendMetric(value, "total", System.nanoTime() - startedAt);
+        return value.toString();
+    }
+
+    private static void appendMetric(StringBuilder value, String name, long durationNanos) {
+        if (!value.isEmpty()) {
+            value.append(", ");
+        }
+        value.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.3f", durationNanos / 1_000_000.0));
+    }
+}
@@ -0,0 +1,18 @@
+-- Moves account, transaction_ledger and outbox from IDENTITY ids to the pooled-lo sequences used by the entities.
+--
+-- With ddl-auto=update, Hibernate creates the sequences and IdSequenceAligner moves them past the existing ids
+-- on startup, so nothing has to be run by hand. Use this script when the schema is managed outside the
+-- application. The last step is optional and should only run once no instance that still uses IDENTITY is left.
+
+CREATE SEQUENCE IF NOT EXISTS account_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS transaction_ledger_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS outbox_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('account_seq', GREATEST((SELECT COALESCE(MAX(id), 0) + 1 FROM account), nextval('account_seq')), false);
+SELECT setval('transaction_ledger_seq', GREATEST((SELECT COALESCE(MAX(id), 0) + 1 FROM transaction_ledger), nextval('transaction_ledger_seq')), false);
+SELECT setval('outbox_seq', GREATEST((SELECT COALESCE(MAX(id), 0) + 1 FROM outbox), nextval('outbox_seq')), false);
+
+-- Optional: stop the database from generating ids on its own.
+-- ALTER TABLE account ALTER COLUMN id DROP IDENTITY IF EXISTS;
+-- ALTER TABLE transaction_ledger ALTER COLUMN id DROP IDENTITY IF EXISTS;
+-- ALTER TABLE outbox ALTER COLUMN id DROP IDENTITY IF EXISTS;
@@ -0,0 +1,50 @@
+-- Turns transaction_ledger into a table range-partitioned by month on transaction_date.
+--
+-- LedgerPartitionManager runs this on startup while the ledger is still empty, so a fresh database needs
+-- nothing by hand. An existing ledger becomes the partition transaction_ledger_legacy, covering everything
+-- up to the end of the current month; attaching it scans the table once under an exclusive lock, so run the
+-- script in a maintenance window. The monthly partitions after it are created by LedgerPartitionManager.
+-- Safe to run more than once and from several instances at once.
+
+DO $$
+DECLARE
+    legacy_bound timestamp;
+    unique_constraint record;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('transaction_ledger partitioning'));
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'transaction_ledger'::regclass) THEN
+        RETURN;
+    END IF;
+
+    ALTER TABLE transaction_ledger RENAME TO transaction_ledger_legacy;
+    ALTER INDEX IF EXISTS transaction_ledger_pkey RENAME TO transaction_ledger_legacy_pkey;
+    ALTER INDEX IF EXISTS idx_transaction_ledger_account_date RENAME TO idx_transaction_ledger_legacy_account_date;
+    -- Unique constraints would have to include transaction_date; correlation ids are guarded by idempotency_key
+    FOR unique_constraint IN
+        SELECT conname FROM pg_constraint WHERE conrelid = 'transaction_ledger_legacy'::regclass AND contype = 'u'
+    LOOP
+        EXECUTE format('ALTER TABLE transaction_ledger_legacy DROP CONSTRAINT %I', unique_constraint.conname);
+    END LOOP;
+
+    CREATE TABLE transaction_ledger (LIKE transaction_ledger_legacy INCLUDING DEFAULTS INCLUDING STORAGE)
+        PARTITION BY RANGE (transaction_date);
+    ALTER TABLE transaction_ledger ADD CONSTRAINT transaction_ledger_pkey PRIMARY KEY (id, transaction_date);
+    ALTER TABLE transaction_ledger ADD FOREIGN KEY (account_id) REFERENCES account (id);
+    CREATE INDEX idx_transaction_ledger_account_date ON transaction_ledger (account_id, transaction_date, id);
+
+    IF NOT EXISTS (SELECT 1 FROM transaction_ledger_legacy) THEN
+        DROP TABLE transaction_ledger_legacy;
+        RETURN;
+    END IF;
+
+    -- A partition needs the parent's primary key, which has to include the partition column
+    ALTER TABLE transaction_ledger_legacy
+        DROP CONSTRAINT IF EXISTS transaction_ledger_legacy_pkey,
+        ADD CONSTRAINT transaction_ledger_legacy_pkey PRIMARY KEY (id, transaction_date);
+    SELECT date_trunc('month', GREATEST(MAX(transaction_date), localtimestamp)) + interval '1 month'
+    INTO legacy_bound
+    FROM transaction_ledger_legacy;
+    EXECUTE format('ALTER TABLE transaction_ledger ATTACH PARTITION transaction_ledger_legacy FOR VALUES FROM (MINVALUE) TO (%L)',
+                   legacy_bound);
+END
+$$;
@@ -0,0 +1,20 @@
+-- Widens the money columns from numeric(38,2) to numeric(38,3), so amounts in currencies with three minor
+-- digits (KWD, BHD, JOD, OMR, TND) are stored without rounding.
+--
+-- MoneyScaleMigrator does the same on startup. Changing the scale rewrites each table under an exclusive
+-- lock, so on a large ledger run this script in a maintenance window before deploying; startup then finds
+-- nothing left to widen. Altering the ledger also widens its partitions. Safe to run more than once.
+
+ALTER TABLE account ALTER COLUMN balance TYPE numeric(38,3);
+
+ALTER TABLE transaction_ledger
+    ALTER COLUMN amount TYPE numeric(38,3),
+    ALTER COLUMN balance_after TYPE numeric(38,3),
+    ALTER COLUMN original_amount TYPE numeric(38,3),
+    ALTER COLUMN converted_amount TYPE numeric(38,3);
+
+ALTER TABLE transfer_intake ALTER COLUMN amount TYPE numeric(38,3);
+
+ALTER TABLE scheduled_transfer ALTER COLUMN amount TYPE numeric(38,3);
+
+ALTER TABLE balance_checkpoint ALTER COLUMN balance TYPE numeric(38,3);
@@ -0,0 +1,107 @@
+package com.banking.transaction.benchmark;
+
+import com.banking.transaction.dto.AccountCreateRequest;
+import com.banking.transaction.dto.BatchItemResult;
+import com.banking.transaction.dto.BatchItemStatus;
+import com.banking.transaction.dto.DepositRequest;
+import com.banking.transaction.dto.TransactionRequest;
+import com.banking.transaction.entity.Account;
+import com.banking.transaction.service.AccountService;
+import com.banking.transaction.service.BatchTransactionService;
+import com.banking.transaction.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the single-transfer path with the batch endpoint's service against a real PostgreSQL database.
+ * Skipped unless a database is given, e.g.
+ * {@code mvn -pl transaction-service test -Dtest=BatchTransferBenchmarkTest -Dbenchmark.datasource.url=jdbc:postgresql://localhost:5432/banking}
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@EnabledIfSystemProperty(named = "benchmark.datasource.url", matches = ".+")
+class BatchTransferBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchTransferBenchmarkTest.class);
+
+    private static final int ACCOUNTS = 200;
+    private static final int TRANSFERS = Integer.getInteger("benchmark.transfers", 5_000);
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BatchTransactionService batchTransactionService;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("benchmark.datasource.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("benchmark.datasource.username", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getProperty("benchmark.datasource.password", "password"));
+    }
+
+    @Test
+    void batchPath_ShouldBeAtLeastTenTimesFasterThanSingleTransfers() {
+        Long userId = 900_000L + (System.nanoTime() % 100_000);
+        List<TransactionRequest> transfers = prepareTransfers(userId);
+
+        long singleStart = System.nanoTime();
+        for (TransactionRequest transfer : transfers) {
+            transactionService.executeTransaction(transfer, "bench-single-" + UUID.randomUUID(), userId);
+        }
+        double singleSeconds = (System.nanoTime() - singleStart) / 1e9;
+
+        long batchStart = System.nanoTime();
+        List<BatchItemResult> results = batchTransactionService.executeBatch(transfers, "bench-batch-" + UUID.randomUUID(), userId);
+        double batchSeconds = (System.nanoTime() - batchStart) / 1e9;
+
+        double singleRate = TRANSFERS / singleSeconds;
+        double batchRate = TRANSFERS / batchSeconds;
+        logger.info("single: {} transfers in {} ms ({}/s)", TRANSFERS, Math.round(singleSeconds * 1000), Math.round(singleRate));
+        logger.info("batch:  {} transfers in {} ms ({}/s), speed-up {}x", TRANSFERS, Math.round(batchSeconds * 1000), Math.round(batchRate),
+                Math.round(batchRate / singleRate));
+
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == BatchItemStatus.SUCCESS));
+        assertTrue(batchRate >= 10 * singleRate, "Batch path should be at least an order of magnitude faster");
+    }
+
+    private List<TransactionRequest> prepareTransfers(Long userId) {
+        List<Account> sources = new ArrayList<>();
+        List<Account> targets = new ArrayList<>();
+        AccountCreateRequest createRequest = new AccountCreateRequest();
+        createRequest.setCurrency("TRY");
+        DepositRequest deposit = new DepositRequest();
+        deposit.setAmount(new BigDecimal("1000000.00"));
+        for (int i = 0; i < ACCOUNTS; i++) {
+            Account source = accountService.createAccount(createRequest, userId);
+            accountService.depositToAccount(source.getIban(), deposit);
+            sources.add(source);
+            targets.add(accountService.createAccount(createRequest, userId + 1));
+        }
+
+        List<TransactionRequest> transfers = new ArrayList<>(TRANSFERS);
+        for (int i = 0; i < TRANSFERS; i++) {
+            TransactionRequest request = new TransactionRequest();
+            request.setFromIban(sources.get(i % ACCOUNTS).getIban());
+            request.setToIban(targets.get((i * 7) % ACCOUNTS).getIban());
+            request.setAmount(new BigDecimal("1.00"));
+            transfers.add(request);
+        }
+        return transfers;
+    }
+}
@@ -0,0 +1,173 @@
+package com.banking.transaction.benchmark;
+
+import com.banking.transaction.dto.AccountCreateRequest;
+import com.banking.transaction.dto.DepositRequest;
+import com.banking.transaction.dto.TransactionRequest;
+import com.banking.transaction.entity.Account;
+import com.banking.transaction.exception.InsufficientFundsException;
+import com.banking.transaction.execution.TransferExecutionService;
+import com.banking.transaction.repository.AccountRepository;
+import com.banking.transaction.service.AccountService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs independent transfers from many threads, once committing each transfer on its own and once with group
+ * commit, and logs throughput together with the group size and queueing latency histograms. Every tenth
+ * transfer overdraws its account, so rejected transfers are rolled back to their savepoint inside a group.
+ * Skipped unless a database is given, e.g.
+ * {@code mvn -pl transaction-service test -Dtest=GroupCommitBenchmarkTest -Dbenchmark.datasource.url=jdbc:postgresql://localhost:5432/banking}
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@EnabledIfSystemProperty(named = "benchmark.datasource.url", matches = ".+")
+@Import(GroupCommitBenchmarkTest.GroupCommitRun.class)
+class GroupCommitBenchmarkTest {
+
+    private static final int THREADS = Integer.getInteger("benchmark.group-commit.threads", 64);
+    private static final int TRANSFERS = Integer.getInteger("benchmark.transfers", 5_000);
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("benchmark.datasource.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("benchmark.datasource.username", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getProperty("benchmark.datasource.password", "password"));
+    }
+
+    @Nested
+    @TestPropertySource(properties = "transaction.execution.mode=direct")
+    class Direct {
+
+        @Autowired
+        private GroupCommitRun run;
+
+        @Test
+        void independentTransfers_ShouldAllCompleteWithoutLosingMoney() throws Exception {
+            run.execute("direct");
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = "transaction.execution.mode=group-commit")
+    class GroupCommit {
+
+        @Autowired
+        private GroupCommitRun run;
+
+        @Test
+        void independentTransfers_ShouldAllCompleteWithoutLosingMoney() throws Exception {
+            run.execute("group-commit");
+        }
+    }
+
+    static class GroupCommitRun {
+
+        private static final Logger logger = LoggerFactory.getLogger(GroupCommitBenchmarkTest.class);
+
+        @Autowired
+        private AccountService accountService;
+
+        @Autowired
+        private AccountRepository accountRepository;
+
+        @Autowired
+        private TransferExecutionService transferExecutionService;
+
+        @Autowired
+        private MeterRegistry meterRegistry;
+
+        void execute(String mode) throws Exception {
+            Long userId = 900_000L + (System.nanoTime() % 100_000);
+            List<String> ibans = createAccounts(userId);
+            BigDecimal totalBefore = totalBalance(ibans);
+            AtomicInteger rejected = new AtomicInteger();
+            AtomicInteger failed = new AtomicInteger();
+
+            ExecutorService callers = Executors.newFixedThreadPool(THREADS);
+            long start = System.nanoTime();
+            try {
+                List<Future<?>> futures = new ArrayList<>(TRANSFERS);
+                for (int i = 0; i < TRANSFERS; i++) {
+                    int transfer = i;
+                    futures.add(callers.submit(() -> {
+                        // Each caller thread owns its own pair of accounts, so transfers never conflict
+                        int pair = (int) (Thread.currentThread().getId() % THREADS);
+                        TransactionRequest request = new TransactionRequest();
+                        request.setFromIban(ibans.get(2 * pair));
+                        request.setToIban(ibans.get(2 * pair + 1));
+                        request.setAmount(transfer % 10 == 0 ? new BigDecimal("1000000000.00") : new BigDecimal("1.00"));
+                        try {
+                            transferExecutionService.execute(request, "bench-group-" + UUID.randomUUID(), userId);
+                        } catch (InsufficientFundsException e) {
+                            rejected.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            failed.incrementAndGet();
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get(5, TimeUnit.MINUTES);
+                }
+            } finally {
+                callers.shutdownNow();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            logger.info("{}: {} transfers with {} threads in {} ms ({}/s), {} rejected, {} failed",
+                    mode, TRANSFERS, THREADS, Math.round(seconds * 1000), Math.round(TRANSFERS / seconds), rejected.get(), failed.get());
+            DistributionSummary groupSize = meterRegistry.find("transaction.group-commit.size").summary();
+            Timer queueWait = meterRegistry.find("transaction.group-commit.wait").timer();
+            if (groupSize != null && queueWait != null) {
+                logger.info("{}: {} groups, mean size {}, max {}; queue wait mean {} us max {} us",
+                        mode, groupSize.count(), Math.round(groupSize.mean()), Math.round(groupSize.max()),
+                        Math.round(queueWait.mean(TimeUnit.MICROSECONDS)), Math.round(queueWait.max(TimeUnit.MICROSECONDS)));
+            }
+
+            assertEquals(0, failed.get(), "Transfers must not fail");
+            assertEquals(0, totalBefore.compareTo(totalBalance(ibans)), "Transfers must not create or lose money");
+        }
+
+        private List<String> createAccounts(Long userId) {
+            AccountCreateRequest createRequest = new AccountCreateRequest();
+            createRequest.setCurrency("TRY");
+            DepositRequest deposit = new DepositRequest();
+            deposit.setAmount(new BigDecimal("1000000.00"));
+            List<String> ibans = new ArrayList<>(2 * THREADS);
+            for (int i = 0; i < 2 * THREADS; i++) {
+                Account account = accountService.createAccount(createRequest, userId);
+                accountService.depositToAccount(account.getIban(), deposit);
+                ibans.add(account.getIban());
+            }
+            return ibans;
+        }
+
+        private BigDecimal totalBalance(List<String> ibans) {
+            return accountRepository.findAllByIbanIn(ibans).stream()
+                    .map(Account::getBalance)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        }
+    }
+}
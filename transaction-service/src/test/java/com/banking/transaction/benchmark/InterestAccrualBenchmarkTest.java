@@ -0,0 +1,128 @@
+package com.banking.transaction.benchmark;
+
+import com.banking.transaction.interest.AccrualProgress;
+import com.banking.transaction.interest.InterestAccrualService;
+import com.banking.transaction.reconciliation.LedgerReconciliationService;
+import com.banking.transaction.reconciliation.ReconciliationReport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Opens synthetic accounts, accrues a day of interest on every account while logging the progress, then
+ * throws away half of the run's checkpoints as a crash would and checks that resuming credits nobody twice
+ * and that the ledger still reconciles. Skipped unless a database is given, e.g.
+ * {@code mvn -pl transaction-service test -Dtest=InterestAccrualBenchmarkTest -Dbenchmark.datasource.url=jdbc:postgresql://localhost:5432/banking}
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "transaction.interest.annual-rates.TRY=0.365",
+        "transaction.reconciliation.max-reported-discrepancies=1000000"
+})
+@EnabledIfSystemProperty(named = "benchmark.datasource.url", matches = ".+")
+class InterestAccrualBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(InterestAccrualBenchmarkTest.class);
+
+    private static final long ACCOUNTS = Long.getLong("benchmark.interest.accounts", 200_000);
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("benchmark.datasource.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("benchmark.datasource.username", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getProperty("benchmark.datasource.password", "password"));
+    }
+
+    @Autowired
+    private InterestAccrualService interestAccrualService;
+
+    @Autowired
+    private LedgerReconciliationService reconciliationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long firstAccountId;
+
+    @BeforeEach
+    void openAccounts() {
+        // Takes ids past everything the sequences have handed out, including blocks Hibernate is still using
+        firstAccountId = jdbcTemplate.queryForObject("SELECT nextval('account_seq')", Long.class) + 50;
+        jdbcTemplate.queryForObject("SELECT setval('account_seq', ?)", Long.class, firstAccountId + ACCOUNTS + 50);
+        long firstLedgerId = jdbcTemplate.queryForObject("SELECT nextval('transaction_ledger_seq')", Long.class) + 50;
+        jdbcTemplate.queryForObject("SELECT setval('transaction_ledger_seq', ?)", Long.class, firstLedgerId + ACCOUNTS + 50);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO account (id, iban, balance, currency, user_id, status, created_at, version) "
+                        + "SELECT ? + g, 'TRBENCH' || (? + g), 1000.00, 'TRY', 500000 + g % 1000, 'ACTIVE', ?, 0 "
+                        + "FROM generate_series(0, ?::bigint - 1) g",
+                firstAccountId, firstAccountId, now, ACCOUNTS);
+        jdbcTemplate.update("INSERT INTO transaction_ledger (id, account_id, amount, balance_after, transaction_type, "
+                        + "transaction_date, correlation_id) "
+                        + "SELECT ? + g, ? + g, 1000.00, 1000.00, 'CREDIT', ?, 'deposit-bench-' || (? + g) "
+                        + "FROM generate_series(0, ?::bigint - 1) g",
+                firstLedgerId, firstAccountId, now, firstAccountId, ACCOUNTS);
+        jdbcTemplate.execute("ANALYZE account");
+    }
+
+    @AfterEach
+    void closeAccounts() {
+        jdbcTemplate.update("DELETE FROM transaction_ledger WHERE account_id >= ? AND account_id < ?", firstAccountId, firstAccountId + ACCOUNTS);
+        jdbcTemplate.update("DELETE FROM account WHERE id >= ? AND id < ?", firstAccountId, firstAccountId + ACCOUNTS);
+    }
+
+    @Test
+    void accrual_ShouldResumeWithoutCreditingTwiceAndKeepTheLedgerBalanced() throws InterruptedException {
+        // A day none of the accounts has been accrued for yet
+        LocalDate day = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(max(last_interest_date) + 1, CURRENT_DATE) FROM account", Date.class).toLocalDate();
+
+        assertTrue(interestAccrualService.startAccrual(day));
+        AccrualProgress progress;
+        do {
+            Thread.sleep(1000);
+            progress = interestAccrualService.progress();
+            if (progress != null) {
+                logger.info("interest {}: {} {}/{} chunks, {} accounts, {} accounts/s", day, progress.status(),
+                        progress.completedChunks(), progress.totalChunks(), progress.accountsCredited(),
+                        Math.round(progress.accountsPerSecond()));
+            }
+        } while (progress == null || progress.status() == AccrualProgress.Status.RUNNING);
+
+        assertEquals(AccrualProgress.Status.COMPLETED, progress.status());
+        assertTrue(progress.accountsCredited() >= ACCOUNTS);
+        assertEquals(ACCOUNTS, jdbcTemplate.queryForObject("SELECT count(*) FROM account WHERE id >= ? AND id < ? AND balance = 1001.00",
+                Long.class, firstAccountId, firstAccountId + ACCOUNTS));
+
+        // As if the instance had died halfway through
+        jdbcTemplate.update("UPDATE interest_accrual_run SET completed_at = NULL WHERE business_date = ?", Date.valueOf(day));
+        jdbcTemplate.update("DELETE FROM interest_accrual_chunk WHERE business_date = ? AND chunk_start >= ?",
+                Date.valueOf(day), firstAccountId + ACCOUNTS / 2);
+        AccrualProgress resumed = interestAccrualService.accrue(day).orElseThrow();
+
+        assertEquals(AccrualProgress.Status.COMPLETED, resumed.status());
+        assertTrue(resumed.resumedChunks() > 0);
+        assertEquals(0, resumed.accountsCredited());
+
+        ReconciliationReport report = reconciliationService.reconcile().orElseThrow();
+        assertEquals(0, report.unpairedEntries());
+        assertTrue(report.discrepancies().stream().noneMatch(discrepancy -> discrepancy.accountId() != null
+                && discrepancy.accountId() >= firstAccountId && discrepancy.accountId() < firstAccountId + ACCOUNTS));
+    }
+}
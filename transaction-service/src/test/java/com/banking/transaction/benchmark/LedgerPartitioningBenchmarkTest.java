@@ -0,0 +1,161 @@
+package com.banking.transaction.benchmark;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Loads the same synthetic ledger into a plain and a monthly partitioned table and compares single-row insert
+ * latency and history page latency, using the date-bounded queries of {@code TransactionLedgerRepository}.
+ * The default of two million rows finishes in a few minutes; the numbers that matter come from
+ * {@code -Dbenchmark.ledger.rows=100000000}, which needs roughly 25 GB of disk. Skipped unless a database is
+ * given, e.g.
+ * {@code mvn -pl transaction-service test -Dtest=LedgerPartitioningBenchmarkTest -Dbenchmark.datasource.url=jdbc:postgresql://localhost:5432/banking}
+ */
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark.datasource.url", matches = ".+")
+class LedgerPartitioningBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerPartitioningBenchmarkTest.class);
+
+    private static final long ROWS = Long.getLong("benchmark.ledger.rows", 2_000_000);
+    private static final int MONTHS = Integer.getInteger("benchmark.ledger.months", 24);
+    private static final int ACCOUNTS = Integer.getInteger("benchmark.ledger.accounts", 100_000);
+    private static final int SAMPLES = Integer.getInteger("benchmark.samples", 2_000);
+    private static final long LOAD_CHUNK = 5_000_000;
+
+    private static final YearMonth FIRST_MONTH = YearMonth.now().minusMonths(MONTHS - 1);
+    private static final LocalDateTime START = FIRST_MONTH.atDay(1).atStartOfDay();
+    private static final LocalDateTime END = FIRST_MONTH.plusMonths(MONTHS).atDay(1).atStartOfDay();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("benchmark.datasource.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("benchmark.datasource.username", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getProperty("benchmark.datasource.password", "password"));
+    }
+
+    @BeforeEach
+    void createTables() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS ledger_benchmark CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA ledger_benchmark");
+        for (String table : List.of("plain", "partitioned")) {
+            boolean partitioned = table.equals("partitioned");
+            jdbcTemplate.execute("CREATE TABLE ledger_benchmark." + table + " (id bigint NOT NULL, account_id bigint NOT NULL, "
+                    + "amount numeric(38,2), balance_after numeric(38,2), transaction_type varchar(255), "
+                    + "transaction_date timestamp(6) NOT NULL, correlation_id varchar(255), "
+                    + (partitioned ? "PRIMARY KEY (id, transaction_date)) PARTITION BY RANGE (transaction_date)" : "PRIMARY KEY (id))"));
+        }
+        for (int i = 0; i < MONTHS; i++) {
+            YearMonth month = FIRST_MONTH.plusMonths(i);
+            jdbcTemplate.execute(String.format("CREATE TABLE ledger_benchmark.partitioned_p%d PARTITION OF ledger_benchmark.partitioned "
+                    + "FOR VALUES FROM ('%s') TO ('%s')", i, month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay()));
+        }
+        long spanSeconds = Duration.between(START, END).toSeconds();
+        for (String table : List.of("plain", "partitioned")) {
+            for (long from = 1; from <= ROWS; from += LOAD_CHUNK) {
+                long to = Math.min(ROWS, from + LOAD_CHUNK - 1);
+                // Dates grow with the id like they do in production, spread evenly over all months
+                jdbcTemplate.update("INSERT INTO ledger_benchmark." + table + " "
+                        + "SELECT g, g % ?, 1.00, 100.00, 'CREDIT', ?::timestamp + make_interval(secs => (g - 1) * ?::float8 / ?), 'bench-' || g "
+                        + "FROM generate_series(?::bigint, ?::bigint) g", ACCOUNTS, Timestamp.valueOf(START), spanSeconds, ROWS, from, to);
+            }
+            jdbcTemplate.execute("CREATE INDEX ON ledger_benchmark." + table + " (account_id, transaction_date, id)");
+            jdbcTemplate.execute("ANALYZE ledger_benchmark." + table);
+        }
+    }
+
+    @AfterEach
+    void dropTables() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS ledger_benchmark CASCADE");
+    }
+
+    @Test
+    void partitionedLedger_ShouldPruneHistoryQueriesToTheRequestedMonths() {
+        for (String table : List.of("plain", "partitioned")) {
+            double[] inserts = measureInserts(table);
+            double[] latestPage = measureHistory(table, false);
+            double[] deepPage = measureHistory(table, true);
+            logger.info("{}, {} rows: insert p50 {} us p99 {} us | latest page p50 {} us p99 {} us | page a year back p50 {} us p99 {} us",
+                    table, ROWS, micros(percentile(inserts, 50)), micros(percentile(inserts, 99)),
+                    micros(percentile(latestPage, 50)), micros(percentile(latestPage, 99)),
+                    micros(percentile(deepPage, 50)), micros(percentile(deepPage, 99)));
+        }
+
+        // A page a year back with a 31 day window may only touch the month or two it falls into
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + historyQuery("partitioned"), String.class,
+                1L, Timestamp.valueOf(END.minusMonths(12).minusDays(31)), Timestamp.valueOf(END.minusMonths(12)),
+                Timestamp.valueOf(END.minusMonths(12)), Long.MAX_VALUE);
+        long partitionsScanned = plan.stream().filter(line -> line.contains("partitioned_p")).count();
+        assertTrue(partitionsScanned >= 1 && partitionsScanned <= 2, "Expected pruning to two partitions at most:\n" + String.join("\n", plan));
+    }
+
+    private double[] measureInserts(String table) {
+        double[] millis = new double[SAMPLES];
+        long id = ROWS + (table.equals("plain") ? 0 : SAMPLES);
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            jdbcTemplate.update("INSERT INTO ledger_benchmark." + table + " VALUES (?, ?, 1.00, 100.00, 'DEBIT', ?, ?)",
+                    ++id, id % ACCOUNTS, Timestamp.valueOf(END.minusSeconds(1)), "bench-insert-" + id);
+            millis[i] = (System.nanoTime() - start) / 1e6;
+        }
+        return millis;
+    }
+
+    private double[] measureHistory(String table, boolean aYearBack) {
+        double[] millis = new double[SAMPLES];
+        LocalDateTime upTo = aYearBack ? END.minusMonths(12) : END;
+        for (int i = 0; i < SAMPLES; i++) {
+            long accountId = ThreadLocalRandom.current().nextLong(ACCOUNTS);
+            long start = System.nanoTime();
+            List<Long> ids = jdbcTemplate.queryForList(historyQuery(table), Long.class,
+                    accountId, Timestamp.valueOf(upTo.minusDays(31)), Timestamp.valueOf(upTo), Timestamp.valueOf(upTo), Long.MAX_VALUE);
+            millis[i] = (System.nanoTime() - start) / 1e6;
+            assertEquals(ids.stream().distinct().count(), ids.size());
+        }
+        return millis;
+    }
+
+    // Same shape as TransactionLedgerRepository#findEntriesBefore
+    private static String historyQuery(String table) {
+        return "SELECT id FROM ledger_benchmark." + table + " WHERE account_id = ? AND transaction_date >= ? "
+                + "AND transaction_date <= ? AND (transaction_date, id) < (?, ?) ORDER BY transaction_date DESC, id DESC LIMIT 51";
+    }
+
+    private static double percentile(double[] values, int percentile) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1)];
+    }
+
+    private static long micros(double millis) {
+        return Math.round(millis * 1000);
+    }
+}
@@ -0,0 +1,137 @@
+package com.banking.transaction.benchmark;
+
+import com.banking.transaction.dto.AccountCreateRequest;
+import com.banking.transaction.dto.DepositRequest;
+import com.banking.transaction.entity.Account;
+import com.banking.transaction.reconciliation.Discrepancy;
+import com.banking.transaction.reconciliation.LedgerReconciliationService;
+import com.banking.transaction.reconciliation.ReconciliationReport;
+import com.banking.transaction.service.AccountService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Adds synthetic transfers between two accounts to the ledger, reconciles the whole ledger and logs the
+ * scan rate with the time it would take for 100 million entries, then checks that a balance changed behind
+ * the ledger's back is found. Skipped unless a database is given, e.g.
+ * {@code mvn -pl transaction-service test -Dtest=LedgerReconciliationBenchmarkTest -Dbenchmark.datasource.url=jdbc:postgresql://localhost:5432/banking}
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "transaction.reconciliation.max-reported-discrepancies=100000"
+})
+@EnabledIfSystemProperty(named = "benchmark.datasource.url", matches = ".+")
+class LedgerReconciliationBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerReconciliationBenchmarkTest.class);
+
+    // A multiple of four, so that the transfers going each way cancel out
+    private static final long ROWS = Long.getLong("benchmark.reconciliation.rows", 2_000_000) / 4 * 4;
+    private static final long LOAD_CHUNK = 1_000_000;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("benchmark.datasource.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("benchmark.datasource.username", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getProperty("benchmark.datasource.password", "password"));
+    }
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private LedgerReconciliationService reconciliationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Account first;
+    private Account second;
+
+    @BeforeEach
+    void seedLedger() {
+        Long userId = 600_000L + (System.nanoTime() % 100_000);
+        first = createAccount(userId);
+        second = createAccount(userId);
+
+        // Takes ids past everything the sequence has handed out, including blocks Hibernate is still using
+        long firstId = jdbcTemplate.queryForObject("SELECT nextval('transaction_ledger_seq')", Long.class) + 50;
+        jdbcTemplate.queryForObject("SELECT setval('transaction_ledger_seq', ?)", Long.class, firstId + ROWS + 50);
+        String run = UUID.randomUUID().toString();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (long from = 0; from < ROWS; from += LOAD_CHUNK) {
+            long to = Math.min(ROWS, from + LOAD_CHUNK) - 1;
+            // Rows 2k and 2k+1 are the debit and credit of transfer k; even transfers go one way, odd ones back
+            jdbcTemplate.update("INSERT INTO transaction_ledger (id, account_id, amount, balance_after, transaction_type, "
+                            + "transaction_date, correlation_id) "
+                            + "SELECT ? + g, CASE WHEN (g / 2) % 2 = g % 2 THEN ? ELSE ? END, CASE WHEN g % 2 = 0 THEN -1.00 ELSE 1.00 END, "
+                            + "1000.00, CASE WHEN g % 2 = 0 THEN 'DEBIT' ELSE 'CREDIT' END, ?, "
+                            + "'bench-recon-' || ? || '-' || (g / 2) || CASE WHEN g % 2 = 0 THEN '-D' ELSE '-C' END "
+                            + "FROM generate_series(?::bigint, ?::bigint) g",
+                    firstId, first.getId(), second.getId(), now, run, from, to);
+        }
+        jdbcTemplate.execute("ANALYZE transaction_ledger");
+    }
+
+    @AfterEach
+    void removeLedger() {
+        jdbcTemplate.update("DELETE FROM transaction_ledger WHERE account_id IN (?, ?)", first.getId(), second.getId());
+        jdbcTemplate.update("UPDATE account SET balance = 0 WHERE id IN (?, ?)", first.getId(), second.getId());
+    }
+
+    @Test
+    void reconcile_ShouldScanTheLedgerAndFindTamperedBalances() {
+        ReconciliationReport report = reconciliationService.reconcile().orElseThrow();
+        double rowsPerSecond = report.ledgerRows() * 1000.0 / Math.max(1, report.durationMillis());
+        logger.info("reconciliation: {} entries of {} accounts in {} ms, {} entries/s, 100M entries in {} s; "
+                        + "{} balance mismatches, {} unpaired, {} mismatched pairs",
+                report.ledgerRows(), report.accounts(), report.durationMillis(), Math.round(rowsPerSecond),
+                Math.round(100_000_000 / rowsPerSecond), report.balanceMismatches(), report.unpairedEntries(), report.pairMismatches());
+
+        assertNotEquals(ReconciliationReport.Status.FAILED, report.status(), report.error());
+        assertTrue(report.consistentSnapshot());
+        assertTrue(report.ledgerRows() >= ROWS);
+        assertTrue(report.discrepancies().stream().noneMatch(this::concernsSeededAccounts), "Seeded transfers must reconcile");
+
+        jdbcTemplate.update("UPDATE account SET balance = balance + 0.01 WHERE id = ?", second.getId());
+        ReconciliationReport tampered = reconciliationService.reconcile().orElseThrow();
+
+        Discrepancy mismatch = tampered.discrepancies().stream()
+                .filter(discrepancy -> second.getId().equals(discrepancy.accountId()))
+                .findFirst().orElseThrow();
+        assertEquals(Discrepancy.Type.BALANCE_MISMATCH, mismatch.type());
+        assertEquals(0, new BigDecimal("0.01").compareTo(mismatch.actual().subtract(mismatch.expected())));
+    }
+
+    private boolean concernsSeededAccounts(Discrepancy discrepancy) {
+        return first.getId().equals(discrepancy.accountId()) || second.getId().equals(discrepancy.accountId());
+    }
+
+    private Account createAccount(Long userId) {
+        AccountCreateRequest createRequest = new AccountCreateRequest();
+        createRequest.setCurrency("TRY");
+        DepositRequest deposit = new DepositRequest();
+        deposit.setAmount(new BigDecimal("1000.00"));
+        Account account = accountService.createAccount(createRequest, userId);
+        accountService.depositToAccount(account.getIban(), deposit);
+        return account;
+    }
+}
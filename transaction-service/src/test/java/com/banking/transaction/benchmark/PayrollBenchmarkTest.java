@@ -0,0 +1,125 @@
+package com.banking.transaction.benchmark;
+
+import com.banking.transaction.dto.PayrollLine;
+import com.banking.transaction.dto.PayrollRequest;
+import com.banking.transaction.dto.PayrollResponse;
+import com.banking.transaction.reconciliation.LedgerReconciliationService;
+import com.banking.transaction.reconciliation.ReconciliationReport;
+import com.banking.transaction.service.PayrollService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pays a salary from one employer account to many synthetic employees, logs how long it took, pays the same
+ * payroll again to check that nobody is paid twice, and reconciles the ledger. Skipped unless a database is
+ * given, e.g.
+ * {@code mvn -pl transaction-service test -Dtest=PayrollBenchmarkTest -Dbenchmark.datasource.url=jdbc:postgresql://localhost:5432/banking}
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "transaction.reconciliation.max-reported-discrepancies=1000000"
+})
+@EnabledIfSystemProperty(named = "benchmark.datasource.url", matches = ".+")
+class PayrollBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayrollBenchmarkTest.class);
+
+    private static final int EMPLOYEES = Integer.getInteger("benchmark.payroll.lines", 50_000);
+    private static final long EMPLOYER_USER_ID = 700_000L;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("benchmark.datasource.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("benchmark.datasource.username", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getProperty("benchmark.datasource.password", "password"));
+    }
+
+    @Autowired
+    private PayrollService payrollService;
+
+    @Autowired
+    private LedgerReconciliationService reconciliationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long firstAccountId;
+
+    @BeforeEach
+    void openAccounts() {
+        // Takes ids past everything the sequences have handed out, including blocks Hibernate is still using
+        firstAccountId = jdbcTemplate.queryForObject("SELECT nextval('account_seq')", Long.class) + 50;
+        jdbcTemplate.queryForObject("SELECT setval('account_seq', ?)", Long.class, firstAccountId + EMPLOYEES + 51);
+
+        // Account 0 is the employer's, funded by a deposit; the others belong to the employees
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO account (id, iban, balance, currency, user_id, status, created_at, version) "
+                        + "SELECT ? + g, 'TR' || lpad((? + g)::text, 24, '0'), CASE WHEN g = 0 THEN 100000000.00 ELSE 0.00 END, "
+                        + "'TRY', CASE WHEN g = 0 THEN ? ELSE 710000 + g END, 'ACTIVE', ?, 0 "
+                        + "FROM generate_series(0, ?) g",
+                firstAccountId, firstAccountId, EMPLOYER_USER_ID, now, EMPLOYEES);
+        jdbcTemplate.update("INSERT INTO transaction_ledger (id, account_id, amount, balance_after, transaction_type, "
+                        + "transaction_date, correlation_id) VALUES (nextval('transaction_ledger_seq'), ?, 100000000.00, 100000000.00, "
+                        + "'CREDIT', ?, 'deposit-bench-' || ?)",
+                firstAccountId, now, firstAccountId);
+        jdbcTemplate.execute("ANALYZE account");
+    }
+
+    @AfterEach
+    void closeAccounts() {
+        jdbcTemplate.update("DELETE FROM transaction_ledger WHERE account_id >= ? AND account_id <= ?", firstAccountId, firstAccountId + EMPLOYEES);
+        jdbcTemplate.update("DELETE FROM account WHERE id >= ? AND id <= ?", firstAccountId, firstAccountId + EMPLOYEES);
+    }
+
+    @Test
+    void payroll_ShouldPayEveryEmployeeOnceAndKeepTheLedgerBalanced() {
+        PayrollRequest request = new PayrollRequest();
+        request.setFromIban(iban(firstAccountId));
+        List<PayrollLine> lines = new ArrayList<>(EMPLOYEES);
+        for (int i = 1; i <= EMPLOYEES; i++) {
+            lines.add(new PayrollLine(iban(firstAccountId + i), new BigDecimal("1000.00")));
+        }
+        request.setLines(lines);
+        String correlationId = "payroll-bench-" + UUID.randomUUID();
+
+        long start = System.nanoTime();
+        PayrollResponse response = payrollService.execute(request, correlationId, EMPLOYER_USER_ID);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        logger.info("payroll: {} lines in {} ms ({} lines/s), {} paid, {} failed", EMPLOYEES, elapsedMillis,
+                Math.round(EMPLOYEES * 1000.0 / elapsedMillis), response.getSucceeded(), response.getFailed());
+
+        assertEquals(EMPLOYEES, response.getSucceeded());
+        PayrollResponse retried = payrollService.execute(request, correlationId, EMPLOYER_USER_ID);
+        assertEquals(EMPLOYEES, retried.getDuplicates());
+        assertEquals(EMPLOYEES, jdbcTemplate.queryForObject("SELECT count(*) FROM account WHERE id > ? AND id <= ? AND balance = 1000.00",
+                Long.class, firstAccountId, firstAccountId + EMPLOYEES));
+
+        ReconciliationReport report = reconciliationService.reconcile().orElseThrow();
+        assertTrue(report.discrepancies().stream().noneMatch(discrepancy -> discrepancy.accountId() != null
+                && discrepancy.accountId() >= firstAccountId && discrepancy.accountId() <= firstAccountId + EMPLOYEES));
+        assertTrue(report.discrepancies().stream().noneMatch(discrepancy -> correlationId.equals(discrepancy.correlationId())));
+    }
+
+    private static String iban(long accountId) {
+        return "TR" + String.format("%024d", accountId);
+    }
+}
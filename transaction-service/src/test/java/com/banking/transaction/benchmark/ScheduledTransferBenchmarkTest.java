@@ -0,0 +1,135 @@
+package com.banking.transaction.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Schedules one transfer per pair of synthetic accounts, all due at the same second as they are at the top of
+ * every hour, and logs how late the runs started while the dispatcher drains them at its rate. Then rewinds
+ * every schedule as if the instance had died before recording its run and checks that running them again
+ * moves no money. Skipped unless a database is given, e.g.
+ * {@code mvn -pl transaction-service test -Dtest=ScheduledTransferBenchmarkTest -Dbenchmark.datasource.url=jdbc:postgresql://localhost:5432/banking}
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "transaction.scheduled-transfers.load-interval=1000",
+        "transaction.scheduled-transfers.max-per-second=500"
+})
+@EnabledIfSystemProperty(named = "benchmark.datasource.url", matches = ".+")
+class ScheduledTransferBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledTransferBenchmarkTest.class);
+
+    private static final long SCHEDULES = Long.getLong("benchmark.scheduled.transfers", 5_000);
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("benchmark.datasource.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("benchmark.datasource.username", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getProperty("benchmark.datasource.password", "password"));
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private long firstAccountId;
+    private long firstScheduleId;
+
+    @BeforeEach
+    void openAccounts() {
+        // Takes ids past everything the sequences have handed out, including blocks Hibernate is still using
+        firstAccountId = jdbcTemplate.queryForObject("SELECT nextval('account_seq')", Long.class) + 50;
+        jdbcTemplate.queryForObject("SELECT setval('account_seq', ?)", Long.class, firstAccountId + 2 * SCHEDULES + 50);
+        firstScheduleId = jdbcTemplate.queryForObject("SELECT nextval('scheduled_transfer_seq')", Long.class) + 50;
+        jdbcTemplate.queryForObject("SELECT setval('scheduled_transfer_seq', ?)", Long.class, firstScheduleId + SCHEDULES + 50);
+
+        // Account i pays account SCHEDULES + i, each sender owned by its own user
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now().minusDays(1));
+        jdbcTemplate.update("INSERT INTO account (id, iban, balance, currency, user_id, status, created_at, version) "
+                        + "SELECT ? + g, 'TR' || lpad((? + g)::text, 24, '0'), 0.00, 'TRY', 600000 + g, 'ACTIVE', ?, 0 "
+                        + "FROM generate_series(0, 2 * ?::bigint - 1) g",
+                firstAccountId, firstAccountId, now, SCHEDULES);
+        jdbcTemplate.update("INSERT INTO transaction_ledger (id, account_id, amount, balance_after, transaction_type, "
+                        + "transaction_date, correlation_id) "
+                        + "SELECT nextval('transaction_ledger_seq'), ? + g, 100.00, 100.00, 'CREDIT', ?, 'deposit-bench-' || (? + g) "
+                        + "FROM generate_series(0, ?::bigint - 1) g",
+                firstAccountId, now, firstAccountId, SCHEDULES);
+        jdbcTemplate.update("UPDATE account SET balance = 100.00 WHERE id >= ? AND id < ?", firstAccountId, firstAccountId + SCHEDULES);
+    }
+
+    @AfterEach
+    void closeAccounts() {
+        jdbcTemplate.update("DELETE FROM scheduled_transfer WHERE id >= ? AND id < ?", firstScheduleId, firstScheduleId + SCHEDULES);
+        jdbcTemplate.update("DELETE FROM transaction_ledger WHERE account_id >= ? AND account_id < ?", firstAccountId, firstAccountId + 2 * SCHEDULES);
+        jdbcTemplate.update("DELETE FROM account WHERE id >= ? AND id < ?", firstAccountId, firstAccountId + 2 * SCHEDULES);
+    }
+
+    @Test
+    void runsDueAtOneInstant_ShouldEachPayOnceAtTheDispatchRate() throws InterruptedException {
+        // Far enough ahead to be loaded into the wheel rather than found already due
+        LocalDateTime runAt = LocalDateTime.now().plusSeconds(10).truncatedTo(ChronoUnit.SECONDS);
+        jdbcTemplate.update("INSERT INTO scheduled_transfer (id, user_id, from_iban, to_iban, amount, recurrence, first_run_at, "
+                        + "next_run_at, run_count, status, created_at) "
+                        + "SELECT ? + g, 600000 + g, 'TR' || lpad((? + g)::text, 24, '0'), 'TR' || lpad((? + ? + g)::text, 24, '0'), "
+                        + "10.00, 'ONCE', ?, ?, 0, 'ACTIVE', now() FROM generate_series(0, ?::bigint - 1) g",
+                firstScheduleId, firstAccountId, firstAccountId, SCHEDULES, Timestamp.valueOf(runAt), Timestamp.valueOf(runAt), SCHEDULES);
+        Timer lag = meterRegistry.get("transaction.scheduled.lag").tag("boundary", "other").timer();
+        long lagCountBefore = lag.count();
+
+        awaitRuns(runAt);
+        logger.info("scheduled transfers: {} runs due at {}, lag mean {} ms, max {} ms, {}", SCHEDULES, runAt,
+                Math.round(lag.mean(TimeUnit.MILLISECONDS)), Math.round(lag.max(TimeUnit.MILLISECONDS)), outcomes());
+        assertEquals(SCHEDULES, lag.count() - lagCountBefore);
+        assertEquals(2 * SCHEDULES, transferLegs());
+
+        // As if every run had been executed by an instance that died before recording it
+        jdbcTemplate.update("UPDATE scheduled_transfer SET status = 'ACTIVE', next_run_at = first_run_at, run_count = 0 "
+                + "WHERE id >= ? AND id < ?", firstScheduleId, firstScheduleId + SCHEDULES);
+        awaitRuns(runAt);
+
+        assertEquals(2 * SCHEDULES, transferLegs());
+        assertEquals(SCHEDULES, jdbcTemplate.queryForObject("SELECT count(*) FROM account WHERE id >= ? AND id < ? AND balance = 90.00",
+                Long.class, firstAccountId, firstAccountId + SCHEDULES));
+    }
+
+    private void awaitRuns(LocalDateTime runAt) throws InterruptedException {
+        long remaining;
+        do {
+            Thread.sleep(1000);
+            remaining = jdbcTemplate.queryForObject("SELECT count(*) FROM scheduled_transfer WHERE id >= ? AND id < ? AND run_count = 0",
+                    Long.class, firstScheduleId, firstScheduleId + SCHEDULES);
+            logger.info("scheduled transfers due at {}: {} left", runAt, remaining);
+        } while (remaining > 0);
+    }
+
+    private long transferLegs() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM transaction_ledger WHERE account_id >= ? AND account_id < ? "
+                + "AND correlation_id LIKE 'scheduled-%'", Long.class, firstAccountId, firstAccountId + 2 * SCHEDULES);
+    }
+
+    private String outcomes() {
+        return jdbcTemplate.queryForList("SELECT last_outcome || '=' || count(*) FROM scheduled_transfer WHERE id >= ? AND id < ? "
+                + "GROUP BY last_outcome", String.class, firstScheduleId, firstScheduleId + SCHEDULES).toString();
+    }
+}
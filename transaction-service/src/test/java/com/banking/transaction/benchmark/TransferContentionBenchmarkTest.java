@@ -0,0 +1,166 @@
+package com.banking.transaction.benchmark;
+
+import com.banking.transaction.dto.AccountCreateRequest;
+import com.banking.transaction.dto.DepositRequest;
+import com.banking.transaction.dto.TransactionRequest;
+import com.banking.transaction.entity.Account;
+import com.banking.transaction.execution.TransferExecutionService;
+import com.banking.transaction.repository.AccountRepository;
+import com.banking.transaction.service.AccountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs opposing transfers between a handful of accounts from many threads, once per locking strategy, and
+ * logs throughput, retries and lock wait so the strategies can be compared on the same database.
+ * Skipped unless a database is given, e.g.
+ * {@code mvn -pl transaction-service test -Dtest=TransferContentionBenchmarkTest -Dbenchmark.datasource.url=jdbc:postgresql://localhost:5432/banking}
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@EnabledIfSystemProperty(named = "benchmark.datasource.url", matches = ".+")
+@Import(TransferContentionBenchmarkTest.ContentionRun.class)
+class TransferContentionBenchmarkTest {
+
+    private static final int ACCOUNTS = Integer.getInteger("benchmark.contention.accounts", 4);
+    private static final int THREADS = Integer.getInteger("benchmark.contention.threads", 16);
+    private static final int TRANSFERS = Integer.getInteger("benchmark.transfers", 2_000);
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("benchmark.datasource.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("benchmark.datasource.username", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getProperty("benchmark.datasource.password", "password"));
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> THREADS);
+    }
+
+    @Nested
+    @TestPropertySource(properties = "transaction.locking.strategy=optimistic")
+    class Optimistic {
+
+        @Autowired
+        private ContentionRun run;
+
+        @Test
+        void opposingTransfers_ShouldAllCompleteWithoutLosingMoney() throws Exception {
+            run.execute("optimistic");
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = "transaction.locking.strategy=pessimistic")
+    class Pessimistic {
+
+        @Autowired
+        private ContentionRun run;
+
+        @Test
+        void opposingTransfers_ShouldAllCompleteWithoutLosingMoney() throws Exception {
+            run.execute("pessimistic");
+        }
+    }
+
+    static class ContentionRun {
+
+        private static final Logger logger = LoggerFactory.getLogger(TransferContentionBenchmarkTest.class);
+
+        @Autowired
+        private AccountService accountService;
+
+        @Autowired
+        private AccountRepository accountRepository;
+
+        @Autowired
+        private TransferExecutionService transferExecutionService;
+
+        @Autowired
+        private MeterRegistry meterRegistry;
+
+        void execute(String strategy) throws Exception {
+            Long userId = 800_000L + (System.nanoTime() % 100_000);
+            List<String> ibans = createAccounts(userId);
+            BigDecimal totalBefore = totalBalance(ibans);
+            double retriesBefore = meterRegistry.get("transaction.locking.retries").counter().count();
+            AtomicInteger failed = new AtomicInteger();
+
+            ExecutorService callers = Executors.newFixedThreadPool(THREADS);
+            long start = System.nanoTime();
+            try {
+                List<Future<?>> futures = new ArrayList<>(TRANSFERS);
+                for (int i = 0; i < TRANSFERS; i++) {
+                    futures.add(callers.submit(() -> {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        int from = random.nextInt(ACCOUNTS);
+                        int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                        TransactionRequest request = new TransactionRequest();
+                        request.setFromIban(ibans.get(from));
+                        request.setToIban(ibans.get(to));
+                        request.setAmount(new BigDecimal("1.00"));
+                        try {
+                            transferExecutionService.execute(request, "bench-contention-" + UUID.randomUUID(), userId);
+                        } catch (RuntimeException e) {
+                            failed.incrementAndGet();
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get(5, TimeUnit.MINUTES);
+                }
+            } finally {
+                callers.shutdownNow();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            double retries = meterRegistry.get("transaction.locking.retries").counter().count() - retriesBefore;
+            Timer lockWait = meterRegistry.get("transaction.locking.wait").timer();
+            logger.info("{}: {} transfers on {} accounts with {} threads in {} ms ({}/s), {} failed, {} retries, lock wait mean {} us max {} us",
+                    strategy, TRANSFERS, ACCOUNTS, THREADS, Math.round(seconds * 1000), Math.round(TRANSFERS / seconds), failed.get(),
+                    Math.round(retries), Math.round(lockWait.mean(TimeUnit.MICROSECONDS)), Math.round(lockWait.max(TimeUnit.MICROSECONDS)));
+
+            assertEquals(0, totalBefore.compareTo(totalBalance(ibans)), "Transfers must not create or lose money");
+        }
+
+        private List<String> createAccounts(Long userId) {
+            AccountCreateRequest createRequest = new AccountCreateRequest();
+            createRequest.setCurrency("TRY");
+            DepositRequest deposit = new DepositRequest();
+            deposit.setAmount(new BigDecimal("1000000.00"));
+            List<String> ibans = new ArrayList<>(ACCOUNTS);
+            for (int i = 0; i < ACCOUNTS; i++) {
+                Account account = accountService.createAccount(createRequest, userId);
+                accountService.depositToAccount(account.getIban(), deposit);
+                ibans.add(account.getIban());
+            }
+            return ibans;
+        }
+
+        private BigDecimal totalBalance(List<String> ibans) {
+            return accountRepository.findAllByIbanIn(ibans).stream()
+                    .map(Account::getBalance)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.banking.transaction.benchmark;
+
+import com.banking.transaction.dto.AccountCreateRequest;
+import com.banking.transaction.dto.DepositRequest;
+import com.banking.transaction.dto.TransactionRequest;
+import com.banking.transaction.entity.Account;
+import com.banking.transaction.exception.TransferConflictException;
+import com.banking.transaction.exception.TransferLimitExceededException;
+import com.banking.transaction.execution.TransferExecutionService;
+import com.banking.transaction.repository.AccountRepository;
+import com.banking.transaction.service.AccountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs transfers with transfer limits enabled and logs how long evaluating the limits took next to the whole
+ * transfer, then checks that concurrent transfers from one account cannot get past its hourly count.
+ * Skipped unless a database is given, e.g.
+ * {@code mvn -pl transaction-service test -Dtest=TransferLimitBenchmarkTest -Dbenchmark.datasource.url=jdbc:postgresql://localhost:5432/banking}
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "transaction.execution.mode=direct",
+        "transaction.limits.enabled=true",
+        "transaction.limits.default-profile=benchmark",
+        "transaction.limits.profiles.benchmark.user.daily-amount=1000000.00",
+        "transaction.limits.profiles.benchmark.account.hourly-count=" + TransferLimitBenchmarkTest.HOURLY_COUNT
+})
+@EnabledIfSystemProperty(named = "benchmark.datasource.url", matches = ".+")
+class TransferLimitBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransferLimitBenchmarkTest.class);
+
+    static final int HOURLY_COUNT = 20;
+    private static final int PAIRS = Integer.getInteger("benchmark.limits.pairs", 50);
+    private static final int THREADS = 8;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("benchmark.datasource.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("benchmark.datasource.username", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getProperty("benchmark.datasource.password", "password"));
+    }
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransferExecutionService transferExecutionService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void limitEvaluation_ShouldBeASmallShareOfTheTransfer() {
+        Long userId = 800_000L + (System.nanoTime() % 100_000);
+        List<String> ibans = createAccounts(userId, 2 * PAIRS);
+
+        // The first round warms up the JIT and loads the earlier buckets of every subject; it is not measured
+        Timer evaluation = meterRegistry.get("transaction.limits.evaluation").timer();
+        long evaluationsBefore = 0;
+        double evaluationMillisBefore = 0;
+        long start = 0;
+        for (int round = 0; round < HOURLY_COUNT; round++) {
+            if (round == 1) {
+                evaluationsBefore = evaluation.count();
+                evaluationMillisBefore = evaluation.totalTime(TimeUnit.MILLISECONDS);
+                start = System.nanoTime();
+            }
+            for (int pair = 0; pair < PAIRS; pair++) {
+                transferExecutionService.execute(request(ibans.get(2 * pair), ibans.get(2 * pair + 1)),
+                        "bench-limit-" + UUID.randomUUID(), userId);
+            }
+        }
+        int measured = (HOURLY_COUNT - 1) * PAIRS;
+        double transferMillis = (System.nanoTime() - start) / 1e6 / measured;
+        double evaluationMillis = (evaluation.totalTime(TimeUnit.MILLISECONDS) - evaluationMillisBefore)
+                / (evaluation.count() - evaluationsBefore);
+        logger.info("limits: {} transfers, {} us per transfer, {} us of it evaluating limits (max {} us)",
+                measured, Math.round(transferMillis * 1000), Math.round(evaluationMillis * 1000),
+                Math.round(evaluation.max(TimeUnit.MICROSECONDS)));
+
+        assertThrows(TransferLimitExceededException.class, () -> transferExecutionService.execute(
+                request(ibans.get(0), ibans.get(1)), "bench-limit-" + UUID.randomUUID(), userId));
+        // One upsert per transfer: its absolute cost is a database round trip, so it is compared with the transfer
+        assertTrue(evaluationMillis < transferMillis / 5, "Limit evaluation must stay a small share of the transfer");
+    }
+
+    @Test
+    void concurrentTransfers_ShouldNotGetPastTheLimit() throws Exception {
+        Long userId = 700_000L + (System.nanoTime() % 100_000);
+        List<String> ibans = createAccounts(userId, 2);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        ExecutorService callers = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 3 * HOURLY_COUNT; i++) {
+                futures.add(callers.submit(() -> {
+                    String correlationId = "bench-limit-" + UUID.randomUUID();
+                    while (true) {
+                        try {
+                            transferExecutionService.execute(request(ibans.get(0), ibans.get(1)), correlationId, userId);
+                            accepted.incrementAndGet();
+                            return;
+                        } catch (TransferLimitExceededException e) {
+                            rejected.incrementAndGet();
+                            return;
+                        } catch (TransferConflictException e) {
+                            // Rolled back together with its limit usage; retried as clients are told to
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertEquals(HOURLY_COUNT, accepted.get());
+        assertEquals(2 * HOURLY_COUNT, rejected.get());
+        Account sender = accountRepository.findByIban(ibans.get(0)).orElseThrow();
+        assertEquals(0, new BigDecimal("1000.00").subtract(BigDecimal.valueOf(HOURLY_COUNT)).compareTo(sender.getBalance()));
+    }
+
+    private static TransactionRequest request(String fromIban, String toIban) {
+        TransactionRequest request = new TransactionRequest();
+        request.setFromIban(fromIban);
+        request.setToIban(toIban);
+        request.setAmount(new BigDecimal("1.00"));
+        return request;
+    }
+
+    private List<String> createAccounts(Long userId, int count) {
+        AccountCreateRequest createRequest = new AccountCreateRequest();
+        createRequest.setCurrency("TRY");
+        DepositRequest deposit = new DepositRequest();
+        deposit.setAmount(new BigDecimal("1000.00"));
+        List<String> ibans = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Account account = accountService.createAccount(createRequest, userId);
+            accountService.depositToAccount(account.getIban(), deposit);
+            ibans.add(account.getIban());
+        }
+        return ibans;
+    }
+}
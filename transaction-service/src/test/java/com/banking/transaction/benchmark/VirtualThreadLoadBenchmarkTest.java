@@ -0,0 +1,187 @@
+package com.banking.transaction.benchmark;
+
+import com.banking.transaction.dto.AccountCreateRequest;
+import com.banking.transaction.dto.DepositRequest;
+import com.banking.transaction.entity.Account;
+import com.banking.transaction.service.AccountService;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Drives the transfer endpoint with {@code benchmark.load.clients} concurrent HTTP clients, each sending its
+ * next transfer as soon as the previous one was answered, once on Tomcat's platform thread pool and once on
+ * virtual threads. Logs throughput, latency percentiles and how many JVM threads the run added.
+ * Skipped unless a database is given; the virtual-thread run also needs a Java 21 build, e.g.
+ * {@code JAVA_HOME=<jdk-21> mvn -Pvirtual-threads -pl transaction-service test -Dtest=VirtualThreadLoadBenchmarkTest -Dbenchmark.datasource.url=jdbc:postgresql://localhost:5432/banking}
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "spring.jpa.show-sql=false")
+@EnabledIfSystemProperty(named = "benchmark.datasource.url", matches = ".+")
+@Import(VirtualThreadLoadBenchmarkTest.LoadRun.class)
+class VirtualThreadLoadBenchmarkTest {
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.load.clients", 2_000);
+    private static final int REQUESTS_PER_CLIENT = Integer.getInteger("benchmark.load.requests-per-client", 5);
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("benchmark.datasource.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("benchmark.datasource.username", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getProperty("benchmark.datasource.password", "password"));
+    }
+
+    @Nested
+    @TestPropertySource(properties = "spring.threads.virtual.enabled=false")
+    class PlatformThreads {
+
+        @Autowired
+        private LoadRun run;
+
+        @LocalServerPort
+        private int port;
+
+        @Test
+        void concurrentClients_ShouldAllBeServed() throws Exception {
+            run.execute("platform", port);
+        }
+    }
+
+    @Nested
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    @TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+    class VirtualThreads {
+
+        @Autowired
+        private LoadRun run;
+
+        @LocalServerPort
+        private int port;
+
+        @Test
+        void concurrentClients_ShouldAllBeServed() throws Exception {
+            run.execute("virtual", port);
+        }
+    }
+
+    static class LoadRun {
+
+        private static final Logger logger = LoggerFactory.getLogger(VirtualThreadLoadBenchmarkTest.class);
+
+        @Autowired
+        private AccountService accountService;
+
+        void execute(String mode, int port) throws Exception {
+            Long userId = 700_000L + (System.nanoTime() % 100_000);
+            List<String[]> pairs = createAccountPairs(userId);
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            URI uri = URI.create("http://localhost:" + port + "/api/v1/transactions");
+
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            int threadsBefore = threads.getThreadCount();
+            threads.resetPeakThreadCount();
+            ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+            AtomicInteger failed = new AtomicInteger();
+
+            long start = System.nanoTime();
+            List<CompletableFuture<Void>> clients = new ArrayList<>(CLIENTS);
+            for (String[] pair : pairs) {
+                CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+                for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                    chain = chain.thenCompose(ignored -> transfer(client, uri, userId, pair, latencies, failed));
+                }
+                clients.add(chain);
+            }
+            CompletableFuture.allOf(clients.toArray(CompletableFuture[]::new)).get(10, TimeUnit.MINUTES);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            int addedThreads = threads.getPeakThreadCount() - threadsBefore;
+
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            int requests = CLIENTS * REQUESTS_PER_CLIENT;
+            logger.info("{}: {} clients, {} transfers in {} ms ({}/s), latency p50 {} ms p99 {} ms max {} ms, {} failed, peak +{} JVM threads",
+                    mode, CLIENTS, requests, Math.round(seconds * 1000), Math.round(requests / seconds),
+                    Math.round(percentile(sorted, 0.50)), Math.round(percentile(sorted, 0.99)), Math.round(percentile(sorted, 1.0)),
+                    failed.get(), addedThreads);
+
+            assertEquals(0, failed.get(), "Every transfer should be answered with 202");
+        }
+
+        private static CompletableFuture<Void> transfer(HttpClient client, URI uri, Long userId, String[] pair,
+                                                        ConcurrentLinkedQueue<Long> latencies, AtomicInteger failed) {
+            String body = "{\"fromIban\":\"" + pair[0] + "\",\"toIban\":\"" + pair[1] + "\",\"amount\":1.00}";
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofMinutes(2))
+                    .header("Content-Type", "application/json")
+                    .header("X-User-Id", userId.toString())
+                    .header("X-Correlation-ID", "bench-load-" + UUID.randomUUID())
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            long sent = System.nanoTime();
+            return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        latencies.add(System.nanoTime() - sent);
+                        if (error != null || response.statusCode() != 202) {
+                            failed.incrementAndGet();
+                        }
+                        return null;
+                    });
+        }
+
+        // Every client moves money between its own two accounts, so the run measures waiting on the
+        // database and the server, not optimistic-lock retries
+        private List<String[]> createAccountPairs(Long userId) {
+            AccountCreateRequest create = new AccountCreateRequest();
+            create.setCurrency("TRY");
+            DepositRequest deposit = new DepositRequest();
+            deposit.setAmount(new BigDecimal("1000.00"));
+            List<String[]> pairs = new ArrayList<>(CLIENTS);
+            for (int i = 0; i < CLIENTS; i++) {
+                Account from = accountService.createAccount(create, userId);
+                accountService.depositToAccount(from.getIban(), deposit);
+                Account to = accountService.createAccount(create, userId);
+                pairs.add(new String[]{from.getIban(), to.getIban()});
+            }
+            return pairs;
+        }
+
+        private static double percentile(long[] sortedNanos, double quantile) {
+            if (sortedNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.banking.transaction.cache;
+
+import com.banking.transaction.entity.Account;
+import com.banking.transaction.entity.AccountStatus;
+import com.banking.transaction.repository.AccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountMetadataCacheTest {
+
+    private static final String TOPIC = "account-metadata-invalidations";
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AccountMetadataCache accountMetadataCache;
+
+    @BeforeEach
+    void setUp() {
+        accountMetadataCache = new AccountMetadataCache(accountRepository, kafkaTemplate, meterRegistry,
+                100, Duration.ofMinutes(10), TOPIC);
+    }
+
+    @Test
+    void findByIban_ShouldServeRepeatedLookupsFromCache() {
+        // Arrange
+        when(accountRepository.findByIban("TR111")).thenReturn(Optional.of(account("TR111", AccountStatus.ACTIVE)));
+
+        // Act
+        Optional<AccountMetadata> first = accountMetadataCache.findByIban("TR111");
+        Optional<AccountMetadata> second = accountMetadataCache.findByIban("TR111");
+
+        // Assert
+        assertEquals(first, second);
+        assertEquals(1L, second.orElseThrow().userId());
+        verify(accountRepository, times(1)).findByIban("TR111");
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "account.metadata").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "account.metadata").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void findByIban_WithUnknownIban_ShouldNotCacheTheMiss() {
+        // Arrange
+        when(accountRepository.findByIban("TR999")).thenReturn(Optional.empty());
+
+        // Act
+        accountMetadataCache.findByIban("TR999");
+        Optional<AccountMetadata> result = accountMetadataCache.findByIban("TR999");
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(accountRepository, times(2)).findByIban("TR999");
+    }
+
+    @Test
+    void evict_InTransaction_ShouldPublishInvalidationOnlyAfterCommit() {
+        // Arrange
+        when(kafkaTemplate.send(TOPIC, "TR111", "TR111")).thenReturn(new CompletableFuture<>());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            accountMetadataCache.evict("TR111");
+
+            // Assert
+            verify(kafkaTemplate, never()).send(any(), any(), any());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(kafkaTemplate).send(TOPIC, "TR111", "TR111");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void onInvalidation_ShouldReloadAccountChangedOnAnotherInstance() {
+        // Arrange
+        when(accountRepository.findByIban("TR111"))
+                .thenReturn(Optional.of(account("TR111", AccountStatus.ACTIVE)))
+                .thenReturn(Optional.of(account("TR111", AccountStatus.FROZEN)));
+        accountMetadataCache.findByIban("TR111");
+
+        // Act
+        accountMetadataCache.onInvalidation("TR111");
+        AccountMetadata reloaded = accountMetadataCache.findByIban("TR111").orElseThrow();
+
+        // Assert
+        assertFalse(reloaded.canSend());
+        assertTrue(reloaded.canReceive());
+        assertEquals(1.0, meterRegistry.get("transaction.account-cache.invalidations").tag("source", "remote").counter().count());
+    }
+
+    private static Account account(String iban, AccountStatus status) {
+        Account account = new Account();
+        account.setId(7L);
+        account.setIban(iban);
+        account.setUserId(1L);
+        account.setCurrency("TRY");
+        account.setStatus(status);
+        return account;
+    }
+}
@@ -1,10 +1,22 @@
 package com.banking.transaction.controller;
 
+import com.banking.common.response.CursorPageResponse;
 import com.banking.transaction.dto.AccountCreateRequest;
+import com.banking.transaction.dto.AccountStatusRequest;
+import com.banking.transaction.dto.BalanceResponse;
 import com.banking.transaction.dto.DepositRequest;
+import com.banking.transaction.dto.LedgerEntryResponse;
 import com.banking.transaction.entity.Account;
+import com.banking.transaction.entity.AccountStatus;
+import com.banking.transaction.entity.TransactionType;
+import com.banking.transaction.exception.AccountNotActiveException;
 import com.banking.transaction.exception.AccountNotFoundException;
+import com.banking.transaction.export.LedgerExportFormat;
+import com.banking.transaction.export.LedgerExportService;
+import com.banking.transaction.routing.ReplicaRouter;
 import com.banking.transaction.service.AccountService;
+import com.banking.transaction.service.BalanceService;
+import com.banking.transaction.service.TransactionHistoryService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.ServletException;
 import org.junit.jupiter.api.Test;
@@ -15,15 +27,19 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(AccountController.class)
@@ -35,6 +51,18 @@ class AccountControllerTest {
     @MockitoBean
     private AccountService accountService;
 
+    @MockitoBean
+    private BalanceService balanceService;
+
+    @MockitoBean
+    private TransactionHistoryService transactionHistoryService;
+
+    @MockitoBean
+    private LedgerExportService ledgerExportService;
+
+    @MockitoBean
+    private ReplicaRouter replicaRouter;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -166,6 +194,43 @@ class AccountControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void updateStatus_WhenRequestIsValid_ShouldReturnUpdatedAccount() throws Exception {
+        String iban = "TR123456";
+        AccountStatusRequest request = new AccountStatusRequest();
+        request.setStatus(AccountStatus.FROZEN);
+
+        Account account = new Account();
+        account.setIban(iban);
+        account.setStatus(AccountStatus.FROZEN);
+
+        when(accountService.updateStatus(iban, AccountStatus.FROZEN, 1L)).thenReturn(account);
+
+        mockMvc.perform(put("/api/v1/accounts/{iban}/status", iban)
+                        .header("X-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.status").value("FROZEN"))
+                .andExpect(jsonPath("$.message").value("Account status updated."));
+    }
+
+    @Test
+    void updateStatus_WhenAccountIsClosed_ShouldReturnConflict() throws Exception {
+        String iban = "TR123456";
+        AccountStatusRequest request = new AccountStatusRequest();
+        request.setStatus(AccountStatus.ACTIVE);
+
+        when(accountService.updateStatus(iban, AccountStatus.ACTIVE, 1L))
+                .thenThrow(new AccountNotActiveException("Closed accounts cannot be reopened."));
+
+        mockMvc.perform(put("/api/v1/accounts/{iban}/status", iban)
+                        .header("X-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void deposit_WhenDepositRequestIsInvalid_ShouldReturnBadRequest() throws Exception {
         String iban = "TR123456";
@@ -177,4 +242,53 @@ class AccountControllerTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getBalance_WithAsOf_ShouldReturnPointInTimeBalance() throws Exception {
+        LocalDateTime asOf = LocalDateTime.of(2024, 1, 31, 23, 59, 59);
+        when(balanceService.getBalance("TR123456", testUserId, asOf))
+                .thenReturn(new BalanceResponse("TR123456", "TRY", new BigDecimal("250.00"), asOf));
+
+        mockMvc.perform(get("/api/v1/accounts/TR123456/balance")
+                        .header(userIdHeader, testUserId)
+                        .param("asOf", "2024-01-31T23:59:59"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.balance").value(250.00))
+                .andExpect(jsonPath("$.message").value("Balance retrieved successfully."));
+    }
+
+    @Test
+    void getTransactions_ShouldReturnCursorPage() throws Exception {
+        LedgerEntryResponse entry = new LedgerEntryResponse(10L, "corr-1-D", TransactionType.DEBIT,
+                new BigDecimal("-5.00"), new BigDecimal("95.00"), LocalDateTime.of(2024, 1, 1, 10, 0));
+        when(transactionHistoryService.getTransactions("TR123456", testUserId, "abc", 1))
+                .thenReturn(new CursorPageResponse<>(List.of(entry), 1, "next", true));
+
+        mockMvc.perform(get("/api/v1/accounts/TR123456/transactions")
+                        .header(userIdHeader, testUserId)
+                        .param("cursor", "abc")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[0].correlationId").value("corr-1-D"))
+                .andExpect(jsonPath("$.data.nextCursor").value("next"))
+                .andExpect(jsonPath("$.data.hasNext").value(true));
+    }
+
+    @Test
+    void exportTransactions_AsGzippedCsv_ShouldStreamAttachment() throws Exception {
+        when(ledgerExportService.findExportableAccountId("TR123456", testUserId)).thenReturn(7L);
+
+        var result = mockMvc.perform(get("/api/v1/accounts/TR123456/transactions/export")
+                        .header(userIdHeader, testUserId)
+                        .param("format", "CSV")
+                        .param("gzip", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/gzip"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"ledger-TR123456.csv.gz\""));
+        verify(ledgerExportService).export(eq(7L), eq(null), eq(null), eq(LedgerExportFormat.CSV), eq(true), any());
+    }
+}
@@ -1,11 +1,26 @@
 package com.banking.transaction.controller;
 
+import com.banking.transaction.dto.BatchItemResult;
+import com.banking.transaction.dto.BatchItemStatus;
+import com.banking.transaction.dto.BatchTransactionRequest;
+import com.banking.transaction.dto.PayrollLine;
+import com.banking.transaction.dto.PayrollRequest;
+import com.banking.transaction.dto.PayrollResponse;
 import com.banking.transaction.dto.TransactionRequest;
+import com.banking.transaction.dto.TransferResult;
+import com.banking.transaction.dto.TransferStatusResponse;
+import com.banking.transaction.entity.TransferIntakeStatus;
 import com.banking.transaction.exception.AccountNotFoundException;
 import com.banking.transaction.exception.IdempotencyException;
 import com.banking.transaction.exception.InsufficientFundsException;
+import com.banking.transaction.exception.TransferNotFoundException;
+import com.banking.transaction.exception.TransferQueueFullException;
 import com.banking.transaction.exception.UnauthorizedTransactionException;
-import com.banking.transaction.service.TransactionService;
+import com.banking.transaction.execution.TransferExecutionService;
+import com.banking.transaction.intake.TransferIntakeService;
+import com.banking.transaction.routing.ReplicaRouter;
+import com.banking.transaction.service.BatchTransactionService;
+import com.banking.transaction.service.PayrollService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.ServletException;
 import org.junit.jupiter.api.Test;
@@ -16,13 +31,20 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -33,7 +55,19 @@ class TransactionControllerTest {
     private MockMvc mockMvc;
 
     @MockitoBean
-    private TransactionService transactionService;
+    private TransferExecutionService transferExecutionService;
+
+    @MockitoBean
+    private BatchTransactionService batchTransactionService;
+
+    @MockitoBean
+    private ReplicaRouter replicaRouter;
+
+    @MockitoBean
+    private PayrollService payrollService;
+
+    @MockitoBean
+    private TransferIntakeService transferIntakeService;
 
     @Autowired
     private ObjectMapper objectMapper;
@@ -54,7 +88,8 @@ class TransactionControllerTest {
     @Test
     void createTransaction_WhenRequestIsValid_ShouldReturnAccepted() throws Exception {
         TransactionRequest request = createValidTransactionRequest();
-        doNothing().when(transactionService).executeTransaction(any(TransactionRequest.class), eq(testCorrelationId), eq(testUserId));
+        when(transferExecutionService.execute(any(TransactionRequest.class), eq(testCorrelationId), eq(testUserId)))
+                .thenReturn(TransferResult.completed(testCorrelationId, request));
 
         mockMvc.perform(post("/api/v1/transactions")
                         .header(userIdHeader, testUserId)
@@ -66,6 +101,111 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$.data.correlationId").value(testCorrelationId));
     }
 
+    @Test
+    void createTransaction_WithReplicasConfigured_ShouldReturnSessionLsn() throws Exception {
+        TransactionRequest request = createValidTransactionRequest();
+        when(transferExecutionService.execute(any(TransactionRequest.class), eq(testCorrelationId), eq(testUserId)))
+                .thenReturn(TransferResult.completed(testCorrelationId, request));
+        when(replicaRouter.isEnabled()).thenReturn(true);
+        when(replicaRouter.sessionToken()).thenReturn(Optional.of("0/3000"));
+
+        mockMvc.perform(post("/api/v1/transactions")
+                        .header(userIdHeader, testUserId)
+                        .header(correlationIdHeader, testCorrelationId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("X-Session-LSN", "0/3000"));
+    }
+
+    @Test
+    void createTransaction_WhenAlreadyProcessed_ShouldReturnOriginalResult() throws Exception {
+        TransactionRequest request = createValidTransactionRequest();
+        when(transferExecutionService.execute(any(TransactionRequest.class), eq(testCorrelationId), eq(testUserId)))
+                .thenReturn(new TransferResult(testCorrelationId, request.getFromIban(), request.getToIban(),
+                        request.getAmount(), LocalDateTime.now(), true));
+
+        mockMvc.perform(post("/api/v1/transactions")
+                        .header(userIdHeader, testUserId)
+                        .header(correlationIdHeader, testCorrelationId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Transaction already processed."))
+                .andExpect(jsonPath("$.data.replayed").value(true))
+                .andExpect(jsonPath("$.data.amount").value(100.00));
+    }
+
+    @Test
+    void createTransaction_WithIntakeEnabled_ShouldAcceptWithoutExecuting() throws Exception {
+        TransactionRequest request = createValidTransactionRequest();
+        when(transferIntakeService.isEnabled()).thenReturn(true);
+        when(transferIntakeService.accept(any(TransactionRequest.class), eq(testCorrelationId), eq(testUserId)))
+                .thenReturn(new TransferStatusResponse(testCorrelationId, TransferIntakeStatus.PENDING, request.getFromIban(),
+                        request.getToIban(), request.getAmount(), LocalDateTime.now(), null, null, false));
+
+        mockMvc.perform(post("/api/v1/transactions")
+                        .header(userIdHeader, testUserId)
+                        .header(correlationIdHeader, testCorrelationId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/v1/transactions/" + testCorrelationId))
+                .andExpect(jsonPath("$.data.status").value("PENDING"));
+
+        verify(transferExecutionService, never()).execute(any(), any(), any());
+    }
+
+    @Test
+    void getTransaction_ShouldReturnStatus() throws Exception {
+        when(transferIntakeService.findStatus(testCorrelationId, testUserId))
+                .thenReturn(new TransferStatusResponse(testCorrelationId, TransferIntakeStatus.REJECTED, "TR111", "TR222",
+                        new BigDecimal("100.00"), LocalDateTime.now(), LocalDateTime.now(), "Insufficient funds", false));
+
+        mockMvc.perform(get("/api/v1/transactions/" + testCorrelationId)
+                        .header(userIdHeader, testUserId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.status").value("REJECTED"))
+                .andExpect(jsonPath("$.data.failureReason").value("Insufficient funds"));
+    }
+
+    @Test
+    void getTransaction_WhenCompletedWithReplicasConfigured_ShouldReturnSessionLsn() throws Exception {
+        when(transferIntakeService.findStatus(testCorrelationId, testUserId))
+                .thenReturn(new TransferStatusResponse(testCorrelationId, TransferIntakeStatus.COMPLETED, "TR111", "TR222",
+                        new BigDecimal("100.00"), LocalDateTime.now(), LocalDateTime.now(), null, false));
+        when(replicaRouter.isEnabled()).thenReturn(true);
+        when(replicaRouter.sessionToken()).thenReturn(Optional.of("0/4000"));
+
+        mockMvc.perform(get("/api/v1/transactions/" + testCorrelationId)
+                        .header(userIdHeader, testUserId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Session-LSN", "0/4000"));
+    }
+
+    @Test
+    void getTransaction_WhenPendingWithReplicasConfigured_ShouldNotReturnSessionLsn() throws Exception {
+        when(transferIntakeService.findStatus(testCorrelationId, testUserId))
+                .thenReturn(new TransferStatusResponse(testCorrelationId, TransferIntakeStatus.PENDING, "TR111", "TR222",
+                        new BigDecimal("100.00"), LocalDateTime.now(), null, null, false));
+        when(replicaRouter.isEnabled()).thenReturn(true);
+
+        mockMvc.perform(get("/api/v1/transactions/" + testCorrelationId)
+                        .header(userIdHeader, testUserId))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Session-LSN"));
+    }
+
+    @Test
+    void getTransaction_WhenUnknown_ShouldReturnNotFound() throws Exception {
+        doThrow(new TransferNotFoundException("Transfer not found")).when(transferIntakeService)
+                .findStatus(testCorrelationId, testUserId);
+
+        mockMvc.perform(get("/api/v1/transactions/" + testCorrelationId)
+                        .header(userIdHeader, testUserId))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void createTransaction_WhenCorrelationIdHeaderIsMissing_ShouldReturnBadRequest() throws Exception {
         TransactionRequest request = createValidTransactionRequest();
@@ -106,8 +246,8 @@ class TransactionControllerTest {
     @Test
     void createTransaction_WhenAccountNotFoundException_ShouldReturnNotFound() throws Exception {
         TransactionRequest request = createValidTransactionRequest();
-        doThrow(new AccountNotFoundException("Account not found")).when(transactionService)
-                .executeTransaction(any(TransactionRequest.class), eq(testCorrelationId), eq(testUserId));
+        doThrow(new AccountNotFoundException("Account not found")).when(transferExecutionService)
+                .execute(any(TransactionRequest.class), eq(testCorrelationId), eq(testUserId));
 
         mockMvc.perform(post("/api/v1/transactions")
                         .header(userIdHeader, testUserId)
@@ -120,8 +260,8 @@ class TransactionControllerTest {
     @Test
     void createTransaction_WhenInsufficientFundsException_ShouldReturnBadRequest() throws Exception {
         TransactionRequest request = createValidTransactionRequest();
-        doThrow(new InsufficientFundsException("Insufficient funds")).when(transactionService)
-                .executeTransaction(any(TransactionRequest.class), eq(testCorrelationId), eq(testUserId));
+        doThrow(new InsufficientFundsException("Insufficient funds")).when(transferExecutionService)
+                .execute(any(TransactionRequest.class), eq(testCorrelationId), eq(testUserId));
 
         mockMvc.perform(post("/api/v1/transactions")
                         .header(userIdHeader, testUserId)
@@ -135,8 +275,8 @@ class TransactionControllerTest {
     void createTransaction_WhenUnauthorizedTransactionException_ShouldReturnForbidden() throws Exception {
         // Fix: isUnauthorized() (401) yerine isForbidden() (403) beklendiği için güncellendi.
         TransactionRequest request = createValidTransactionRequest();
-        doThrow(new UnauthorizedTransactionException("Unauthorized")).when(transactionService)
-                .executeTransaction(any(TransactionRequest.class), eq(testCorrelationId), eq(testUserId));
+        doThrow(new UnauthorizedTransactionException("Unauthorized")).when(transferExecutionService)
+                .execute(any(TransactionRequest.class), eq(testCorrelationId), eq(testUserId));
 
         mockMvc.perform(post("/api/v1/transactions")
                         .header(userIdHeader, testUserId)
@@ -149,8 +289,8 @@ class TransactionControllerTest {
     @Test
     void createTransaction_WhenIdempotencyException_ShouldReturnConflict() throws Exception {
         TransactionRequest request = createValidTransactionRequest();
-        doThrow(new IdempotencyException("Already processed")).when(transactionService)
-                .executeTransaction(any(TransactionRequest.class), eq(testCorrelationId), eq(testUserId));
+        doThrow(new IdempotencyException("Already processed")).when(transferExecutionService)
+                .execute(any(TransactionRequest.class), eq(testCorrelationId), eq(testUserId));
 
         mockMvc.perform(post("/api/v1/transactions")
                         .header(userIdHeader, testUserId)
@@ -160,12 +300,82 @@ class TransactionControllerTest {
                 .andExpect(status().isConflict());
     }
 
+    @Test
+    void createTransaction_WhenTransferQueueIsFull_ShouldReturnTooManyRequests() throws Exception {
+        TransactionRequest request = createValidTransactionRequest();
+        doThrow(new TransferQueueFullException("Transfer lane 3 is full")).when(transferExecutionService)
+                .execute(any(TransactionRequest.class), eq(testCorrelationId), eq(testUserId));
+
+        mockMvc.perform(post("/api/v1/transactions")
+                        .header(userIdHeader, testUserId)
+                        .header(correlationIdHeader, testCorrelationId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void createBatch_WhenRequestIsValid_ShouldReturnPerItemResults() throws Exception {
+        BatchTransactionRequest request = new BatchTransactionRequest();
+        request.setItems(List.of(createValidTransactionRequest(), createValidTransactionRequest()));
+        when(batchTransactionService.executeBatch(any(), eq(testCorrelationId), eq(testUserId))).thenReturn(List.of(
+                new BatchItemResult(0, testCorrelationId + "-0", BatchItemStatus.SUCCESS, null),
+                new BatchItemResult(1, testCorrelationId + "-1", BatchItemStatus.INSUFFICIENT_FUNDS, "Insufficient funds")));
+
+        mockMvc.perform(post("/api/v1/transactions/batch")
+                        .header(userIdHeader, testUserId)
+                        .header(correlationIdHeader, testCorrelationId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.total").value(2))
+                .andExpect(jsonPath("$.data.succeeded").value(1))
+                .andExpect(jsonPath("$.data.failed").value(1))
+                .andExpect(jsonPath("$.data.items[1].status").value("INSUFFICIENT_FUNDS"));
+    }
+
+    @Test
+    void createBatch_WhenItemIsInvalid_ShouldReturnBadRequest() throws Exception {
+        TransactionRequest invalid = new TransactionRequest();
+        invalid.setFromIban("INVALID");
+        BatchTransactionRequest request = new BatchTransactionRequest();
+        request.setItems(List.of(createValidTransactionRequest(), invalid));
+
+        mockMvc.perform(post("/api/v1/transactions/batch")
+                        .header(userIdHeader, testUserId)
+                        .header(correlationIdHeader, testCorrelationId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void createPayroll_WhenRequestIsValid_ShouldReturnUnpaidLines() throws Exception {
+        PayrollRequest request = new PayrollRequest();
+        request.setFromIban("TR123456789012345678901234");
+        request.setLines(List.of(new PayrollLine("TR987654321098765432109876", new BigDecimal("1000.00")),
+                new PayrollLine("TR987654321098765432100000", new BigDecimal("1000.00"))));
+        when(payrollService.execute(any(), eq(testCorrelationId), eq(testUserId))).thenReturn(new PayrollResponse(
+                testCorrelationId, 2, 1, 0, 1, new BigDecimal("1000.00"),
+                List.of(new BatchItemResult(1, testCorrelationId + "-1", BatchItemStatus.ACCOUNT_NOT_FOUND, "Receiver account not found"))));
+
+        mockMvc.perform(post("/api/v1/transactions/payroll")
+                        .header(userIdHeader, testUserId)
+                        .header(correlationIdHeader, testCorrelationId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.succeeded").value(1))
+                .andExpect(jsonPath("$.data.totalDebited").value(1000.00))
+                .andExpect(jsonPath("$.data.unpaidLines[0].status").value("ACCOUNT_NOT_FOUND"));
+    }
+
     @Test
     void createTransaction_WhenGenericException_ShouldThrowServletException() {
         // Fix: GlobalExceptionHandler test ortamında olmadığı için 500 dönmez, exception fırlatır.
         TransactionRequest request = createValidTransactionRequest();
-        doThrow(new RuntimeException("Something went wrong")).when(transactionService)
-                .executeTransaction(any(TransactionRequest.class), eq(testCorrelationId), eq(testUserId));
+        doThrow(new RuntimeException("Something went wrong")).when(transferExecutionService)
+                .execute(any(TransactionRequest.class), eq(testCorrelationId), eq(testUserId));
 
         Exception exception = assertThrows(ServletException.class, () -> {
             mockMvc.perform(post("/api/v1/transactions")
@@ -0,0 +1,224 @@
+package com.banking.transaction.execution;
+
+import com.banking.transaction.dto.TransactionRequest;
+import com.banking.transaction.dto.TransferResult;
+import com.banking.transaction.exception.InsufficientFundsException;
+import com.banking.transaction.exception.TransferOutcomeUnknownException;
+import com.banking.transaction.execution.GroupCommitExecutor.PendingTransfer;
+import com.banking.transaction.service.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GroupCommitExecutorTest {
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private Savepoint savepoint;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TransactionStatus status;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private GroupCommitExecutor groupCommitExecutor;
+    private TransactionRequest request;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        groupCommitExecutor = new GroupCommitExecutor(transactionService, entityManager, jdbcTemplate, transactionManager,
+                meterRegistry, 8, Duration.ofMillis(1), 100, Duration.ofSeconds(5));
+        request = new TransactionRequest();
+        request.setFromIban("TR111");
+        request.setToIban("TR222");
+        request.setAmount(new BigDecimal("10.00"));
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(status);
+        lenient().when(connection.setSavepoint()).thenReturn(savepoint);
+        lenient().when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenAnswer(invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        groupCommitExecutor.destroy();
+    }
+
+    @Test
+    void execute_ShouldReturnResultAfterCommit() {
+        // Arrange
+        TransferResult result = TransferResult.completed("corr-1", request);
+        when(transactionService.applyTransfer(request, "corr-1", 1L)).thenReturn(result);
+
+        // Act
+        TransferResult actual = groupCommitExecutor.execute(request, "corr-1", 1L);
+
+        // Assert
+        assertSame(result, actual);
+        verify(transactionManager).commit(status);
+    }
+
+    @Test
+    void execute_WhenGroupOutlastsTimeout_ShouldReportOutcomeAsUnknown() throws InterruptedException {
+        // Arrange
+        GroupCommitExecutor impatient = new GroupCommitExecutor(transactionService, entityManager, jdbcTemplate,
+                transactionManager, meterRegistry, 8, Duration.ofMillis(1), 100, Duration.ofMillis(100));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+        TransferResult result = TransferResult.completed("corr-1", request);
+        when(transactionService.applyTransfer(request, "corr-1", 1L)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return result;
+        });
+        doAnswer(invocation -> {
+            committed.countDown();
+            return null;
+        }).when(transactionManager).commit(status);
+
+        try {
+            // Act & Assert
+            assertThrows(TransferOutcomeUnknownException.class, () -> impatient.execute(request, "corr-1", 1L));
+            release.countDown();
+            assertTrue(committed.await(5, TimeUnit.SECONDS));
+            assertEquals(1.0, meterRegistry.get("transaction.group-commit.timed-out").counter().count());
+            assertEquals(0.0, meterRegistry.get("transaction.group-commit.rejected").counter().count());
+        } finally {
+            release.countDown();
+            impatient.destroy();
+        }
+    }
+
+    @Test
+    void commit_WhenOneTransferIsRejected_ShouldRollBackOnlyThatTransfer() throws SQLException {
+        // Arrange
+        List<PendingTransfer> group = List.of(pending("corr-1"), pending("corr-2"), pending("corr-3"));
+        when(transactionService.applyTransfer(eq(request), any(), eq(1L)))
+                .thenAnswer(invocation -> TransferResult.completed(invocation.getArgument(1), request));
+        when(transactionService.applyTransfer(request, "corr-2", 1L))
+                .thenThrow(new InsufficientFundsException("Insufficient funds"));
+
+        // Act
+        groupCommitExecutor.commit(group);
+
+        // Assert
+        assertEquals("corr-1", group.get(0).result().join().getCorrelationId());
+        CompletionException failure = assertThrows(CompletionException.class, () -> group.get(1).result().join());
+        assertInstanceOf(InsufficientFundsException.class, failure.getCause());
+        assertEquals("corr-3", group.get(2).result().join().getCorrelationId());
+        verify(connection, times(1)).rollback(savepoint);
+        verify(entityManager, times(2)).flush();
+        verify(status, never()).setRollbackOnly();
+        verify(transactionManager, times(1)).commit(status);
+        assertEquals(2.0, meterRegistry.get("transaction.group-commit.size").summary().totalAmount());
+    }
+
+    @Test
+    void commit_WhenTransferHitsDatabaseError_ShouldReapplyRestOfGroupInNewTransaction() {
+        // Arrange
+        List<PendingTransfer> group = List.of(pending("corr-1"), pending("corr-2"), pending("corr-3"));
+        when(transactionService.applyTransfer(eq(request), any(), eq(1L)))
+                .thenAnswer(invocation -> TransferResult.completed(invocation.getArgument(1), request));
+        when(transactionService.applyTransfer(request, "corr-2", 1L))
+                .thenThrow(new ObjectOptimisticLockingFailureException("Account", 1L));
+
+        // Act
+        groupCommitExecutor.commit(group);
+
+        // Assert
+        assertEquals("corr-1", group.get(0).result().join().getCorrelationId());
+        CompletionException failure = assertThrows(CompletionException.class, () -> group.get(1).result().join());
+        assertInstanceOf(ObjectOptimisticLockingFailureException.class, failure.getCause());
+        assertEquals("corr-3", group.get(2).result().join().getCorrelationId());
+        verify(status).setRollbackOnly();
+        verify(transactionManager, times(2)).getTransaction(any());
+        verify(transactionService, times(2)).applyTransfer(request, "corr-1", 1L);
+        verify(transactionService, times(1)).applyTransfer(request, "corr-3", 1L);
+        assertEquals(1.0, meterRegistry.get("transaction.group-commit.regrouped").counter().count());
+    }
+
+    @Test
+    void commit_WhenVersionConflictSurfacesAtFlush_ShouldFailTransferWithConcurrencyFailure() {
+        // Arrange
+        List<PendingTransfer> group = List.of(pending("corr-1"), pending("corr-2"), pending("corr-3"));
+        when(transactionService.applyTransfer(eq(request), any(), eq(1L)))
+                .thenAnswer(invocation -> TransferResult.completed(invocation.getArgument(1), request));
+        doNothing().doThrow(new OptimisticLockException("Row was updated by another transaction"))
+                .doNothing().when(entityManager).flush();
+
+        // Act
+        groupCommitExecutor.commit(group);
+
+        // Assert
+        CompletionException failure = assertThrows(CompletionException.class, () -> group.get(1).result().join());
+        assertInstanceOf(ConcurrencyFailureException.class, failure.getCause());
+        assertEquals("corr-1", group.get(0).result().join().getCorrelationId());
+        assertEquals("corr-3", group.get(2).result().join().getCorrelationId());
+        verify(status).setRollbackOnly();
+        assertEquals(1.0, meterRegistry.get("transaction.group-commit.regrouped").counter().count());
+    }
+
+    @Test
+    void commit_WhenDuplicateKeySurfacesAtFlush_ShouldFailTransferWithDataIntegrityViolation() {
+        // Arrange
+        List<PendingTransfer> group = List.of(pending("corr-1"));
+        when(transactionService.applyTransfer(request, "corr-1", 1L)).thenReturn(TransferResult.completed("corr-1", request));
+        doThrow(new PersistenceException(new ConstraintViolationException("duplicate key",
+                new SQLException("duplicate key value violates unique constraint", "23505"), "idempotency_key_pkey")))
+                .when(entityManager).flush();
+
+        // Act
+        groupCommitExecutor.commit(group);
+
+        // Assert
+        CompletionException failure = assertThrows(CompletionException.class, () -> group.get(0).result().join());
+        assertInstanceOf(DataIntegrityViolationException.class, failure.getCause());
+        verify(status).setRollbackOnly();
+    }
+
+    private PendingTransfer pending(String correlationId) {
+        return new PendingTransfer(request, correlationId, 1L, System.nanoTime());
+    }
+}
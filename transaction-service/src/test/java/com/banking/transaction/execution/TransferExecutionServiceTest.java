@@ -0,0 +1,102 @@
+package com.banking.transaction.execution;
+
+import com.banking.transaction.dto.TransactionRequest;
+import com.banking.transaction.dto.TransferResult;
+import com.banking.transaction.exception.TransferConflictException;
+import com.banking.transaction.service.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferExecutionServiceTest {
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private ObjectProvider<TransferLaneExecutor> laneExecutor;
+
+    @Mock
+    private ObjectProvider<GroupCommitExecutor> groupCommitExecutor;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TransferExecutionService transferExecutionService;
+    private TransactionRequest request;
+
+    @BeforeEach
+    void setUp() {
+        transferExecutionService = new TransferExecutionService(transactionService, laneExecutor, groupCommitExecutor, meterRegistry,
+                3, Duration.ofMillis(1), Duration.ofMillis(5));
+        request = new TransactionRequest();
+        request.setFromIban("TR111");
+        request.setToIban("TR222");
+        request.setAmount(new BigDecimal("10.00"));
+    }
+
+    @Test
+    void execute_WhenVersionConflictIsTransient_ShouldRetryAndSucceed() {
+        // Arrange
+        TransferResult result = TransferResult.completed("corr-1", request);
+        when(transactionService.executeTransaction(request, "corr-1", 1L))
+                .thenThrow(new ObjectOptimisticLockingFailureException("Account", 1L))
+                .thenReturn(result);
+
+        // Act
+        TransferResult actual = transferExecutionService.execute(request, "corr-1", 1L);
+
+        // Assert
+        assertSame(result, actual);
+        verify(transactionService, times(2)).executeTransaction(request, "corr-1", 1L);
+        assertEquals(1.0, meterRegistry.get("transaction.locking.retries").counter().count());
+    }
+
+    @Test
+    void execute_WhenConflictPersists_ShouldThrowTransferConflictException() {
+        // Arrange
+        when(transactionService.executeTransaction(request, "corr-1", 1L))
+                .thenThrow(new CannotAcquireLockException("deadlock detected"));
+
+        // Act & Assert
+        assertThrows(TransferConflictException.class, () -> transferExecutionService.execute(request, "corr-1", 1L));
+        verify(transactionService, times(3)).executeTransaction(request, "corr-1", 1L);
+        assertEquals(1.0, meterRegistry.get("transaction.locking.retries.exhausted").counter().count());
+    }
+
+    @Test
+    void execute_WhenVersionConflictOnLane_ShouldLeaveTheLaneBetweenAttempts() throws InterruptedException {
+        // Arrange
+        TransferLaneExecutor lanes = new TransferLaneExecutor(meterRegistry, 1, 10, Duration.ofSeconds(5));
+        when(laneExecutor.getIfAvailable()).thenReturn(lanes);
+        transferExecutionService = new TransferExecutionService(transactionService, laneExecutor, groupCommitExecutor, meterRegistry,
+                3, Duration.ofMillis(1), Duration.ofMillis(5));
+        TransferResult result = TransferResult.completed("corr-1", request);
+        when(transactionService.executeTransaction(request, "corr-1", 1L))
+                .thenThrow(new ObjectOptimisticLockingFailureException("Account", 1L))
+                .thenReturn(result);
+
+        try {
+            // Act
+            TransferResult actual = transferExecutionService.execute(request, "corr-1", 1L);
+
+            // Assert
+            assertSame(result, actual);
+            assertEquals(2, meterRegistry.get("transaction.lanes.execution").timer().count());
+            assertEquals(1.0, meterRegistry.get("transaction.locking.retries").counter().count());
+        } finally {
+            lanes.destroy();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.banking.transaction.execution;
+
+import com.banking.transaction.exception.InsufficientFundsException;
+import com.banking.transaction.exception.TransferOutcomeUnknownException;
+import com.banking.transaction.exception.TransferQueueFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransferLaneExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TransferLaneExecutor laneExecutor;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (laneExecutor != null) {
+            laneExecutor.destroy();
+        }
+    }
+
+    @Test
+    void execute_ShouldReturnResultOfWork() {
+        laneExecutor = new TransferLaneExecutor(meterRegistry, 4, 10, Duration.ofSeconds(5));
+
+        String result = laneExecutor.execute("TR111", "TR222", () -> "done");
+
+        assertEquals("done", result);
+        assertEquals(1, meterRegistry.find("transaction.lanes.execution").timers().stream()
+                .mapToLong(timer -> timer.count()).sum());
+    }
+
+    @Test
+    void execute_WhenWorkThrows_ShouldRethrowOriginalException() {
+        laneExecutor = new TransferLaneExecutor(meterRegistry, 4, 10, Duration.ofSeconds(5));
+
+        InsufficientFundsException exception = assertThrows(InsufficientFundsException.class, () ->
+                laneExecutor.execute("TR111", "TR222", () -> {
+                    throw new InsufficientFundsException("Insufficient funds");
+                })
+        );
+        assertEquals("Insufficient funds", exception.getMessage());
+    }
+
+    @Test
+    void laneOf_ShouldBeDeterministicForSameIban() {
+        laneExecutor = new TransferLaneExecutor(meterRegistry, 8, 10, Duration.ofSeconds(5));
+
+        int lane = laneExecutor.laneOf("TR123456789012345678901234");
+
+        assertEquals(lane, laneExecutor.laneOf("TR123456789012345678901234"));
+        assertTrue(lane >= 0 && lane < 8);
+    }
+
+    @Test
+    void execute_WhenLaneQueueIsFull_ShouldThrowTransferQueueFullException() throws Exception {
+        laneExecutor = new TransferLaneExecutor(meterRegistry, 1, 1, Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            CompletableFuture<Object> running = CompletableFuture.supplyAsync(() -> laneExecutor.execute("TR1", "TR2", () -> {
+                started.countDown();
+                awaitQuietly(release);
+                return null;
+            }), callers);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Object> queued = CompletableFuture.supplyAsync(() -> laneExecutor.execute("TR1", "TR2", () -> null), callers);
+            waitForQueueDepth(1);
+
+            assertThrows(TransferQueueFullException.class, () -> laneExecutor.execute("TR1", "TR2", () -> null));
+            assertEquals(1.0, meterRegistry.get("transaction.lanes.rejected").counter().count());
+
+            release.countDown();
+            running.get(5, TimeUnit.SECONDS);
+            queued.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_WhenRunningWorkOutlastsTimeout_ShouldReportOutcomeAsUnknown() throws Exception {
+        laneExecutor = new TransferLaneExecutor(meterRegistry, 1, 10, Duration.ofMillis(100));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        try {
+            assertThrows(TransferOutcomeUnknownException.class, () -> laneExecutor.execute("TR1", "TR2", () -> {
+                awaitQuietly(release);
+                finished.countDown();
+                return null;
+            }));
+
+            // The work is not abandoned: it still runs to its end once it can
+            release.countDown();
+            assertTrue(finished.await(5, TimeUnit.SECONDS));
+            assertEquals(1.0, meterRegistry.get("transaction.lanes.timed-out").counter().count());
+            assertEquals(0.0, meterRegistry.get("transaction.lanes.rejected").counter().count());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void execute_WhenQueuedWorkIsNotReachedInTime_ShouldRejectItAndNeverRunIt() throws Exception {
+        laneExecutor = new TransferLaneExecutor(meterRegistry, 1, 10, Duration.ofMillis(100));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean queuedRan = new AtomicBoolean();
+        ExecutorService callers = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<Object> running = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return laneExecutor.execute("TR1", "TR2", () -> {
+                        started.countDown();
+                        awaitQuietly(release);
+                        return null;
+                    });
+                } catch (TransferOutcomeUnknownException e) {
+                    return null;
+                }
+            }, callers);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertThrows(TransferQueueFullException.class, () -> laneExecutor.execute("TR1", "TR2", () -> {
+                queuedRan.set(true);
+                return null;
+            }));
+
+            release.countDown();
+            running.get(5, TimeUnit.SECONDS);
+            // Anything queued behind the dropped work has run once this returns
+            laneExecutor.execute("TR1", "TR2", () -> null);
+            assertFalse(queuedRan.get());
+            assertEquals(1.0, meterRegistry.get("transaction.lanes.rejected").counter().count());
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_WithOpposingTransfersAcrossLanes_ShouldSerializeWorkOnSharedAccounts() throws Exception {
+        laneExecutor = new TransferLaneExecutor(meterRegistry, 4, 10_000, Duration.ofSeconds(30));
+        String first = findIbanInLane(0, 0);
+        String second = findIbanInLane(3, 0);
+        String third = findIbanInLane(3, 1);
+        long[] balance = {0};
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                // Even transfers run on lane 0 and borrow lane 3's lock, odd transfers run on lane 3 itself
+                String from = i % 2 == 0 ? first : second;
+                String to = i % 2 == 0 ? second : third;
+                futures.add(CompletableFuture.supplyAsync(() -> laneExecutor.execute(from, to, () -> {
+                    long current = balance[0];
+                    Thread.onSpinWait();
+                    balance[0] = current + 1;
+                    return null;
+                }), callers));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertEquals(2_000, balance[0]);
+    }
+
+    private String findIbanInLane(int lane, int skip) {
+        for (int i = 0; ; i++) {
+            String iban = String.format("TR%024d", i);
+            if (laneExecutor.laneOf(iban) == lane && skip-- == 0) {
+                return iban;
+            }
+        }
+    }
+
+    private void waitForQueueDepth(double depth) throws InterruptedException {
+        for (int i = 0; i < 500 && meterRegistry.get("transaction.lanes.queue.depth").gauge().value() < depth; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
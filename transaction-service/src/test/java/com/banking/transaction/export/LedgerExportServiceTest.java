@@ -0,0 +1,180 @@
+package com.banking.transaction.export;
+
+import com.banking.transaction.cache.AccountMetadataCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the export against a fake JDBC driver whose result set generates rows on the fly, so any number of
+ * rows can be exported without a database.
+ */
+class LedgerExportServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void export_AsCsv_ShouldWriteHeaderAndQuoteSpecialCharacters() throws IOException {
+        FakeLedger ledger = new FakeLedger(2, "corr,\"x\"");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = service(ledger).export(7L, null, null, LedgerExportFormat.CSV, false, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, rows);
+        assertEquals("id,transaction_date,transaction_type,amount,balance_after,correlation_id", lines[0]);
+        assertEquals("1,2024-01-01T00:00:01,CREDIT,1.50,,\"corr,\"\"x\"\"\"", lines[1]);
+        assertEquals(500, ledger.fetchSize.get());
+    }
+
+    @Test
+    void export_AsGzippedNdjson_ShouldWriteOneJsonObjectPerLine() throws IOException {
+        FakeLedger ledger = new FakeLedger(3, "corr-1");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service(ledger).export(7L, LocalDateTime.of(2024, 1, 1, 0, 0), null, LedgerExportFormat.NDJSON, true, out);
+
+        String[] lines = new String(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes(),
+                StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        JsonNode last = objectMapper.readTree(lines[2]);
+        assertEquals(3, last.get("id").asLong());
+        assertTrue(lines[2].contains("\"amount\":1.50"), "amounts keep their scale");
+        assertTrue(last.get("balanceAfter").isNull());
+    }
+
+    /**
+     * Exports two million rows. The {@code constant-memory} surefire execution runs this with a heap far
+     * smaller than the exported data, so it fails with an OutOfMemoryError if rows are ever accumulated.
+     */
+    @Test
+    @Tag("constant-memory")
+    void export_WithMillionsOfRows_ShouldStreamInConstantMemory() throws IOException {
+        int rowCount = 2_000_000;
+        FakeLedger ledger = new FakeLedger(rowCount, "corr-export");
+        CountingOutputStream out = new CountingOutputStream();
+
+        long rows = service(ledger).export(7L, null, null, LedgerExportFormat.NDJSON, false, out);
+
+        assertEquals(rowCount, rows);
+        assertTrue(out.bytes > 100L * rowCount, "every row should have been written");
+    }
+
+    private LedgerExportService service(FakeLedger ledger) {
+        DataSource dataSource = ledger.dataSource();
+        return new LedgerExportService(mock(AccountMetadataCache.class), new JdbcTemplate(dataSource),
+                new DataSourceTransactionManager(dataSource), objectMapper, 500);
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+
+    private static final class FakeLedger {
+        private final int rows;
+        private final String correlationId;
+        private final AtomicInteger fetchSize = new AtomicInteger();
+        private final LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        FakeLedger(int rows, String correlationId) {
+            this.rows = rows;
+            this.correlationId = correlationId;
+        }
+
+        DataSource dataSource() {
+            Connection connection = stub(Connection.class, (method, args) -> switch (method) {
+                case "prepareStatement" -> statement();
+                case "getAutoCommit" -> true;
+                default -> null;
+            });
+            return stub(DataSource.class, (method, args) -> method.equals("getConnection") ? connection : null);
+        }
+
+        private PreparedStatement statement() {
+            return stub(PreparedStatement.class, (method, args) -> switch (method) {
+                case "setFetchSize" -> {
+                    fetchSize.set((Integer) args[0]);
+                    yield null;
+                }
+                case "executeQuery" -> resultSet();
+                default -> null;
+            });
+        }
+
+        private ResultSet resultSet() {
+            int[] current = {0};
+            return stub(ResultSet.class, (method, args) -> switch (method) {
+                case "next" -> ++current[0] <= rows;
+                case "getLong" -> (long) current[0];
+                case "getTimestamp" -> Timestamp.valueOf(start.plusSeconds(current[0]));
+                case "getBigDecimal" -> args[0].equals("amount") ? new BigDecimal("1.50") : null;
+                case "getString" -> args[0].equals("transaction_type") ? "CREDIT" : correlationId;
+                default -> null;
+            });
+        }
+
+        private interface Handler {
+            Object handle(String method, Object[] args);
+        }
+
+        private static <T> T stub(Class<T> type, Handler handler) {
+            Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+                switch (method.getName()) {
+                    case "hashCode":
+                        return System.identityHashCode(p);
+                    case "equals":
+                        return p == args[0];
+                    case "toString":
+                        return type.getSimpleName() + " stub";
+                    default:
+                        break;
+                }
+                Object result = handler.handle(method.getName(), args);
+                Class<?> returnType = method.getReturnType();
+                if (result != null || !returnType.isPrimitive() || returnType == void.class) {
+                    return result;
+                }
+                if (returnType == boolean.class) {
+                    return false;
+                }
+                if (returnType == long.class) {
+                    return 0L;
+                }
+                return 0;
+            });
+            return type.cast(proxy);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.banking.transaction.fraud;
+
+import com.banking.common.money.Money;
+import com.banking.transaction.exception.FraudCheckUnavailableException;
+import com.banking.transaction.exception.SuspectedFraudException;
+import com.banking.transaction.fx.FxRateService;
+import com.banking.transaction.repository.FxRateRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class FraudScreeningServiceTest {
+
+    @Mock
+    private FxRateRepository fxRateRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private FraudProperties properties;
+    private TransferFeatureStore featureStore;
+    private FraudScreeningService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new FraudProperties();
+        properties.setEnabled(true);
+        properties.setTimeout(Duration.ofMillis(100));
+        featureStore = new TransferFeatureStore(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.destroy();
+        }
+    }
+
+    private FraudScreeningService service(TransferScorer scorer) {
+        service = new FraudScreeningService(featureStore, scorer, new FxRateService(fxRateRepository, meterRegistry),
+                properties, meterRegistry);
+        return service;
+    }
+
+    private static Money lira(String amount) {
+        return Money.of(new BigDecimal(amount), "TRY");
+    }
+
+    private double outcomes(String outcome) {
+        return meterRegistry.get("transaction.fraud.outcomes").tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    void screen_WhenDisabled_ShouldNotScore() {
+        // Arrange
+        properties.setEnabled(false);
+
+        // Act
+        FraudScreening screening = service(features -> fail("Must not score")).screen(1L, "TR222", lira("10.00"));
+
+        // Assert
+        assertSame(FraudScreening.SKIPPED, screening);
+    }
+
+    @Test
+    void screen_WhenScoreReachesThreshold_ShouldRefuseTransfer() {
+        // Arrange
+        FraudScreeningService service = service(features -> new FraudScore(80, List.of("test")));
+
+        // Act & Assert
+        assertThrows(SuspectedFraudException.class, () -> service.screen(1L, "TR222", lira("10.00")));
+        assertEquals(1.0, outcomes("blocked"));
+        assertEquals(80.0, meterRegistry.get("transaction.fraud.score").summary().max());
+    }
+
+    @Test
+    void screen_WhenScoreIsLate_ShouldLetTransferThroughIfFailingOpen() {
+        // Arrange
+        FraudScreeningService service = service(features -> {
+            sleep(Duration.ofSeconds(5));
+            return FraudScore.NONE;
+        });
+
+        // Act
+        long start = System.nanoTime();
+        FraudScreening screening = service.screen(1L, "TR222", lira("10.00"));
+
+        // Assert
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(2).toNanos());
+        assertEquals(1000, screening.amountMinor());
+        assertEquals(1.0, outcomes("timeout"));
+    }
+
+    @Test
+    void screen_WhenScoreIsLate_ShouldRefuseTransferIfFailingClosed() {
+        // Arrange
+        properties.setFailurePolicy(FraudProperties.FailurePolicy.CLOSED);
+        FraudScreeningService service = service(features -> {
+            sleep(Duration.ofSeconds(5));
+            return FraudScore.NONE;
+        });
+
+        // Act & Assert
+        assertThrows(FraudCheckUnavailableException.class, () -> service.screen(1L, "TR222", lira("10.00")));
+    }
+
+    @Test
+    void screen_WhenScorerFails_ShouldApplyFailurePolicy() {
+        // Arrange
+        properties.setFailurePolicy(FraudProperties.FailurePolicy.CLOSED);
+        FraudScreeningService service = service(features -> {
+            throw new IllegalStateException("model unavailable");
+        });
+
+        // Act & Assert
+        assertThrows(FraudCheckUnavailableException.class, () -> service.screen(1L, "TR222", lira("10.00")));
+        assertEquals(1.0, outcomes("error"));
+    }
+
+    @Test
+    void screen_WhenAmountHasNoRateIntoTheScreeningCurrency_ShouldLetTransferThroughIfFailingOpen() {
+        // Arrange
+        FraudScreeningService service = service(features -> fail("Must not score"));
+
+        // Act
+        FraudScreening screening = service.screen(1L, "TR222", Money.of(new BigDecimal("10.00"), "USD"));
+
+        // Assert
+        assertSame(FraudScreening.SKIPPED, screening);
+        assertEquals(1.0, outcomes("error"));
+    }
+
+    @Test
+    void screen_WhenAmountHasNoRateIntoTheScreeningCurrency_ShouldRefuseTransferIfFailingClosed() {
+        // Arrange
+        properties.setFailurePolicy(FraudProperties.FailurePolicy.CLOSED);
+        FraudScreeningService service = service(features -> fail("Must not score"));
+
+        // Act & Assert
+        assertThrows(FraudCheckUnavailableException.class,
+                () -> service.screen(1L, "TR222", Money.of(new BigDecimal("10.00"), "USD")));
+    }
+
+    @Test
+    void screen_WithRules_ShouldRefuseUnusualTransferToNewBeneficiaryAfterManyTransfers() {
+        // Arrange
+        FraudScreeningService service = service(new RuleBasedTransferScorer(properties));
+        for (int i = 0; i < 20; i++) {
+            service.recordAfterCommit(service.screen(1L, "TR222", lira("100.00")));
+        }
+
+        // Act & Assert
+        service.recordAfterCommit(service.screen(1L, "TR222", lira("100.00")));
+        assertThrows(SuspectedFraudException.class, () -> service.screen(1L, "TR999", lira("5000.00")));
+        assertEquals(21.0, outcomes("allowed"));
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
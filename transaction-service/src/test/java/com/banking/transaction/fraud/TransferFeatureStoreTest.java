@@ -0,0 +1,77 @@
+package com.banking.transaction.fraud;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransferFeatureStoreTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private TransferFeatureStore store;
+
+    @BeforeEach
+    void setUp() {
+        FraudProperties properties = new FraudProperties();
+        properties.setBeneficiariesPerUser(2);
+        store = new TransferFeatureStore(properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void features_ForUnknownUser_ShouldHaveNoHistory() {
+        TransferFeatures features = store.features(1L, "TR222", 1000, NOW);
+
+        assertEquals(0, features.historySize());
+        assertEquals(0, features.transfersLastHour());
+        assertTrue(features.newBeneficiary());
+        assertEquals(0.0, features.amountDeviation());
+    }
+
+    @Test
+    void features_ShouldOnlyCountTransfersOfTheLastHour() {
+        // Arrange
+        store.record(1L, "TR222", 1000, NOW);
+        store.record(1L, "TR222", 2000, NOW + Duration.ofMinutes(30).toMillis());
+
+        // Act
+        TransferFeatures features = store.features(1L, "TR222", 500, NOW + Duration.ofMinutes(70).toMillis());
+
+        // Assert
+        assertEquals(1, features.transfersLastHour());
+        assertEquals(2000, features.amountLastHour());
+        assertEquals(2, features.historySize());
+    }
+
+    @Test
+    void features_ShouldMeasureAmountAgainstTheUsersHistory() {
+        // Arrange
+        for (long amount : new long[]{1000, 1100, 900, 1000, 1000}) {
+            store.record(1L, "TR222", amount, NOW);
+        }
+
+        // Act
+        TransferFeatures usual = store.features(1L, "TR222", 1000, NOW);
+        TransferFeatures unusual = store.features(1L, "TR222", 5000, NOW);
+
+        // Assert
+        assertEquals(0.0, usual.amountDeviation());
+        assertTrue(unusual.amountDeviation() > 10, "was " + unusual.amountDeviation());
+    }
+
+    @Test
+    void features_ShouldRememberOnlyTheMostRecentBeneficiaries() {
+        // Arrange
+        store.record(1L, "TR222", 1000, NOW);
+        store.record(1L, "TR333", 1000, NOW);
+        store.record(1L, "TR444", 1000, NOW);
+
+        // Act & Assert
+        assertTrue(store.features(1L, "TR222", 1000, NOW).newBeneficiary());
+        assertFalse(store.features(1L, "TR444", 1000, NOW).newBeneficiary());
+        assertTrue(store.features(2L, "TR444", 1000, NOW).newBeneficiary());
+    }
+}
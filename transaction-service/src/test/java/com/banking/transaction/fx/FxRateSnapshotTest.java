@@ -0,0 +1,61 @@
+package com.banking.transaction.fx;
+
+import com.banking.common.money.Money;
+import com.banking.transaction.entity.FxRate;
+import com.banking.transaction.exception.FxRateNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FxRateSnapshotTest {
+
+    private static FxRate rate(String base, String quote, String rate) {
+        return FxRate.builder().baseCurrency(base).quoteCurrency(quote).rate(new BigDecimal(rate)).build();
+    }
+
+    @Test
+    void convert_ShouldRoundHalfEvenToTheTargetMinorUnit() {
+        FxRateSnapshot snapshot = FxRateSnapshot.of(List.of(rate("USD", "JPY", "150.125")), LocalDateTime.now());
+
+        FxConversion conversion = snapshot.convert(Money.of(new BigDecimal("0.10"), "USD"), "JPY");
+
+        assertEquals(Money.ofMinor(15, "JPY"), conversion.converted());
+        assertEquals(new BigDecimal("150.125"), conversion.rate());
+        assertTrue(conversion.isCrossCurrency());
+    }
+
+    @Test
+    void rate_ShouldQuoteTheInverseOfPairsStoredInOneDirection() {
+        FxRateSnapshot snapshot = FxRateSnapshot.of(List.of(rate("USD", "TRY", "32")), LocalDateTime.now());
+
+        assertEquals(new BigDecimal("0.03125"), snapshot.rate("TRY", "USD"));
+    }
+
+    @Test
+    void rate_ShouldPreferAStoredRateOverTheInverse() {
+        FxRateSnapshot snapshot = FxRateSnapshot.of(List.of(rate("USD", "TRY", "32"), rate("TRY", "USD", "0.03")),
+                LocalDateTime.now());
+
+        assertEquals(new BigDecimal("0.03"), snapshot.rate("TRY", "USD"));
+    }
+
+    @Test
+    void convert_WithinOneCurrency_ShouldNotNeedARate() {
+        Money amount = Money.of(new BigDecimal("5.00"), "TRY");
+
+        FxConversion conversion = FxRateSnapshot.EMPTY.convert(amount, "TRY");
+
+        assertSame(amount, conversion.converted());
+        assertFalse(conversion.isCrossCurrency());
+    }
+
+    @Test
+    void convert_WithoutRate_ShouldThrow() {
+        assertThrows(FxRateNotFoundException.class,
+                () -> FxRateSnapshot.EMPTY.convert(Money.of(BigDecimal.ONE, "USD"), "EUR"));
+    }
+}
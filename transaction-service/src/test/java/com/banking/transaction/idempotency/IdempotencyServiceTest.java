@@ -0,0 +1,224 @@
+package com.banking.transaction.idempotency;
+
+import com.banking.transaction.dto.TransactionRequest;
+import com.banking.transaction.dto.TransferResult;
+import com.banking.transaction.entity.IdempotencyKey;
+import com.banking.transaction.exception.IdempotencyException;
+import com.banking.transaction.idempotency.IdempotencyService.StoredOutcome;
+import com.banking.transaction.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(idempotencyKeyRepository, jdbcTemplate, transactionManager,
+                objectMapper, meterRegistry, 1_000, 0.01, 100, Duration.ofHours(1), Duration.ofDays(30));
+    }
+
+    @Test
+    void findCompleted_WithUnknownKeyAfterBloomFilterLoaded_ShouldNotQueryDatabase() {
+        // Arrange
+        idempotencyService.loadBloomFilter();
+
+        // Act
+        Optional<TransferResult> result = idempotencyService.findCompleted("corr-new", 1L);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(idempotencyKeyRepository, never()).findById(any());
+        assertEquals(1.0, meterRegistry.get("transaction.idempotency.lookups").tag("result", "bloom_negative").counter().count());
+    }
+
+    @Test
+    void findCompleted_BeforeBloomFilterLoaded_ShouldQueryDatabase() {
+        // Arrange
+        when(idempotencyKeyRepository.findById(IdempotencyService.keyOf("corr-1"))).thenReturn(Optional.empty());
+
+        // Act
+        Optional<TransferResult> result = idempotencyService.findCompleted("corr-1", 1L);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(idempotencyKeyRepository).findById(IdempotencyService.keyOf("corr-1"));
+    }
+
+    @Test
+    void findCompleted_AfterRecord_ShouldReplayOriginalResultFromCache() {
+        // Arrange
+        idempotencyService.loadBloomFilter();
+        TransferResult original = result("corr-1");
+        idempotencyService.record("corr-1", 1L, original);
+
+        // Act
+        Optional<TransferResult> result = idempotencyService.findCompleted("corr-1", 1L);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertTrue(result.get().isReplayed());
+        assertEquals(original.getAmount(), result.get().getAmount());
+        verify(idempotencyKeyRepository).saveAll(anyList());
+        verify(idempotencyKeyRepository, never()).findById(any());
+    }
+
+    @Test
+    void loadCompleted_WithStoredOutcome_ShouldDeserializeIt() throws Exception {
+        // Arrange
+        TransferResult original = result("corr-1");
+        IdempotencyKey stored = IdempotencyKey.builder()
+                .id(IdempotencyService.keyOf("corr-1"))
+                .userId(1L)
+                .outcome(objectMapper.writeValueAsString(original))
+                .createdAt(LocalDateTime.now())
+                .build();
+        when(idempotencyKeyRepository.findById(stored.getId())).thenReturn(Optional.of(stored));
+
+        // Act
+        Optional<TransferResult> result = idempotencyService.loadCompleted("corr-1", 1L);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals("TR111", result.get().getFromIban());
+        assertTrue(result.get().isReplayed());
+    }
+
+    @Test
+    void findCompleted_WithKeyOfAnotherUser_ShouldThrowIdempotencyException() {
+        // Arrange
+        idempotencyService.record("corr-1", 2L, result("corr-1"));
+
+        // Act & Assert
+        assertThrows(IdempotencyException.class, () -> idempotencyService.findCompleted("corr-1", 1L));
+    }
+
+    @Test
+    void findCompletedCorrelationIds_ShouldOnlyQueryKeysTheBloomFilterMightContain() {
+        // Arrange
+        idempotencyService.loadBloomFilter();
+        idempotencyService.record("batch-0", 1L, result("batch-0"));
+        IdempotencyKey stored = IdempotencyKey.builder().id(IdempotencyService.keyOf("batch-0")).userId(1L).build();
+        when(idempotencyKeyRepository.findAllById(any())).thenReturn(List.of(stored));
+
+        // Act
+        Set<String> completed = idempotencyService.findCompletedCorrelationIds(List.of("batch-0", "batch-1", "batch-2"));
+
+        // Assert
+        assertEquals(Set.of("batch-0"), completed);
+        verify(idempotencyKeyRepository).findAllById(Set.of(IdempotencyService.keyOf("batch-0")));
+    }
+
+    @Test
+    void findCompletedOutcomes_ShouldReturnStoredOutcomesToTellReplaysFromReusedIds() throws Exception {
+        // Arrange
+        IdempotencyKey stored = IdempotencyKey.builder()
+                .id(IdempotencyService.keyOf("batch-1"))
+                .userId(2L)
+                .outcome(objectMapper.writeValueAsString(result("batch-1")))
+                .build();
+        when(idempotencyKeyRepository.findAllById(any())).thenReturn(List.of(stored));
+        TransactionRequest sameTransfer = request("100.00");
+        TransactionRequest otherTransfer = request("90.00");
+
+        // Act
+        Map<String, StoredOutcome> completed = idempotencyService.findCompletedOutcomes(List.of("batch-1", "batch-2"));
+
+        // Assert
+        assertEquals(Set.of("batch-1"), completed.keySet());
+        assertTrue(completed.get("batch-1").isReplayOf(sameTransfer, 2L));
+        assertFalse(completed.get("batch-1").isReplayOf(sameTransfer, 1L));
+        assertFalse(completed.get("batch-1").isReplayOf(otherTransfer, 2L));
+    }
+
+    @Test
+    void loadBloomFilter_ShouldOnlyLoadKeysInsideRetention() throws Exception {
+        // Arrange
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        ArgumentCaptor<PreparedStatementCreator> creator = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+
+        // Act
+        idempotencyService.loadBloomFilter();
+
+        // Assert
+        verify(jdbcTemplate).query(creator.capture(), any(RowCallbackHandler.class));
+        creator.getValue().createPreparedStatement(connection);
+        verify(connection).prepareStatement("SELECT id FROM idempotency_key WHERE created_at >= ?");
+        verify(statement).setObject(eq(1), argThat((LocalDateTime since) ->
+                since.isBefore(LocalDateTime.now().minusDays(29)) && since.isAfter(LocalDateTime.now().minusDays(31))));
+    }
+
+    @Test
+    void deleteExpired_ShouldDeleteInBatchesUntilNoneAreLeft() {
+        // Arrange
+        when(idempotencyKeyRepository.deleteCreatedBefore(any(), eq(10_000))).thenReturn(10_000, 10_000, 42);
+
+        // Act
+        idempotencyService.deleteExpired();
+
+        // Assert
+        verify(idempotencyKeyRepository, times(3)).deleteCreatedBefore(
+                argThat(before -> before.isBefore(LocalDateTime.now().minusDays(29))), eq(10_000));
+    }
+
+    @Test
+    void keyOf_ShouldBeStableAndDistinguishCorrelationIds() {
+        assertEquals(IdempotencyService.keyOf("corr-1"), IdempotencyService.keyOf("corr-1"));
+        assertNotEquals(IdempotencyService.keyOf("corr-1"), IdempotencyService.keyOf("corr-2"));
+    }
+
+    private static TransactionRequest request(String amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setFromIban("TR111");
+        request.setToIban("TR222");
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+
+    private static TransferResult result(String correlationId) {
+        return new TransferResult(correlationId, "TR111", "TR222", new BigDecimal("100.00"), LocalDateTime.now(), false);
+    }
+}
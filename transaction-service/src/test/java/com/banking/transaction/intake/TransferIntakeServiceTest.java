@@ -0,0 +1,170 @@
+package com.banking.transaction.intake;
+
+import com.banking.transaction.dto.TransactionRequest;
+import com.banking.transaction.dto.TransferResult;
+import com.banking.transaction.dto.TransferStatusResponse;
+import com.banking.transaction.entity.TransferIntake;
+import com.banking.transaction.entity.TransferIntakeStatus;
+import com.banking.transaction.exception.AccountNotFoundException;
+import com.banking.transaction.exception.IdempotencyException;
+import com.banking.transaction.exception.TransferNotFoundException;
+import com.banking.transaction.idempotency.IdempotencyService;
+import com.banking.transaction.repository.TransferIntakeRepository;
+import com.banking.transaction.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferIntakeServiceTest {
+
+    @Mock
+    private TransferIntakeRepository transferIntakeRepository;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private ObjectProvider<TransferIntakeWorker> worker;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TransferIntakeService transferIntakeService;
+    private TransactionRequest request;
+
+    @BeforeEach
+    void setUp() {
+        transferIntakeService = new TransferIntakeService(transferIntakeRepository, transactionService, idempotencyService,
+                worker, transactionManager, true);
+        request = new TransactionRequest();
+        request.setFromIban("TR111");
+        request.setToIban("TR222");
+        request.setAmount(new BigDecimal("10.00"));
+    }
+
+    private TransferIntake intake(Long userId, TransferIntakeStatus status) {
+        return TransferIntake.builder()
+                .correlationId("corr-1")
+                .userId(userId)
+                .fromIban("TR111")
+                .toIban("TR222")
+                .amount(new BigDecimal("10.00"))
+                .status(status)
+                .acceptedAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    void accept_WhenNew_ShouldStorePendingTransferWithoutExecutingIt() {
+        // Arrange
+        when(idempotencyService.findCompleted("corr-1", 1L)).thenReturn(Optional.empty());
+
+        // Act
+        TransferStatusResponse response = transferIntakeService.accept(request, "corr-1", 1L);
+
+        // Assert
+        ArgumentCaptor<TransferIntake> stored = ArgumentCaptor.forClass(TransferIntake.class);
+        verify(transferIntakeRepository).save(stored.capture());
+        assertEquals(TransferIntakeStatus.PENDING, stored.getValue().getStatus());
+        assertEquals(1L, stored.getValue().getUserId());
+        assertEquals(TransferIntakeStatus.PENDING, response.getStatus());
+        assertFalse(response.isReplayed());
+        verify(transactionService).precheck(request, 1L);
+        verifyNoMoreInteractions(transactionService);
+    }
+
+    @Test
+    void accept_WhenPrecheckFails_ShouldNotStoreTransfer() {
+        // Arrange
+        when(idempotencyService.findCompleted("corr-1", 1L)).thenReturn(Optional.empty());
+        doThrow(new AccountNotFoundException("Receiver account not found")).when(transactionService).precheck(request, 1L);
+
+        // Act & Assert
+        assertThrows(AccountNotFoundException.class, () -> transferIntakeService.accept(request, "corr-1", 1L));
+        verify(transferIntakeRepository, never()).save(any());
+    }
+
+    @Test
+    void accept_WhenAlreadyCompleted_ShouldReplayResult() {
+        // Arrange
+        TransferResult result = new TransferResult("corr-1", "TR111", "TR222", new BigDecimal("10.00"), LocalDateTime.now(), true);
+        when(idempotencyService.findCompleted("corr-1", 1L)).thenReturn(Optional.of(result));
+
+        // Act
+        TransferStatusResponse response = transferIntakeService.accept(request, "corr-1", 1L);
+
+        // Assert
+        assertEquals(TransferIntakeStatus.COMPLETED, response.getStatus());
+        assertTrue(response.isReplayed());
+        verify(transferIntakeRepository, never()).save(any());
+    }
+
+    @Test
+    void accept_WhenAlreadyAccepted_ShouldReturnExistingStatus() {
+        // Arrange
+        when(idempotencyService.findCompleted("corr-1", 1L)).thenReturn(Optional.empty());
+        when(transferIntakeRepository.save(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(transferIntakeRepository.findById("corr-1")).thenReturn(Optional.of(intake(1L, TransferIntakeStatus.PROCESSING)));
+
+        // Act
+        TransferStatusResponse response = transferIntakeService.accept(request, "corr-1", 1L);
+
+        // Assert
+        assertEquals(TransferIntakeStatus.PROCESSING, response.getStatus());
+        assertTrue(response.isReplayed());
+    }
+
+    @Test
+    void accept_WhenCorrelationIdWasUsedForDifferentTransfer_ShouldThrowIdempotencyException() {
+        // Arrange
+        request.setAmount(new BigDecimal("99.00"));
+        when(idempotencyService.findCompleted("corr-1", 1L)).thenReturn(Optional.empty());
+        when(transferIntakeRepository.save(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(transferIntakeRepository.findById("corr-1")).thenReturn(Optional.of(intake(1L, TransferIntakeStatus.PENDING)));
+
+        // Act & Assert
+        assertThrows(IdempotencyException.class, () -> transferIntakeService.accept(request, "corr-1", 1L));
+    }
+
+    @Test
+    void findStatus_WhenTransferBelongsToAnotherUser_ShouldThrowNotFound() {
+        // Arrange
+        when(transferIntakeRepository.findById("corr-1")).thenReturn(Optional.of(intake(2L, TransferIntakeStatus.COMPLETED)));
+
+        // Act & Assert
+        assertThrows(TransferNotFoundException.class, () -> transferIntakeService.findStatus("corr-1", 1L));
+    }
+
+    @Test
+    void findStatus_WhenExecutedSynchronously_ShouldReportStoredResult() {
+        // Arrange
+        TransferResult result = new TransferResult("corr-1", "TR111", "TR222", new BigDecimal("10.00"), LocalDateTime.now(), true);
+        when(transferIntakeRepository.findById("corr-1")).thenReturn(Optional.empty());
+        when(idempotencyService.loadCompleted("corr-1", 1L)).thenReturn(Optional.of(result));
+
+        // Act
+        TransferStatusResponse response = transferIntakeService.findStatus("corr-1", 1L);
+
+        // Assert
+        assertEquals(TransferIntakeStatus.COMPLETED, response.getStatus());
+        assertEquals(result.getCompletedAt(), response.getCompletedAt());
+    }
+}
@@ -0,0 +1,173 @@
+package com.banking.transaction.intake;
+
+import com.banking.transaction.dto.TransactionRequest;
+import com.banking.transaction.dto.TransferResult;
+import com.banking.transaction.entity.TransferIntake;
+import com.banking.transaction.entity.TransferIntakeStatus;
+import com.banking.transaction.exception.IdempotencyException;
+import com.banking.transaction.exception.InsufficientFundsException;
+import com.banking.transaction.exception.TransferConflictException;
+import com.banking.transaction.execution.TransferExecutionService;
+import com.banking.transaction.repository.TransferIntakeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferIntakeWorkerTest {
+
+    @Mock
+    private TransferIntakeRepository transferIntakeRepository;
+
+    @Mock
+    private TransferExecutionService transferExecutionService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TransferIntakeWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = new TransferIntakeWorker(transferIntakeRepository, transferExecutionService, transactionManager, meterRegistry,
+                1, 10, Duration.ofMillis(100), Duration.ofSeconds(60), 3, Duration.ofSeconds(1), Duration.ofDays(7));
+    }
+
+    private TransferIntake claimed(int attempts) {
+        return TransferIntake.builder()
+                .correlationId("corr-1")
+                .userId(1L)
+                .fromIban("TR111")
+                .toIban("TR222")
+                .amount(new BigDecimal("10.00"))
+                .status(TransferIntakeStatus.PROCESSING)
+                .attempts(attempts)
+                .acceptedAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    void claim_ShouldMarkRowsAsProcessingUntilLeaseEnds() {
+        // Arrange
+        TransferIntake pending = claimed(0);
+        pending.setStatus(TransferIntakeStatus.PENDING);
+        when(transferIntakeRepository.findClaimable(any(), eq(10))).thenReturn(List.of(pending));
+
+        // Act
+        List<TransferIntake> result = worker.claim();
+
+        // Assert
+        assertEquals(List.of(pending), result);
+        assertEquals(TransferIntakeStatus.PROCESSING, pending.getStatus());
+        assertEquals(1, pending.getAttempts());
+        assertTrue(pending.getAvailableAt().isAfter(LocalDateTime.now().plusSeconds(59)));
+    }
+
+    @Test
+    void process_WhenTransferSucceeds_ShouldMarkCompleted() {
+        // Arrange
+        TransferResult result = new TransferResult("corr-1", "TR111", "TR222", new BigDecimal("10.00"), LocalDateTime.now(), false);
+        when(transferExecutionService.execute(any(TransactionRequest.class), eq("corr-1"), eq(1L))).thenReturn(result);
+        when(transferIntakeRepository.finish("corr-1", 1, TransferIntakeStatus.COMPLETED, result.getCompletedAt(), null)).thenReturn(1);
+
+        // Act
+        worker.process(claimed(1));
+
+        // Assert
+        verify(transferIntakeRepository).finish("corr-1", 1, TransferIntakeStatus.COMPLETED, result.getCompletedAt(), null);
+        assertEquals(1.0, meterRegistry.get("transaction.intake.outcomes").tag("status", "COMPLETED").counter().count());
+    }
+
+    @Test
+    void process_WhenTransferIsRefused_ShouldRejectWithoutRetrying() {
+        // Arrange
+        when(transferExecutionService.execute(any(TransactionRequest.class), eq("corr-1"), eq(1L)))
+                .thenThrow(new InsufficientFundsException("Insufficient funds"));
+
+        // Act
+        worker.process(claimed(1));
+
+        // Assert
+        verify(transferIntakeRepository).finish(eq("corr-1"), eq(1), eq(TransferIntakeStatus.REJECTED), any(), eq("Insufficient funds"));
+        verify(transferIntakeRepository, never()).retryAt(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void process_WhenTransferConflicts_ShouldRetryLater() {
+        // Arrange
+        when(transferExecutionService.execute(any(TransactionRequest.class), eq("corr-1"), eq(1L)))
+                .thenThrow(new TransferConflictException("Transfer conflicted", new CannotAcquireLockException("deadlock")));
+
+        // Act
+        worker.process(claimed(1));
+
+        // Assert
+        verify(transferIntakeRepository).retryAt(eq("corr-1"), eq(1), any(), eq("Transfer conflicted"));
+        verify(transferIntakeRepository, never()).finish(any(), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    void process_WhenLastAttemptFails_ShouldMarkFailed() {
+        // Arrange
+        when(transferExecutionService.execute(any(TransactionRequest.class), eq("corr-1"), eq(1L)))
+                .thenThrow(new IllegalStateException("connection refused"));
+
+        // Act
+        worker.process(claimed(3));
+
+        // Assert
+        verify(transferIntakeRepository).finish(eq("corr-1"), eq(3), eq(TransferIntakeStatus.FAILED), any(), eq("connection refused"));
+    }
+
+    @Test
+    void process_WhenLeaseRanOutMeanwhile_ShouldNotCountTheOutcome() {
+        // Arrange
+        TransferResult result = new TransferResult("corr-1", "TR111", "TR222", new BigDecimal("10.00"), LocalDateTime.now(), false);
+        when(transferExecutionService.execute(any(TransactionRequest.class), eq("corr-1"), eq(1L))).thenReturn(result);
+        when(transferIntakeRepository.finish(any(), anyInt(), any(), any(), any())).thenReturn(0);
+
+        // Act
+        worker.process(claimed(1));
+
+        // Assert
+        assertEquals(0.0, meterRegistry.get("transaction.intake.outcomes").tag("status", "COMPLETED").counter().count());
+        assertEquals(0, meterRegistry.get("transaction.intake.completion").timer().count());
+    }
+
+    @Test
+    void deleteFinished_ShouldDeleteInBatchesUntilNoneAreLeft() {
+        // Arrange
+        when(transferIntakeRepository.deleteFinishedBefore(any(), eq(10_000))).thenReturn(10_000, 10_000, 42);
+
+        // Act
+        worker.deleteFinished();
+
+        // Assert
+        verify(transferIntakeRepository, times(3)).deleteFinishedBefore(
+                argThat(before -> before.isBefore(LocalDateTime.now().minusDays(6))), eq(10_000));
+    }
+
+    @Test
+    void isRetryable_ShouldTreatIdempotencyConflictAsFinal() {
+        assertFalse(TransferIntakeWorker.isRetryable(new IdempotencyException("used")));
+        assertTrue(TransferIntakeWorker.isRetryable(new TransferConflictException("conflict", new CannotAcquireLockException("x"))));
+        assertTrue(TransferIntakeWorker.isRetryable(new IllegalStateException("unknown")));
+    }
+}
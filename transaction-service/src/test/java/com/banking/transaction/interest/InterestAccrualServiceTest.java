@@ -0,0 +1,166 @@
+package com.banking.transaction.interest;
+
+import com.banking.transaction.entity.TransactionLedger;
+import com.banking.transaction.entity.TransactionType;
+import com.banking.transaction.repository.AccountRepository;
+import com.banking.transaction.repository.InterestAccrualRepository;
+import com.banking.transaction.repository.InterestAccrualRepository.AccruableAccount;
+import com.banking.transaction.repository.InterestAccrualRepository.CreditedAccount;
+import com.banking.transaction.repository.LedgerBatchRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InterestAccrualServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 10);
+
+    @Mock
+    private InterestAccrualRepository interestAccrualRepository;
+
+    @Mock
+    private LedgerBatchRepository ledgerBatchRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private InterestAccrualService service;
+
+    @BeforeEach
+    void setUp() {
+        InterestProperties properties = new InterestProperties();
+        properties.getAnnualRates().put("TRY", new BigDecimal("0.365"));
+        properties.setChunkSize(10);
+        properties.setThreads(2);
+        service = new InterestAccrualService(interestAccrualRepository, ledgerBatchRepository, accountRepository,
+                transactionManager, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    void dailyInterest_ShouldRoundHalfEvenToTheMinorUnit() {
+        assertEquals(new BigDecimal("0.10"), InterestAccrualService.dailyInterest(new BigDecimal("100.00"), "TRY", new BigDecimal("0.365"), 365).toBigDecimal());
+        // 12.50 * 0.0292 / 365 = 0.001 rounds to zero
+        assertEquals(0, InterestAccrualService.dailyInterest(new BigDecimal("12.50"), "TRY", new BigDecimal("0.0292"), 365).signum());
+        assertEquals(new BigDecimal("3"), InterestAccrualService.dailyInterest(new BigDecimal("1000"), "JPY", new BigDecimal("1.00"), 365).toBigDecimal());
+    }
+
+    @Test
+    void accrue_ShouldCreditEveryChunkAndCompleteTheRun() {
+        // Arrange
+        when(interestAccrualRepository.startRun(eq(DAY), eq(10), any())).thenReturn(10);
+        when(interestAccrualRepository.findCompletedChunkStarts(DAY)).thenReturn(Set.of());
+        when(accountRepository.findMaxId()).thenReturn(15L);
+        when(interestAccrualRepository.lockAccruableAccounts(0, 10, DAY)).thenReturn(List.of(
+                new AccruableAccount(1, new BigDecimal("100.00"), "TRY"),
+                new AccruableAccount(2, new BigDecimal("100.00"), "USD")));
+        when(interestAccrualRepository.lockAccruableAccounts(10, 20, DAY)).thenReturn(List.of(
+                new AccruableAccount(12, new BigDecimal("1000.00"), "TRY")));
+
+        // Act
+        AccrualProgress progress = service.accrue(DAY).orElseThrow();
+
+        // Assert
+        assertEquals(AccrualProgress.Status.COMPLETED, progress.status());
+        assertEquals(2, progress.totalChunks());
+        assertEquals(2, progress.completedChunks());
+        assertEquals(2, progress.accountsCredited());
+        verify(interestAccrualRepository).credit(List.of(new CreditedAccount(1, new BigDecimal("100.10"))), DAY);
+        verify(interestAccrualRepository).credit(List.of(new CreditedAccount(12, new BigDecimal("1001.00"))), DAY);
+        verify(interestAccrualRepository).completeChunk(eq(DAY), eq(0L), eq(10L), eq(1), any());
+        verify(interestAccrualRepository).completeChunk(eq(DAY), eq(10L), eq(20L), eq(1), any());
+        verify(interestAccrualRepository).completeRun(eq(DAY), any());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TransactionLedger>> entries = ArgumentCaptor.forClass(List.class);
+        verify(ledgerBatchRepository, times(2)).insertLedgerEntries(entries.capture());
+        TransactionLedger entry = entries.getAllValues().stream().flatMap(List::stream)
+                .filter(ledger -> ledger.getAccount().getId() == 1L).findFirst().orElseThrow();
+        assertEquals(TransactionType.CREDIT, entry.getTransactionType());
+        assertEquals(new BigDecimal("0.10"), entry.getAmount());
+        assertEquals("interest-2026-03-10-1", entry.getCorrelationId());
+    }
+
+    @Test
+    void accrue_ShouldSkipChunksAPreviousAttemptPosted() {
+        // Arrange
+        when(interestAccrualRepository.startRun(eq(DAY), eq(10), any())).thenReturn(10);
+        when(interestAccrualRepository.findCompletedChunkStarts(DAY)).thenReturn(Set.of(0L));
+        when(accountRepository.findMaxId()).thenReturn(15L);
+        when(interestAccrualRepository.lockAccruableAccounts(10, 20, DAY)).thenReturn(List.of());
+
+        // Act
+        AccrualProgress progress = service.accrue(DAY).orElseThrow();
+
+        // Assert
+        assertEquals(1, progress.resumedChunks());
+        assertEquals(2, progress.completedChunks());
+        verify(interestAccrualRepository, never()).lockAccruableAccounts(eq(0L), anyLong(), any());
+        verify(interestAccrualRepository, never()).credit(any(), any());
+        verify(interestAccrualRepository).completeChunk(eq(DAY), eq(10L), eq(20L), eq(0), any());
+    }
+
+    @Test
+    void accrue_ShouldFinishInterruptedEarlierDaysFirst() {
+        // Arrange
+        LocalDate earlier = DAY.minusDays(1);
+        when(interestAccrualRepository.findIncompleteRuns()).thenReturn(List.of(earlier));
+        when(interestAccrualRepository.startRun(any(), eq(10), any())).thenReturn(10);
+        when(interestAccrualRepository.findCompletedChunkStarts(any())).thenReturn(Set.of());
+        when(accountRepository.findMaxId()).thenReturn(5L);
+        when(interestAccrualRepository.lockAccruableAccounts(eq(0L), eq(10L), any())).thenReturn(List.of());
+
+        // Act
+        service.accrue(DAY);
+
+        // Assert
+        var order = inOrder(interestAccrualRepository);
+        order.verify(interestAccrualRepository).completeRun(eq(earlier), any());
+        order.verify(interestAccrualRepository).completeRun(eq(DAY), any());
+    }
+
+    @Test
+    void accrue_WhenAChunkKeepsLosingLocks_ShouldLeaveTheRunIncomplete() {
+        // Arrange
+        when(interestAccrualRepository.startRun(eq(DAY), eq(10), any())).thenReturn(10);
+        when(interestAccrualRepository.findCompletedChunkStarts(DAY)).thenReturn(Set.of());
+        when(accountRepository.findMaxId()).thenReturn(5L);
+        when(interestAccrualRepository.lockAccruableAccounts(0, 10, DAY))
+                .thenThrow(new CannotAcquireLockException("deadlock"));
+
+        // Act
+        AccrualProgress progress = service.accrue(DAY).orElseThrow();
+
+        // Assert
+        assertEquals(AccrualProgress.Status.INCOMPLETE, progress.status());
+        assertEquals(1, progress.failedChunks());
+        verify(interestAccrualRepository, times(3)).lockAccruableAccounts(0, 10, DAY);
+        verify(interestAccrualRepository, never()).completeRun(any(), any());
+        assertEquals(1.0, meterRegistry.get("transaction.interest.chunks").tag("outcome", "failed").counter().count());
+    }
+}
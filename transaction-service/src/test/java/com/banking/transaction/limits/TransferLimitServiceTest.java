@@ -0,0 +1,183 @@
+package com.banking.transaction.limits;
+
+import com.banking.common.money.Money;
+import com.banking.transaction.cache.AccountMetadata;
+import com.banking.transaction.entity.FxRate;
+import com.banking.transaction.exception.TransferLimitExceededException;
+import com.banking.transaction.fx.FxRateService;
+import com.banking.transaction.fx.FxRateSnapshot;
+import com.banking.transaction.repository.FxRateRepository;
+import com.banking.transaction.repository.TransferLimitRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferLimitServiceTest {
+
+    private static final List<String> SUBJECTS = List.of("user:7", "account:TR111");
+
+    @Mock
+    private TransferLimitRepository transferLimitRepository;
+
+    @Mock
+    private FxRateRepository fxRateRepository;
+
+    private FxRateService fxRateService;
+    private TransferLimitProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        fxRateService = new FxRateService(fxRateRepository, new SimpleMeterRegistry());
+        properties = new TransferLimitProperties();
+        properties.setEnabled(true);
+
+        TransferLimitProperties.Profile standard = new TransferLimitProperties.Profile();
+        standard.getUser().setDailyCount(3);
+        standard.getAccount().setDailyAmount(new BigDecimal("100.00"));
+        properties.getProfiles().put("standard", standard);
+
+        TransferLimitProperties.Profile premium = new TransferLimitProperties.Profile();
+        premium.getUser().setDailyAmount(new BigDecimal("10000.00"));
+        properties.getProfiles().put("premium", premium);
+    }
+
+    private TransferLimitService service() {
+        return new TransferLimitService(transferLimitRepository, fxRateService, properties, new SimpleMeterRegistry());
+    }
+
+    private static AccountMetadata sender(String limitProfile) {
+        return new AccountMetadata(1L, "TR111", 7L, "TRY", null, LocalDateTime.MIN, limitProfile);
+    }
+
+    private static Money lira(String amount) {
+        return Money.of(new BigDecimal(amount), "TRY");
+    }
+
+    @Test
+    void record_WhenDisabled_ShouldNotTouchCounters() {
+        // Arrange
+        properties.setEnabled(false);
+
+        // Act
+        service().record(sender(null), 7L, lira("10.00"));
+
+        // Assert
+        verifyNoInteractions(transferLimitRepository);
+    }
+
+    @Test
+    void record_WithinLimits_ShouldCountTransferForUserAndAccountInOneStatement() {
+        // Arrange
+        when(transferLimitRepository.add(eq(SUBJECTS), any(), eq(1000L), eq(1))).thenReturn(Map.of(
+                "user:7", new WindowUsage(1000, 1, 1000, 1),
+                "account:TR111", new WindowUsage(1000, 1, 9000, 3)));
+
+        // Act
+        service().record(sender(null), 7L, lira("10.00"));
+
+        // Assert
+        verify(transferLimitRepository).add(eq(SUBJECTS), any(), anyLong(), anyInt());
+        verify(transferLimitRepository).sumEarlier(eq(SUBJECTS), any());
+        verifyNoMoreInteractions(transferLimitRepository);
+    }
+
+    @Test
+    void record_WhenAccountLimitIsExceeded_ShouldTakeBackTheAddition() {
+        // Arrange
+        when(transferLimitRepository.add(eq(SUBJECTS), any(), eq(6000L), eq(1))).thenReturn(Map.of(
+                "user:7", new WindowUsage(6000, 1, 6000, 1),
+                "account:TR111", new WindowUsage(6000, 1, 10001, 2)));
+
+        // Act & Assert
+        TransferLimitExceededException exception = assertThrows(TransferLimitExceededException.class,
+                () -> service().record(sender(null), 7L, lira("60.00")));
+        assertEquals("Daily transfer amount limit of the account exceeded.", exception.getMessage());
+        verify(transferLimitRepository).add(eq(SUBJECTS), any(), eq(-6000L), eq(-1));
+    }
+
+    @Test
+    void record_WhenUserLimitIsExceeded_ShouldReportTheUserLimit() {
+        // Arrange
+        when(transferLimitRepository.add(eq(SUBJECTS), any(), eq(100L), eq(1))).thenReturn(Map.of(
+                "user:7", new WindowUsage(100, 4, 100, 4),
+                "account:TR111", new WindowUsage(100, 1, 100, 1)));
+
+        // Act & Assert
+        TransferLimitExceededException exception = assertThrows(TransferLimitExceededException.class,
+                () -> service().record(sender(null), 7L, lira("1.00")));
+        assertEquals("Daily transfer count limit of the user exceeded.", exception.getMessage());
+        verify(transferLimitRepository).add(eq(SUBJECTS), any(), eq(-100L), eq(-1));
+    }
+
+    @Test
+    void record_ShouldCountEarlierBucketsLoadedOncePerMinute() {
+        // Arrange
+        TransferLimitService service = service();
+        when(transferLimitRepository.add(eq(SUBJECTS), any(), eq(2000L), eq(1))).thenReturn(
+                Map.of("user:7", new WindowUsage(2000, 1, 2000, 1), "account:TR111", new WindowUsage(2000, 1, 2000, 1)),
+                Map.of("user:7", new WindowUsage(4000, 2, 4000, 2), "account:TR111", new WindowUsage(4000, 2, 4000, 2)));
+        when(transferLimitRepository.sumEarlier(eq(SUBJECTS), any()))
+                .thenReturn(Map.of("account:TR111", new WindowUsage(0, 0, 7000, 2)));
+
+        // Act
+        service.record(sender(null), 7L, lira("20.00"));
+        assertThrows(TransferLimitExceededException.class, () -> service.record(sender(null), 7L, lira("20.00")));
+
+        // Assert
+        verify(transferLimitRepository, times(1)).sumEarlier(any(), any());
+    }
+
+    @Test
+    void record_ShouldUseTheProfileOfTheSendingAccount() {
+        // Arrange
+        when(transferLimitRepository.add(eq(List.of("user:7")), any(), anyLong(), anyInt()))
+                .thenReturn(Map.of("user:7", new WindowUsage(100, 50, 100, 50)));
+
+        // Act
+        service().record(sender("premium"), 7L, lira("1.00"));
+
+        // Assert
+        verify(transferLimitRepository).add(eq(List.of("user:7")), any(), anyLong(), anyInt());
+        verify(transferLimitRepository).sumEarlier(eq(List.of("user:7")), any());
+        verifyNoMoreInteractions(transferLimitRepository);
+    }
+
+    @Test
+    void record_InAnotherCurrency_ShouldCountTheConvertedAmount() {
+        // Arrange
+        fxRateService.update(FxRateSnapshot.of(List.of(FxRate.builder()
+                .baseCurrency("USD").quoteCurrency("TRY").rate(new BigDecimal("32.50")).build()), LocalDateTime.now()));
+        when(transferLimitRepository.add(eq(SUBJECTS), any(), eq(6500L), eq(1))).thenReturn(Map.of(
+                "user:7", new WindowUsage(6500, 1, 6500, 1),
+                "account:TR111", new WindowUsage(6500, 1, 6500, 1)));
+
+        // Act
+        service().record(sender(null), 7L, Money.of(new BigDecimal("2.00"), "USD"));
+
+        // Assert
+        verify(transferLimitRepository).add(eq(SUBJECTS), any(), eq(6500L), eq(1));
+    }
+
+    @Test
+    void constructor_WithUnknownDefaultProfile_ShouldFail() {
+        properties.setDefaultProfile("missing");
+
+        assertThrows(IllegalStateException.class, this::service);
+    }
+}
@@ -0,0 +1,159 @@
+package com.banking.transaction.reconciliation;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerScanTest {
+
+    private static final Instant STARTED_AT = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Test
+    void report_WhenLedgerMatchesBalances_ShouldBeBalanced() {
+        // Arrange
+        LedgerScan scan = new LedgerScan(10, 16);
+        scan.add(1, 1, 100_000, "deposit-1", false, 0, 0);
+        scan.add(2, 1, -25_000, "tx-1-D", false, 0, 0);
+        scan.add(3, 2, 25_000, "tx-1-C", false, 0, 0);
+
+        // Act
+        scan.checkBalance(1, 75_000);
+        scan.checkBalance(2, 25_000);
+        ReconciliationReport report = scan.report(STARTED_AT, 5, true);
+
+        // Assert
+        assertEquals(ReconciliationReport.Status.BALANCED, report.status());
+        assertEquals(3, report.ledgerRows());
+        assertEquals(2, report.accounts());
+        assertTrue(report.discrepancies().isEmpty());
+    }
+
+    @Test
+    void checkBalance_WhenBalanceDiffersFromLedger_ShouldReportIt() {
+        // Arrange
+        LedgerScan scan = new LedgerScan(10, 16);
+        scan.add(1, 1, 100_000, "deposit-1", false, 0, 0);
+
+        // Act
+        scan.checkBalance(1, 90_000);
+        scan.checkBalance(2, 1_000);
+        ReconciliationReport report = scan.report(STARTED_AT, 5, true);
+
+        // Assert
+        assertEquals(ReconciliationReport.Status.DISCREPANCIES_FOUND, report.status());
+        assertEquals(2, report.balanceMismatches());
+        Discrepancy first = report.discrepancies().get(0);
+        assertEquals(Discrepancy.Type.BALANCE_MISMATCH, first.type());
+        assertEquals(0, new BigDecimal("100").compareTo(first.expected()));
+        assertEquals(0, new BigDecimal("90").compareTo(first.actual()));
+    }
+
+    @Test
+    void merge_ShouldPairLegsScannedInDifferentRanges() {
+        // Arrange
+        LedgerScan lower = new LedgerScan(10, 16);
+        lower.add(1, 1, -25_000, "tx-1-D", false, 0, 0);
+        LedgerScan upper = new LedgerScan(10, 16);
+        upper.add(2, 2, 25_000, "tx-1-C", false, 0, 0);
+        upper.add(3, 1, -5_000, "tx-2-D", false, 0, 0);
+
+        // Act
+        upper.merge(lower);
+        upper.checkBalance(1, -30_000);
+        upper.checkBalance(2, 25_000);
+        ReconciliationReport report = upper.report(STARTED_AT, 5, true);
+
+        // Assert
+        assertEquals(3, report.ledgerRows());
+        assertEquals(0, report.balanceMismatches());
+        assertEquals(1, report.unpairedEntries());
+        Discrepancy unpaired = report.discrepancies().get(0);
+        assertEquals(Discrepancy.Type.UNPAIRED_ENTRY, unpaired.type());
+        assertEquals("tx-2", unpaired.correlationId());
+        assertEquals(3L, unpaired.ledgerId());
+    }
+
+    @Test
+    void add_WhenLegsDisagreeOnTheAmount_ShouldReportAPairMismatch() {
+        // Arrange
+        LedgerScan scan = new LedgerScan(10, 16);
+
+        // Act
+        scan.add(1, 1, -25_000, "tx-1-D", false, 0, 0);
+        scan.add(2, 2, 24_000, "tx-1-C", false, 0, 0);
+        ReconciliationReport report = scan.report(STARTED_AT, 5, true);
+
+        // Assert
+        assertEquals(1, report.pairMismatches());
+        assertEquals(0, report.unpairedEntries());
+        Discrepancy mismatch = report.discrepancies().get(0);
+        assertEquals(Discrepancy.Type.PAIR_MISMATCH, mismatch.type());
+        assertEquals(2L, mismatch.accountId());
+        assertEquals(0, new BigDecimal("25").compareTo(mismatch.expected()));
+        assertEquals(0, new BigDecimal("24").compareTo(mismatch.actual()));
+    }
+
+    @Test
+    void add_ShouldPairCrossCurrencyLegsByTheirOriginalAndConvertedAmounts() {
+        // Arrange
+        LedgerScan scan = new LedgerScan(10, 16);
+
+        // Act: 10.00 sent, converted to 325.50 received
+        scan.add(1, 1, -10_000, "tx-1-D", true, 10_000, 325_500);
+        scan.add(2, 2, 325_500, "tx-1-C", true, 10_000, 325_500);
+        scan.add(3, 1, -10_000, "tx-2-D", true, 10_000, 325_500);
+        scan.add(4, 2, 300_000, "tx-2-C", true, 10_000, 325_500);
+        ReconciliationReport report = scan.report(STARTED_AT, 5, true);
+
+        // Assert
+        assertEquals(1, report.pairMismatches());
+        assertEquals(4L, report.discrepancies().get(0).ledgerId());
+    }
+
+    @Test
+    void merge_ShouldNetTheDebitsOfAFanOutAgainstItsCreditsAcrossRanges() {
+        // Arrange: two chunks of a payroll, the second paying a USD account
+        LedgerScan lower = new LedgerScan(10, 16);
+        lower.add(1, 1, -30_000, "payroll-1-0-FD", false, 0, 0);
+        lower.add(2, 2, 10_000, "payroll-1-0-FC", false, 0, 0);
+        lower.add(3, 3, 20_000, "payroll-1-1-FC", false, 0, 0);
+        LedgerScan upper = new LedgerScan(10, 16);
+        upper.add(4, 1, -10_000, "payroll-1-2-FD", false, 0, 0);
+        upper.add(5, 4, 325_500, "payroll-1-2-FC", true, 10_000, 325_500);
+        upper.add(6, 1, -5_000, "payroll-2-0-FD", false, 0, 0);
+        upper.add(7, 2, 4_000, "payroll-2-0-FC", false, 0, 0);
+
+        // Act
+        lower.merge(upper);
+        ReconciliationReport report = lower.report(STARTED_AT, 5, true);
+
+        // Assert
+        assertEquals(0, report.unpairedEntries());
+        assertEquals(1, report.pairMismatches());
+        Discrepancy mismatch = report.discrepancies().get(0);
+        assertEquals("payroll-2", mismatch.correlationId());
+        assertEquals(1L, mismatch.accountId());
+        assertEquals(0, new BigDecimal("5").compareTo(mismatch.expected()));
+        assertEquals(0, new BigDecimal("4").compareTo(mismatch.actual()));
+    }
+
+    @Test
+    void report_ShouldCountEveryDiscrepancyButListOnlyTheMaximum() {
+        // Arrange
+        LedgerScan scan = new LedgerScan(2, 16);
+        for (int i = 1; i <= 5; i++) {
+            scan.add(i, i, -1_000, "tx-" + i + "-D", false, 0, 0);
+        }
+
+        // Act
+        ReconciliationReport report = scan.report(STARTED_AT, 5, true);
+
+        // Assert
+        assertEquals(5, report.unpairedEntries());
+        assertEquals(2, report.discrepancies().size());
+        assertEquals(1L, report.discrepancies().get(0).ledgerId());
+    }
+}
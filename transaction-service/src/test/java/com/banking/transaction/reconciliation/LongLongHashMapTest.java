@@ -0,0 +1,72 @@
+package com.banking.transaction.reconciliation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongLongHashMapTest {
+
+    @Test
+    void addTo_ShouldAccumulatePerKey() {
+        LongLongHashMap map = new LongLongHashMap();
+
+        map.addTo(7, 100);
+        map.addTo(7, -30);
+        map.addTo(0, 5);
+        map.addTo(-1, 9);
+
+        assertEquals(70, map.get(7, -1));
+        assertEquals(5, map.get(0, -1));
+        assertEquals(9, map.get(-1, -1));
+        assertEquals(-1, map.get(8, -1));
+        assertTrue(map.containsKey(0));
+        assertFalse(map.containsKey(8));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    void addTo_ShouldKeepEveryEntryWhileGrowing() {
+        // Arrange
+        LongLongHashMap map = new LongLongHashMap(4);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // Act
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(20_000) + 1;
+            long delta = random.nextInt(1000) - 500;
+            map.addTo(key, delta);
+            expected.merge(key, delta, Long::sum);
+        }
+
+        // Assert
+        assertEquals(expected.size(), map.size());
+        Map<Long, Long> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void addAll_ShouldSumBothMaps() {
+        // Arrange
+        LongLongHashMap left = new LongLongHashMap();
+        left.addTo(1, 10);
+        left.addTo(2, 20);
+        LongLongHashMap right = new LongLongHashMap();
+        right.addTo(2, 5);
+        right.addTo(3, 7);
+
+        // Act
+        left.addAll(right);
+
+        // Assert
+        assertEquals(10, left.get(1, 0));
+        assertEquals(25, left.get(2, 0));
+        assertEquals(7, left.get(3, 0));
+        assertEquals(3, left.size());
+    }
+}
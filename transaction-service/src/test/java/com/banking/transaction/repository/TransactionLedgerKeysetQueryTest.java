@@ -0,0 +1,66 @@
+package com.banking.transaction.repository;
+
+import com.banking.transaction.dto.LedgerEntryResponse;
+import com.banking.transaction.entity.Account;
+import com.banking.transaction.entity.TransactionLedger;
+import com.banking.transaction.entity.TransactionType;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Walks an account's ledger page by page and checks that entries sharing a timestamp are neither skipped
+ * nor repeated across page boundaries.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class TransactionLedgerKeysetQueryTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionLedgerRepository transactionLedgerRepository;
+
+    @Test
+    void findEntriesBefore_ShouldVisitEveryEntryOnceNewestFirst() {
+        Account account = new Account();
+        account.setIban("TR000000000000000000000001");
+        account.setUserId(1L);
+        account.setCurrency("TRY");
+        account.setBalance(BigDecimal.ZERO);
+        entityManager.persist(account);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            // Three entries per timestamp so page boundaries fall between equal dates
+            TransactionLedger entry = TransactionLedger.builder().account(account).amount(BigDecimal.ONE)
+                    .transactionType(TransactionType.CREDIT).transactionDate(base.plusMinutes(i / 3))
+                    .correlationId("corr-" + i).build();
+            entityManager.persist(entry);
+            expected.add(0, entry.getId());
+        }
+        entityManager.flush();
+
+        List<Long> visited = new ArrayList<>();
+        List<LedgerEntryResponse> page = transactionLedgerRepository.findLatestEntries(account.getId(), base, Limit.of(4));
+        while (!page.isEmpty()) {
+            page.forEach(entry -> visited.add(entry.getId()));
+            LedgerEntryResponse last = page.get(page.size() - 1);
+            page = transactionLedgerRepository.findEntriesBefore(account.getId(), base, last.getTransactionDate(), last.getId(), Limit.of(4));
+        }
+
+        assertEquals(expected, visited);
+    }
+}
@@ -0,0 +1,146 @@
+package com.banking.transaction.repository;
+
+import com.banking.transaction.entity.Account;
+import com.banking.transaction.entity.Outbox;
+import com.banking.transaction.entity.TransactionLedger;
+import com.banking.transaction.entity.TransactionType;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Counts the write round trips of one transfer (two account updates, two ledger rows, one outbox row).
+ * Unbatched, as with the old IDENTITY ids, every statement is its own round trip; with sequence ids and
+ * JDBC batching each table is written with a single batch.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.id.optimizer.pooled.preferred=pooled-lo",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.order_updates=true",
+        "spring.jpa.show-sql=false"
+})
+@Import(TransferWriteRoundTripTest.RoundTripCounterConfig.class)
+class TransferWriteRoundTripTest {
+
+    private static final AtomicInteger WRITE_ROUND_TRIPS = new AtomicInteger();
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long fromId;
+    private Long toId;
+
+    @BeforeEach
+    void setUp() {
+        fromId = persistAccount("TR000000000000000000000001", "500.00");
+        toId = persistAccount("TR000000000000000000000002", "0.00");
+        // Reserve the first id block of every sequence so the measured transfer does not fetch one
+        transfer(new BigDecimal("1.00"));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void transferWrites_WithoutBatching_ShouldTakeOneRoundTripPerStatement() {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(1);
+
+        int roundTrips = measure(() -> transfer(new BigDecimal("10.00")));
+
+        assertEquals(5, roundTrips);
+    }
+
+    @Test
+    void transferWrites_WithSequenceIdsAndBatching_ShouldTakeOneRoundTripPerTable() {
+        int roundTrips = measure(() -> transfer(new BigDecimal("10.00")));
+
+        assertEquals(3, roundTrips);
+    }
+
+    private int measure(Runnable work) {
+        work.run();
+        WRITE_ROUND_TRIPS.set(0);
+        entityManager.flush();
+        return WRITE_ROUND_TRIPS.get();
+    }
+
+    private void transfer(BigDecimal amount) {
+        Account from = entityManager.find(Account.class, fromId);
+        Account to = entityManager.find(Account.class, toId);
+        from.setBalance(from.getBalance().subtract(amount));
+        to.setBalance(to.getBalance().add(amount));
+        LocalDateTime now = LocalDateTime.now();
+        String correlationId = "corr-" + System.nanoTime();
+        entityManager.persist(TransactionLedger.builder().account(from).amount(amount.negate())
+                .transactionType(TransactionType.DEBIT).transactionDate(now).correlationId(correlationId + "-D").build());
+        entityManager.persist(TransactionLedger.builder().account(to).amount(amount)
+                .transactionType(TransactionType.CREDIT).transactionDate(now).correlationId(correlationId + "-C").build());
+        entityManager.persist(Outbox.builder().topic("transaction-events").payload("{}").createdAt(now).sent(false).build());
+    }
+
+    private Long persistAccount(String iban, String balance) {
+        Account account = new Account();
+        account.setIban(iban);
+        account.setUserId(1L);
+        account.setCurrency("TRY");
+        account.setBalance(new BigDecimal(balance));
+        entityManager.persist(account);
+        return account.getId();
+    }
+
+    @TestConfiguration
+    static class RoundTripCounterConfig {
+
+        @Bean
+        static BeanPostProcessor roundTripCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource) : bean;
+                }
+            };
+        }
+
+        private static <T> T proxy(Class<T> type, T target) {
+            Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+                String name = method.getName();
+                if (target instanceof Statement && (name.equals("executeBatch") || name.equals("executeUpdate")
+                        || name.equals("executeLargeUpdate") || name.equals("executeLargeBatch"))) {
+                    WRITE_ROUND_TRIPS.incrementAndGet();
+                }
+                try {
+                    Object result = method.invoke(target, args);
+                    if (result instanceof Connection connection) {
+                        return proxy(Connection.class, connection);
+                    }
+                    if (result instanceof java.sql.PreparedStatement statement && !(result instanceof java.sql.CallableStatement)) {
+                        return proxy(java.sql.PreparedStatement.class, statement);
+                    }
+                    return result;
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+            return type.cast(proxy);
+        }
+    }
+}
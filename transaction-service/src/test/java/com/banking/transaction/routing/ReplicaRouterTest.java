@@ -0,0 +1,136 @@
+package com.banking.transaction.routing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReplicaRouterTest {
+
+    private final DataSource primaryDataSource = mock(DataSource.class);
+    private final JdbcTemplate primary = mock(JdbcTemplate.class);
+    private final JdbcTemplate replica = replica("replica");
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ReplicaRouter replicaRouter;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, JdbcTemplate> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", replica);
+        replicaRouter = new ReplicaRouter(() -> primary, meterRegistry, replicas, Duration.ofSeconds(5));
+        primaryAt("0/3000");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWritesFilter.requireLsn(null);
+    }
+
+    @Test
+    void select_WhenReplicaIsCaughtUp_ShouldRouteToReplica() {
+        // Arrange
+        replicaAt(replica, "0/3000", 0);
+        replicaRouter.checkReplicas();
+
+        // Act
+        DataSource selected = replicaRouter.select(primaryDataSource);
+
+        // Assert
+        assertSame(replica.getDataSource(), selected);
+        assertEquals(1, meterRegistry.get("transaction.datasource.routing").tag("target", "replica-0").counter().count());
+        assertEquals(0, meterRegistry.get("transaction.datasource.replica.lag").tag("replica", "replica-0").gauge().value());
+    }
+
+    @Test
+    void select_WhenReplicaLagsTooFar_ShouldFallBackToPrimary() {
+        // Arrange
+        replicaAt(replica, "0/1000", 12.5);
+        replicaRouter.checkReplicas();
+
+        // Act
+        DataSource selected = replicaRouter.select(primaryDataSource);
+
+        // Assert
+        assertSame(primaryDataSource, selected);
+        assertEquals(12.5, meterRegistry.get("transaction.datasource.replica.lag").tag("replica", "replica-0").gauge().value());
+        assertEquals(0x2000, meterRegistry.get("transaction.datasource.replica.lag.bytes").tag("replica", "replica-0").gauge().value());
+        assertEquals(1, meterRegistry.get("transaction.datasource.routing").tag("reason", "no_healthy_replica").counter().count());
+    }
+
+    @Test
+    void select_WhenReplicaHasNotReplayedSessionLsn_ShouldUsePrimary() {
+        // Arrange
+        replicaAt(replica, "0/2FFF", 0.2);
+        replicaRouter.checkReplicas();
+        ReadYourWritesFilter.requireLsn(ReplicaRouter.parseLsn("0/3000"));
+
+        // Act
+        DataSource selected = replicaRouter.select(primaryDataSource);
+
+        // Assert
+        assertSame(primaryDataSource, selected);
+        assertEquals(1, meterRegistry.get("transaction.datasource.routing").tag("reason", "replica_behind_session").counter().count());
+    }
+
+    @Test
+    void select_WhenReplicaStopsAnswering_ShouldFallBackToPrimary() {
+        // Arrange
+        replicaAt(replica, "0/3000", 0);
+        replicaRouter.checkReplicas();
+        doThrow(new DataAccessResourceFailureException("connection refused"))
+                .when(replica).query(anyString(), any(RowCallbackHandler.class));
+        replicaRouter.checkReplicas();
+
+        // Act
+        DataSource selected = replicaRouter.select(primaryDataSource);
+
+        // Assert
+        assertSame(primaryDataSource, selected);
+        assertEquals(0, meterRegistry.get("transaction.datasource.replica.reachable").tag("replica", "replica-0").gauge().value());
+    }
+
+    @Test
+    void parseLsn_ShouldOrderPositionsAcrossSegments() {
+        // Act & Assert
+        assertEquals(0x16_B374D848L, ReplicaRouter.parseLsn("16/B374D848"));
+        assertTrue(ReplicaRouter.parseLsn("1/0") > ReplicaRouter.parseLsn("0/FFFFFFFF"));
+        assertThrows(IllegalArgumentException.class, () -> ReplicaRouter.parseLsn("not-an-lsn"));
+    }
+
+    private void primaryAt(String lsn) {
+        when(primary.queryForObject(anyString(), eq(String.class))).thenReturn(lsn);
+    }
+
+    private static JdbcTemplate replica(String name) {
+        JdbcTemplate replica = mock(JdbcTemplate.class, name);
+        when(replica.getDataSource()).thenReturn(mock(DataSource.class));
+        return replica;
+    }
+
+    private static void replicaAt(JdbcTemplate replica, String lsn, double replayDelaySeconds) {
+        doAnswer(invocation -> {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getString(1)).thenReturn(lsn);
+            when(rs.getDouble(2)).thenReturn(replayDelaySeconds);
+            invocation.<RowCallbackHandler>getArgument(1).processRow(rs);
+            return null;
+        }).when(replica).query(anyString(), any(RowCallbackHandler.class));
+    }
+}
@@ -0,0 +1,69 @@
+package com.banking.transaction.scheduledtransfer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    // 10 ms ticks, 8 buckets, 3 levels: 80 ms, 640 ms and 5120 ms spans
+    private final HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 3, 1000);
+    private final List<String> fired = new ArrayList<>();
+
+    @Test
+    void advanceTo_ShouldFireItemsInDeadlineOrderAcrossLevels() {
+        // Arrange
+        wheel.add("far", 1000 + 3000);
+        wheel.add("near", 1000 + 30);
+        wheel.add("middle", 1000 + 500);
+
+        // Act
+        wheel.advanceTo(1000 + 5000, fired::add);
+
+        // Assert
+        assertEquals(List.of("near", "middle", "far"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advanceTo_ShouldNotFireAnItemBeforeItsDeadline() {
+        // Arrange
+        wheel.add("item", 1000 + 2345);
+
+        // Act
+        wheel.advanceTo(1000 + 2339, fired::add);
+        List<String> early = List.copyOf(fired);
+        wheel.advanceTo(1000 + 2350, fired::add);
+
+        // Assert
+        assertEquals(List.of(), early);
+        assertEquals(List.of("item"), fired);
+    }
+
+    @Test
+    void advanceTo_ShouldFireItemsAddedAfterCascadesOnTime() {
+        // Arrange
+        wheel.advanceTo(1000 + 700, fired::add);
+        wheel.add("late", 1000 + 700 + 90);
+
+        // Act
+        wheel.advanceTo(1000 + 780, fired::add);
+        List<String> early = List.copyOf(fired);
+        wheel.advanceTo(1000 + 790, fired::add);
+
+        // Assert
+        assertEquals(List.of(), early);
+        assertEquals(List.of("late"), fired);
+    }
+
+    @Test
+    void add_ShouldRefuseDueItemsAndRejectItemsBeyondTheHorizon() {
+        assertFalse(wheel.add("due", 1000));
+        assertEquals(5110, wheel.horizonMillis());
+        assertThrows(IllegalArgumentException.class, () -> wheel.add("beyond", 1000 + 5120));
+        assertEquals(0, wheel.size());
+    }
+}
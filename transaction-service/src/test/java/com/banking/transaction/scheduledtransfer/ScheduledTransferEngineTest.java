@@ -0,0 +1,158 @@
+package com.banking.transaction.scheduledtransfer;
+
+import com.banking.transaction.dto.TransactionRequest;
+import com.banking.transaction.dto.TransferResult;
+import com.banking.transaction.entity.ScheduledTransfer;
+import com.banking.transaction.entity.ScheduledTransferStatus;
+import com.banking.transaction.entity.TransferRecurrence;
+import com.banking.transaction.exception.InsufficientFundsException;
+import com.banking.transaction.exception.TransferConflictException;
+import com.banking.transaction.execution.TransferExecutionService;
+import com.banking.transaction.repository.ScheduledTransferRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScheduledTransferEngineTest {
+
+    private static final String FROM_IBAN = "TR000000000000000000000001";
+    private static final String TO_IBAN = "TR000000000000000000000002";
+
+    @Mock
+    private ScheduledTransferRepository scheduledTransferRepository;
+
+    @Mock
+    private TransferExecutionService transferExecutionService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ScheduledTransferEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        ScheduledTransferProperties properties = new ScheduledTransferProperties();
+        properties.setMaxAttempts(2);
+        engine = new ScheduledTransferEngine(scheduledTransferRepository, transferExecutionService, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.destroy();
+    }
+
+    @Test
+    void occurrence_ShouldCountMonthlyRunsFromTheFirstRun() {
+        LocalDateTime first = LocalDateTime.of(2026, 1, 31, 9, 0);
+
+        assertEquals(LocalDateTime.of(2026, 2, 28, 9, 0), TransferRecurrence.MONTHLY.occurrence(first, 1));
+        assertEquals(LocalDateTime.of(2026, 3, 31, 9, 0), TransferRecurrence.MONTHLY.occurrence(first, 2));
+        assertNull(TransferRecurrence.ONCE.occurrence(first, 1));
+    }
+
+    @Test
+    void execute_ShouldTransferWithTheRunsCorrelationIdAndMoveToTheNextRun() {
+        // Arrange
+        LocalDateTime runAt = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        ScheduledTransfer schedule = schedule(TransferRecurrence.MONTHLY, runAt, 0);
+        when(scheduledTransferRepository.findById(7L)).thenReturn(Optional.of(schedule));
+        when(transferExecutionService.execute(any(), eq("scheduled-7-" + runAt), eq(42L)))
+                .thenReturn(TransferResult.completed("scheduled-7-" + runAt, schedule.toRequest()));
+        when(scheduledTransferRepository.recordRun(any(), any(), any(), any(), any(), any())).thenReturn(1);
+
+        // Act
+        engine.execute(new ScheduledTransferEngine.DueRun(7L, runAt, 1));
+
+        // Assert
+        verify(transferExecutionService).execute(argThat((TransactionRequest request) ->
+                request.getFromIban().equals(FROM_IBAN) && request.getAmount().compareTo(new BigDecimal("250.00")) == 0),
+                eq("scheduled-7-" + runAt), eq(42L));
+        verify(scheduledTransferRepository).recordRun(7L, runAt, runAt.plusMonths(1), ScheduledTransferStatus.ACTIVE, "COMPLETED", null);
+        assertEquals(1, meterRegistry.get("transaction.scheduled.lag").tag("boundary", "hour").timer().count());
+        assertEquals(1.0, meterRegistry.get("transaction.scheduled.runs").tag("outcome", "completed").counter().count());
+    }
+
+    @Test
+    void execute_WhenTheRunWasAlreadyRecorded_ShouldNotTransfer() {
+        // Arrange
+        LocalDateTime runAt = LocalDateTime.now().minusMinutes(1);
+        when(scheduledTransferRepository.findById(7L))
+                .thenReturn(Optional.of(schedule(TransferRecurrence.DAILY, runAt, 1)));
+
+        // Act
+        engine.execute(new ScheduledTransferEngine.DueRun(7L, runAt, 1));
+
+        // Assert
+        verifyNoInteractions(transferExecutionService);
+        verify(scheduledTransferRepository, never()).recordRun(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void execute_WhenTheTransferIsRejected_ShouldRecordItAndCompleteAOneOffSchedule() {
+        // Arrange
+        LocalDateTime runAt = LocalDateTime.now().minusSeconds(1);
+        when(scheduledTransferRepository.findById(7L)).thenReturn(Optional.of(schedule(TransferRecurrence.ONCE, runAt, 0)));
+        when(transferExecutionService.execute(any(), any(), any())).thenThrow(new InsufficientFundsException("Insufficient balance"));
+
+        // Act
+        engine.execute(new ScheduledTransferEngine.DueRun(7L, runAt, 1));
+
+        // Assert
+        verify(scheduledTransferRepository).recordRun(7L, runAt, null, ScheduledTransferStatus.COMPLETED, "REJECTED", "Insufficient balance");
+    }
+
+    @Test
+    void execute_WhenConflictsOutlastTheAttempts_ShouldRetryThenRecordAFailure() {
+        // Arrange
+        LocalDateTime runAt = LocalDateTime.now().minusSeconds(1);
+        when(scheduledTransferRepository.findById(7L)).thenReturn(Optional.of(schedule(TransferRecurrence.WEEKLY, runAt.minusWeeks(3), 3)));
+        when(transferExecutionService.execute(any(), any(), any())).thenThrow(new TransferConflictException("Conflict", null));
+
+        // Act
+        engine.execute(new ScheduledTransferEngine.DueRun(7L, runAt, 1));
+        engine.execute(new ScheduledTransferEngine.DueRun(7L, runAt, 2, LocalDateTime.now()));
+
+        // Assert
+        verify(transferExecutionService, times(2)).execute(any(), eq("scheduled-7-" + runAt), eq(42L));
+        verify(scheduledTransferRepository).recordRun(7L, runAt, runAt.plusWeeks(1), ScheduledTransferStatus.ACTIVE, "FAILED", "Conflict");
+        assertEquals(1.0, meterRegistry.get("transaction.scheduled.runs").tag("outcome", "retried").counter().count());
+        assertEquals(1, meterRegistry.get("transaction.scheduled.lag").tag("boundary", "other").timer().count());
+    }
+
+    @Test
+    void constructor_ShouldRejectALoadWindowBeyondTheWheel() {
+        ScheduledTransferProperties properties = new ScheduledTransferProperties();
+        properties.setLoadAhead(Duration.ofDays(1));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new ScheduledTransferEngine(scheduledTransferRepository, transferExecutionService, properties, new SimpleMeterRegistry()));
+    }
+
+    private static ScheduledTransfer schedule(TransferRecurrence recurrence, LocalDateTime firstRunAt, long runCount) {
+        return ScheduledTransfer.builder()
+                .id(7L)
+                .userId(42L)
+                .fromIban(FROM_IBAN)
+                .toIban(TO_IBAN)
+                .amount(new BigDecimal("250.00"))
+                .recurrence(recurrence)
+                .firstRunAt(firstRunAt)
+                .nextRunAt(recurrence.occurrence(firstRunAt, runCount))
+                .runCount(runCount)
+                .status(ScheduledTransferStatus.ACTIVE)
+                .build();
+    }
+}
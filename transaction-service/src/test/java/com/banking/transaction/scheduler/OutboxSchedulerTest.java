@@ -2,9 +2,9 @@ package com.banking.transaction.scheduler;
 
 import com.banking.transaction.entity.Outbox;
 import com.banking.transaction.repository.OutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -25,9 +25,13 @@ class OutboxSchedulerTest {
     @Mock
     private KafkaTemplate<String, String> kafkaTemplate;
 
-    @InjectMocks
     private OutboxScheduler outboxScheduler;
 
+    @BeforeEach
+    void setUp() {
+        outboxScheduler = new OutboxScheduler(outboxRepository, kafkaTemplate, Runnable::run);
+    }
+
     @Test
     void processOutbox_WithUnsentMessages_ShouldSendToKafkaAndMarkAsSent() {
         // Arrange
@@ -45,6 +49,7 @@ class OutboxSchedulerTest {
 
         // Assert
         verify(kafkaTemplate).send("test-topic", "test-payload");
+        verify(outboxRepository).save(outbox);
         // Asenkron işlem olduğu için save metodunun çağrılmasını beklemek gerekebilir, 
         // ancak unit testte thenRun hemen çalışacağı için verify edebiliriz.
         // Not: CompletableFuture.thenRun mocklaması zor olabilir, bu yüzden basit verify yeterli.
@@ -1,14 +1,22 @@
 package com.banking.transaction.service;
 
+import com.banking.transaction.cache.AccountMetadataCache;
 import com.banking.transaction.dto.AccountCreateRequest;
 import com.banking.transaction.dto.DepositRequest;
 import com.banking.transaction.entity.Account;
+import com.banking.transaction.entity.AccountStatus;
+import com.banking.transaction.entity.TransactionLedger;
+import com.banking.transaction.exception.AccountNotActiveException;
 import com.banking.transaction.exception.AccountNotFoundException;
 import com.banking.transaction.repository.AccountRepository;
+import com.banking.transaction.repository.TransactionLedgerRepository;
+import com.banking.transaction.timing.StageTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
@@ -24,6 +32,15 @@ class AccountServiceImplTest {
     @Mock
     private AccountRepository accountRepository;
 
+    @Mock
+    private TransactionLedgerRepository transactionLedgerRepository;
+
+    @Mock
+    private AccountMetadataCache accountMetadataCache;
+
+    @Spy
+    private StageTimer stageTimer = new StageTimer(new SimpleMeterRegistry(), null, false);
+
     @InjectMocks
     private AccountServiceImpl accountService;
 
@@ -46,6 +63,7 @@ class AccountServiceImplTest {
         assertEquals(BigDecimal.ZERO, createdAccount.getBalance());
         assertNotNull(createdAccount.getIban());
         assertTrue(createdAccount.getIban().startsWith("TR"));
+        assertEquals(AccountStatus.ACTIVE, createdAccount.getStatus());
         verify(accountRepository).save(any(Account.class));
     }
 
@@ -73,6 +91,8 @@ class AccountServiceImplTest {
         assertEquals(initialBalance.add(depositAmount), updatedAccount.getBalance());
         verify(accountRepository).findByIban(iban);
         verify(accountRepository).save(account);
+        verify(transactionLedgerRepository).save(argThat((TransactionLedger entry) ->
+                entry.getAmount().equals(depositAmount) && entry.getBalanceAfter().equals(new BigDecimal("150.00"))));
     }
 
     @Test
@@ -89,4 +109,41 @@ class AccountServiceImplTest {
         verify(accountRepository).findByIban(iban);
         verify(accountRepository, never()).save(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void updateStatus_ShouldSaveStatusAndEvictCachedMetadata() {
+        // Arrange
+        String iban = "TR123456789012345678901234";
+        Account account = new Account();
+        account.setIban(iban);
+        account.setUserId(1L);
+        account.setStatus(AccountStatus.ACTIVE);
+
+        when(accountRepository.findByIban(iban)).thenReturn(Optional.of(account));
+        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Account updatedAccount = accountService.updateStatus(iban, AccountStatus.FROZEN, 1L);
+
+        // Assert
+        assertEquals(AccountStatus.FROZEN, updatedAccount.getStatus());
+        verify(accountMetadataCache).evict(iban);
+    }
+
+    @Test
+    void updateStatus_OfClosedAccount_ShouldNotReopenIt() {
+        // Arrange
+        String iban = "TR123456789012345678901234";
+        Account account = new Account();
+        account.setIban(iban);
+        account.setUserId(1L);
+        account.setStatus(AccountStatus.CLOSED);
+
+        when(accountRepository.findByIban(iban)).thenReturn(Optional.of(account));
+
+        // Act & Assert
+        assertThrows(AccountNotActiveException.class, () -> accountService.updateStatus(iban, AccountStatus.ACTIVE, 1L));
+        verify(accountRepository, never()).save(any());
+        verify(accountMetadataCache, never()).evict(any());
+    }
+}
@@ -0,0 +1,137 @@
+package com.banking.transaction.service;
+
+import com.banking.transaction.dto.BalanceResponse;
+import com.banking.transaction.entity.Account;
+import com.banking.transaction.entity.BalanceCheckpoint;
+import com.banking.transaction.entity.TransactionLedger;
+import com.banking.transaction.exception.UnauthorizedTransactionException;
+import com.banking.transaction.repository.AccountRepository;
+import com.banking.transaction.repository.BalanceCheckpointRepository;
+import com.banking.transaction.repository.TransactionLedgerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceServiceTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionLedgerRepository transactionLedgerRepository;
+
+    @Mock
+    private BalanceCheckpointRepository balanceCheckpointRepository;
+
+    @InjectMocks
+    private BalanceService balanceService;
+
+    private final LocalDateTime asOf = LocalDateTime.of(2024, 6, 30, 12, 0);
+    private final LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        account = new Account();
+        account.setId(7L);
+        account.setIban("TR111");
+        account.setUserId(1L);
+        account.setCurrency("TRY");
+        account.setBalance(new BigDecimal("900.00"));
+        account.setCreatedAt(createdAt);
+        when(accountRepository.findByIban("TR111")).thenReturn(Optional.of(account));
+    }
+
+    @Test
+    void getBalance_WhenLastEntryHasBalanceAfter_ShouldReturnItWithoutScanningLedger() {
+        // Arrange
+        TransactionLedger entry = TransactionLedger.builder().balanceAfter(new BigDecimal("420.00")).build();
+        when(transactionLedgerRepository.findFirstByAccountIdAndTransactionDateGreaterThanAndTransactionDateLessThanEqualOrderByTransactionDateDescIdDesc(7L, createdAt, asOf))
+                .thenReturn(Optional.of(entry));
+
+        // Act
+        BalanceResponse response = balanceService.getBalance("TR111", 1L, asOf);
+
+        // Assert
+        assertEquals(new BigDecimal("420.00"), response.getBalance());
+        verify(balanceCheckpointRepository, never()).findFirstByAccountIdAndAsOfGreaterThanOrderByAsOfAsc(any(), any());
+        verify(transactionLedgerRepository, never()).sumAmountBetween(any(), any(), any());
+    }
+
+    @Test
+    void getBalance_WithoutEntriesSinceCheckpoint_ShouldReturnCheckpointBalance() {
+        // Arrange
+        LocalDateTime checkpointTime = asOf.minusHours(1);
+        when(balanceCheckpointRepository.findFirstByAccountIdAndAsOfLessThanEqualOrderByAsOfDesc(7L, asOf))
+                .thenReturn(Optional.of(new BalanceCheckpoint(1L, 7L, checkpointTime, new BigDecimal("300.00"))));
+
+        // Act
+        BalanceResponse response = balanceService.getBalance("TR111", 1L, asOf);
+
+        // Assert
+        assertEquals(new BigDecimal("300.00"), response.getBalance());
+        verify(transactionLedgerRepository)
+                .findFirstByAccountIdAndTransactionDateGreaterThanAndTransactionDateLessThanEqualOrderByTransactionDateDescIdDesc(7L, checkpointTime, asOf);
+        verify(transactionLedgerRepository, never()).sumAmountBetween(any(), any(), any());
+    }
+
+    @Test
+    void getBalance_WithLegacyEntries_ShouldAddLedgerTailToNearestCheckpoint() {
+        // Arrange
+        LocalDateTime checkpointTime = asOf.minusHours(1);
+        when(transactionLedgerRepository.findFirstByAccountIdAndTransactionDateGreaterThanAndTransactionDateLessThanEqualOrderByTransactionDateDescIdDesc(7L, checkpointTime, asOf))
+                .thenReturn(Optional.of(TransactionLedger.builder().amount(new BigDecimal("-5.00")).build()));
+        when(balanceCheckpointRepository.findFirstByAccountIdAndAsOfLessThanEqualOrderByAsOfDesc(7L, asOf))
+                .thenReturn(Optional.of(new BalanceCheckpoint(1L, 7L, checkpointTime, new BigDecimal("300.00"))));
+        when(transactionLedgerRepository.sumAmountBetween(7L, checkpointTime, asOf)).thenReturn(new BigDecimal("-25.00"));
+
+        // Act
+        BalanceResponse response = balanceService.getBalance("TR111", 1L, asOf);
+
+        // Assert
+        assertEquals(new BigDecimal("275.00"), response.getBalance());
+    }
+
+    @Test
+    void getBalance_WithOnlyLaterCheckpoint_ShouldSubtractLedgerBackToAsOf() {
+        // Arrange
+        LocalDateTime checkpointTime = asOf.plusMinutes(30);
+        when(balanceCheckpointRepository.findFirstByAccountIdAndAsOfGreaterThanOrderByAsOfAsc(7L, asOf))
+                .thenReturn(Optional.of(new BalanceCheckpoint(1L, 7L, checkpointTime, new BigDecimal("300.00"))));
+        when(transactionLedgerRepository.sumAmountBetween(7L, asOf, checkpointTime)).thenReturn(new BigDecimal("100.00"));
+
+        // Act
+        BalanceResponse response = balanceService.getBalance("TR111", 1L, asOf);
+
+        // Assert
+        assertEquals(new BigDecimal("200.00"), response.getBalance());
+    }
+
+    @Test
+    void getBalance_WithoutAsOf_ShouldReturnCurrentBalance() {
+        // Act
+        BalanceResponse response = balanceService.getBalance("TR111", 1L, null);
+
+        // Assert
+        assertEquals(new BigDecimal("900.00"), response.getBalance());
+        verifyNoInteractions(transactionLedgerRepository, balanceCheckpointRepository);
+    }
+
+    @Test
+    void getBalance_ForAnotherUsersAccount_ShouldThrowUnauthorized() {
+        // Act & Assert
+        assertThrows(UnauthorizedTransactionException.class, () -> balanceService.getBalance("TR111", 2L, asOf));
+    }
+}
@@ -0,0 +1,261 @@
+package com.banking.transaction.service;
+
+import com.banking.transaction.cache.AccountMetadata;
+import com.banking.transaction.cache.AccountMetadataCache;
+import com.banking.transaction.dto.BatchItemResult;
+import com.banking.transaction.dto.BatchItemStatus;
+import com.banking.transaction.dto.TransactionRequest;
+import com.banking.transaction.dto.TransferResult;
+import com.banking.transaction.entity.Account;
+import com.banking.transaction.entity.Outbox;
+import com.banking.transaction.entity.TransactionLedger;
+import com.banking.transaction.exception.SuspectedFraudException;
+import com.banking.transaction.fraud.FraudScreening;
+import com.banking.transaction.fx.FxRateService;
+import com.banking.transaction.idempotency.IdempotencyService;
+import com.banking.transaction.idempotency.IdempotencyService.StoredOutcome;
+import com.banking.transaction.fraud.FraudScreeningService;
+import com.banking.transaction.limits.TransferLimitService;
+import com.banking.transaction.repository.AccountRepository;
+import com.banking.transaction.repository.FxRateRepository;
+import com.banking.transaction.repository.LedgerBatchRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchTransactionServiceTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private AccountMetadataCache accountMetadataCache;
+
+    @Mock
+    private LedgerBatchRepository ledgerBatchRepository;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private FxRateRepository fxRateRepository;
+
+    @Mock
+    private TransferLimitService transferLimitService;
+
+    @Mock
+    private FraudScreeningService fraudScreeningService;
+
+    private BatchTransactionService batchTransactionService;
+
+    private Account fromAccount;
+    private Account toAccount;
+
+    @BeforeEach
+    void setUp() {
+        batchTransactionService = new BatchTransactionService(accountRepository, accountMetadataCache, ledgerBatchRepository,
+                idempotencyService, transactionManager, new ObjectMapper(), new FxRateService(fxRateRepository, new SimpleMeterRegistry()),
+                transferLimitService, fraudScreeningService, LockingStrategy.OPTIMISTIC, 2);
+
+        fromAccount = new Account();
+        fromAccount.setId(1L);
+        fromAccount.setIban("TR111");
+        fromAccount.setUserId(1L);
+        fromAccount.setBalance(new BigDecimal("150.00"));
+
+        toAccount = new Account();
+        toAccount.setId(2L);
+        toAccount.setIban("TR222");
+        toAccount.setUserId(2L);
+        toAccount.setBalance(new BigDecimal("0.00"));
+    }
+
+    @Test
+    void executeBatch_ShouldReturnPerItemResultsAndBatchWrites() {
+        // Arrange
+        List<TransactionRequest> items = List.of(
+                request("TR111", "TR222", "100.00"),
+                request("TR111", "TR222", "100.00"),
+                request("TR111", "TR999", "10.00"));
+        when(idempotencyService.findCompletedOutcomes(anyCollection())).thenReturn(Map.of());
+        when(accountRepository.findAllByIbanIn(anyCollection())).thenReturn(List.of(fromAccount, toAccount));
+
+        // Act
+        List<BatchItemResult> results = batchTransactionService.executeBatch(items, "batch-1", 1L);
+
+        // Assert
+        assertEquals(BatchItemStatus.SUCCESS, results.get(0).getStatus());
+        assertEquals("batch-1-0", results.get(0).getCorrelationId());
+        assertEquals(BatchItemStatus.INSUFFICIENT_FUNDS, results.get(1).getStatus());
+        assertEquals(BatchItemStatus.ACCOUNT_NOT_FOUND, results.get(2).getStatus());
+        assertEquals(new BigDecimal("50.00"), fromAccount.getBalance());
+        assertEquals(new BigDecimal("100.00"), toAccount.getBalance());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TransactionLedger>> ledgerCaptor = ArgumentCaptor.forClass(List.class);
+        verify(ledgerBatchRepository, times(2)).insertLedgerEntries(ledgerCaptor.capture());
+        assertEquals(2, ledgerCaptor.getAllValues().get(0).size());
+        assertEquals("batch-1-0-D", ledgerCaptor.getAllValues().get(0).get(0).getCorrelationId());
+        assertTrue(ledgerCaptor.getAllValues().get(1).isEmpty());
+        verify(ledgerBatchRepository, times(2)).insertOutboxMessages(anyList());
+        verify(transactionManager, times(2)).commit(any());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, TransferResult>> recordedCaptor = ArgumentCaptor.forClass(Map.class);
+        verify(idempotencyService, times(2)).recordAll(recordedCaptor.capture(), eq(1L));
+        assertEquals(Set.of("batch-1-0"), recordedCaptor.getAllValues().get(0).keySet());
+        assertTrue(recordedCaptor.getAllValues().get(1).isEmpty());
+    }
+
+    @Test
+    void executeBatch_WithAlreadyProcessedItem_ShouldReportDuplicate() {
+        // Arrange
+        List<TransactionRequest> items = List.of(request("TR111", "TR222", "10.00"));
+        when(idempotencyService.findCompletedOutcomes(anyCollection())).thenReturn(Map.of("batch-1-0",
+                new StoredOutcome(1L, TransferResult.completed("batch-1-0", items.get(0)))));
+        when(accountRepository.findAllByIbanIn(anyCollection())).thenReturn(List.of(fromAccount, toAccount));
+
+        // Act
+        List<BatchItemResult> results = batchTransactionService.executeBatch(items, "batch-1", 1L);
+
+        // Assert
+        assertEquals(BatchItemStatus.DUPLICATE, results.get(0).getStatus());
+        assertEquals(new BigDecimal("150.00"), fromAccount.getBalance());
+    }
+
+    @Test
+    void executeBatch_WhenItemIdWasUsedForDifferentTransfer_ShouldReportConflictAndNotApplyIt() {
+        // Arrange
+        List<TransactionRequest> items = List.of(request("TR111", "TR222", "10.00"), request("TR111", "TR222", "20.00"));
+        when(idempotencyService.findCompletedOutcomes(anyCollection())).thenReturn(Map.of(
+                "batch-1-0", new StoredOutcome(1L, TransferResult.completed("batch-1-0", request("TR111", "TR222", "99.00"))),
+                "batch-1-1", new StoredOutcome(2L, TransferResult.completed("batch-1-1", items.get(1)))));
+        when(accountRepository.findAllByIbanIn(anyCollection())).thenReturn(List.of(fromAccount, toAccount));
+
+        // Act
+        List<BatchItemResult> results = batchTransactionService.executeBatch(items, "batch-1", 1L);
+
+        // Assert
+        assertEquals(BatchItemStatus.CORRELATION_ID_CONFLICT, results.get(0).getStatus());
+        assertEquals(BatchItemStatus.CORRELATION_ID_CONFLICT, results.get(1).getStatus());
+        assertEquals(new BigDecimal("150.00"), fromAccount.getBalance());
+        verify(idempotencyService).recordAll(Map.of(), 1L);
+    }
+
+    @Test
+    void executeBatch_WithForeignSourceAccount_ShouldReportUnauthorized() {
+        // Arrange
+        List<TransactionRequest> items = List.of(request("TR222", "TR111", "10.00"));
+        when(idempotencyService.findCompletedOutcomes(anyCollection())).thenReturn(Map.of());
+        when(accountRepository.findAllByIbanIn(anyCollection())).thenReturn(List.of(fromAccount, toAccount));
+
+        // Act
+        List<BatchItemResult> results = batchTransactionService.executeBatch(items, "batch-1", 1L);
+
+        // Assert
+        assertEquals(BatchItemStatus.UNAUTHORIZED, results.get(0).getStatus());
+    }
+
+    @Test
+    void executeBatch_WithUnconvertibleItems_ShouldReportThemAndApplyTheRest() {
+        // Arrange
+        toAccount.setCurrency("USD");
+        Account sameCurrency = new Account();
+        sameCurrency.setId(3L);
+        sameCurrency.setIban("TR333");
+        sameCurrency.setBalance(BigDecimal.ZERO);
+        List<TransactionRequest> items = List.of(
+                request("TR111", "TR222", "10.00"),
+                request("TR111", "TR333", "10.001"));
+        when(idempotencyService.findCompletedOutcomes(anyCollection())).thenReturn(Map.of());
+        when(accountRepository.findAllByIbanIn(anyCollection())).thenReturn(List.of(fromAccount, toAccount, sameCurrency));
+
+        // Act
+        List<BatchItemResult> results = batchTransactionService.executeBatch(items, "batch-1", 1L);
+
+        // Assert
+        assertEquals(BatchItemStatus.FX_RATE_NOT_FOUND, results.get(0).getStatus());
+        assertEquals(BatchItemStatus.INVALID_AMOUNT, results.get(1).getStatus());
+        assertEquals(new BigDecimal("150.00"), fromAccount.getBalance());
+    }
+
+    @Test
+    void executeBatch_WhenChunkFails_ShouldMarkChunkItemsFailedAndContinue() {
+        // Arrange
+        List<TransactionRequest> items = List.of(
+                request("TR111", "TR222", "10.00"),
+                request("TR111", "TR222", "10.00"),
+                request("TR111", "TR222", "10.00"));
+        when(idempotencyService.findCompletedOutcomes(anyCollection())).thenReturn(Map.of());
+        when(accountRepository.findAllByIbanIn(anyCollection())).thenReturn(List.of(fromAccount, toAccount));
+        doThrow(new OptimisticLockingFailureException("conflict")).doNothing().when(accountRepository).flush();
+
+        // Act
+        List<BatchItemResult> results = batchTransactionService.executeBatch(items, "batch-1", 1L);
+
+        // Assert
+        assertEquals(BatchItemStatus.FAILED, results.get(0).getStatus());
+        assertEquals(BatchItemStatus.FAILED, results.get(1).getStatus());
+        assertEquals(BatchItemStatus.SUCCESS, results.get(2).getStatus());
+        verify(transactionManager).rollback(any());
+        verify(ledgerBatchRepository, times(1)).insertOutboxMessages(argThat((List<Outbox> messages) -> messages.size() == 1));
+    }
+
+    @Test
+    void executeBatch_ShouldScreenItemsBeforeReadingTheirAccounts() {
+        // Arrange
+        List<TransactionRequest> items = List.of(
+                request("TR111", "TR222", "10.00"),
+                request("TR111", "TR222", "20.00"));
+        when(idempotencyService.findCompletedOutcomes(anyCollection())).thenReturn(Map.of());
+        when(accountMetadataCache.findByIban("TR111")).thenReturn(Optional.of(AccountMetadata.from(fromAccount)));
+        FraudScreening passed = new FraudScreening(1L, "TR222", 1000);
+        when(fraudScreeningService.screen(eq(1L), eq("TR222"), any())).thenReturn(passed)
+                .thenThrow(new SuspectedFraudException("Transfer was refused"));
+        when(accountRepository.findAllByIbanIn(anyCollection())).thenReturn(List.of(fromAccount, toAccount));
+
+        // Act
+        List<BatchItemResult> results = batchTransactionService.executeBatch(items, "batch-1", 1L);
+
+        // Assert
+        assertEquals(BatchItemStatus.SUCCESS, results.get(0).getStatus());
+        assertEquals(BatchItemStatus.SUSPECTED_FRAUD, results.get(1).getStatus());
+        assertEquals(new BigDecimal("140.00"), fromAccount.getBalance());
+        InOrder inOrder = inOrder(fraudScreeningService, accountRepository);
+        inOrder.verify(fraudScreeningService, times(2)).screen(eq(1L), eq("TR222"), any());
+        inOrder.verify(accountRepository).findAllByIbanIn(anyCollection());
+        verify(fraudScreeningService).recordAfterCommit(passed);
+    }
+
+    private static TransactionRequest request(String fromIban, String toIban, String amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setFromIban(fromIban);
+        request.setToIban(toIban);
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+}
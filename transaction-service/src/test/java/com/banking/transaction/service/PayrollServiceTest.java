@@ -0,0 +1,261 @@
+package com.banking.transaction.service;
+
+import com.banking.transaction.cache.AccountMetadata;
+import com.banking.transaction.cache.AccountMetadataCache;
+import com.banking.transaction.dto.BatchItemStatus;
+import com.banking.transaction.dto.PayrollLine;
+import com.banking.transaction.dto.PayrollRequest;
+import com.banking.transaction.dto.PayrollResponse;
+import com.banking.transaction.entity.Account;
+import com.banking.transaction.entity.Outbox;
+import com.banking.transaction.entity.TransactionLedger;
+import com.banking.transaction.entity.TransactionType;
+import com.banking.transaction.exception.SuspectedFraudException;
+import com.banking.transaction.exception.TransferLimitExceededException;
+import com.banking.transaction.exception.UnauthorizedTransactionException;
+import com.banking.transaction.fraud.FraudScreening;
+import com.banking.transaction.fraud.FraudScreeningService;
+import com.banking.transaction.fx.FxRateService;
+import com.banking.transaction.idempotency.IdempotencyService;
+import com.banking.transaction.limits.TransferLimitService;
+import com.banking.transaction.repository.PayrollRepository;
+import com.banking.transaction.repository.FxRateRepository;
+import com.banking.transaction.repository.LedgerBatchRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PayrollServiceTest {
+
+    @Mock
+    private PayrollRepository payrollRepository;
+
+    @Mock
+    private AccountMetadataCache accountMetadataCache;
+
+    @Mock
+    private LedgerBatchRepository ledgerBatchRepository;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private FxRateRepository fxRateRepository;
+
+    @Mock
+    private TransferLimitService transferLimitService;
+
+    @Mock
+    private FraudScreeningService fraudScreeningService;
+
+    private PayrollService payrollService;
+
+    private Account employer;
+
+    @BeforeEach
+    void setUp() {
+        payrollService = new PayrollService(payrollRepository, accountMetadataCache, ledgerBatchRepository, idempotencyService,
+                transactionManager, new ObjectMapper(), new FxRateService(fxRateRepository, new SimpleMeterRegistry()),
+                transferLimitService, fraudScreeningService, 2);
+        employer = account(1L, "TR111", 1L, "1000.00");
+        when(accountMetadataCache.findByIban("TR111")).thenReturn(Optional.of(AccountMetadata.from(employer)));
+    }
+
+    @Test
+    void execute_ShouldDebitTheSourceOncePerChunkAndCreditEveryBeneficiary() {
+        // Arrange
+        Account first = account(2L, "TR222", 2L, "0.00");
+        Account second = account(3L, "TR333", 3L, "50.00");
+        when(idempotencyService.findCompletedCorrelationIds(anyCollection())).thenReturn(Set.of());
+        when(payrollRepository.lockAccounts(anyCollection())).thenReturn(List.of(employer, first, second));
+
+        // Act
+        PayrollResponse response = payrollService.execute(
+                payroll(line("TR222", "100.00"), line("TR333", "200.00"), line("TR444", "300.00")), "payroll-1", 1L);
+
+        // Assert
+        assertEquals(2, response.getSucceeded());
+        assertEquals(1, response.getFailed());
+        assertEquals(0, new BigDecimal("300.00").compareTo(response.getTotalDebited()));
+        assertEquals(1, response.getUnpaidLines().size());
+        assertEquals(BatchItemStatus.ACCOUNT_NOT_FOUND, response.getUnpaidLines().get(0).getStatus());
+        assertEquals("payroll-1-2", response.getUnpaidLines().get(0).getCorrelationId());
+        assertEquals(new BigDecimal("700.00"), employer.getBalance());
+        assertEquals(new BigDecimal("100.00"), first.getBalance());
+        assertEquals(new BigDecimal("250.00"), second.getBalance());
+        verify(payrollRepository).updateBalances(List.of(employer, first, second));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TransactionLedger>> ledgerCaptor = ArgumentCaptor.forClass(List.class);
+        verify(ledgerBatchRepository, times(2)).insertLedgerEntries(ledgerCaptor.capture());
+        List<TransactionLedger> entries = ledgerCaptor.getAllValues().get(0);
+        assertEquals(3, entries.size());
+        assertEquals(TransactionType.DEBIT, entries.get(0).getTransactionType());
+        assertEquals("payroll-1-0-FD", entries.get(0).getCorrelationId());
+        assertEquals(new BigDecimal("-300.00"), entries.get(0).getAmount());
+        assertEquals("payroll-1-0-FC", entries.get(1).getCorrelationId());
+        assertEquals("payroll-1-1-FC", entries.get(2).getCorrelationId());
+        assertTrue(ledgerCaptor.getAllValues().get(1).isEmpty());
+        verify(transferLimitService).record(any(), eq(1L), argThat(amount -> amount.toBigDecimal().compareTo(new BigDecimal("300.00")) == 0));
+        verify(ledgerBatchRepository).insertOutboxMessages(argThat((List<Outbox> messages) ->
+                messages.size() == 1 && messages.get(0).getTopic().equals("payroll-events")));
+    }
+
+    @Test
+    void execute_WhenFundsRunOut_ShouldStillPayTheSmallerLinesAfterwards() {
+        // Arrange
+        Account beneficiary = account(2L, "TR222", 2L, "0.00");
+        when(idempotencyService.findCompletedCorrelationIds(anyCollection())).thenReturn(Set.of());
+        when(payrollRepository.lockAccounts(anyCollection())).thenReturn(List.of(employer, beneficiary));
+
+        // Act
+        PayrollResponse response = payrollService.execute(
+                payroll(line("TR222", "1500.00"), line("TR222", "600.00")), "payroll-1", 1L);
+
+        // Assert
+        assertEquals(1, response.getSucceeded());
+        assertEquals(BatchItemStatus.INSUFFICIENT_FUNDS, response.getUnpaidLines().get(0).getStatus());
+        assertEquals(new BigDecimal("400.00"), employer.getBalance());
+        assertEquals(new BigDecimal("600.00"), beneficiary.getBalance());
+    }
+
+    @Test
+    void execute_WhenAChunkExceedsTheLimits_ShouldPayNoneOfItsLines() {
+        // Arrange
+        Account beneficiary = account(2L, "TR222", 2L, "0.00");
+        when(idempotencyService.findCompletedCorrelationIds(anyCollection())).thenReturn(Set.of());
+        when(payrollRepository.lockAccounts(anyCollection())).thenReturn(List.of(employer, beneficiary));
+        doThrow(new TransferLimitExceededException("Daily limit of the user exceeded."))
+                .when(transferLimitService).record(any(), any(), any());
+
+        // Act
+        PayrollResponse response = payrollService.execute(
+                payroll(line("TR222", "100.00"), line("TR222", "100.00")), "payroll-1", 1L);
+
+        // Assert
+        assertEquals(0, response.getSucceeded());
+        assertEquals(2, response.getFailed());
+        assertEquals(BatchItemStatus.LIMIT_EXCEEDED, response.getUnpaidLines().get(1).getStatus());
+        assertEquals(new BigDecimal("1000.00"), employer.getBalance());
+        verify(ledgerBatchRepository, never()).insertLedgerEntries(any());
+        verify(ledgerBatchRepository, never()).insertOutboxMessages(any());
+    }
+
+    @Test
+    void execute_WithAlreadyPaidLines_ShouldReportThemAsDuplicates() {
+        // Arrange
+        Account beneficiary = account(2L, "TR222", 2L, "0.00");
+        when(idempotencyService.findCompletedCorrelationIds(anyCollection())).thenReturn(Set.of("payroll-1-0"));
+        when(payrollRepository.lockAccounts(anyCollection())).thenReturn(List.of(employer, beneficiary));
+
+        // Act
+        PayrollResponse response = payrollService.execute(
+                payroll(line("TR222", "100.00"), line("TR222", "100.00")), "payroll-1", 1L);
+
+        // Assert
+        assertEquals(1, response.getSucceeded());
+        assertEquals(1, response.getDuplicates());
+        assertEquals(0, response.getFailed());
+        assertEquals(new BigDecimal("900.00"), employer.getBalance());
+        // The first run's debit of the chunk was payroll-1-0-FD
+        verify(ledgerBatchRepository).insertLedgerEntries(argThat((List<TransactionLedger> entries) ->
+                entries.get(0).getCorrelationId().equals("payroll-1-1-FD")));
+    }
+
+    @Test
+    void execute_WhenTheSourcePaysItself_ShouldRecordItsBalancesInTheOrderOfItsEntries() {
+        // Arrange
+        Account beneficiary = account(2L, "TR222", 2L, "0.00");
+        when(idempotencyService.findCompletedCorrelationIds(anyCollection())).thenReturn(Set.of());
+        when(payrollRepository.lockAccounts(anyCollection())).thenReturn(List.of(employer, beneficiary));
+
+        // Act
+        PayrollResponse response = payrollService.execute(
+                payroll(line("TR111", "100.00"), line("TR222", "200.00")), "payroll-1", 1L);
+
+        // Assert
+        assertEquals(2, response.getSucceeded());
+        assertEquals(new BigDecimal("800.00"), employer.getBalance());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TransactionLedger>> ledgerCaptor = ArgumentCaptor.forClass(List.class);
+        verify(ledgerBatchRepository).insertLedgerEntries(ledgerCaptor.capture());
+        List<TransactionLedger> entries = ledgerCaptor.getValue();
+        assertEquals("payroll-1-0-FD", entries.get(0).getCorrelationId());
+        assertEquals(new BigDecimal("700.00"), entries.get(0).getBalanceAfter());
+        assertEquals("payroll-1-0-FC", entries.get(1).getCorrelationId());
+        assertEquals(new BigDecimal("800.00"), entries.get(1).getBalanceAfter());
+    }
+
+    @Test
+    void execute_ShouldScreenLinesBeforeLockingTheAccounts() {
+        // Arrange
+        Account beneficiary = account(2L, "TR222", 2L, "0.00");
+        FraudScreening passed = new FraudScreening(1L, "TR222", 10000);
+        when(idempotencyService.findCompletedCorrelationIds(anyCollection())).thenReturn(Set.of());
+        when(fraudScreeningService.screen(eq(1L), eq("TR222"), any())).thenReturn(passed)
+                .thenThrow(new SuspectedFraudException("Transfer was refused"));
+        when(payrollRepository.lockAccounts(anyCollection())).thenReturn(List.of(employer, beneficiary));
+
+        // Act
+        PayrollResponse response = payrollService.execute(
+                payroll(line("TR222", "100.00"), line("TR222", "200.00")), "payroll-1", 1L);
+
+        // Assert
+        assertEquals(1, response.getSucceeded());
+        assertEquals(BatchItemStatus.SUSPECTED_FRAUD, response.getUnpaidLines().get(0).getStatus());
+        assertEquals(new BigDecimal("900.00"), employer.getBalance());
+        InOrder inOrder = inOrder(fraudScreeningService, payrollRepository);
+        inOrder.verify(fraudScreeningService, times(2)).screen(eq(1L), eq("TR222"), any());
+        inOrder.verify(payrollRepository).lockAccounts(anyCollection());
+        verify(fraudScreeningService).recordAfterCommit(passed);
+    }
+
+    @Test
+    void execute_WithForeignSourceAccount_ShouldThrowUnauthorized() {
+        assertThrows(UnauthorizedTransactionException.class,
+                () -> payrollService.execute(payroll(line("TR222", "100.00")), "payroll-1", 2L));
+        verifyNoInteractions(payrollRepository);
+    }
+
+    private static Account account(Long id, String iban, Long userId, String balance) {
+        Account account = new Account();
+        account.setId(id);
+        account.setIban(iban);
+        account.setUserId(userId);
+        account.setBalance(new BigDecimal(balance));
+        return account;
+    }
+
+    private static PayrollLine line(String toIban, String amount) {
+        return new PayrollLine(toIban, new BigDecimal(amount));
+    }
+
+    private static PayrollRequest payroll(PayrollLine... lines) {
+        PayrollRequest request = new PayrollRequest();
+        request.setFromIban("TR111");
+        request.setLines(List.of(lines));
+        return request;
+    }
+}
@@ -0,0 +1,106 @@
+package com.banking.transaction.service;
+
+import com.banking.common.response.CursorPageResponse;
+import com.banking.transaction.cache.AccountMetadata;
+import com.banking.transaction.cache.AccountMetadataCache;
+import com.banking.transaction.dto.LedgerEntryResponse;
+import com.banking.transaction.entity.Account;
+import com.banking.transaction.entity.TransactionType;
+import com.banking.transaction.exception.InvalidCursorException;
+import com.banking.transaction.repository.TransactionLedgerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionHistoryServiceTest {
+
+    @Mock
+    private AccountMetadataCache accountMetadataCache;
+
+    @Mock
+    private TransactionLedgerRepository transactionLedgerRepository;
+
+    private TransactionHistoryService transactionHistoryService;
+
+    private final LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @BeforeEach
+    void setUp() {
+        transactionHistoryService = new TransactionHistoryService(accountMetadataCache, transactionLedgerRepository, 2, Duration.ofDays(36_500));
+        Account account = new Account();
+        account.setId(7L);
+        account.setIban("TR111");
+        account.setUserId(1L);
+        account.setCreatedAt(createdAt);
+        when(accountMetadataCache.findByIban("TR111")).thenReturn(Optional.of(AccountMetadata.from(account)));
+    }
+
+    @Test
+    void getTransactions_ShouldResumeFromCursorOfPreviousPage() {
+        // Arrange
+        LedgerEntryResponse first = entry(3L, LocalDateTime.of(2024, 1, 3, 10, 0, 0, 123_456_000));
+        LedgerEntryResponse second = entry(2L, LocalDateTime.of(2024, 1, 2, 10, 0));
+        LedgerEntryResponse third = entry(1L, LocalDateTime.of(2024, 1, 1, 10, 0));
+        when(transactionLedgerRepository.findLatestEntries(7L, createdAt, Limit.of(3))).thenReturn(List.of(first, second, third));
+        when(transactionLedgerRepository.findEntriesBefore(7L, createdAt, second.getTransactionDate(), 2L, Limit.of(3))).thenReturn(List.of(third));
+
+        // Act
+        CursorPageResponse<LedgerEntryResponse> page1 = transactionHistoryService.getTransactions("TR111", 1L, null, 10);
+        CursorPageResponse<LedgerEntryResponse> page2 = transactionHistoryService.getTransactions("TR111", 1L, page1.getNextCursor(), 10);
+
+        // Assert
+        assertEquals(List.of(first, second), page1.getContent());
+        assertTrue(page1.isHasNext());
+        assertEquals(List.of(third), page2.getContent());
+        assertFalse(page2.isHasNext());
+    }
+
+    @Test
+    void getTransactions_WhenWindowIsNotEnough_ShouldWidenItUntilThePageIsFull() {
+        // Arrange
+        transactionHistoryService = new TransactionHistoryService(accountMetadataCache, transactionLedgerRepository, 2, Duration.ofDays(7));
+        LocalDateTime cursorDate = LocalDateTime.of(2024, 3, 1, 0, 0);
+        LedgerEntryResponse newest = entry(4L, LocalDateTime.of(2024, 2, 28, 0, 0));
+        LedgerEntryResponse older = entry(3L, LocalDateTime.of(2024, 2, 1, 0, 0));
+        LedgerEntryResponse oldest = entry(2L, LocalDateTime.of(2024, 1, 20, 0, 0));
+        when(transactionLedgerRepository.findEntriesBefore(7L, cursorDate.minusDays(7), cursorDate, 5L, Limit.of(3)))
+                .thenReturn(List.of(newest));
+        when(transactionLedgerRepository.findEntriesBefore(7L, cursorDate.minusDays(21), cursorDate.minusDays(7), Long.MIN_VALUE, Limit.of(2)))
+                .thenReturn(List.of());
+        when(transactionLedgerRepository.findEntriesBefore(7L, cursorDate.minusDays(49), cursorDate.minusDays(21), Long.MIN_VALUE, Limit.of(2)))
+                .thenReturn(List.of(older, oldest));
+
+        // Act
+        CursorPageResponse<LedgerEntryResponse> page = transactionHistoryService.getTransactions("TR111", 1L,
+                TransactionHistoryService.encode(entry(5L, cursorDate)), 10);
+
+        // Assert
+        assertEquals(List.of(newest, older), page.getContent());
+        assertTrue(page.isHasNext());
+        verify(transactionLedgerRepository, times(3)).findEntriesBefore(eq(7L), any(), any(), any(), any());
+    }
+
+    @Test
+    void getTransactions_WithMalformedCursor_ShouldThrowInvalidCursorException() {
+        // Act & Assert
+        assertThrows(InvalidCursorException.class, () -> transactionHistoryService.getTransactions("TR111", 1L, "not-a-cursor", 10));
+        verifyNoInteractions(transactionLedgerRepository);
+    }
+
+    private static LedgerEntryResponse entry(Long id, LocalDateTime date) {
+        return new LedgerEntryResponse(id, "corr-" + id + "-D", TransactionType.DEBIT, new BigDecimal("-1.00"), null, date);
+    }
+}
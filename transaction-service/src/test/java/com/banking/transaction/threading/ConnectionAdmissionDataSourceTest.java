@@ -0,0 +1,77 @@
+package com.banking.transaction.threading;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConnectionAdmissionDataSourceTest {
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ConnectionAdmissionDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new ConnectionAdmissionDataSource(target, 1, Duration.ofMillis(50), meterRegistry);
+    }
+
+    @Test
+    void getConnection_WhenAllPermitsHeld_ShouldFailAfterTimeout() throws SQLException {
+        // Arrange
+        when(target.getConnection()).thenReturn(connection);
+        dataSource.getConnection();
+
+        // Act & Assert
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertEquals(1.0, meterRegistry.get("transaction.datasource.admission.rejected").counter().count());
+        verify(target, times(1)).getConnection();
+    }
+
+    @Test
+    void close_CalledTwice_ShouldReleaseSinglePermit() throws SQLException {
+        // Arrange
+        when(target.getConnection()).thenReturn(connection);
+        Connection first = dataSource.getConnection();
+
+        // Act
+        first.close();
+        first.close();
+        Connection second = dataSource.getConnection();
+
+        // Assert
+        assertNotNull(second);
+        assertEquals(1.0, meterRegistry.get("transaction.datasource.admission.in-use").gauge().value());
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    void getConnection_WhenTargetFails_ShouldReleasePermit() throws SQLException {
+        // Arrange
+        when(target.getConnection()).thenThrow(new SQLException("down")).thenReturn(connection);
+
+        // Act
+        assertThrows(SQLException.class, dataSource::getConnection);
+        Connection connection = dataSource.getConnection();
+
+        // Assert
+        assertNotNull(connection);
+    }
+}
@@ -0,0 +1,114 @@
+package com.banking.transaction.timing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StageTimerTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        StageTimings.unbind();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void stop_WhenEnabled_ShouldRecordIntoTheStageTimer() {
+        // Arrange
+        StageTimer stageTimer = new StageTimer(meterRegistry, null, true);
+
+        // Act
+        stageTimer.stop(Stage.TRANSFER_LIMITS, stageTimer.start());
+
+        // Assert
+        assertEquals(1, timer(Stage.TRANSFER_LIMITS).count());
+        assertEquals(0, timer(Stage.TRANSFER_PRECHECK).count());
+    }
+
+    @Test
+    void stop_WhenDisabled_ShouldRegisterAndRecordNothing() {
+        // Arrange
+        StageTimer stageTimer = new StageTimer(meterRegistry, null, false);
+        StageTimings timings = StageTimings.bind();
+
+        // Act
+        stageTimer.stop(Stage.TRANSFER_LIMITS, stageTimer.start());
+        stageTimer.timeCommit(Stage.TRANSFER_COMMIT);
+
+        // Assert
+        assertTrue(meterRegistry.find("transaction.stage").timers().isEmpty());
+        assertEquals(0L, stageTimer.start());
+        assertTrue(timings.toHeaderValue().startsWith("total;dur="));
+    }
+
+    @Test
+    void stop_WhenTimingsAreBound_ShouldAddStagesToTheHeaderInOrder() {
+        // Arrange
+        StageTimer stageTimer = new StageTimer(meterRegistry, null, true);
+        StageTimings timings = StageTimings.bind();
+
+        // Act
+        stageTimer.stop(Stage.TRANSFER_LEDGER_INSERT, stageTimer.start() - TimeUnit.MILLISECONDS.toNanos(2));
+        stageTimer.stop(Stage.TRANSFER_IDEMPOTENCY_CHECK, stageTimer.start());
+
+        // Assert
+        String header = timings.toHeaderValue();
+        assertTrue(header.matches("idempotency-check;dur=\\d+\\.\\d{3}, ledger-insert;dur=2\\.\\d{3}, total;dur=\\d+\\.\\d{3}"),
+                header);
+    }
+
+    @Test
+    void propagate_ShouldRecordOnAnotherThreadIntoTheCallersTimings() throws Exception {
+        // Arrange
+        StageTimer stageTimer = new StageTimer(meterRegistry, null, true);
+        StageTimings timings = StageTimings.bind();
+
+        // Act
+        CompletableFuture.supplyAsync(StageTimings.propagate(() -> {
+            stageTimer.stop(Stage.DEPOSIT_BALANCE_UPDATE, stageTimer.start());
+            return null;
+        })).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertTrue(timings.toHeaderValue().startsWith("balance-update;dur="));
+    }
+
+    @Test
+    void timeCommit_ShouldRecordOnlyTransactionsThatCommit() {
+        // Arrange
+        StageTimer stageTimer = new StageTimer(meterRegistry, null, true);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        stageTimer.timeCommit(Stage.DEPOSIT_COMMIT);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        stageTimer.timeCommit(Stage.TRANSFER_COMMIT);
+
+        // Assert
+        assertEquals(1, timer(Stage.DEPOSIT_COMMIT).count());
+        assertEquals(0, timer(Stage.TRANSFER_COMMIT).count());
+    }
+
+    private Timer timer(Stage stage) {
+        return meterRegistry.get("transaction.stage")
+                .tag("operation", stage.operation())
+                .tag("stage", stage.stageName())
+                .timer();
+    }
+}